@@ -0,0 +1,475 @@
+package com.translator.cache;
+
+import com.translator.config.TranslatorConfig;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Finds a previously translated text that is nearly identical to a new one.
+ *
+ * Texts are canonicalized (lowercase, letters and digits only, single
+ * spaces) and cut into overlapping character shingles. Each text is
+ * summarized by a MinHash signature: for every one of 64 hash functions,
+ * the smallest hash over its shingles. The share of positions where two
+ * signatures agree estimates the Jaccard similarity of their shingle sets.
+ *
+ * Signatures are indexed by locality-sensitive hashing: the signature is
+ * split into bands, each band is hashed to a bucket, and only entries
+ * sharing a bucket with the query are compared. The band layout is chosen
+ * from the threshold so that pairs above it are almost always candidates.
+ *
+ * Everything lives in flat primitive arrays sized for maxEntries and
+ * allocated on the first insert. When full, the clock hand replaces the
+ * first entry not matched since it last passed (second chance).
+ * Texts whose numbers differ never match: "10 items" and "100 items" are
+ * close as strings but not in meaning.
+ */
+public class NearDuplicateIndex {
+    
+    private static final int NUM_HASHES = 64;
+    private static final int SHINGLE_SIZE = 5;
+    
+    // (bands, rows) layouts of a 64-value signature, by decreasing LSH threshold
+    private static final int[][] LAYOUTS = {{4, 16}, {8, 8}, {16, 4}, {32, 2}};
+    
+    // Best-candidate similarity is recorded in buckets of 0.05 from 0.5 up
+    private static final double HISTOGRAM_MIN = 0.5;
+    private static final int HISTOGRAM_BUCKETS = 10;
+    
+    private final int maxEntries;
+    private final double threshold;
+    private final int minLength;
+    private final int bands;
+    private final int rows;
+    private final int tableMask;
+    private final long[] multipliers = new long[NUM_HASHES];
+    private final long[] addends = new long[NUM_HASHES];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Per entry: NUM_HASHES signature values, bands band keys and chain links
+    private int[] signatures;
+    private int[] bandKeys;
+    private int[] next;
+    // Per band: tableMask + 1 bucket heads, holding slot + 1 (0 is empty)
+    private int[] heads;
+    private long[] keyHashes;
+    private long[] numberHashes;
+    private int[] shingleCounts;
+    private String[] values;
+    private byte[] referenced;
+    private int hand;
+    private int size;
+    
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder[] similarityHistogram = new LongAdder[HISTOGRAM_BUCKETS];
+    
+    /**
+     * @param maxEntries number of texts kept
+     * @param threshold minimum estimated Jaccard similarity (0..1] for a match
+     * @param minLength canonical texts shorter than this are neither indexed nor looked up,
+     *                  since a small edit to a short text often changes its meaning
+     */
+    public NearDuplicateIndex(int maxEntries, double threshold, int minLength) {
+        if (maxEntries <= 0 || maxEntries > Integer.MAX_VALUE / NUM_HASHES || threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("maxEntries out of range or threshold not in (0, 1]");
+        }
+        this.maxEntries = maxEntries;
+        this.threshold = threshold;
+        this.minLength = Math.max(SHINGLE_SIZE, minLength);
+        
+        // The LSH S-curve rises around (1/bands)^(1/rows); keep it well below the threshold
+        int[] layout = LAYOUTS[LAYOUTS.length - 1];
+        for (int[] candidate : LAYOUTS) {
+            if (Math.pow(1.0 / candidate[0], 1.0 / candidate[1]) <= threshold - 0.1) {
+                layout = candidate;
+                break;
+            }
+        }
+        this.bands = layout[0];
+        this.rows = layout[1];
+        this.tableMask = Integer.highestOneBit(Math.max(1, maxEntries - 1)) * 2 - 1;
+        
+        SplittableRandom random = new SplittableRandom(0x5eed_1dea_cafeL);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            addends[i] = random.nextLong();
+        }
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            similarityHistogram[i] = new LongAdder();
+        }
+    }
+    
+    public static NearDuplicateIndex create(TranslatorConfig config) {
+        return new NearDuplicateIndex(
+                config.getInt("similarity.maxEntries", 10000),
+                config.getDouble("similarity.threshold", 0.9),
+                config.getInt("similarity.minLength", 20));
+    }
+    
+    /**
+     * Returns the translation of the most similar indexed text at or above
+     * the threshold, or null
+     */
+    public String lookup(String text) {
+        Fingerprint fingerprint = fingerprint(text);
+        if (fingerprint == null) {
+            skipped.increment();
+            return null;
+        }
+        lookups.increment();
+        
+        int best = -1;
+        int bestAgreement = -1;
+        lock.readLock().lock();
+        try {
+            if (signatures == null) {
+                return null;
+            }
+            for (int band = 0; band < bands; band++) {
+                int bandKey = fingerprint.bandKeys[band];
+                int slot = heads[band * (tableMask + 1) + (bandKey & tableMask)] - 1;
+                for (; slot >= 0; slot = next[slot * bands + band] - 1) {
+                    if (bandKeys[slot * bands + band] != bandKey || seenInEarlierBand(slot, band, fingerprint)) {
+                        continue;
+                    }
+                    if (numberHashes[slot] != fingerprint.numberHash
+                            || !lengthsCompatible(shingleCounts[slot], fingerprint.shingleCount)) {
+                        continue;
+                    }
+                    int agreement = agreement(slot, fingerprint.signature);
+                    if (agreement > bestAgreement) {
+                        best = slot;
+                        bestAgreement = agreement;
+                    }
+                }
+            }
+            
+            if (best < 0) {
+                return null;
+            }
+            double similarity = (double) bestAgreement / NUM_HASHES;
+            recordSimilarity(similarity);
+            if (similarity < threshold) {
+                return null;
+            }
+            referenced[best] = 1;
+            hits.increment();
+            return values[best];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Index a text and its translation; an already indexed text gets the new translation
+     */
+    public void put(String text, String translation) {
+        Fingerprint fingerprint = fingerprint(text);
+        if (fingerprint == null) {
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            if (signatures == null) {
+                allocate();
+            }
+            
+            int existing = find(fingerprint);
+            if (existing >= 0) {
+                values[existing] = translation;
+                return;
+            }
+            
+            int slot = nextVictim();
+            if (values[slot] != null) {
+                unlink(slot);
+                evictions.increment();
+                size--;
+            }
+            
+            System.arraycopy(fingerprint.signature, 0, signatures, slot * NUM_HASHES, NUM_HASHES);
+            keyHashes[slot] = fingerprint.keyHash;
+            numberHashes[slot] = fingerprint.numberHash;
+            shingleCounts[slot] = fingerprint.shingleCount;
+            values[slot] = translation;
+            referenced[slot] = 0;
+            for (int band = 0; band < bands; band++) {
+                int bandKey = fingerprint.bandKeys[band];
+                int head = band * (tableMask + 1) + (bandKey & tableMask);
+                bandKeys[slot * bands + band] = bandKey;
+                next[slot * bands + band] = heads[head];
+                heads[head] = slot + 1;
+            }
+            size++;
+            inserts.increment();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void allocate() {
+        signatures = new int[maxEntries * NUM_HASHES];
+        bandKeys = new int[maxEntries * bands];
+        next = new int[maxEntries * bands];
+        heads = new int[bands * (tableMask + 1)];
+        keyHashes = new long[maxEntries];
+        numberHashes = new long[maxEntries];
+        shingleCounts = new int[maxEntries];
+        values = new String[maxEntries];
+        referenced = new byte[maxEntries];
+    }
+    
+    /**
+     * Slot holding exactly this canonical text, or -1
+     */
+    private int find(Fingerprint fingerprint) {
+        int bandKey = fingerprint.bandKeys[0];
+        for (int slot = heads[bandKey & tableMask] - 1; slot >= 0; slot = next[slot * bands] - 1) {
+            if (keyHashes[slot] == fingerprint.keyHash && bandKeys[slot * bands] == bandKey) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Advance the clock hand past recently matched entries and return the slot to fill
+     */
+    private int nextVictim() {
+        while (values[hand] != null && referenced[hand] != 0) {
+            referenced[hand] = 0;
+            hand = (hand + 1) % maxEntries;
+        }
+        int slot = hand;
+        hand = (hand + 1) % maxEntries;
+        return slot;
+    }
+    
+    private void unlink(int slot) {
+        for (int band = 0; band < bands; band++) {
+            int head = band * (tableMask + 1) + (bandKeys[slot * bands + band] & tableMask);
+            int link = slot * bands + band;
+            if (heads[head] == slot + 1) {
+                heads[head] = next[link];
+            } else {
+                int previous = heads[head] - 1;
+                while (next[previous * bands + band] != slot + 1) {
+                    previous = next[previous * bands + band] - 1;
+                }
+                next[previous * bands + band] = next[link];
+            }
+            next[link] = 0;
+        }
+    }
+    
+    /**
+     * An entry sharing several bands with the query is compared only at the first one
+     */
+    private boolean seenInEarlierBand(int slot, int band, Fingerprint fingerprint) {
+        for (int earlier = 0; earlier < band; earlier++) {
+            if (bandKeys[slot * bands + earlier] == fingerprint.bandKeys[earlier]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Jaccard similarity is at most the ratio of the two set sizes
+     */
+    private boolean lengthsCompatible(int a, int b) {
+        return Math.min(a, b) >= threshold * Math.max(a, b);
+    }
+    
+    private int agreement(int slot, int[] signature) {
+        int offset = slot * NUM_HASHES;
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (signatures[offset + i] == signature[i]) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+    
+    private void recordSimilarity(double similarity) {
+        int bucket = (int) ((similarity - HISTOGRAM_MIN) * HISTOGRAM_BUCKETS / (1 - HISTOGRAM_MIN));
+        if (bucket >= 0) {
+            similarityHistogram[Math.min(bucket, HISTOGRAM_BUCKETS - 1)].increment();
+        }
+    }
+    
+    /**
+     * Signature, band keys and guards of a text, or null when it is too short to index
+     */
+    private Fingerprint fingerprint(String text) {
+        String canonical = canonicalize(text);
+        if (canonical.length() < minLength) {
+            return null;
+        }
+        
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = canonical.length() - SHINGLE_SIZE + 1;
+        for (int start = 0; start < shingles; start++) {
+            long h = 0;
+            for (int i = start; i < start + SHINGLE_SIZE; i++) {
+                h = h * 0x100000001b3L + canonical.charAt(i);
+            }
+            long x = mix(h);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int value = (int) ((x * multipliers[i] + addends[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        
+        int[] keys = new int[bands];
+        for (int band = 0; band < bands; band++) {
+            long h = band;
+            for (int i = band * rows; i < (band + 1) * rows; i++) {
+                h = h * 0x9e3779b97f4a7c15L + signature[i];
+            }
+            keys[band] = (int) mix(h);
+        }
+        
+        long keyHash = 0;
+        long numberHash = 0;
+        boolean inNumber = false;
+        for (int i = 0; i < canonical.length(); i++) {
+            char c = canonical.charAt(i);
+            keyHash = keyHash * 31 + c;
+            if (Character.isDigit(c)) {
+                numberHash = numberHash * 31 + c;
+                inNumber = true;
+            } else if (inNumber) {
+                numberHash = numberHash * 31 + ' ';
+                inNumber = false;
+            }
+        }
+        return new Fingerprint(signature, keys, mix(keyHash), numberHash, shingles);
+    }
+    
+    /**
+     * Lowercase letters and digits, everything else a single space
+     */
+    static String canonicalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = sb.length() > 0;
+            }
+        }
+        return sb.toString();
+    }
+    
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    public double getThreshold() {
+        return threshold;
+    }
+    
+    public int getBands() {
+        return bands;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Lookups of texts long enough to be indexed
+     */
+    public long getLookups() {
+        return lookups.sum();
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    /**
+     * Lookups skipped because the text was shorter than minLength
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+    
+    public long getInserts() {
+        return inserts.sum();
+    }
+    
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Similarity of the best candidate per lookup, counted in 0.05-wide buckets
+     * from 0.5 to 1.0; shows how the hit rate would move with the threshold
+     */
+    public long[] getSimilarityHistogram() {
+        long[] counts = new long[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            counts[i] = similarityHistogram[i].sum();
+        }
+        return counts;
+    }
+    
+    public static double getHistogramBucketStart(int bucket) {
+        return HISTOGRAM_MIN + bucket * (1 - HISTOGRAM_MIN) / HISTOGRAM_BUCKETS;
+    }
+    
+    private static final class Fingerprint {
+        final int[] signature;
+        final int[] bandKeys;
+        final long keyHash;
+        final long numberHash;
+        final int shingleCount;
+        
+        Fingerprint(int[] signature, int[] bandKeys, long keyHash, long numberHash, int shingleCount) {
+            this.signature = signature;
+            this.bandKeys = bandKeys;
+            this.keyHash = keyHash;
+            this.numberHash = numberHash;
+            this.shingleCount = shingleCount;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,299 @@
+package com.translator.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Bounded in-memory cache with segmented-LRU eviction and a time-to-live.
+ *
+ * New entries enter a probation segment; a second hit promotes them to a
+ * protected segment. One-off keys are therefore evicted before entries
+ * that are read repeatedly. The cache is split into independently locked
+ * shards so concurrent readers rarely contend.
+ *
+ * Optionally, expired entries are kept for a grace period. get() treats
+ * them as misses, but getStale() still returns them, e.g. as a fallback
+ * when the source of truth is unavailable.
+ */
+public class SegmentedLruCache<K, V> {
+    
+    private final Shard<K, V>[] shards;
+    private final ToLongBiFunction<K, V> weigher;
+    private final long ttlNanos;
+    private final long staleNanos;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    
+    /**
+     * @param maxWeight total weight (e.g. bytes) kept across all shards
+     * @param ttlMillis time an entry stays valid after being written, 0 for no expiry
+     * @param protectedRatio share of each shard reserved for entries hit more than once
+     * @param shardCount number of independently locked shards
+     * @param weigher weight of a single entry
+     */
+    public SegmentedLruCache(long maxWeight, long ttlMillis, double protectedRatio,
+                             int shardCount, ToLongBiFunction<K, V> weigher) {
+        this(maxWeight, ttlMillis, 0, protectedRatio, shardCount, weigher);
+    }
+    
+    /**
+     * @param staleMillis time an expired entry is still kept for getStale()
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentedLruCache(long maxWeight, long ttlMillis, long staleMillis, double protectedRatio,
+                             int shardCount, ToLongBiFunction<K, V> weigher) {
+        if (maxWeight <= 0 || shardCount <= 0) {
+            throw new IllegalArgumentException("Cache size and shard count must be positive");
+        }
+        this.weigher = weigher;
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000L : 0;
+        this.staleNanos = ttlMillis > 0 && staleMillis > 0 ? staleMillis * 1_000_000L : 0;
+        this.shards = new Shard[shardCount];
+        long shardWeight = Math.max(1, maxWeight / shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>(shardWeight, (long) (shardWeight * protectedRatio));
+        }
+    }
+    
+    /**
+     * Returns the cached value, or null when absent or expired
+     */
+    public V get(K key) {
+        Shard<K, V> shard = shardFor(key);
+        long now = System.nanoTime();
+        Node<V> node;
+        synchronized (shard) {
+            node = shard.get(key);
+            if (node != null && isExpired(node, now)) {
+                if (!isStaleUsable(node, now)) {
+                    shard.remove(key);
+                    expirations.increment();
+                }
+                node = null;
+            }
+        }
+        
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return node.value;
+    }
+    
+    /**
+     * Returns the value even if it has expired, as long as it is within the
+     * stale grace period; null otherwise. Does not count as a hit or miss.
+     */
+    public V getStale(K key) {
+        Shard<K, V> shard = shardFor(key);
+        long now = System.nanoTime();
+        Node<V> node;
+        synchronized (shard) {
+            node = shard.peek(key);
+        }
+        
+        if (node == null || (isExpired(node, now) && !isStaleUsable(node, now))) {
+            return null;
+        }
+        staleHits.increment();
+        return node.value;
+    }
+    
+    public void put(K key, V value) {
+        long weight = weigher.applyAsLong(key, value);
+        Shard<K, V> shard = shardFor(key);
+        int evicted;
+        synchronized (shard) {
+            evicted = shard.put(key, new Node<>(value, weight, System.nanoTime()));
+        }
+        if (evicted > 0) {
+            evictions.add(evicted);
+        }
+    }
+    
+    public void invalidate(K key) {
+        Shard<K, V> shard = shardFor(key);
+        synchronized (shard) {
+            shard.remove(key);
+        }
+    }
+    
+    public void invalidateAll() {
+        for (Shard<K, V> shard : shards) {
+            synchronized (shard) {
+                shard.clear();
+            }
+        }
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+    
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+    
+    public long size() {
+        long size = 0;
+        for (Shard<K, V> shard : shards) {
+            synchronized (shard) {
+                size += shard.probation.size() + shard.protectedEntries.size();
+            }
+        }
+        return size;
+    }
+    
+    public long weight() {
+        long weight = 0;
+        for (Shard<K, V> shard : shards) {
+            synchronized (shard) {
+                weight += shard.probationWeight + shard.protectedWeight;
+            }
+        }
+        return weight;
+    }
+    
+    private boolean isExpired(Node<V> node, long now) {
+        return ttlNanos > 0 && now - node.writtenAt > ttlNanos;
+    }
+    
+    private boolean isStaleUsable(Node<V> node, long now) {
+        return staleNanos > 0 && now - node.writtenAt <= ttlNanos + staleNanos;
+    }
+    
+    private Shard<K, V> shardFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return shards[Math.floorMod(h, shards.length)];
+    }
+    
+    private static final class Node<V> {
+        final V value;
+        final long weight;
+        final long writtenAt;
+        
+        Node(V value, long weight, long writtenAt) {
+            this.value = value;
+            this.weight = weight;
+            this.writtenAt = writtenAt;
+        }
+    }
+    
+    /**
+     * One independently locked SLRU. All methods are called under the shard monitor.
+     */
+    private static final class Shard<K, V> {
+        final long maxWeight;
+        final long maxProtectedWeight;
+        final LinkedHashMap<K, Node<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+        final LinkedHashMap<K, Node<V>> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        long probationWeight;
+        long protectedWeight;
+        
+        Shard(long maxWeight, long maxProtectedWeight) {
+            this.maxWeight = maxWeight;
+            this.maxProtectedWeight = maxProtectedWeight;
+        }
+        
+        Node<V> get(K key) {
+            Node<V> node = protectedEntries.get(key);
+            if (node != null) {
+                return node;
+            }
+            
+            node = probation.remove(key);
+            if (node == null) {
+                return null;
+            }
+            
+            // Second hit: promote, demoting the coldest protected entries if needed
+            probationWeight -= node.weight;
+            protectedEntries.put(key, node);
+            protectedWeight += node.weight;
+            Iterator<Map.Entry<K, Node<V>>> it = protectedEntries.entrySet().iterator();
+            while (protectedWeight > maxProtectedWeight && it.hasNext()) {
+                Map.Entry<K, Node<V>> coldest = it.next();
+                if (coldest.getKey().equals(key)) {
+                    break;
+                }
+                it.remove();
+                protectedWeight -= coldest.getValue().weight;
+                probation.put(coldest.getKey(), coldest.getValue());
+                probationWeight += coldest.getValue().weight;
+            }
+            return node;
+        }
+        
+        /**
+         * Lookup without promotion
+         */
+        Node<V> peek(K key) {
+            Node<V> node = protectedEntries.get(key);
+            return node != null ? node : probation.get(key);
+        }
+        
+        int put(K key, Node<V> node) {
+            remove(key);
+            if (node.weight > maxWeight) {
+                return 0;
+            }
+            probation.put(key, node);
+            probationWeight += node.weight;
+            
+            int evicted = 0;
+            while (probationWeight + protectedWeight > maxWeight) {
+                LinkedHashMap<K, Node<V>> victims = probation.isEmpty() ? protectedEntries : probation;
+                Iterator<Map.Entry<K, Node<V>>> it = victims.entrySet().iterator();
+                Map.Entry<K, Node<V>> victim = it.next();
+                it.remove();
+                if (victims == probation) {
+                    probationWeight -= victim.getValue().weight;
+                } else {
+                    protectedWeight -= victim.getValue().weight;
+                }
+                evicted++;
+            }
+            return evicted;
+        }
+        
+        void remove(K key) {
+            Node<V> old = probation.remove(key);
+            if (old != null) {
+                probationWeight -= old.weight;
+                return;
+            }
+            old = protectedEntries.remove(key);
+            if (old != null) {
+                protectedWeight -= old.weight;
+            }
+        }
+        
+        void clear() {
+            probation.clear();
+            protectedEntries.clear();
+            probationWeight = 0;
+            protectedWeight = 0;
+        }
+    }
+}
\ No newline at end of file
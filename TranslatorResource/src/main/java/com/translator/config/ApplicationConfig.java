@@ -1,10 +1,19 @@
 package com.translator.config;
 
 import com.translator.filter.AuthenticationFilter;
+import com.translator.filter.CompressionFilter;
+import com.translator.filter.MetricsFilter;
+import com.translator.filter.RateLimitFilter;
+import com.translator.filter.RequestIdFilter;
+import com.translator.resource.AdminResource;
+import com.translator.resource.AuthResource;
+import com.translator.resource.JobResource;
+import com.translator.resource.MetricsResource;
 import com.translator.resource.TranslatorResource;
 
 import jakarta.ws.rs.ApplicationPath;
 import jakarta.ws.rs.core.Application;
+import org.glassfish.jersey.server.filter.RolesAllowedDynamicFeature;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -16,9 +25,30 @@ public class ApplicationConfig extends Application {
     public Set<Class<?>> getClasses() {
         Set<Class<?>> classes = new HashSet<>();
         
-        // Register authentication filter
+        // Register authentication and rate limiting filters
         classes.add(AuthenticationFilter.class);
+        classes.add(RateLimitFilter.class);
+        
+        // Latency and status codes of every request, scraped from /api/metrics
+        classes.add(MetricsFilter.class);
+        // Correlation id on log lines and in X-Request-Id
+        classes.add(RequestIdFilter.class);
+        
+        // Smile/CBOR bodies on request and gzip for larger responses
+        classes.add(BinaryJsonProvider.class);
+        classes.add(CompressionFilter.class);
+        
         classes.add(TranslatorResource.class); // wtf 
+        classes.add(AuthResource.class);
+        classes.add(AdminResource.class);
+        classes.add(JobResource.class);
+        classes.add(MetricsResource.class);
+        
+        // Enforce @RolesAllowed / @PermitAll on resource methods
+        classes.add(RolesAllowedDynamicFeature.class);
+        
+        // Register application-scoped services
+        classes.add(ServiceFeature.class);
         
         return classes;
     }
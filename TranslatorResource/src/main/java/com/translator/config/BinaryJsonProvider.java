@@ -0,0 +1,109 @@
+package com.translator.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes the same models as the JSON provider in Jackson's binary
+ * formats, Smile and CBOR, for clients that send them as Content-Type or ask
+ * for them in Accept. Values are length-prefixed instead of quoted and
+ * escaped, numbers are binary, and Smile refers back to field names it has
+ * already written, so bodies are smaller and cheaper to encode and parse.
+ */
+@Provider
+@Consumes({BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR})
+@Produces({BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR})
+public class BinaryJsonProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String CBOR = "application/cbor";
+    
+    // For @Produces next to JSON: served only to clients that ask for them
+    public static final String SMILE_ON_REQUEST = SMILE + ";qs=0.9";
+    public static final String CBOR_ON_REQUEST = CBOR + ";qs=0.9";
+    
+    private static final MediaType SMILE_TYPE = MediaType.valueOf(SMILE);
+    private static final MediaType CBOR_TYPE = MediaType.valueOf(CBOR);
+    
+    private final ObjectMapper smileMapper = mapper(new ObjectMapper(new SmileFactory()));
+    private final ObjectMapper cborMapper = mapper(new ObjectMapper(new CBORFactory()));
+    
+    private static ObjectMapper mapper(ObjectMapper mapper) {
+        // Jersey owns the entity streams
+        mapper.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        mapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return mapper;
+    }
+    
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return mapperFor(mediaType) != null && isModel(type);
+    }
+    
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        ObjectMapper mapper = mapperFor(mediaType);
+        try {
+            return mapper.readerFor(mapper.constructType(genericType)).readValue(entityStream);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed " + mediaType.getSubtype() + " request body", e);
+        }
+    }
+    
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return mapperFor(mediaType) != null && isModel(type);
+    }
+    
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        ObjectMapper mapper = mapperFor(mediaType);
+        mapper.writerFor(mapper.constructType(genericType)).writeValue(entityStream, value);
+    }
+    
+    private ObjectMapper mapperFor(MediaType mediaType) {
+        if (mediaType == null) {
+            return null;
+        }
+        if (SMILE_TYPE.isCompatible(mediaType) && !mediaType.isWildcardSubtype()) {
+            return smileMapper;
+        }
+        if (CBOR_TYPE.isCompatible(mediaType) && !mediaType.isWildcardSubtype()) {
+            return cborMapper;
+        }
+        return null;
+    }
+    
+    /**
+     * Raw bodies keep their own readers and writers whatever the media type
+     */
+    private static boolean isModel(Class<?> type) {
+        return type != String.class && type != byte[].class
+            && !InputStream.class.isAssignableFrom(type) && !Reader.class.isAssignableFrom(type)
+            && !StreamingOutput.class.isAssignableFrom(type) && !File.class.isAssignableFrom(type);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.translator.config;
+
+import com.translator.cache.NearDuplicateIndex;
+import com.translator.document.DocumentTranslator;
+import com.translator.job.JobManager;
+import com.translator.logging.LogSystem;
+import com.translator.logging.Logger;
+import com.translator.memory.TranslationMemory;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.metrics.TokenUsageCounters;
+import com.translator.metrics.UpstreamMetricsInterceptor;
+import com.translator.phrase.PhraseDictionary;
+import com.translator.provider.ProviderEndpoint;
+import com.translator.provider.ProviderRegistry;
+import com.translator.ratelimit.RateLimiter;
+import com.translator.ratelimit.UpstreamQuotaInterceptor;
+import com.translator.scheduling.FairScheduler;
+import com.translator.scheduling.TrafficPolicy;
+import com.translator.security.TokenService;
+import com.translator.security.UserRepository;
+import com.translator.service.CachingLLMService;
+import com.translator.service.CoalescingLLMService;
+import com.translator.service.LLMService;
+import com.translator.service.NearDuplicateLLMService;
+import com.translator.service.PhraseTableLLMService;
+import com.translator.service.ResilientLLMService;
+import com.translator.service.RoutingLLMService;
+import com.translator.service.ScheduledLLMService;
+import com.translator.service.TokenAccountingLLMService;
+import com.translator.service.TranslationExecutor;
+import com.translator.service.TranslationMemoryLLMService;
+
+import jakarta.ws.rs.core.Feature;
+import jakarta.ws.rs.core.FeatureContext;
+import org.glassfish.jersey.internal.inject.AbstractBinder;
+import org.glassfish.jersey.server.spi.AbstractContainerLifecycleListener;
+import org.glassfish.jersey.server.spi.Container;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Wires the application-scoped services.
+ * The LLM service and its HTTP client are created once here and shared
+ * by every request instead of being rebuilt per resource instance.
+ */
+public class ServiceFeature implements Feature {
+    
+    private static final Logger LOG = Logger.get(ServiceFeature.class);
+    
+    @Override
+    public boolean configure(FeatureContext context) {
+        TranslatorConfig config = TranslatorConfig.load();
+        LogSystem.configure(config);
+        MetricsRegistry metrics = new MetricsRegistry();
+        TranslationExecutor executor = TranslationExecutor.create(config);
+        RateLimiter rateLimiter = RateLimiter.create(config, UserRepository.getInstance().getRoleRateLimits());
+        FairScheduler scheduler = FairScheduler.create(config);
+        TrafficPolicy trafficPolicy = new TrafficPolicy(UserRepository.getInstance().getRolePriorities());
+        PhraseDictionary phraseDictionary = PhraseDictionary.create(config);
+        NearDuplicateIndex nearDuplicates = NearDuplicateIndex.create(config);
+        TokenUsageCounters tokenUsage = new TokenUsageCounters();
+        LLMService llmService = buildLLMService(config, executor, rateLimiter, scheduler, phraseDictionary,
+                nearDuplicates, tokenUsage, metrics);
+        DocumentTranslator documentTranslator = new DocumentTranslator(llmService, config);
+        JobManager jobManager = new JobManager(config, llmService, rateLimiter);
+        TokenService tokenService = TokenService.create(config);
+        
+        ServiceMetrics.register(metrics, executor);
+        ServiceMetrics.register(metrics, rateLimiter);
+        ServiceMetrics.register(metrics, documentTranslator);
+        ServiceMetrics.register(metrics, jobManager);
+        ServiceMetrics.register(metrics, tokenUsage);
+        ServiceMetrics.registerLogging(metrics);
+        
+        context.register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(config).to(TranslatorConfig.class);
+                bind(executor).to(TranslationExecutor.class);
+                bind(llmService).to(LLMService.class);
+                bind(documentTranslator).to(DocumentTranslator.class);
+                bind(jobManager).to(JobManager.class);
+                bind(tokenService).to(TokenService.class);
+                bind(rateLimiter).to(RateLimiter.class);
+                bind(scheduler).to(FairScheduler.class);
+                bind(trafficPolicy).to(TrafficPolicy.class);
+                bind(phraseDictionary).to(PhraseDictionary.class);
+                bind(nearDuplicates).to(NearDuplicateIndex.class);
+                bind(metrics).to(MetricsRegistry.class);
+                bind(tokenUsage).to(TokenUsageCounters.class);
+            }
+        });
+        
+        context.register(new AbstractContainerLifecycleListener() {
+            @Override
+            public void onStartup(Container container) {
+                llmService.warmUp();
+                jobManager.start();
+            }
+            
+            @Override
+            public void onShutdown(Container container) {
+                jobManager.close();
+                llmService.close();
+                executor.close();
+                LogSystem.shutdown();
+            }
+        });
+        
+        return true;
+    }
+    
+    /**
+     * Assemble the decorator chain in front of the provider clients, and
+     * expose the counters of each layer that is enabled
+     */
+    private static LLMService buildLLMService(TranslatorConfig config, TranslationExecutor executor,
+                                              RateLimiter rateLimiter, FairScheduler scheduler,
+                                              PhraseDictionary phraseDictionary, NearDuplicateIndex nearDuplicates,
+                                              TokenUsageCounters tokenUsage, MetricsRegistry metrics) {
+        ProviderRegistry providers = ProviderRegistry.load();
+        List<ProviderEndpoint> endpoints = ProviderEndpoint.fromConfig(config);
+        
+        // Upstream 429s and successes drive the adaptive global rate limit;
+        // behind the router only a throttled pool of endpoints lowers it
+        LLMService service;
+        if (endpoints.size() == 1) {
+            service = providers.create(endpoints.get(0), config, executor, List.of(
+                    new UpstreamQuotaInterceptor(rateLimiter),
+                    new UpstreamMetricsInterceptor(metrics, endpoints.get(0).getName())));
+        } else {
+            RoutingLLMService router = new RoutingLLMService(endpoints, providers, config, executor, rateLimiter, metrics);
+            ServiceMetrics.register(metrics, router);
+            service = router;
+        }
+        
+        // Right on the clients, so every answered attempt is charged and no cache hit is
+        service = new TokenAccountingLLMService(service, tokenUsage);
+        
+        if (config.getBoolean("resilience.enabled", true)) {
+            ResilientLLMService resilient = new ResilientLLMService(service, config);
+            ServiceMetrics.register(metrics, resilient);
+            service = resilient;
+        }
+        
+        // Only calls that miss every cache queue for an upstream slot; retries keep theirs
+        if (config.getBoolean("scheduler.enabled", true)) {
+            service = new ScheduledLLMService(service, scheduler, metrics);
+            ServiceMetrics.register(metrics, scheduler);
+        }
+        
+        if (config.getBoolean("coalescing.enabled", true)) {
+            CoalescingLLMService coalescing = new CoalescingLLMService(service);
+            ServiceMetrics.register(metrics, coalescing);
+            service = coalescing;
+        }
+        
+        // Below the exact layers, so a near-duplicate is only used when no exact match exists
+        if (config.getBoolean("similarity.enabled", true)) {
+            service = new NearDuplicateLLMService(service, nearDuplicates);
+            ServiceMetrics.register(metrics, nearDuplicates);
+        }
+        
+        // Survives redeploys; without a usable directory we run on the in-memory cache alone
+        if (config.getBoolean("memory.enabled", true)) {
+            try {
+                TranslationMemory memory = TranslationMemory.open(config);
+                service = new TranslationMemoryLLMService(service, memory);
+                ServiceMetrics.register(metrics, memory);
+            } catch (IOException e) {
+                LOG.warn("Translation memory disabled", "reason", e.getMessage());
+            }
+        }
+        
+        if (config.getBoolean("cache.enabled", true)) {
+            CachingLLMService caching = new CachingLLMService(service, config);
+            ServiceMetrics.register(metrics, caching);
+            service = caching;
+        }
+        
+        if (config.getBoolean("phrases.enabled", true)) {
+            PhraseTableLLMService phrases = new PhraseTableLLMService(service, phraseDictionary);
+            ServiceMetrics.register(metrics, phrases, phraseDictionary);
+            service = phrases;
+        }
+        
+        return service;
+    }
+}
\ No newline at end of file
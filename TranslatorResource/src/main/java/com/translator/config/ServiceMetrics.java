@@ -0,0 +1,194 @@
+package com.translator.config;
+
+import com.translator.cache.NearDuplicateIndex;
+import com.translator.cache.SegmentedLruCache;
+import com.translator.document.DocumentTranslator;
+import com.translator.job.JobManager;
+import com.translator.logging.LogSystem;
+import com.translator.memory.TranslationMemory;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.metrics.TokenUsageCounters;
+import com.translator.phrase.PhraseDictionary;
+import com.translator.ratelimit.RateLimiter;
+import com.translator.resilience.CircuitBreaker;
+import com.translator.scheduling.FairScheduler;
+import com.translator.scheduling.TrafficClass;
+import com.translator.service.CachingLLMService;
+import com.translator.service.CoalescingLLMService;
+import com.translator.service.PhraseTableLLMService;
+import com.translator.service.ResilientLLMService;
+import com.translator.service.RoutingLLMService;
+import com.translator.service.TranslationExecutor;
+
+import java.util.Locale;
+
+/**
+ * Exposes the counters the services already keep as metrics. Nothing is
+ * counted twice: every series reads its component's getter when scraped.
+ */
+final class ServiceMetrics {
+    
+    private ServiceMetrics() {
+    }
+    
+    static void register(MetricsRegistry metrics, RateLimiter rateLimiter) {
+        metrics.counter("translator_rate_limit_rejections_total", "Requests refused with 429 by the rate limiter",
+                rateLimiter::getUserRejections, "limit", "user");
+        metrics.counter("translator_rate_limit_rejections_total", "Requests refused with 429 by the rate limiter",
+                rateLimiter::getGlobalRejections, "limit", "global");
+        metrics.counter("translator_rate_limit_upstream_throttles_total", "Upstream 429s that lowered the global rate",
+                rateLimiter::getUpstreamThrottles);
+        metrics.gauge("translator_rate_limit_global_rate", "Current global request rate, per second",
+                rateLimiter::getGlobalRate);
+    }
+    
+    static void register(MetricsRegistry metrics, TokenUsageCounters tokenUsage) {
+        TokenUsageCounters.Tokens total = tokenUsage.getTotal();
+        metrics.counter("translator_upstream_tokens_total", "Tokens spent by answered upstream calls",
+                total::getPromptTokens, "kind", "prompt");
+        metrics.counter("translator_upstream_tokens_total", "Tokens spent by answered upstream calls",
+                total::getOutputTokens, "kind", "output");
+        metrics.counter("translator_upstream_estimated_prompt_tokens_total", "Local estimate of the same prompt tokens",
+                total::getEstimatedPromptTokens);
+        metrics.counter("translator_upstream_chars_total", "Characters translated by answered upstream calls",
+                total::getInputChars, "direction", "input");
+        metrics.counter("translator_upstream_chars_total", "Characters translated by answered upstream calls",
+                total::getOutputChars, "direction", "output");
+    }
+    
+    static void register(MetricsRegistry metrics, TranslationExecutor executor) {
+        metrics.gauge("translator_executor_upstream_in_flight", "Upstream calls holding an executor permit",
+                executor::getUpstreamInFlight);
+        metrics.gauge("translator_executor_upstream_waiting", "Upstream calls waiting for an executor permit",
+                executor::getUpstreamWaiting);
+    }
+    
+    static void register(MetricsRegistry metrics, FairScheduler scheduler) {
+        metrics.gauge("translator_scheduler_in_flight", "Upstream slots in use", scheduler::getInFlight);
+        metrics.gauge("translator_scheduler_max_concurrent", "Upstream slots", scheduler::getMaxConcurrent);
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            String name = trafficClass.name().toLowerCase(Locale.ROOT);
+            metrics.gauge("translator_scheduler_queued", "Calls waiting for an upstream slot",
+                    () -> scheduler.getStats(trafficClass).getQueued(), "class", name);
+            metrics.counter("translator_scheduler_started_total", "Calls granted an upstream slot",
+                    () -> scheduler.getStats(trafficClass).getStarted(), "class", name);
+            metrics.counter("translator_scheduler_rejected_total", "Calls refused at admission",
+                    () -> scheduler.getStats(trafficClass).getRejected(), "class", name);
+            metrics.counter("translator_scheduler_expired_total", "Calls whose deadline passed while queued",
+                    () -> scheduler.getStats(trafficClass).getExpired(), "class", name);
+        }
+    }
+    
+    static void register(MetricsRegistry metrics, ResilientLLMService service) {
+        metrics.counter("translator_resilience_calls_total", "Translations through the retry layer",
+                service::getCallCount);
+        metrics.counter("translator_resilience_retries_total", "Retried upstream calls",
+                service::getRetryCount);
+        metrics.counter("translator_resilience_retries_denied_total", "Retries refused by the retry budget",
+                service::getRetriesDeniedCount);
+        metrics.counter("translator_resilience_hedges_total", "Hedged upstream calls",
+                service::getHedgeCount);
+        metrics.counter("translator_resilience_hedge_wins_total", "Hedged calls that answered first",
+                service::getHedgeWinCount);
+        CircuitBreaker circuitBreaker = service.getCircuitBreaker();
+        metrics.counter("translator_circuit_breaker_opens_total", "Times the circuit breaker opened",
+                circuitBreaker::getOpenCount);
+        metrics.counter("translator_circuit_breaker_rejections_total", "Calls refused by the open circuit",
+                circuitBreaker::getRejectionCount);
+        metrics.gauge("translator_circuit_breaker_state", "0 closed, 1 open, 2 half-open",
+                () -> circuitBreaker.getState().ordinal());
+    }
+    
+    static void register(MetricsRegistry metrics, CoalescingLLMService service) {
+        metrics.counter("translator_coalescing_leaders_total", "Calls that went downstream",
+                service::getLeaderCount);
+        metrics.counter("translator_coalescing_followers_total", "Calls that joined an identical one in flight",
+                service::getCoalescedCount);
+        metrics.gauge("translator_coalescing_in_flight", "Distinct texts being translated",
+                service::getInFlightCount);
+    }
+    
+    static void register(MetricsRegistry metrics, NearDuplicateIndex index) {
+        metrics.counter("translator_near_duplicate_lookups_total", "Near-duplicate lookups", index::getLookups);
+        metrics.counter("translator_near_duplicate_hits_total", "Near-duplicate lookups answered", index::getHits);
+        metrics.counter("translator_near_duplicate_skipped_total", "Texts too short to look up", index::getSkipped);
+        metrics.counter("translator_near_duplicate_inserts_total", "Translations indexed", index::getInserts);
+        metrics.counter("translator_near_duplicate_evictions_total", "Entries evicted", index::getEvictions);
+        metrics.gauge("translator_near_duplicate_entries", "Entries in the index", index::size);
+    }
+    
+    static void register(MetricsRegistry metrics, TranslationMemory memory) {
+        metrics.counter("translator_memory_hits_total", "Translation memory hits", memory::getHitCount);
+        metrics.counter("translator_memory_misses_total", "Translation memory misses", memory::getMissCount);
+        metrics.counter("translator_memory_writes_total", "Translations appended to the log", memory::getWriteCount);
+        metrics.counter("translator_memory_dropped_total", "Writes dropped because the log was behind",
+                memory::getDroppedCount);
+        metrics.counter("translator_memory_compactions_total", "Log compactions", memory::getCompactionCount);
+        metrics.gauge("translator_memory_entries", "Translations in memory", memory::getEntryCount);
+        metrics.gauge("translator_memory_log_bytes", "Size of the translation log", memory::getLogBytes);
+    }
+    
+    static void register(MetricsRegistry metrics, CachingLLMService service) {
+        SegmentedLruCache<String, String> cache = service.getCache();
+        metrics.counter("translator_cache_hits_total", "Translation cache hits", cache::getHitCount);
+        metrics.counter("translator_cache_misses_total", "Translation cache misses", cache::getMissCount);
+        metrics.counter("translator_cache_evictions_total", "Entries evicted for space", cache::getEvictionCount);
+        metrics.counter("translator_cache_expirations_total", "Entries dropped after their TTL",
+                cache::getExpirationCount);
+        metrics.counter("translator_cache_stale_hits_total", "Expired entries found", cache::getStaleHitCount);
+        metrics.counter("translator_cache_stale_fallbacks_total", "Expired entries served because the upstream failed",
+                service::getStaleFallbackCount);
+        metrics.gauge("translator_cache_entries", "Entries in the translation cache", cache::size);
+    }
+    
+    static void register(MetricsRegistry metrics, PhraseTableLLMService service, PhraseDictionary dictionary) {
+        metrics.counter("translator_phrase_hits_total", "Texts answered from the phrase table",
+                service::getHitCount);
+        metrics.gauge("translator_phrase_entries", "Phrases in the phrase table", dictionary::size);
+    }
+    
+    static void register(MetricsRegistry metrics, RoutingLLMService service) {
+        metrics.counter("translator_routing_failovers_total", "Calls moved to another endpoint",
+                service::getFailoverCount);
+        for (RoutingLLMService.Endpoint endpoint : service.getEndpoints()) {
+            String name = endpoint.getName();
+            metrics.counter("translator_routing_calls_total", "Calls routed to an endpoint",
+                    endpoint::getCallCount, "endpoint", name);
+            metrics.counter("translator_routing_failures_total", "Failed calls to an endpoint",
+                    endpoint::getFailureCount, "endpoint", name);
+            metrics.counter("translator_routing_throttles_total", "429 answers from an endpoint",
+                    endpoint::getThrottleCount, "endpoint", name);
+            metrics.gauge("translator_routing_in_flight", "Calls in flight to an endpoint",
+                    endpoint::getInFlight, "endpoint", name);
+            metrics.gauge("translator_routing_latency_ewma_seconds", "Smoothed latency the router sees",
+                    () -> endpoint.getLatencyMillis() / 1000, "endpoint", name);
+            metrics.gauge("translator_routing_error_rate", "Smoothed error rate the router sees",
+                    endpoint::getErrorRate, "endpoint", name);
+        }
+    }
+    
+    static void register(MetricsRegistry metrics, DocumentTranslator documentTranslator) {
+        metrics.counter("translator_documents_total", "Long texts split into passages",
+                documentTranslator::getDocumentCount);
+        metrics.counter("translator_document_passages_total", "Passages translated",
+                documentTranslator::getPassageCount);
+    }
+    
+    static void register(MetricsRegistry metrics, JobManager jobManager) {
+        metrics.gauge("translator_jobs_queued", "Jobs waiting for a worker", jobManager::getQueueLength);
+        metrics.counter("translator_jobs_finished_total", "Finished jobs",
+                jobManager::getCompletedJobCount, "status", "completed");
+        metrics.counter("translator_jobs_finished_total", "Finished jobs",
+                jobManager::getFailedJobCount, "status", "failed");
+        metrics.counter("translator_job_lines_total", "Job lines written to results, failed ones included",
+                jobManager::getProcessedLineCount);
+        metrics.counter("translator_job_failed_lines_total", "Job lines that could not be translated",
+                jobManager::getFailedLineCount);
+    }
+    
+    static void registerLogging(MetricsRegistry metrics) {
+        metrics.counter("translator_log_events_total", "Log lines written", LogSystem::getWrittenCount);
+        metrics.counter("translator_log_dropped_total", "Log events dropped because the log buffer was full",
+                LogSystem::getDroppedCount);
+    }
+}
\ No newline at end of file
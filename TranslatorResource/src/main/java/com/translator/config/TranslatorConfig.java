@@ -0,0 +1,95 @@
+package com.translator.config;
+
+import com.translator.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Application settings loaded once from config.properties.
+ * Every key can be overridden by a system property of the same name
+ * or by an environment variable (gemini.api.key -> GEMINI_API_KEY).
+ */
+public class TranslatorConfig {
+    
+    private static final Logger LOG = Logger.get(TranslatorConfig.class);
+    
+    private static final String CONFIG_FILE = "config.properties";
+    
+    private final Properties properties;
+    
+    public TranslatorConfig(Properties properties) {
+        this.properties = properties;
+    }
+    
+    /**
+     * Load settings from config.properties on the classpath
+     */
+    public static TranslatorConfig load() {
+        Properties prop = new Properties();
+        try (InputStream input = TranslatorConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (input != null) {
+                prop.load(input);
+            } else {
+                LOG.warn("Configuration file not found, using defaults and environment", "file", CONFIG_FILE);
+            }
+        } catch (IOException ex) {
+            LOG.error("Configuration file not loaded", ex, "file", CONFIG_FILE);
+        }
+        return new TranslatorConfig(prop);
+    }
+    
+    public String get(String key) {
+        String value = System.getProperty(key);
+        if (value != null && !value.isEmpty()) {
+            return value;
+        }
+        
+        value = System.getenv(key.toUpperCase(Locale.ROOT).replace('.', '_'));
+        if (value != null && !value.isEmpty()) {
+            return value;
+        }
+        
+        value = properties.getProperty(key);
+        return value != null && !value.trim().isEmpty() ? value.trim() : null;
+    }
+    
+    public String get(String key, String defaultValue) {
+        String value = get(key);
+        return value != null ? value : defaultValue;
+    }
+    
+    public int getInt(String key, int defaultValue) {
+        String value = get(key);
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid integer for " + key + ": " + value);
+        }
+    }
+    
+    public long getLong(String key, long defaultValue) {
+        String value = get(key);
+        try {
+            return value != null ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid number for " + key + ": " + value);
+        }
+    }
+    
+    public double getDouble(String key, double defaultValue) {
+        String value = get(key);
+        try {
+            return value != null ? Double.parseDouble(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid number for " + key + ": " + value);
+        }
+    }
+    
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+}
\ No newline at end of file
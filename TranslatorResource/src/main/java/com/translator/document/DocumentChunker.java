@@ -0,0 +1,223 @@
+package com.translator.document;
+
+import com.translator.util.TokenEstimator;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a long text into passages that each fit a token budget.
+ *
+ * Paragraphs are kept whole when they fit, otherwise split into sentences,
+ * and a sentence longer than the budget is cut between words. Consecutive
+ * pieces are packed into a passage until the next one would overflow it.
+ * Each passage remembers the whitespace that followed it, so the
+ * translations can be joined back with the original paragraph breaks.
+ */
+public class DocumentChunker {
+    
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\s*\\n\\s*\\n\\s*");
+    
+    private final int maxTokens;
+    private final int contextTokens;
+    
+    /**
+     * @param maxTokens estimated token budget of one passage
+     * @param contextTokens budget of the preceding text handed along with each passage, 0 for none
+     */
+    public DocumentChunker(int maxTokens, int contextTokens) {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("Passage token budget must be positive");
+        }
+        this.maxTokens = maxTokens;
+        this.contextTokens = Math.max(0, contextTokens);
+    }
+    
+    public List<Passage> split(String text) {
+        List<Piece> pieces = new ArrayList<>();
+        Matcher breaks = PARAGRAPH_BREAK.matcher(text);
+        int start = 0;
+        while (breaks.find()) {
+            addParagraph(text.substring(start, breaks.start()), breaks.group(), pieces);
+            start = breaks.end();
+        }
+        addParagraph(text.substring(start), "", pieces);
+        
+        List<Passage> passages = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String separator = "";
+        int tokens = 0;
+        for (Piece piece : pieces) {
+            int pieceTokens = TokenEstimator.estimate(piece.text);
+            if (current.length() > 0 && tokens + pieceTokens > maxTokens) {
+                passages.add(newPassage(current.toString(), separator, passages));
+                current.setLength(0);
+                tokens = 0;
+            } else if (current.length() > 0) {
+                current.append(separator);
+            }
+            current.append(piece.text);
+            separator = piece.separator;
+            tokens += pieceTokens;
+        }
+        if (current.length() > 0) {
+            passages.add(newPassage(current.toString(), "", passages));
+        }
+        return passages;
+    }
+    
+    private Passage newPassage(String text, String separator, List<Passage> previous) {
+        String context = previous.isEmpty() || contextTokens == 0
+            ? null
+            : tail(previous.get(previous.size() - 1).getText());
+        return new Passage(previous.size(), text, separator, context);
+    }
+    
+    /**
+     * A paragraph as one piece, or as sentences (or word runs) when it is over budget
+     */
+    private void addParagraph(String paragraph, String separator, List<Piece> pieces) {
+        String trimmed = paragraph.strip();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+        if (TokenEstimator.estimate(trimmed) <= maxTokens) {
+            pieces.add(new Piece(trimmed, separator));
+            return;
+        }
+        
+        List<String> sentences = sentences(trimmed);
+        for (int i = 0; i < sentences.size(); i++) {
+            String sentenceSeparator = i == sentences.size() - 1 ? separator : " ";
+            String sentence = sentences.get(i);
+            if (TokenEstimator.estimate(sentence) <= maxTokens) {
+                pieces.add(new Piece(sentence, sentenceSeparator));
+            } else {
+                List<String> runs = wordRuns(sentence);
+                for (int j = 0; j < runs.size(); j++) {
+                    pieces.add(new Piece(runs.get(j), j == runs.size() - 1 ? sentenceSeparator : " "));
+                }
+            }
+        }
+    }
+    
+    private static List<String> sentences(String paragraph) {
+        List<String> sentences = new ArrayList<>();
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+        iterator.setText(paragraph);
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String sentence = paragraph.substring(start, end).strip();
+            if (!sentence.isEmpty()) {
+                sentences.add(sentence);
+            }
+        }
+        return sentences;
+    }
+    
+    /**
+     * Cut an over-long sentence between words; a single word longer than the budget is cut anywhere
+     */
+    private List<String> wordRuns(String sentence) {
+        int maxChars = maxTokens * TokenEstimator.CHARS_PER_TOKEN;
+        List<String> runs = new ArrayList<>();
+        int start = 0;
+        while (start < sentence.length()) {
+            int end = Math.min(sentence.length(), start + maxChars);
+            if (end < sentence.length()) {
+                int space = sentence.lastIndexOf(' ', end);
+                if (space > start) {
+                    end = space;
+                }
+            }
+            String run = sentence.substring(start, end).strip();
+            if (!run.isEmpty()) {
+                runs.add(run);
+            }
+            start = end;
+        }
+        return runs;
+    }
+    
+    /**
+     * The last whole sentences of a passage that fit the context budget,
+     * or its last words when even one sentence is too long
+     */
+    private String tail(String passage) {
+        int maxChars = contextTokens * TokenEstimator.CHARS_PER_TOKEN;
+        if (passage.length() <= maxChars) {
+            return passage;
+        }
+        
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+        iterator.setText(passage);
+        int start = passage.length();
+        for (int boundary = iterator.last(); boundary != BreakIterator.DONE; boundary = iterator.previous()) {
+            if (passage.length() - boundary > maxChars) {
+                break;
+            }
+            start = boundary;
+        }
+        if (start == passage.length()) {
+            start = passage.length() - maxChars;
+            int space = passage.indexOf(' ', start);
+            if (space > 0 && space < passage.length() - 1) {
+                start = space + 1;
+            }
+        }
+        return passage.substring(start).strip();
+    }
+    
+    private static final class Piece {
+        final String text;
+        final String separator;
+        
+        Piece(String text, String separator) {
+            this.text = text;
+            this.separator = separator;
+        }
+    }
+    
+    /**
+     * One unit of translation
+     */
+    public static final class Passage {
+        private final int index;
+        private final String text;
+        private final String separator;
+        private final String context;
+        
+        Passage(int index, String text, String separator, String context) {
+            this.index = index;
+            this.text = text;
+            this.separator = separator;
+            this.context = context;
+        }
+        
+        public int getIndex() {
+            return index;
+        }
+        
+        public String getText() {
+            return text;
+        }
+        
+        /**
+         * Whitespace to put after this passage's translation when joining
+         */
+        public String getSeparator() {
+            return separator;
+        }
+        
+        /**
+         * End of the previous passage, or null for the first one or when context is off
+         */
+        public String getContext() {
+            return context;
+        }
+    }
+}
\ No newline at end of file
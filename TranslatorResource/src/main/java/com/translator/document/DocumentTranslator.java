@@ -0,0 +1,205 @@
+package com.translator.document;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.model.TranslationResult;
+import com.translator.scheduling.CallContext;
+import com.translator.service.LLMService;
+import com.translator.util.Futures;
+import com.translator.util.TokenEstimator;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Translates texts too long for one prompt as a series of passages.
+ *
+ * Up to document.parallelism passages are in flight at once, so a long
+ * text takes about passages / parallelism round trips instead of one very
+ * long generation. Translations are put back together in source order,
+ * and can be handed out in order as soon as each one and all before it
+ * are done. Each passage carries the end of the previous one as context.
+ *
+ * Cancelling the returned future (client gone, request timed out) stops
+ * the remaining passages from being sent and cancels those in flight.
+ * One failed passage fails the document; retries happen further down.
+ */
+public class DocumentTranslator {
+    
+    private final LLMService llmService;
+    private final DocumentChunker chunker;
+    private final int passageTokens;
+    private final int parallelism;
+    
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder passages = new LongAdder();
+    
+    public DocumentTranslator(LLMService llmService, TranslatorConfig config) {
+        this.llmService = llmService;
+        this.passageTokens = config.getInt("document.passageTokens", 500);
+        this.parallelism = Math.max(1, config.getInt("document.parallelism", 4));
+        this.chunker = new DocumentChunker(passageTokens, config.getInt("document.contextTokens", 60));
+    }
+    
+    /**
+     * Whether the text is long enough to be split
+     */
+    public boolean isLong(String text) {
+        return TokenEstimator.estimate(text) > passageTokens;
+    }
+    
+    /**
+     * @param onPart receives each passage translation followed by its separator, in
+     *               document order; may be null. Throwing from it fails the document.
+     */
+    public CompletableFuture<TranslationResult> translate(String text, Consumer<String> onPart) {
+        List<DocumentChunker.Passage> split = chunker.split(text);
+        if (split.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Text to translate cannot be empty"));
+        }
+        documents.increment();
+        passages.add(split.size());
+        Translation translation = new Translation(split, onPart);
+        translation.pump();
+        return translation.result;
+    }
+    
+    public int getPassageTokens() {
+        return passageTokens;
+    }
+    
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    public long getDocumentCount() {
+        return documents.sum();
+    }
+    
+    public long getPassageCount() {
+        return passages.sum();
+    }
+    
+    /**
+     * State of one document in progress
+     */
+    private final class Translation {
+        final List<DocumentChunker.Passage> passages;
+        final Consumer<String> onPart;
+        final CompletableFuture<TranslationResult> result = new CompletableFuture<>();
+        // Passages after the first few are started from completion callbacks, on other threads
+        final CallContext callContext = CallContext.current();
+        final TranslationResult[] translated;
+        final CompletableFuture<?>[] calls;
+        final AtomicInteger inFlight = new AtomicInteger();
+        // Serializes pump() without recursion when passages complete synchronously (cache hits)
+        final AtomicInteger pumpRequests = new AtomicInteger();
+        int next;
+        int emitted;
+        
+        Translation(List<DocumentChunker.Passage> passages, Consumer<String> onPart) {
+            this.passages = passages;
+            this.onPart = onPart;
+            this.translated = new TranslationResult[passages.size()];
+            this.calls = new CompletableFuture<?>[passages.size()];
+            result.whenComplete((value, error) -> {
+                if (error != null) {
+                    cancelCalls();
+                }
+            });
+        }
+        
+        /**
+         * Start passages until parallelism are in flight or none are left
+         */
+        void pump() {
+            if (pumpRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (!result.isDone() && next < passages.size() && inFlight.get() < parallelism) {
+                    start(next++);
+                }
+                missed = pumpRequests.addAndGet(-missed);
+            } while (missed != 0);
+        }
+        
+        void start(int index) {
+            DocumentChunker.Passage passage = passages.get(index);
+            inFlight.incrementAndGet();
+            CompletableFuture<TranslationResult> call;
+            try (CallContext.Scope ignored = callContext.open()) {
+                call = llmService.translateDetailedAsync(passage.getText(), passage.getContext());
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            synchronized (calls) {
+                calls[index] = call;
+            }
+            if (result.isDone() && !call.isDone()) {
+                call.cancel(true);
+            }
+            call.whenComplete((value, error) -> {
+                inFlight.decrementAndGet();
+                if (error != null) {
+                    result.completeExceptionally(Futures.unwrap(error));
+                    return;
+                }
+                completed(index, value);
+                pump();
+            });
+        }
+        
+        /**
+         * Record a passage and hand out every translation that is now next in order
+         */
+        void completed(int index, TranslationResult value) {
+            synchronized (translated) {
+                translated[index] = value;
+                try {
+                    while (emitted < translated.length && translated[emitted] != null && !result.isDone()) {
+                        if (onPart != null) {
+                            onPart.accept(translated[emitted].getText() + passages.get(emitted).getSeparator());
+                        }
+                        emitted++;
+                    }
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                if (emitted == translated.length) {
+                    result.complete(join());
+                }
+            }
+        }
+        
+        TranslationResult join() {
+            StringBuilder text = new StringBuilder();
+            boolean cached = true;
+            String engine = null;
+            for (int i = 0; i < translated.length; i++) {
+                text.append(translated[i].getText()).append(passages.get(i).getSeparator());
+                cached &= translated[i].isCached();
+                // Report the model when any passage needed one, otherwise where the first came from
+                if (engine == null && !translated[i].isCached()) {
+                    engine = translated[i].getEngine();
+                }
+            }
+            return new TranslationResult(text.toString().strip(), cached,
+                engine != null ? engine : translated[0].getEngine());
+        }
+        
+        void cancelCalls() {
+            synchronized (calls) {
+                for (CompletableFuture<?> call : calls) {
+                    if (call != null) {
+                        call.cancel(true);
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
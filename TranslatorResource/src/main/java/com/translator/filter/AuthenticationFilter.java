@@ -1,8 +1,15 @@
 package com.translator.filter;
 
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import com.translator.metrics.Histogram;
+import com.translator.metrics.MetricsRegistry;
 import com.translator.model.User;
+import com.translator.security.CredentialCache;
+import com.translator.security.TokenService;
 import com.translator.security.UserRepository;
 import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.Priorities;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
@@ -20,9 +27,29 @@ import java.util.Base64;
 @Priority(Priorities.AUTHENTICATION)
 public class AuthenticationFilter implements ContainerRequestFilter {
     
+    private static final Logger REQUEST_LOG = Logger.get(AuthenticationFilter.class).sampled("requests", 100);
+    
     private static final String AUTHENTICATION_SCHEME = "Basic";
+    private static final String BEARER_SCHEME = "Bearer";
     private static final String REALM = "Darija Translator API";
     
+    private final UserRepository userRepository;
+    private final CredentialCache credentialCache;
+    private final TokenService tokenService;
+    private final Histogram authStage;
+    
+    @Inject
+    public AuthenticationFilter(TranslatorConfig config, TokenService tokenService, MetricsRegistry metrics) {
+        this.userRepository = UserRepository.getInstance();
+        this.tokenService = tokenService;
+        this.authStage = metrics.stage("auth");
+        this.credentialCache = config.getBoolean("auth.cache.enabled", true)
+                ? new CredentialCache(userRepository,
+                        config.getInt("auth.cache.maxEntries", 10_000),
+                        config.getLong("auth.cache.ttlSeconds", 300) * 1000L)
+                : null;
+    }
+    
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
         // Skip authentication for health endpoint
@@ -31,45 +58,54 @@ public class AuthenticationFilter implements ContainerRequestFilter {
             return;
         }
         
+        long start = System.nanoTime();
+        try {
+            authenticate(requestContext);
+        } finally {
+            authStage.observeSince(start);
+        }
+    }
+    
+    private void authenticate(ContainerRequestContext requestContext) {
         // Get Authorization header
         String authorizationHeader = requestContext.getHeaderString(HttpHeaders.AUTHORIZATION);
         
-        // Check if Authorization header is present
-        if (authorizationHeader == null || !authorizationHeader.startsWith(AUTHENTICATION_SCHEME + " ")) {
-            abortWithUnauthorized(requestContext, "Missing or invalid Authorization header");
-            return;
-        }
-        
-        // Extract and decode credentials
-        String base64Credentials = authorizationHeader.substring(AUTHENTICATION_SCHEME.length()).trim();
-        String credentials;
-        try {
-            byte[] decodedBytes = Base64.getDecoder().decode(base64Credentials);
-            credentials = new String(decodedBytes, StandardCharsets.UTF_8);
-        } catch (IllegalArgumentException e) {
-            abortWithUnauthorized(requestContext, "Invalid Base64 encoding");
+        // Bearer tokens are checked with a single HMAC, without a repository lookup
+        if (authorizationHeader != null && authorizationHeader.startsWith(BEARER_SCHEME + " ")) {
+            User user = tokenService.verify(authorizationHeader.substring(BEARER_SCHEME.length()).trim());
+            if (user == null) {
+                abortWithUnauthorized(requestContext, "Invalid or expired token");
+                return;
+            }
+            setSecurityContext(requestContext, user, BEARER_SCHEME);
             return;
         }
         
-        // Split username and password
-        String[] values = credentials.split(":", 2);
-        if (values.length != 2) {
-            abortWithUnauthorized(requestContext, "Invalid credentials format");
+        // Check if Authorization header is present
+        if (authorizationHeader == null || !authorizationHeader.startsWith(AUTHENTICATION_SCHEME + " ")) {
+            abortWithUnauthorized(requestContext, "Missing or invalid Authorization header");
             return;
         }
         
-        String username = values[0];
-        String password = values[1];
-        
-        // Authenticate user
-        User user = UserRepository.getInstance().authenticate(username, password);
-        
+        // Headers verified recently skip decoding and password hashing
+        User user = credentialCache != null ? credentialCache.lookup(authorizationHeader) : null;
         if (user == null) {
-            abortWithUnauthorized(requestContext, "Invalid username or password");
-            return;
+            user = verify(requestContext, authorizationHeader);
+            if (user == null) {
+                return;
+            }
+            if (credentialCache != null) {
+                credentialCache.store(authorizationHeader, user);
+            }
         }
         
         // Set security context
+        setSecurityContext(requestContext, user, AUTHENTICATION_SCHEME);
+        
+        REQUEST_LOG.info("User authenticated", "user", user.getUsername());
+    }
+    
+    private void setSecurityContext(ContainerRequestContext requestContext, User user, String scheme) {
         final SecurityContext currentSecurityContext = requestContext.getSecurityContext();
         requestContext.setSecurityContext(new SecurityContext() {
             @Override
@@ -89,11 +125,44 @@ public class AuthenticationFilter implements ContainerRequestFilter {
             
             @Override
             public String getAuthenticationScheme() {
-                return AUTHENTICATION_SCHEME;
+                return scheme;
             }
         });
+    }
+    
+    /**
+     * Decode Basic credentials and check them against the user repository.
+     * Aborts the request and returns null when they are not valid.
+     */
+    private User verify(ContainerRequestContext requestContext, String authorizationHeader) {
+        // Extract and decode credentials
+        String base64Credentials = authorizationHeader.substring(AUTHENTICATION_SCHEME.length()).trim();
+        String credentials;
+        try {
+            byte[] decodedBytes = Base64.getDecoder().decode(base64Credentials);
+            credentials = new String(decodedBytes, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            abortWithUnauthorized(requestContext, "Invalid Base64 encoding");
+            return null;
+        }
+        
+        // Split username and password
+        String[] values = credentials.split(":", 2);
+        if (values.length != 2) {
+            abortWithUnauthorized(requestContext, "Invalid credentials format");
+            return null;
+        }
         
-        System.out.println("User authenticated: " + username);
+        String username = values[0];
+        String password = values[1];
+        
+        // Authenticate user
+        User user = userRepository.authenticate(username, password);
+        
+        if (user == null) {
+            abortWithUnauthorized(requestContext, "Invalid username or password");
+        }
+        return user;
     }
     
     private void abortWithUnauthorized(ContainerRequestContext requestContext, String message) {
@@ -0,0 +1,164 @@
+package com.translator.filter;
+
+import com.translator.config.TranslatorConfig;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips response bodies for clients that send Accept-Encoding: gzip.
+ * Bodies shorter than compression.minBytes are sent as they are, where the
+ * gzip framing would cost more than it saves, and Server-Sent Events are
+ * never compressed so that each chunk reaches the client when it is sent.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionFilter implements ContainerResponseFilter, WriterInterceptor {
+    
+    private static final String GZIP = "gzip";
+    
+    // Marks requests whose response body may be compressed
+    private static final String COMPRESS_PROPERTY = CompressionFilter.class.getName() + ".compress";
+    
+    private final boolean enabled;
+    private final int minBytes;
+    
+    @Inject
+    public CompressionFilter(TranslatorConfig config) {
+        this.enabled = config.getBoolean("compression.enabled", true);
+        this.minBytes = config.getInt("compression.minBytes", 1024);
+    }
+    
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (!enabled || !responseContext.hasEntity()
+                || MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(responseContext.getMediaType())
+                || responseContext.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return;
+        }
+        
+        responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+            requestContext.setProperty(COMPRESS_PROPERTY, Boolean.TRUE);
+        }
+    }
+    
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if (context.getProperty(COMPRESS_PROPERTY) != null) {
+            context.setOutputStream(new CompressingOutputStream(context.getOutputStream(), context.getHeaders(), minBytes));
+        }
+        context.proceed();
+    }
+    
+    /**
+     * Whether an Accept-Encoding header allows gzip: "gzip, deflate, br" does, "gzip;q=0" does not
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase(GZIP)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Holds back the first minBytes of the body: a body that ends within
+     * them is written as it is, a longer one is gzipped from its start.
+     * Nothing reaches the container before that choice, so the
+     * Content-Encoding header can still be set when it is made.
+     */
+    private static final class CompressingOutputStream extends OutputStream {
+        
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private byte[] head;
+        private int headLength;
+        private OutputStream gzip;
+        
+        CompressingOutputStream(OutputStream target, MultivaluedMap<String, Object> headers, int minBytes) {
+            this.target = target;
+            this.headers = headers;
+            this.head = new byte[Math.max(0, minBytes)];
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            if (gzip == null && headLength < head.length) {
+                head[headLength++] = (byte) b;
+                return;
+            }
+            startCompressing();
+            gzip.write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (gzip == null && headLength + len <= head.length) {
+                System.arraycopy(b, off, head, headLength, len);
+                headLength += len;
+                return;
+            }
+            startCompressing();
+            gzip.write(b, off, len);
+        }
+        
+        private void startCompressing() throws IOException {
+            if (gzip != null) {
+                return;
+            }
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            gzip = new GZIPOutputStream(target, 8192);
+            gzip.write(head, 0, headLength);
+            head = null;
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            // Until the body is known to be long enough there is nothing to push yet
+            if (gzip != null) {
+                gzip.flush();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (gzip != null) {
+                gzip.close();
+            } else {
+                target.write(head, 0, headLength);
+                target.close();
+            }
+        }
+    }
+}
\ No newline at end of file
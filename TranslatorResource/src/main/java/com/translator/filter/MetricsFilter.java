@@ -0,0 +1,133 @@
+package com.translator.filter;
+
+import com.translator.metrics.Histogram;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.metrics.StatusCounters;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.uri.UriTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and answers by status code of every endpoint, the number of
+ * requests in flight, and the time spent writing response bodies. It is
+ * the first filter on the way in and the last on the way out, so the
+ * latency covers authentication and rate limiting too. For Server-Sent
+ * Events it ends when the stream starts.
+ */
+@Provider
+@PreMatching
+@Priority(1)
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+    
+    private static final String START_PROPERTY = MetricsFilter.class.getName() + ".start";
+    private static final String TIMED_WRITE_PROPERTY = MetricsFilter.class.getName() + ".write";
+    
+    private final MetricsRegistry metrics;
+    private final LongAdder inFlight = new LongAdder();
+    private final Histogram writeStage;
+    // Resource method, or the HTTP method of requests that matched none
+    private final ConcurrentMap<Object, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    
+    @Inject
+    public MetricsFilter(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        this.writeStage = metrics.stage("write");
+        metrics.gauge("translator_http_requests_in_flight", "Requests received and not answered yet", inFlight::sum);
+    }
+    
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        inFlight.increment();
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+    
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object start = requestContext.getProperty(START_PROPERTY);
+        if (start == null) {
+            return;
+        }
+        requestContext.removeProperty(START_PROPERTY);
+        inFlight.decrement();
+        
+        EndpointMetrics endpoint = endpoint(requestContext);
+        endpoint.latency.observeSince((Long) start);
+        endpoint.responses.increment(responseContext.getStatus());
+        
+        // An event stream writes each event separately for as long as it lasts
+        if (responseContext.hasEntity() && !MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(responseContext.getMediaType())) {
+            requestContext.setProperty(TIMED_WRITE_PROPERTY, Boolean.TRUE);
+        }
+    }
+    
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if (context.getProperty(TIMED_WRITE_PROPERTY) == null) {
+            context.proceed();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            context.proceed();
+        } finally {
+            writeStage.observeSince(start);
+        }
+    }
+    
+    private EndpointMetrics endpoint(ContainerRequestContext requestContext) {
+        ExtendedUriInfo uriInfo = (ExtendedUriInfo) requestContext.getUriInfo();
+        ResourceMethod method = uriInfo.getMatchedResourceMethod();
+        Object key = method != null ? method : requestContext.getMethod();
+        EndpointMetrics endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            String path = method != null ? path(uriInfo.getMatchedTemplates()) : "unmatched";
+            endpoint = endpoints.computeIfAbsent(key, k -> new EndpointMetrics(metrics, requestContext.getMethod(), path));
+        }
+        return endpoint;
+    }
+    
+    /**
+     * Path template of the matched method, e.g. /translator/jobs/{id}
+     */
+    private static String path(List<UriTemplate> matchedTemplates) {
+        StringBuilder path = new StringBuilder();
+        // Innermost template first
+        for (int i = matchedTemplates.size() - 1; i >= 0; i--) {
+            String template = matchedTemplates.get(i).getTemplate();
+            if (!template.isEmpty() && !template.equals("/")) {
+                path.append(template.startsWith("/") ? "" : "/").append(template);
+            }
+        }
+        return path.length() > 0 ? path.toString() : "/";
+    }
+    
+    private static final class EndpointMetrics {
+        private final Histogram latency;
+        private final StatusCounters responses;
+        
+        EndpointMetrics(MetricsRegistry metrics, String method, String path) {
+            this.latency = metrics.histogram("translator_http_request_duration_seconds",
+                "Time from receiving a request to having its response ready",
+                MetricsRegistry.LATENCY_BUCKETS, "method", method, "endpoint", path);
+            this.responses = new StatusCounters(metrics, "translator_http_responses_total",
+                "Responses by status code", "method", method, "endpoint", path);
+        }
+    }
+}
\ No newline at end of file
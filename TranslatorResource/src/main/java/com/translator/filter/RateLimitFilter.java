@@ -0,0 +1,80 @@
+package com.translator.filter;
+
+import com.translator.metrics.Histogram;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.ratelimit.RateLimiter;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the per-user and global request budgets on @RateLimited methods.
+ * Runs after AuthenticationFilter so the caller's principal and roles are known.
+ */
+@Provider
+@RateLimited
+@Priority(Priorities.AUTHENTICATION + 100)
+public class RateLimitFilter implements ContainerRequestFilter {
+    
+    private static final int TOO_MANY_REQUESTS = 429;
+    
+    private final RateLimiter rateLimiter;
+    private final Histogram rateLimitStage;
+    
+    @Inject
+    public RateLimitFilter(RateLimiter rateLimiter, MetricsRegistry metrics) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitStage = metrics.stage("rate_limit");
+    }
+    
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        if (!rateLimiter.isEnabled()) {
+            return;
+        }
+        
+        SecurityContext securityContext = requestContext.getSecurityContext();
+        Principal principal = securityContext != null ? securityContext.getUserPrincipal() : null;
+        if (principal == null) {
+            return;
+        }
+        
+        long now = System.nanoTime();
+        try {
+            long wait = rateLimiter.tryAcquireUser(principal.getName(), securityContext, now);
+            if (wait > 0) {
+                abortWithTooManyRequests(requestContext, wait, "Rate limit exceeded for user " + principal.getName());
+                return;
+            }
+            
+            wait = rateLimiter.tryAcquireGlobal(now);
+            if (wait > 0) {
+                // The user is not charged for a request the service turned away
+                rateLimiter.releaseUser(principal.getName());
+                abortWithTooManyRequests(requestContext, wait, "Translation service is busy, please retry later");
+            }
+        } finally {
+            rateLimitStage.observeSince(now);
+        }
+    }
+    
+    private void abortWithTooManyRequests(ContainerRequestContext requestContext, long waitNanos, String message) {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        requestContext.abortWith(
+            Response.status(TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .entity(new AuthenticationFilter.ErrorResponse(message))
+                .build()
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.translator.filter;
+
+import com.translator.logging.LogContext;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Gives every request a correlation id that is attached to its log lines
+ * and returned in X-Request-Id. A well-formed X-Request-Id sent by the
+ * client (or a proxy in front) is kept, so lines can be matched across
+ * services.
+ */
+@Provider
+@PreMatching
+@Priority(0)
+public class RequestIdFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    
+    public static final String HEADER = "X-Request-Id";
+    public static final String PROPERTY = RequestIdFilter.class.getName() + ".id";
+    
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        String requestId = requestContext.getHeaderString(HEADER);
+        if (requestId == null || !VALID_ID.matcher(requestId).matches()) {
+            // Not UUID.randomUUID(): SecureRandom would be shared by every request
+            requestId = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+        }
+        requestContext.setProperty(PROPERTY, requestId);
+        LogContext.set(requestId);
+    }
+    
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object requestId = requestContext.getProperty(PROPERTY);
+        if (requestId != null) {
+            responseContext.getHeaders().putSingle(HEADER, requestId);
+        }
+        // On the request thread; an asynchronous response leaves it to the next request's filter
+        LogContext.set(null);
+    }
+}
\ No newline at end of file
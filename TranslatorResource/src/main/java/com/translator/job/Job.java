@@ -0,0 +1,160 @@
+package com.translator.job;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * State of one bulk translation job, persisted as job.properties in the job directory.
+ *
+ * processed, inputOffset and resultsBytes form the checkpoint: the first
+ * processed input lines (inputOffset bytes) have their results in the first
+ * resultsBytes bytes of results.jsonl. Anything written past that was not
+ * checkpointed and is redone after a restart.
+ */
+public class Job {
+    
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+    
+    private final String id;
+    private final String owner;
+    private final int total;
+    private final long createdAt;
+    private volatile Status status;
+    private volatile int processed;
+    private volatile int failed;
+    private volatile long inputOffset;
+    private volatile long resultsBytes;
+    private volatile long updatedAt;
+    private volatile String error;
+    
+    Job(String id, String owner, int total) {
+        this.id = id;
+        this.owner = owner;
+        this.total = total;
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = createdAt;
+        this.status = Status.QUEUED;
+    }
+    
+    private Job(Properties properties) {
+        this.id = properties.getProperty("id");
+        this.owner = properties.getProperty("owner");
+        this.total = Integer.parseInt(properties.getProperty("total"));
+        this.createdAt = Long.parseLong(properties.getProperty("createdAt"));
+        this.status = Status.valueOf(properties.getProperty("status"));
+        this.processed = Integer.parseInt(properties.getProperty("processed", "0"));
+        this.failed = Integer.parseInt(properties.getProperty("failed", "0"));
+        this.inputOffset = Long.parseLong(properties.getProperty("inputOffset", "0"));
+        this.resultsBytes = Long.parseLong(properties.getProperty("resultsBytes", "0"));
+        this.updatedAt = Long.parseLong(properties.getProperty("updatedAt", properties.getProperty("createdAt")));
+        this.error = properties.getProperty("error");
+    }
+    
+    static Job load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+        }
+        try {
+            return new Job(properties);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt job state " + file + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Write the state to a temporary file and move it over the old one,
+     * so a crash leaves either the previous checkpoint or the new one
+     */
+    synchronized void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("id", id);
+        properties.setProperty("owner", owner);
+        properties.setProperty("total", String.valueOf(total));
+        properties.setProperty("createdAt", String.valueOf(createdAt));
+        properties.setProperty("status", status.name());
+        properties.setProperty("processed", String.valueOf(processed));
+        properties.setProperty("failed", String.valueOf(failed));
+        properties.setProperty("inputOffset", String.valueOf(inputOffset));
+        properties.setProperty("resultsBytes", String.valueOf(resultsBytes));
+        properties.setProperty("updatedAt", String.valueOf(updatedAt));
+        if (error != null) {
+            properties.setProperty("error", error);
+        }
+        
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temp)) {
+            properties.store(output, "Translation job");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    synchronized void checkpoint(int processed, int failed, long inputOffset, long resultsBytes) {
+        this.processed = processed;
+        this.failed = failed;
+        this.inputOffset = inputOffset;
+        this.resultsBytes = resultsBytes;
+        this.updatedAt = System.currentTimeMillis();
+    }
+    
+    synchronized void setStatus(Status status, String error) {
+        this.status = status;
+        this.error = error;
+        this.updatedAt = System.currentTimeMillis();
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public int getProcessed() {
+        return processed;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    long getInputOffset() {
+        return inputOffset;
+    }
+    
+    long getResultsBytes() {
+        return resultsBytes;
+    }
+    
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+}
\ No newline at end of file
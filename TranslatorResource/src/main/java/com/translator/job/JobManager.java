@@ -0,0 +1,447 @@
+package com.translator.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import com.translator.model.SegmentTranslation;
+import com.translator.model.TranslationResult;
+import com.translator.ratelimit.RateLimiter;
+import com.translator.resilience.CircuitOpenException;
+import com.translator.scheduling.AdmissionRejectedException;
+import com.translator.scheduling.CallContext;
+import com.translator.scheduling.TrafficClass;
+import com.translator.service.LLMService;
+import com.translator.service.UpstreamException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs bulk translation jobs in the background.
+ *
+ * Jobs wait in a FIFO queue for one of jobs.workers low-priority threads.
+ * A worker reads the job's input in packs of jobs.packSize lines, sends
+ * each pack through LLMService.translateBatch and appends the results,
+ * then checkpoints. Before each pack it takes a background permit from
+ * the global rate limit, which is only granted while interactive
+ * requests still have headroom, and its calls wait in the scheduler's
+ * batch class. Jobs that were queued or running when the service
+ * stopped are resumed from their last checkpoint on startup.
+ *
+ * Lines that fail because of the upstream (Gemini down or throttling,
+ * circuit open, scheduler full) are retried until they go through and are
+ * never written as failed; only lines refused for their own sake (blank,
+ * a 4xx answer) are.
+ */
+public class JobManager implements AutoCloseable {
+    
+    private static final Logger LOG = Logger.get(JobManager.class);
+    
+    // Pauses between attempts at lines that failed upstream, doubling up to the longest
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+    
+    private final TranslatorConfig config;
+    private final LLMService llmService;
+    private final RateLimiter rateLimiter;
+    private final int workerCount;
+    private final int packSize;
+    private final long retentionMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Job> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    
+    private final LongAdder completedJobs = new LongAdder();
+    private final LongAdder failedJobs = new LongAdder();
+    private final LongAdder processedLines = new LongAdder();
+    private final LongAdder failedLines = new LongAdder();
+    
+    private volatile JobStore store;
+    private volatile boolean closed;
+    
+    public JobManager(TranslatorConfig config, LLMService llmService, RateLimiter rateLimiter) {
+        this.config = config;
+        this.llmService = llmService;
+        this.rateLimiter = rateLimiter;
+        this.workerCount = Math.max(1, config.getInt("jobs.workers", 2));
+        this.packSize = Math.max(1, config.getInt("jobs.packSize", 50));
+        this.retentionMillis = TimeUnit.HOURS.toMillis(config.getLong("jobs.retentionHours", 168));
+    }
+    
+    /**
+     * Open the job directory, requeue unfinished jobs and start the workers.
+     * Without a usable directory the job API answers 503 and the rest of the service runs normally.
+     */
+    public void start() {
+        if (!config.getBoolean("jobs.enabled", true)) {
+            return;
+        }
+        String dir = config.get("jobs.dir",
+                Paths.get(System.getProperty("user.home"), ".darija-translator", "jobs").toString());
+        try {
+            store = new JobStore(Paths.get(dir),
+                    config.getInt("jobs.maxLines", 100000),
+                    config.getLong("jobs.maxUploadBytes", 64L * 1024 * 1024));
+        } catch (IOException e) {
+            LOG.warn("Bulk jobs disabled", "reason", e.getMessage());
+            return;
+        }
+        
+        store.deleteFinishedBefore(System.currentTimeMillis() - retentionMillis);
+        List<Job> unfinished = store.unfinished();
+        if (!unfinished.isEmpty()) {
+            LOG.info("Resuming translation jobs", "jobs", unfinished.size());
+        }
+        queue.addAll(unfinished);
+        
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "translator-job-" + i);
+            worker.setDaemon(true);
+            worker.setPriority(Thread.MIN_PRIORITY);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+    
+    public boolean isAvailable() {
+        return store != null && !closed;
+    }
+    
+    /**
+     * Store an upload as a new job and queue it
+     *
+     * @throws IllegalArgumentException if the upload is malformed or too large
+     */
+    public Job submit(String owner, InputStream upload) throws IOException {
+        Job job = requireStore().create(owner, upload);
+        queue.add(job);
+        return job;
+    }
+    
+    public Job get(String id) {
+        return store != null ? store.get(id) : null;
+    }
+    
+    /**
+     * Results of the checkpointed lines of a job, as JSON lines; never a partly written line
+     */
+    public InputStream openResults(Job job) throws IOException {
+        FileChannel channel = FileChannel.open(requireStore().resultsFile(job), StandardOpenOption.READ);
+        long length = job.getResultsBytes();
+        InputStream stream = Channels.newInputStream(channel);
+        return new InputStream() {
+            private long remaining = length;
+            
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = stream.read();
+                if (b >= 0) {
+                    remaining--;
+                }
+                return b;
+            }
+            
+            @Override
+            public int read(byte[] buffer, int offset, int count) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int n = stream.read(buffer, offset, (int) Math.min(count, remaining));
+                if (n > 0) {
+                    remaining -= n;
+                }
+                return n;
+            }
+            
+            @Override
+            public void close() throws IOException {
+                stream.close();
+            }
+        };
+    }
+    
+    public int getQueueLength() {
+        return queue.size();
+    }
+    
+    public long getCompletedJobCount() {
+        return completedJobs.sum();
+    }
+    
+    public long getFailedJobCount() {
+        return failedJobs.sum();
+    }
+    
+    /**
+     * Lines written to results files, failed ones included
+     */
+    public long getProcessedLineCount() {
+        return processedLines.sum();
+    }
+    
+    public long getFailedLineCount() {
+        return failedLines.sum();
+    }
+    
+    private JobStore requireStore() {
+        JobStore current = store;
+        if (current == null || closed) {
+            throw new IllegalStateException("Bulk translation jobs are not available");
+        }
+        return current;
+    }
+    
+    private void work() {
+        while (!closed) {
+            Job job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Jobs queue for upstream slots behind interactive traffic
+            try (CallContext.Scope ignored = new CallContext(TrafficClass.BATCH, job.getOwner()).open()) {
+                process(job);
+            } catch (InterruptedException e) {
+                // Shutting down: the job stays RUNNING and resumes from its checkpoint on restart
+                return;
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Translation job failed", e, "job", job.getId());
+                job.setStatus(Job.Status.FAILED, e.getMessage());
+                saveQuietly(job);
+                failedJobs.increment();
+            }
+            store.deleteFinishedBefore(System.currentTimeMillis() - retentionMillis);
+        }
+    }
+    
+    private void process(Job job) throws IOException, InterruptedException {
+        job.setStatus(Job.Status.RUNNING, null);
+        store.save(job);
+        
+        try (FileChannel input = FileChannel.open(store.inputFile(job), StandardOpenOption.READ);
+             FileChannel results = FileChannel.open(store.resultsFile(job), StandardOpenOption.WRITE)) {
+            // Drop results written after the last checkpoint; those lines are translated again
+            results.truncate(job.getResultsBytes());
+            results.position(job.getResultsBytes());
+            input.position(job.getInputOffset());
+            InputStream lines = new BufferedInputStream(Channels.newInputStream(input));
+            
+            int processed = job.getProcessed();
+            int failed = job.getFailed();
+            long inputOffset = job.getInputOffset();
+            long resultsBytes = job.getResultsBytes();
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            
+            while (processed < job.getTotal()) {
+                if (closed) {
+                    throw new InterruptedException();
+                }
+                
+                List<JsonNode> records = new ArrayList<>(packSize);
+                long packBytes = 0;
+                while (records.size() < packSize) {
+                    long read = readLine(lines, line);
+                    if (read == 0) {
+                        break;
+                    }
+                    packBytes += read;
+                    records.add(objectMapper.readTree(line.toByteArray()));
+                }
+                if (records.isEmpty()) {
+                    throw new IOException("Input ended after " + processed + " of " + job.getTotal() + " lines");
+                }
+                
+                List<TranslationResult> translated = translatePack(records);
+                // Lines cut short by a shutdown are not results; they resume from the checkpoint
+                if (closed || Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                for (int i = 0; i < records.size(); i++) {
+                    TranslationResult result = translated.get(i);
+                    if (!result.isSuccess()) {
+                        failed++;
+                        failedLines.increment();
+                    }
+                    out.write(objectMapper.writeValueAsBytes(resultLine(processed + i, records.get(i), result)));
+                    out.write('\n');
+                }
+                
+                ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+                while (buffer.hasRemaining()) {
+                    results.write(buffer);
+                }
+                results.force(false);
+                
+                processed += records.size();
+                processedLines.add(records.size());
+                inputOffset += packBytes;
+                resultsBytes += out.size();
+                job.checkpoint(processed, failed, inputOffset, resultsBytes);
+                store.save(job);
+            }
+        }
+        
+        job.setStatus(Job.Status.COMPLETED, null);
+        store.save(job);
+        completedJobs.increment();
+        LOG.info("Translation job completed", "job", job.getId(), "lines", job.getTotal(),
+                "failedLines", job.getFailed());
+    }
+    
+    /**
+     * Translate one pack. Lines that failed upstream are sent again with
+     * backoff, for as long as it takes; the pause starts over whenever a
+     * line goes through.
+     */
+    private List<TranslationResult> translatePack(List<JsonNode> records) throws InterruptedException {
+        List<TranslationResult> results = new ArrayList<>(records.size());
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (records.get(i).path("text").asText().trim().isEmpty()) {
+                results.add(TranslationResult.failed("Text to translate is required"));
+            } else {
+                results.add(null);
+                pending.add(i);
+            }
+        }
+        
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (!pending.isEmpty()) {
+            awaitBackgroundPermit();
+            List<String> texts = new ArrayList<>(pending.size());
+            for (int index : pending) {
+                texts.add(records.get(index).path("text").asText());
+            }
+            List<TranslationResult> translated = llmService.translateBatch(texts);
+            if (closed || Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            
+            List<Integer> retry = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                TranslationResult result = translated.get(i);
+                if (!result.isSuccess() && isUpstreamFailure(result.getFailure())) {
+                    retry.add(pending.get(i));
+                } else {
+                    results.set(pending.get(i), result);
+                    if (result.isSuccess()) {
+                        backoff = INITIAL_BACKOFF_MILLIS;
+                    }
+                }
+            }
+            if (retry.isEmpty()) {
+                break;
+            }
+            LOG.warn("Pack lines failed upstream, retrying", "lines", retry.size(), "backoffMillis", backoff);
+            TimeUnit.MILLISECONDS.sleep(backoff);
+            backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+            pending = retry;
+        }
+        return results;
+    }
+    
+    /**
+     * Failures that say nothing about the line itself: Gemini unavailable or
+     * throttling (5xx, 429), timeouts, I/O errors, an open circuit or a full scheduler
+     */
+    static boolean isUpstreamFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UpstreamException) {
+                int status = ((UpstreamException) cause).getStatusCode();
+                return status >= 500 || status == 429;
+            }
+            if (cause instanceof CircuitOpenException || cause instanceof AdmissionRejectedException
+                    || cause instanceof IOException || cause instanceof TimeoutException
+                    || cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Wait until the global rate limit has capacity that interactive requests are not using
+     */
+    private void awaitBackgroundPermit() throws InterruptedException {
+        long wait;
+        while ((wait = rateLimiter.tryAcquireBackground(System.nanoTime())) > 0) {
+            if (closed) {
+                throw new InterruptedException();
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(wait, TimeUnit.MILLISECONDS.toNanos(50)));
+        }
+    }
+    
+    private ObjectNode resultLine(int index, JsonNode record, TranslationResult result) {
+        ObjectNode node = objectMapper.valueToTree(new SegmentTranslation(index, record.path("text").asText(), result));
+        JsonNode recordId = record.get("id");
+        if (recordId != null) {
+            node.set("id", recordId);
+        }
+        return node;
+    }
+    
+    /**
+     * Read one input line (without its newline) into line
+     *
+     * @return bytes consumed including the newline, 0 at end of input
+     */
+    private static long readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        long consumed = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            consumed++;
+            if (b == '\n') {
+                break;
+            }
+            line.write(b);
+        }
+        return consumed;
+    }
+    
+    private void saveQuietly(Job job) {
+        try {
+            store.save(job);
+        } catch (IOException e) {
+            LOG.warn("Could not save job", "job", job.getId(), "reason", e.getMessage());
+        }
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
\ No newline at end of file
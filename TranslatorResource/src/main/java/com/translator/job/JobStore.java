@@ -0,0 +1,245 @@
+package com.translator.job;
+
+import com.translator.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Job directories on disk: one per job, holding the normalized upload
+ * (input.jsonl), the results written so far (results.jsonl) and the job
+ * state with its checkpoint (job.properties).
+ */
+public class JobStore {
+    
+    private static final Logger LOG = Logger.get(JobStore.class);
+    
+    static final String INPUT_FILE = "input.jsonl";
+    static final String RESULTS_FILE = "results.jsonl";
+    static final String STATE_FILE = "job.properties";
+    
+    private final Path directory;
+    private final int maxLines;
+    private final long maxUploadBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+    
+    public JobStore(Path directory, int maxLines, long maxUploadBytes) throws IOException {
+        this.directory = directory;
+        this.maxLines = maxLines;
+        this.maxUploadBytes = maxUploadBytes;
+        Files.createDirectories(directory);
+        loadAll();
+    }
+    
+    /**
+     * Validate a JSONL upload and store it as a new queued job.
+     * Each non-blank line is a JSON string, or an object with a "text"
+     * string and an optional "id" that is echoed in the results.
+     *
+     * @throws IllegalArgumentException if a line is malformed or the upload is too large
+     */
+    public Job create(String owner, InputStream upload) throws IOException {
+        String id = UUID.randomUUID().toString().replace("-", "");
+        Path jobDirectory = directory.resolve(id);
+        Files.createDirectories(jobDirectory);
+        try {
+            int total = writeInput(upload, jobDirectory.resolve(INPUT_FILE));
+            Files.createFile(jobDirectory.resolve(RESULTS_FILE));
+            Job job = new Job(id, owner, total);
+            job.save(jobDirectory.resolve(STATE_FILE));
+            jobs.put(id, job);
+            return job;
+        } catch (IOException | RuntimeException e) {
+            deleteDirectory(jobDirectory);
+            throw e;
+        }
+    }
+    
+    private int writeInput(InputStream upload, Path input) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new LimitedInputStream(upload, maxUploadBytes), StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        int total = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (++total > maxLines) {
+                    throw new IllegalArgumentException("Too many lines (maximum " + maxLines + ")");
+                }
+                writer.write(objectMapper.writeValueAsString(normalize(line, lineNumber)));
+                writer.write('\n');
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("No lines to translate");
+        }
+        return total;
+    }
+    
+    private ObjectNode normalize(String line, int lineNumber) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not valid JSON");
+        }
+        
+        ObjectNode record = objectMapper.createObjectNode();
+        if (node.isTextual()) {
+            record.put("text", node.asText());
+        } else if (node.isObject() && node.path("text").isTextual()) {
+            JsonNode recordId = node.get("id");
+            if (recordId != null && !recordId.isNull()) {
+                if (!recordId.isValueNode()) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": \"id\" must be a string or number");
+                }
+                record.set("id", recordId);
+            }
+            record.put("text", node.get("text").asText());
+        } else {
+            throw new IllegalArgumentException("Line " + lineNumber + " must be a string or an object with a \"text\" string");
+        }
+        return record;
+    }
+    
+    public Job get(String id) {
+        return jobs.get(id);
+    }
+    
+    /**
+     * Jobs that were queued or running when the service last stopped, oldest first
+     */
+    public List<Job> unfinished() {
+        List<Job> unfinished = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            if (!job.isFinished()) {
+                unfinished.add(job);
+            }
+        }
+        unfinished.sort(Comparator.comparingLong(Job::getCreatedAt));
+        return unfinished;
+    }
+    
+    /**
+     * Delete finished jobs last updated before the cutoff
+     */
+    public int deleteFinishedBefore(long cutoffMillis) {
+        int deleted = 0;
+        for (Job job : jobs.values()) {
+            if (job.isFinished() && job.getUpdatedAt() < cutoffMillis && jobs.remove(job.getId(), job)) {
+                deleteDirectory(directory.resolve(job.getId()));
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+    
+    public Path inputFile(Job job) {
+        return directory.resolve(job.getId()).resolve(INPUT_FILE);
+    }
+    
+    public Path resultsFile(Job job) {
+        return directory.resolve(job.getId()).resolve(RESULTS_FILE);
+    }
+    
+    public void save(Job job) throws IOException {
+        job.save(directory.resolve(job.getId()).resolve(STATE_FILE));
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    private void loadAll() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                Path state = entry.resolve(STATE_FILE);
+                if (!Files.isRegularFile(state)) {
+                    continue;
+                }
+                try {
+                    Job job = Job.load(state);
+                    jobs.put(job.getId(), job);
+                } catch (IOException e) {
+                    LOG.warn("Skipping unreadable job", "job", entry.getFileName().toString(), "reason", e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private static void deleteDirectory(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOG.warn("Could not delete job file", "path", file.toString(), "reason", e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            LOG.warn("Could not delete job", "path", path.toString(), "reason", e.getMessage());
+        }
+    }
+    
+    /**
+     * Rejects uploads over the size limit while they are being read, before they fill the disk
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+        
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+        
+        private void count(long n) {
+            count += n;
+            if (count > limit) {
+                throw new IllegalArgumentException("Upload too large (maximum " + limit + " bytes)");
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.translator.logging;
+
+import java.util.Locale;
+
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR;
+    
+    public static Level fromString(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid log level: " + value);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.translator.logging;
+
+/**
+ * The request id attached to the log events of the calling thread.
+ *
+ * RequestIdFilter sets it on the request thread; like CallContext, work
+ * handed to other threads (executor tasks, completion callbacks) has to
+ * carry it over with open().
+ */
+public final class LogContext {
+    
+    private static final ThreadLocal<String> REQUEST_ID = new ThreadLocal<>();
+    
+    private LogContext() {
+    }
+    
+    /**
+     * The request id of the calling thread, or null outside a request
+     */
+    public static String requestId() {
+        return REQUEST_ID.get();
+    }
+    
+    /**
+     * Make requestId current until the scope is closed
+     */
+    public static Scope open(String requestId) {
+        String previous = REQUEST_ID.get();
+        set(requestId);
+        return () -> set(previous);
+    }
+    
+    /**
+     * Replace the request id of the calling thread; null clears it. For
+     * filters, which cannot wrap the request in a scope.
+     */
+    public static void set(String requestId) {
+        if (requestId != null) {
+            REQUEST_ID.set(requestId);
+        } else {
+            REQUEST_ID.remove();
+        }
+    }
+    
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
\ No newline at end of file
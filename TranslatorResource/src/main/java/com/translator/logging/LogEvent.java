@@ -0,0 +1,31 @@
+package com.translator.logging;
+
+/**
+ * One log line as captured on the calling thread; formatted later by the writer
+ */
+final class LogEvent {
+    
+    final long timestamp;
+    final Level level;
+    final String logger;
+    final String thread;
+    final String requestId;
+    final String message;
+    // Name/value pairs
+    final Object[] fields;
+    final Throwable error;
+    // 1 in sampleRate events of this kind was kept
+    final int sampleRate;
+    
+    LogEvent(Level level, String logger, String message, Object[] fields, Throwable error, int sampleRate) {
+        this.timestamp = System.currentTimeMillis();
+        this.level = level;
+        this.logger = logger;
+        this.thread = Thread.currentThread().getName();
+        this.requestId = LogContext.requestId();
+        this.message = message;
+        this.fields = fields;
+        this.error = error;
+        this.sampleRate = sampleRate;
+    }
+}
\ No newline at end of file
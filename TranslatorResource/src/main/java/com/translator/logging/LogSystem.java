@@ -0,0 +1,298 @@
+package com.translator.logging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.translator.config.TranslatorConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The asynchronous log pipeline shared by every Logger.
+ *
+ * Events go into a lock-free ring buffer; a single writer thread drains
+ * it in batches, formats each event as one JSON line and writes the batch
+ * with one call per output: the rolling file under log.dir and, unless
+ * log.console=false, standard output. When the buffer is full events are
+ * dropped and counted rather than making the caller wait; the writer
+ * reports how many were lost.
+ *
+ * Until configure() runs (at startup, or never in benchmarks and tools)
+ * events go to standard output at INFO.
+ */
+public final class LogSystem {
+    
+    private static final int BUFFER_SIZE = 16384;
+    // Events formatted per write
+    private static final int BATCH_SIZE = 512;
+    // How long the idle writer sleeps when nobody wakes it
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    private static final RingBuffer<LogEvent> BUFFER = new RingBuffer<>(BUFFER_SIZE);
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder WRITTEN = new LongAdder();
+    private static final ConcurrentMap<String, Integer> SAMPLE_RATES = new ConcurrentHashMap<>();
+    
+    private static volatile Level level = Level.INFO;
+    private static volatile Outputs outputs = new Outputs(true, null);
+    private static volatile TranslatorConfig config;
+    private static volatile boolean writerIdle;
+    private static volatile boolean running = true;
+    private static final Thread WRITER = startWriter();
+    
+    private LogSystem() {
+    }
+    
+    /**
+     * Apply the log.* settings; the file is opened here so a bad directory
+     * is reported at startup, and the service then logs to standard output
+     */
+    public static void configure(TranslatorConfig translatorConfig) {
+        config = translatorConfig;
+        SAMPLE_RATES.clear();
+        level = Level.fromString(translatorConfig.get("log.level", "INFO"));
+        boolean console = translatorConfig.getBoolean("log.console", true);
+        RollingLogFile file = null;
+        if (translatorConfig.getBoolean("log.file.enabled", true)) {
+            String dir = translatorConfig.get("log.dir",
+                    Paths.get(System.getProperty("user.home"), ".darija-translator", "logs").toString());
+            try {
+                file = new RollingLogFile(Paths.get(dir),
+                        translatorConfig.getLong("log.maxFileBytes", 50L * 1024 * 1024),
+                        translatorConfig.getInt("log.maxFiles", 5));
+            } catch (IOException e) {
+                console = true;
+                Logger.get(LogSystem.class).warn("File logging disabled", "dir", dir, "reason", e.getMessage());
+            }
+        }
+        outputs = new Outputs(console, file);
+        if (file != null) {
+            Logger.get(LogSystem.class).info("Logging to file", "path", file.getPath().toString(), "level", level.name());
+        }
+    }
+    
+    public static boolean isEnabled(Level candidate) {
+        return candidate.compareTo(level) >= 0;
+    }
+    
+    static int sampleRate(String key, int defaultRate) {
+        Integer rate = SAMPLE_RATES.get(key);
+        if (rate == null) {
+            TranslatorConfig current = config;
+            rate = Math.max(1, current != null ? current.getInt("log.sample." + key, defaultRate) : defaultRate);
+            SAMPLE_RATES.put(key, rate);
+        }
+        return rate;
+    }
+    
+    static void publish(LogEvent event) {
+        if (!BUFFER.offer(event)) {
+            DROPPED.increment();
+            return;
+        }
+        if (writerIdle) {
+            LockSupport.unpark(WRITER);
+        }
+    }
+    
+    /**
+     * Events lost because the buffer was full
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+    
+    public static long getWrittenCount() {
+        return WRITTEN.sum();
+    }
+    
+    /**
+     * Write what is still buffered and close the log file
+     */
+    public static void shutdown() {
+        running = false;
+        LockSupport.unpark(WRITER);
+        try {
+            WRITER.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static Thread startWriter() {
+        Thread thread = new Thread(new Writer(), "log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+    
+    private static final class Outputs {
+        final boolean console;
+        final RollingLogFile file;
+        
+        Outputs(boolean console, RollingLogFile file) {
+            this.console = console;
+            this.file = file;
+        }
+    }
+    
+    private static final class Writer implements Runnable {
+        
+        private final JsonFactory jsonFactory = new JsonFactory();
+        private final ByteArrayOutputStream batch = new ByteArrayOutputStream(64 * 1024);
+        private Outputs current = outputs;
+        private long reportedDrops;
+        
+        Writer() {
+            jsonFactory.setRootValueSeparator(null);
+            jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+        
+        @Override
+        public void run() {
+            while (true) {
+                int count = drain();
+                if (count > 0) {
+                    WRITTEN.add(count);
+                    flush();
+                    continue;
+                }
+                if (!running) {
+                    break;
+                }
+                writerIdle = true;
+                if (BUFFER.isEmpty() && running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerIdle = false;
+            }
+            closeFile(current.file);
+        }
+        
+        /**
+         * Format up to one batch of events into the batch buffer
+         */
+        private int drain() {
+            int count = 0;
+            try (JsonGenerator json = jsonFactory.createGenerator(batch)) {
+                long dropped = DROPPED.sum();
+                if (dropped > reportedDrops) {
+                    write(json, new LogEvent(Level.WARN, "LogSystem", "Log buffer full, events dropped",
+                            new Object[] {"dropped", dropped - reportedDrops}, null, 1));
+                    reportedDrops = dropped;
+                    count++;
+                }
+                LogEvent event;
+                while (count < BATCH_SIZE && (event = BUFFER.poll()) != null) {
+                    write(json, event);
+                    count++;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Nowhere left to log this; drop the half-written batch
+                System.err.println("Could not format log events: " + e);
+                batch.reset();
+                return 0;
+            }
+            return count;
+        }
+        
+        private void write(JsonGenerator json, LogEvent event) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("time", Instant.ofEpochMilli(event.timestamp).toString());
+            json.writeStringField("level", event.level.name());
+            json.writeStringField("logger", event.logger);
+            json.writeStringField("thread", event.thread);
+            if (event.requestId != null) {
+                json.writeStringField("requestId", event.requestId);
+            }
+            json.writeStringField("message", event.message);
+            Object[] fields = event.fields;
+            for (int i = 0; i + 1 < fields.length; i += 2) {
+                json.writeFieldName(String.valueOf(fields[i]));
+                writeValue(json, fields[i + 1]);
+            }
+            if (event.sampleRate > 1) {
+                json.writeNumberField("sampleRate", event.sampleRate);
+            }
+            if (event.error != null) {
+                json.writeStringField("error", event.error.toString());
+                StringWriter stackTrace = new StringWriter();
+                event.error.printStackTrace(new PrintWriter(stackTrace));
+                json.writeStringField("stackTrace", stackTrace.toString());
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        
+        private static void writeValue(JsonGenerator json, Object value) throws IOException {
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof Integer || value instanceof Long) {
+                json.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Number) {
+                json.writeNumber(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                json.writeBoolean((Boolean) value);
+            } else {
+                String text;
+                try {
+                    text = value.toString();
+                } catch (RuntimeException e) {
+                    text = "<" + e + ">";
+                }
+                json.writeString(text);
+            }
+        }
+        
+        /**
+         * Write the formatted batch to each output with one call
+         */
+        private void flush() {
+            Outputs latest = outputs;
+            if (latest != current) {
+                if (latest.file != current.file) {
+                    closeFile(current.file);
+                }
+                current = latest;
+            }
+            byte[] bytes = batch.toByteArray();
+            batch.reset();
+            if (current.console) {
+                System.out.write(bytes, 0, bytes.length);
+                System.out.flush();
+            }
+            if (current.file != null) {
+                try {
+                    current.file.write(bytes, bytes.length);
+                } catch (IOException e) {
+                    // Keep the lines somewhere rather than losing them with the file
+                    System.err.println("Log file write failed: " + e.getMessage());
+                    if (!current.console) {
+                        System.out.write(bytes, 0, bytes.length);
+                        System.out.flush();
+                    }
+                }
+            }
+        }
+        
+        private static void closeFile(RollingLogFile file) {
+            if (file == null) {
+                return;
+            }
+            try {
+                file.close();
+            } catch (IOException e) {
+                System.err.println("Could not close log file: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.translator.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Structured logging for one class.
+ *
+ * A call checks the level (and the sampling rate, for sampled loggers) on
+ * the calling thread, captures the event and hands it to LogSystem, which
+ * writes it as a JSON line from its own thread; the caller never waits
+ * for I/O. Fields are name/value pairs that become JSON properties:
+ *
+ *     LOG.warn("Translation job failed", "job", job.getId(), "reason", e.getMessage());
+ */
+public final class Logger {
+    
+    private final String name;
+    private final String sampleKey;
+    private final int defaultSampleRate;
+    
+    private Logger(String name, String sampleKey, int defaultSampleRate) {
+        this.name = name;
+        this.sampleKey = sampleKey;
+        this.defaultSampleRate = defaultSampleRate;
+    }
+    
+    public static Logger get(Class<?> type) {
+        return new Logger(type.getSimpleName(), null, 1);
+    }
+    
+    /**
+     * A logger for high-volume events (one per request) that keeps 1 in
+     * log.sample.KEY of them, defaultRate unless configured. Warnings and
+     * errors are never sampled.
+     */
+    public Logger sampled(String key, int defaultRate) {
+        return new Logger(name, key, Math.max(1, defaultRate));
+    }
+    
+    public boolean isEnabled(Level level) {
+        return LogSystem.isEnabled(level);
+    }
+    
+    public void debug(String message, Object... fields) {
+        log(Level.DEBUG, message, null, fields);
+    }
+    
+    public void info(String message, Object... fields) {
+        log(Level.INFO, message, null, fields);
+    }
+    
+    public void warn(String message, Object... fields) {
+        log(Level.WARN, message, null, fields);
+    }
+    
+    public void warn(String message, Throwable error, Object... fields) {
+        log(Level.WARN, message, error, fields);
+    }
+    
+    public void error(String message, Throwable error, Object... fields) {
+        log(Level.ERROR, message, error, fields);
+    }
+    
+    private void log(Level level, String message, Throwable error, Object[] fields) {
+        if (!LogSystem.isEnabled(level)) {
+            return;
+        }
+        int sampleRate = 1;
+        if (sampleKey != null && level.compareTo(Level.WARN) < 0) {
+            sampleRate = LogSystem.sampleRate(sampleKey, defaultSampleRate);
+            if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+                return;
+            }
+        }
+        LogSystem.publish(new LogEvent(level, name, message, fields, error, sampleRate));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.translator.logging;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * translator.log in the log directory, rolled over to translator.log.1,
+ * .2 ... when it would grow past maxBytes; the oldest of maxFiles is
+ * deleted. Only the writer thread uses it.
+ */
+final class RollingLogFile implements AutoCloseable {
+    
+    private static final String NAME = "translator.log";
+    
+    private final Path dir;
+    private final long maxBytes;
+    private final int maxFiles;
+    private FileOutputStream out;
+    private long size;
+    
+    RollingLogFile(Path dir, long maxBytes, int maxFiles) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        Files.createDirectories(dir);
+        open();
+    }
+    
+    Path getPath() {
+        return dir.resolve(NAME);
+    }
+    
+    /**
+     * Write whole lines; a batch is never split across two files
+     */
+    void write(byte[] bytes, int length) throws IOException {
+        if (size > 0 && size + length > maxBytes) {
+            roll();
+        }
+        out.write(bytes, 0, length);
+        size += length;
+    }
+    
+    private void open() throws IOException {
+        out = new FileOutputStream(getPath().toFile(), true);
+        size = out.getChannel().size();
+    }
+    
+    private void roll() throws IOException {
+        out.close();
+        Files.deleteIfExists(dir.resolve(NAME + "." + (maxFiles - 1)));
+        for (int i = maxFiles - 2; i >= 1; i--) {
+            Path older = dir.resolve(NAME + "." + i);
+            if (Files.exists(older)) {
+                Files.move(older, dir.resolve(NAME + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 1) {
+            Files.move(getPath(), dir.resolve(NAME + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(getPath());
+        }
+        open();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
\ No newline at end of file
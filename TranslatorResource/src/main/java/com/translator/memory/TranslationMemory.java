@@ -0,0 +1,702 @@
+package com.translator.memory;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import com.translator.util.SipHash;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Durable English to Darija translations, shared by every process and
+ * webapp on the host that points at the same directory.
+ *
+ * Records are appended to a log file. A memory-mapped open-addressing
+ * index maps a keyed 64-bit fingerprint of the normalized English text to
+ * the record's offset. Lookups go through the mappings of both files with
+ * no lock and no system call, and check the full key and the record's
+ * CRC32, so a fingerprint collision or a torn write reads as a miss.
+ * Writers take a lock file. When the index fills up or the log grows past
+ * memory.maxBytes, a background compaction copies the live records (most
+ * recently used first) into a new generation of both files and retires
+ * the old one; other instances switch over on their next call.
+ *
+ * The files are not forced to disk on every write: a restart keeps every
+ * entry, a power loss may drop the latest ones.
+ */
+public class TranslationMemory implements AutoCloseable {
+    
+    private static final Logger LOG = Logger.get(TranslationMemory.class);
+    
+    private static final int INDEX_MAGIC = 0x54524d49;
+    private static final int LOG_MAGIC = 0x54524d4c;
+    private static final int VERSION = 1;
+    
+    // Index header: magic, version, slot count, entry count, log end, retired flag, fingerprint key
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_COUNT = 12;
+    private static final int H_LOG_END = 16;
+    private static final int H_RETIRED = 24;
+    private static final int H_K0 = 32;
+    private static final int H_K1 = 40;
+    
+    // Index slot: fingerprint, record offset (0 = empty), last access in epoch seconds
+    private static final int SLOT_SIZE = 24;
+    
+    // Log: magic, version, then records of total length, key length, value length, key, value, CRC32
+    private static final int LOG_HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 12;
+    private static final int MAX_RECORD_SIZE = 1024 * 1024;
+    
+    private static final double MAX_LOAD = 0.7;
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final long LOG_GROWTH_BYTES = 4L * 1024 * 1024;
+    private static final long ACCESS_RESOLUTION_SECONDS = 60;
+    private static final long LOCK_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    
+    private final Path directory;
+    private final long maxBytes;
+    private final int initialSlots;
+    private final LongSupplier clock;
+    private final FileChannel lockChannel;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ExecutorService compactor;
+    private final AtomicBoolean compactionPending = new AtomicBoolean();
+    private volatile Generation generation;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    
+    /**
+     * @param maxBytes log size to stay under; compaction keeps the most recently used entries
+     * @param initialSlots index slots of a new store, rounded up to a power of two
+     */
+    public TranslationMemory(Path directory, long maxBytes, int initialSlots) throws IOException {
+        this(directory, maxBytes, initialSlots, () -> System.currentTimeMillis() / 1000);
+    }
+    
+    /**
+     * @param clock epoch seconds recorded as the last access of an entry
+     */
+    TranslationMemory(Path directory, long maxBytes, int initialSlots, LongSupplier clock) throws IOException {
+        this.directory = directory;
+        this.clock = clock;
+        this.maxBytes = Math.min(maxBytes, Integer.MAX_VALUE - LOG_GROWTH_BYTES);
+        this.initialSlots = Math.min(MAX_CAPACITY, Integer.highestOneBit(Math.max(16, initialSlots) - 1) << 1);
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve("memory.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        
+        FileLock lock = lockFile();
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Timed out waiting for the lock on " + directory);
+        }
+        try {
+            this.generation = openLatest();
+        } finally {
+            lock.release();
+        }
+        
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "translation-memory-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (needsCompaction(generation)) {
+            requestCompaction();
+        }
+    }
+    
+    /**
+     * Open the store configured by memory.dir, memory.maxBytes and memory.initialSlots
+     */
+    public static TranslationMemory open(TranslatorConfig config) throws IOException {
+        String dir = config.get("memory.dir",
+                Paths.get(System.getProperty("user.home"), ".darija-translator", "memory").toString());
+        return new TranslationMemory(Paths.get(dir),
+                config.getLong("memory.maxBytes", 256L * 1024 * 1024),
+                config.getInt("memory.initialSlots", 1 << 16));
+    }
+    
+    /**
+     * The stored translation of a normalized English text, or null
+     */
+    public String get(String key) {
+        Generation g = current();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int slot = find(g, keyBytes, fingerprint(g, keyBytes));
+        if (slot < 0) {
+            misses.increment();
+            return null;
+        }
+        
+        int position = HEADER_SIZE + slot * SLOT_SIZE;
+        long now = clock.getAsLong();
+        if (now - g.index.getLong(position + 16) > ACCESS_RESOLUTION_SECONDS) {
+            g.index.putLong(position + 16, now);
+        }
+        hits.increment();
+        
+        int offset = (int) g.index.getLong(position + 8);
+        MappedByteBuffer log = g.log;
+        int valueLength = log.getInt(offset + 8);
+        byte[] value = new byte[valueLength];
+        log.get(offset + RECORD_HEADER_SIZE + keyBytes.length, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+    
+    public void put(String key, String value) {
+        putAll(Map.of(key, value));
+    }
+    
+    /**
+     * Store translations that are not stored yet, under one acquisition of the lock
+     */
+    public void putAll(Map<String, String> translations) {
+        if (translations.isEmpty()) {
+            return;
+        }
+        
+        writeLock.lock();
+        FileLock lock = null;
+        try {
+            lock = lockFile();
+            if (lock == null) {
+                dropped.add(translations.size());
+                return;
+            }
+            Generation g = refresh();
+            for (Map.Entry<String, String> entry : translations.entrySet()) {
+                if (!append(g, entry.getKey(), entry.getValue())) {
+                    dropped.increment();
+                }
+            }
+            if (needsCompaction(g)) {
+                requestCompaction();
+            }
+        } catch (IOException e) {
+            LOG.warn("Translation memory write failed", "reason", e.getMessage());
+        } finally {
+            releaseQuietly(lock);
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Append one record and publish it in the index; the caller holds the lock
+     */
+    private boolean append(Generation g, String key, String value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        long fingerprint = fingerprint(g, keyBytes);
+        if (find(g, keyBytes, fingerprint) >= 0) {
+            return true;
+        }
+        
+        int length = RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length + 4;
+        int count = g.index.getInt(H_COUNT);
+        long logEnd = g.index.getLong(H_LOG_END);
+        if (length > MAX_RECORD_SIZE || count + 1 > g.capacity * 0.9 || logEnd + length > maxBytes) {
+            return false;
+        }
+        
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length).putInt(keyBytes.length).putInt(valueBytes.length).put(keyBytes).put(valueBytes);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, length - 4);
+        record.putInt((int) crc.getValue()).flip();
+        
+        // Grow the file ahead of the data so readers remap once per few megabytes
+        if (logEnd + length > g.logChannel.size()) {
+            long size = (logEnd + length + LOG_GROWTH_BYTES - 1) / LOG_GROWTH_BYTES * LOG_GROWTH_BYTES;
+            g.logChannel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+        }
+        while (record.hasRemaining()) {
+            g.logChannel.write(record, logEnd + record.position());
+        }
+        
+        // The offset is written last: it is what makes the slot visible to readers
+        int mask = g.capacity - 1;
+        int slot = (int) fingerprint & mask;
+        while (g.index.getLong(HEADER_SIZE + slot * SLOT_SIZE + 8) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        int position = HEADER_SIZE + slot * SLOT_SIZE;
+        g.index.putLong(position, fingerprint);
+        g.index.putLong(position + 16, clock.getAsLong());
+        g.index.putLong(position + 8, logEnd);
+        g.index.putInt(H_COUNT, count + 1);
+        g.index.putLong(H_LOG_END, logEnd + length);
+        writes.increment();
+        return true;
+    }
+    
+    /**
+     * Slot holding the key, or -1. Linear probing until an empty slot.
+     */
+    private int find(Generation g, byte[] keyBytes, long fingerprint) {
+        int mask = g.capacity - 1;
+        int slot = (int) fingerprint & mask;
+        for (int probes = 0; probes < g.capacity; probes++) {
+            int position = HEADER_SIZE + slot * SLOT_SIZE;
+            long offset = g.index.getLong(position + 8);
+            if (offset == 0) {
+                return -1;
+            }
+            if (g.index.getLong(position) == fingerprint && matches(g, offset, keyBytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Whether the record at offset is intact and stores this key, compared in place in the mapping
+     */
+    private boolean matches(Generation g, long offset, byte[] keyBytes) {
+        MappedByteBuffer log = mapLog(g, offset + RECORD_HEADER_SIZE);
+        if (log == null) {
+            return false;
+        }
+        int start = (int) offset;
+        int length = log.getInt(start);
+        if (log.getInt(start + 4) != keyBytes.length
+                || length != RECORD_HEADER_SIZE + keyBytes.length + log.getInt(start + 8) + 4) {
+            return false;
+        }
+        log = mapLog(g, offset + length);
+        if (log == null) {
+            return false;
+        }
+        
+        ByteBuffer record = log.duplicate();
+        record.limit(start + length - 4).position(start);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        if ((int) crc.getValue() != log.getInt(start + length - 4)) {
+            return false;
+        }
+        record.limit(start + RECORD_HEADER_SIZE + keyBytes.length).position(start + RECORD_HEADER_SIZE);
+        return record.equals(ByteBuffer.wrap(keyBytes));
+    }
+    
+    /**
+     * The log mapping, remapped first if it does not reach end yet; null if the file is shorter
+     */
+    private MappedByteBuffer mapLog(Generation g, long end) {
+        MappedByteBuffer log = g.log;
+        if (end <= log.capacity()) {
+            return log;
+        }
+        synchronized (g) {
+            try {
+                if (g.log.capacity() < end) {
+                    g.log = g.logChannel.map(FileChannel.MapMode.READ_ONLY, 0, g.logChannel.size());
+                }
+            } catch (IOException e) {
+                return null;
+            }
+            return end <= g.log.capacity() ? g.log : null;
+        }
+    }
+    
+    private static long fingerprint(Generation g, byte[] keyBytes) {
+        long[] hash = new long[2];
+        SipHash.hash128(g.k0, g.k1, keyBytes, hash);
+        return hash[0];
+    }
+    
+    /**
+     * The live generation; switches to the newest one once another instance compacted
+     */
+    private Generation current() {
+        Generation g = generation;
+        if (g.index.getInt(H_RETIRED) == 0) {
+            return g;
+        }
+        writeLock.lock();
+        FileLock lock = null;
+        try {
+            lock = lockFile();
+            return lock != null ? refresh() : generation;
+        } catch (IOException e) {
+            LOG.warn("Translation memory reopen failed", "reason", e.getMessage());
+            return generation;
+        } finally {
+            releaseQuietly(lock);
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Same as current() for a caller that already holds both locks
+     */
+    private Generation refresh() throws IOException {
+        Generation g = generation;
+        if (g.index.getInt(H_RETIRED) != 0) {
+            generation = openLatest();
+            g.close();
+        }
+        return generation;
+    }
+    
+    private boolean needsCompaction(Generation g) {
+        return g.index.getInt(H_COUNT) > g.capacity * MAX_LOAD || g.index.getLong(H_LOG_END) > maxBytes * 0.9;
+    }
+    
+    private void requestCompaction() {
+        if (compactionPending.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                compactionPending.set(false);
+                try {
+                    compact();
+                } catch (Exception e) {
+                    LOG.error("Translation memory compaction failed", e);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Copy the entries worth keeping into a new generation sized for them, then retire the old one.
+     * Lookups continue on the old generation meanwhile; writers wait.
+     */
+    private void compact() throws IOException {
+        writeLock.lock();
+        FileLock lock = null;
+        try {
+            lock = lockFile();
+            if (lock == null) {
+                return;
+            }
+            Generation old = refresh();
+            if (!needsCompaction(old)) {
+                return;
+            }
+            
+            // Live slots as {offset, last access}; most recently used first when the log must shrink
+            List<long[]> live = new ArrayList<>(old.index.getInt(H_COUNT));
+            for (int slot = 0; slot < old.capacity; slot++) {
+                int position = HEADER_SIZE + slot * SLOT_SIZE;
+                long offset = old.index.getLong(position + 8);
+                if (offset != 0) {
+                    live.add(new long[] {offset, old.index.getLong(position + 16), old.index.getLong(position)});
+                }
+            }
+            long budget = old.index.getLong(H_LOG_END) > maxBytes * 0.9 ? (long) (maxBytes * 0.7) : maxBytes;
+            live.sort(Comparator.comparingLong((long[] entry) -> entry[1]).reversed());
+            
+            MappedByteBuffer oldLog = mapLog(old, old.index.getLong(H_LOG_END));
+            if (oldLog == null) {
+                throw new IOException("log is shorter than its index says");
+            }
+            List<long[]> kept = new ArrayList<>(live.size());
+            long keptBytes = LOG_HEADER_SIZE;
+            for (long[] entry : live) {
+                int length = oldLog.getInt((int) entry[0]);
+                if (length <= 0 || length > MAX_RECORD_SIZE || keptBytes + length > budget) {
+                    continue;
+                }
+                keptBytes += length;
+                kept.add(entry);
+            }
+            kept.sort(Comparator.comparingLong((long[] entry) -> entry[0]));
+            
+            int needed = (int) Math.min(MAX_CAPACITY, Math.ceil(kept.size() / (MAX_LOAD / 2)));
+            int capacity = Math.max(initialSlots, Integer.highestOneBit(Math.max(1, needed - 1)) << 1);
+            Generation next = create(old.number + 1, capacity, old.k0, old.k1, kept, oldLog);
+            
+            old.index.putInt(H_RETIRED, 1);
+            old.index.force();
+            generation = next;
+            old.close();
+            deleteGeneration(old.number);
+            compactions.increment();
+            LOG.info("Translation memory compacted", "kept", kept.size(), "entries", live.size(),
+                    "slots", capacity);
+        } finally {
+            releaseQuietly(lock);
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Newest complete generation in the directory, or a new empty one; the caller holds the lock.
+     * Older and incomplete generations are deleted.
+     */
+    private Generation openLatest() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "translations-*.idx")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring("translations-".length(), name.length() - 4)));
+                } catch (NumberFormatException e) {
+                    // Not ours
+                }
+            }
+        }
+        numbers.sort(Comparator.reverseOrder());
+        
+        Generation latest = null;
+        for (long number : numbers) {
+            if (latest == null) {
+                latest = openGeneration(number);
+                if (latest != null) {
+                    continue;
+                }
+            }
+            deleteGeneration(number);
+        }
+        if (latest != null) {
+            return latest;
+        }
+        
+        SecureRandom random = new SecureRandom();
+        return create(numbers.isEmpty() ? 1 : numbers.get(0) + 1, initialSlots,
+                random.nextLong(), random.nextLong(), List.of(), null);
+    }
+    
+    /**
+     * Map an existing generation, or null if it is incomplete, retired or unreadable
+     */
+    private Generation openGeneration(long number) {
+        try {
+            FileChannel indexChannel = FileChannel.open(indexPath(number),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && indexChannel.read(header, header.position()) > 0) {
+                // Read the whole header
+            }
+            int capacity = header.getInt(H_CAPACITY);
+            if (header.hasRemaining() || header.getInt(H_MAGIC) != INDEX_MAGIC || header.getInt(H_VERSION) != VERSION
+                    || header.getInt(H_RETIRED) != 0 || Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY
+                    || indexChannel.size() < HEADER_SIZE + (long) capacity * SLOT_SIZE) {
+                indexChannel.close();
+                return null;
+            }
+            FileChannel logChannel = FileChannel.open(logPath(number), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Generation(number, capacity, indexChannel, logChannel);
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable translation memory generation", "generation", number, "reason", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Write a new generation holding the given records of oldLog; the magic number goes in last
+     */
+    private Generation create(long number, int capacity, long k0, long k1,
+                              List<long[]> records, MappedByteBuffer oldLog) throws IOException {
+        FileChannel indexChannel = FileChannel.open(indexPath(number), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel logChannel = FileChannel.open(logPath(number), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        MappedByteBuffer index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        int mask = capacity - 1;
+        long logEnd = LOG_HEADER_SIZE;
+        
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(logChannel), 64 * 1024);
+        out.write(ByteBuffer.allocate(LOG_HEADER_SIZE).putInt(LOG_MAGIC).putInt(VERSION).array());
+        byte[] buffer = new byte[4096];
+        for (long[] entry : records) {
+            int offset = (int) entry[0];
+            int length = oldLog.getInt(offset);
+            if (buffer.length < length) {
+                buffer = new byte[length];
+            }
+            oldLog.get(offset, buffer, 0, length);
+            out.write(buffer, 0, length);
+            
+            int slot = (int) entry[2] & mask;
+            while (index.getLong(HEADER_SIZE + slot * SLOT_SIZE + 8) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            int position = HEADER_SIZE + slot * SLOT_SIZE;
+            index.putLong(position, entry[2]);
+            index.putLong(position + 8, logEnd);
+            index.putLong(position + 16, entry[1]);
+            logEnd += length;
+        }
+        out.flush();
+        logChannel.force(false);
+        
+        index.putInt(H_VERSION, VERSION);
+        index.putInt(H_CAPACITY, capacity);
+        index.putInt(H_COUNT, records.size());
+        index.putLong(H_LOG_END, logEnd);
+        index.putLong(H_K0, k0);
+        index.putLong(H_K1, k1);
+        index.force();
+        index.putInt(H_MAGIC, INDEX_MAGIC);
+        index.force();
+        
+        return new Generation(number, capacity, indexChannel, logChannel);
+    }
+    
+    private void deleteGeneration(long number) {
+        try {
+            Files.deleteIfExists(indexPath(number));
+            Files.deleteIfExists(logPath(number));
+        } catch (IOException e) {
+            // Still mapped somewhere (Windows); removed by a later open
+        }
+    }
+    
+    private Path indexPath(long number) {
+        return directory.resolve("translations-" + number + ".idx");
+    }
+    
+    private Path logPath(long number) {
+        return directory.resolve("translations-" + number + ".log");
+    }
+    
+    /**
+     * The cross-process lock, or null after LOCK_TIMEOUT_NANOS.
+     * Another webapp in this JVM holding it shows up as OverlappingFileLockException.
+     */
+    private FileLock lockFile() throws IOException {
+        long deadline = System.nanoTime() + LOCK_TIMEOUT_NANOS;
+        while (true) {
+            try {
+                FileLock lock = lockChannel.tryLock();
+                if (lock != null) {
+                    return lock;
+                }
+            } catch (OverlappingFileLockException e) {
+                // Held by another channel in this JVM; wait like for another process
+            }
+            if (System.nanoTime() - deadline > 0) {
+                return null;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+    
+    private static void releaseQuietly(FileLock lock) {
+        if (lock != null) {
+            try {
+                lock.release();
+            } catch (IOException e) {
+                // Released when the channel closes
+            }
+        }
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public long getWriteCount() {
+        return writes.sum();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    public long getCompactionCount() {
+        return compactions.sum();
+    }
+    
+    public int getEntryCount() {
+        return current().index.getInt(H_COUNT);
+    }
+    
+    public long getLogBytes() {
+        return current().index.getLong(H_LOG_END);
+    }
+    
+    @Override
+    public void close() {
+        compactor.shutdownNow();
+        try {
+            compactor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        generation.close();
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+    
+    /**
+     * One index file and its log. Mappings outlive their channels; the JVM
+     * unmaps them once unreachable, so readers still on a retired generation
+     * finish safely.
+     */
+    private static final class Generation {
+        
+        final long number;
+        final int capacity;
+        final FileChannel logChannel;
+        final MappedByteBuffer index;
+        final long k0;
+        final long k1;
+        volatile MappedByteBuffer log;
+        
+        Generation(long number, int capacity, FileChannel indexChannel, FileChannel logChannel) throws IOException {
+            this.number = number;
+            this.capacity = capacity;
+            this.logChannel = logChannel;
+            try (indexChannel) {
+                this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            }
+            this.k0 = index.getLong(H_K0);
+            this.k1 = index.getLong(H_K1);
+            this.log = logChannel.map(FileChannel.MapMode.READ_ONLY, 0, logChannel.size());
+        }
+        
+        void close() {
+            try {
+                logChannel.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+}
\ No newline at end of file
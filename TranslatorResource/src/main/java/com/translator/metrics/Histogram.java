@@ -0,0 +1,70 @@
+package com.translator.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of observed values over fixed upper bounds, in the shape of
+ * a Prometheus histogram: a count per bucket plus the sum of all values.
+ * Recording is a binary search and two adder updates, with no lock and no
+ * allocation; percentiles are computed by the scraper
+ * (histogram_quantile) rather than here.
+ */
+public final class Histogram {
+
+    private final double[] bounds;
+    // One per bound, then the +Inf bucket; not cumulative
+    private final LongAdder[] counts;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    Histogram(double[] bounds) {
+        this.bounds = bounds;
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void observe(double value) {
+        int bucket = Arrays.binarySearch(bounds, value);
+        counts[bucket >= 0 ? bucket : -bucket - 1].increment();
+        sum.add(value);
+    }
+
+    /**
+     * Record a duration, in seconds
+     */
+    public void observeNanos(long nanos) {
+        observe((double) nanos / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Record the time elapsed since a System.nanoTime() reading, in seconds
+     */
+    public void observeSince(long startNanos) {
+        observeNanos(System.nanoTime() - startNanos);
+    }
+
+    double[] getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Cumulative counts per bound, the last one for +Inf and so the total count
+     */
+    long[] getCumulativeCounts() {
+        long[] cumulative = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i].sum();
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    double getSum() {
+        return sum.sum();
+    }
+}
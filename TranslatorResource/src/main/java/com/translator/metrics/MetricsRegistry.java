@@ -0,0 +1,174 @@
+package com.translator.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Counters, gauges and histograms of the running service, written out in
+ * the Prometheus text format by GET /api/metrics.
+ *
+ * A series is named plus an optional list of label name/value pairs, and
+ * is created on first use; later lookups of the same series are lock-free.
+ * Hot paths keep the returned Counter or Histogram instead of looking it
+ * up per call. Components that already count their own events are exposed
+ * through suppliers, which are only read when the metrics are scraped.
+ */
+public class MetricsRegistry {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Seconds, from a cache hit to a long document
+    public static final double[] LATENCY_BUCKETS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60
+    };
+
+    // Characters of text
+    public static final double[] SIZE_BUCKETS = {
+        16, 64, 256, 1024, 4096, 16384, 65536, 262144
+    };
+
+    private static final String COUNTER = "counter";
+    private static final String GAUGE = "gauge";
+    private static final String HISTOGRAM = "histogram";
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, COUNTER).series(labels, Counter::new);
+    }
+
+    /**
+     * A counter kept by the component itself
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, COUNTER).series(labels, () -> value);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, GAUGE).series(labels, () -> value);
+    }
+
+    public Histogram histogram(String name, String help, double[] buckets, String... labels) {
+        return (Histogram) family(name, help, HISTOGRAM).series(labels, () -> new Histogram(buckets));
+    }
+
+    /**
+     * Time spent in one stage of handling a request; the stages of a
+     * request share one family so they can be compared side by side
+     */
+    public Histogram stage(String stage) {
+        return histogram("translator_stage_duration_seconds",
+            "Time spent in each stage of handling a translation request",
+            LATENCY_BUCKETS, "stage", stage);
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Write every series in the Prometheus text exposition format, sorted by name
+     */
+    public void writeTo(Writer out) throws IOException {
+        for (Family family : new TreeMap<>(families).values()) {
+            family.writeTo(out);
+        }
+        out.flush();
+    }
+
+    private static final class Family {
+
+        private final String name;
+        private final String help;
+        private final String type;
+        // Rendered label set, e.g. {endpoint="x",code="200"}, to Counter, Histogram or supplier
+        private final ConcurrentMap<String, Object> series = new ConcurrentHashMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        Object series(String[] labels, Supplier<Object> create) {
+            String key = labelText(labels);
+            Object existing = series.get(key);
+            return existing != null ? existing : series.computeIfAbsent(key, k -> create.get());
+        }
+
+        void writeTo(Writer out) throws IOException {
+            out.write("# HELP " + name + " " + help.replace("\\", "\\\\").replace("\n", "\\n") + "\n");
+            out.write("# TYPE " + name + " " + type + "\n");
+            for (Map.Entry<String, Object> entry : new TreeMap<>(series).entrySet()) {
+                String labels = entry.getKey();
+                Object value = entry.getValue();
+                if (value instanceof Histogram) {
+                    writeHistogram(out, labels, (Histogram) value);
+                } else if (value instanceof Counter) {
+                    out.write(name + labels + " " + ((Counter) value).get() + "\n");
+                } else if (value instanceof LongSupplier) {
+                    out.write(name + labels + " " + ((LongSupplier) value).getAsLong() + "\n");
+                } else {
+                    out.write(name + labels + " " + number(((DoubleSupplier) value).getAsDouble()) + "\n");
+                }
+            }
+        }
+
+        private void writeHistogram(Writer out, String labels, Histogram histogram) throws IOException {
+            double[] bounds = histogram.getBounds();
+            long[] cumulative = histogram.getCumulativeCounts();
+            // le goes after the series' own labels
+            String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+            for (int i = 0; i < bounds.length; i++) {
+                out.write(name + "_bucket" + prefix + "le=\"" + number(bounds[i]) + "\"} " + cumulative[i] + "\n");
+            }
+            long count = cumulative[cumulative.length - 1];
+            out.write(name + "_bucket" + prefix + "le=\"+Inf\"} " + count + "\n");
+            out.write(name + "_sum" + labels + " " + number(histogram.getSum()) + "\n");
+            out.write(name + "_count" + labels + " " + count + "\n");
+        }
+    }
+
+    private static String labelText(String[] labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"")
+                .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                .append('"');
+        }
+        return text.append('}').toString();
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.translator.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The series of one counter family that differ only by an HTTP status
+ * code label, indexed by code so counting an answer takes neither a map
+ * lookup nor a boxed key
+ */
+public final class StatusCounters {
+
+    private final MetricsRegistry metrics;
+    private final String name;
+    private final String help;
+    private final String[] labels;
+    private final AtomicReferenceArray<Counter> byCode = new AtomicReferenceArray<>(600);
+
+    /**
+     * @param labels the label pairs shared by every series; "code" is appended
+     */
+    public StatusCounters(MetricsRegistry metrics, String name, String help, String... labels) {
+        this.metrics = metrics;
+        this.name = name;
+        this.help = help;
+        this.labels = labels;
+    }
+
+    public void increment(int code) {
+        Counter counter = code >= 0 && code < byCode.length() ? byCode.get(code) : null;
+        if (counter == null) {
+            counter = get(String.valueOf(code));
+            if (code >= 0 && code < byCode.length()) {
+                byCode.set(code, counter);
+            }
+        }
+        counter.increment();
+    }
+
+    /**
+     * The series for a code that is not a status, e.g. "error"
+     */
+    public Counter get(String code) {
+        String[] all = Arrays.copyOf(labels, labels.length + 2);
+        all[labels.length] = "code";
+        all[labels.length + 1] = code;
+        return metrics.counter(name, help, all);
+    }
+}
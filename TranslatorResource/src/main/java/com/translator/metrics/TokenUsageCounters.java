@@ -0,0 +1,101 @@
+package com.translator.metrics;
+
+import com.translator.model.TokenUsage;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Upstream tokens spent for each user, next to the characters translated
+ * for them, so the cost per translated character can be followed per user
+ * and in total
+ */
+public class TokenUsageCounters {
+    
+    // Calls made outside any request, e.g. warm-up
+    public static final String NO_USER = "-";
+    
+    private final ConcurrentHashMap<String, Tokens> users = new ConcurrentHashMap<>();
+    private final Tokens total = new Tokens();
+    
+    /**
+     * @param usage tokens of the call, or null when another result of the same call carries them
+     * @param inputChars characters of English sent
+     * @param outputChars characters of translation received
+     */
+    public void record(String user, TokenUsage usage, int inputChars, int outputChars) {
+        String key = user == null || user.isEmpty() ? NO_USER : user;
+        users.computeIfAbsent(key, k -> new Tokens()).add(usage, inputChars, outputChars);
+        total.add(usage, inputChars, outputChars);
+    }
+    
+    public Tokens getTotal() {
+        return total;
+    }
+    
+    /**
+     * Counters by user name, sorted
+     */
+    public Map<String, Tokens> getUsers() {
+        return new TreeMap<>(users);
+    }
+    
+    public static final class Tokens {
+        
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder reportedCalls = new LongAdder();
+        private final LongAdder estimatedPromptTokens = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder outputTokens = new LongAdder();
+        private final LongAdder inputChars = new LongAdder();
+        private final LongAdder outputChars = new LongAdder();
+        
+        void add(TokenUsage usage, int input, int output) {
+            if (usage != null) {
+                calls.add(usage.getCalls());
+                reportedCalls.add(usage.getReportedCalls());
+                estimatedPromptTokens.add(usage.getEstimatedPromptTokens());
+                promptTokens.add(usage.getPromptTokens());
+                outputTokens.add(usage.getOutputTokens());
+            }
+            inputChars.add(input);
+            outputChars.add(output);
+        }
+        
+        /**
+         * Upstream calls that answered
+         */
+        public long getCalls() {
+            return calls.sum();
+        }
+        
+        /**
+         * Calls whose token counts came from the upstream rather than the local estimate
+         */
+        public long getReportedCalls() {
+            return reportedCalls.sum();
+        }
+        
+        public long getEstimatedPromptTokens() {
+            return estimatedPromptTokens.sum();
+        }
+        
+        public long getPromptTokens() {
+            return promptTokens.sum();
+        }
+        
+        public long getOutputTokens() {
+            return outputTokens.sum();
+        }
+        
+        public long getInputChars() {
+            return inputChars.sum();
+        }
+        
+        public long getOutputChars() {
+            return outputChars.sum();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.translator.metrics;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Times every HTTP call to one provider endpoint, retries and hedges
+ * included, and counts its answers by status code. The time is measured
+ * until the response headers arrive: the whole answer for generateContent,
+ * the first byte for streamGenerateContent.
+ */
+public class UpstreamMetricsInterceptor implements Interceptor {
+
+    private final Histogram latency;
+    private final Histogram stage;
+    private final StatusCounters responses;
+    private final Counter failures;
+
+    public UpstreamMetricsInterceptor(MetricsRegistry metrics, String endpoint) {
+        this.latency = metrics.histogram("translator_upstream_request_duration_seconds",
+            "Time until the provider's response headers arrived, per endpoint",
+            MetricsRegistry.LATENCY_BUCKETS, "endpoint", endpoint);
+        this.stage = metrics.stage("upstream");
+        this.responses = new StatusCounters(metrics, "translator_upstream_responses_total",
+            "Provider answers by status code; code=\"error\" for calls that got no answer",
+            "endpoint", endpoint);
+        this.failures = responses.get("error");
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            latency.observeNanos(elapsed);
+            stage.observeNanos(elapsed);
+        }
+        responses.increment(response.code());
+        return response;
+    }
+}
@@ -0,0 +1,23 @@
+package com.translator.model;
+
+import java.util.List;
+
+public class BatchTranslationRequest {
+    
+    private List<String> segments;
+    
+    public BatchTranslationRequest() {
+    }
+    
+    public BatchTranslationRequest(List<String> segments) {
+        this.segments = segments;
+    }
+    
+    public List<String> getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(List<String> segments) {
+        this.segments = segments;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.translator.model;
+
+import java.util.List;
+
+public class BatchTranslationResponse {
+    
+    private List<SegmentTranslation> results;
+    private int succeeded;
+    private int failed;
+    private long timestamp;
+    
+    public BatchTranslationResponse() {
+    }
+    
+    public BatchTranslationResponse(List<SegmentTranslation> results) {
+        this.results = results;
+        for (SegmentTranslation result : results) {
+            if (SegmentTranslation.STATUS_OK.equals(result.getStatus())) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+        }
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public List<SegmentTranslation> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<SegmentTranslation> results) {
+        this.results = results;
+    }
+    
+    public int getSucceeded() {
+        return succeeded;
+    }
+    
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
\ No newline at end of file
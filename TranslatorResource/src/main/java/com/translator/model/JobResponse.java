@@ -0,0 +1,93 @@
+package com.translator.model;
+
+import com.translator.job.Job;
+
+public class JobResponse {
+    private String id;
+    private String status;
+    private int total;
+    private int processed;
+    private int failed;
+    private String error;
+    private long createdAt;
+    private long updatedAt;
+    
+    public JobResponse() {
+    }
+    
+    public JobResponse(Job job) {
+        this.id = job.getId();
+        this.status = job.getStatus().name();
+        this.total = job.getTotal();
+        this.processed = job.getProcessed();
+        this.failed = job.getFailed();
+        this.error = job.getError();
+        this.createdAt = job.getCreatedAt();
+        this.updatedAt = job.getUpdatedAt();
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    
+    public int getProcessed() {
+        return processed;
+    }
+    
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
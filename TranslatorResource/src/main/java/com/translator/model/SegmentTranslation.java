@@ -0,0 +1,99 @@
+package com.translator.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class SegmentTranslation {
+    
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_ERROR = "ERROR";
+    
+    private int index;
+    private String originalText;
+    private String translatedText;
+    private String status;
+    private String error;
+    private boolean cached;
+    private String engine;
+    
+    public SegmentTranslation() {
+    }
+    
+    public SegmentTranslation(int index, String originalText, TranslationResult result) {
+        this.index = index;
+        this.originalText = originalText;
+        if (result.isSuccess()) {
+            this.translatedText = result.getText();
+            this.status = STATUS_OK;
+            this.cached = result.isCached();
+            this.engine = result.getEngine();
+        } else {
+            this.status = STATUS_ERROR;
+            this.error = result.getError();
+        }
+    }
+    
+    /**
+     * Leave out the original text, which the index already identifies
+     */
+    public void omitEcho() {
+        this.originalText = null;
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getOriginalText() {
+        return originalText;
+    }
+    
+    public void setOriginalText(String originalText) {
+        this.originalText = originalText;
+    }
+    
+    public String getTranslatedText() {
+        return translatedText;
+    }
+    
+    public void setTranslatedText(String translatedText) {
+        this.translatedText = translatedText;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public boolean isCached() {
+        return cached;
+    }
+    
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+    
+    public String getEngine() {
+        return engine;
+    }
+    
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+}
\ No newline at end of file
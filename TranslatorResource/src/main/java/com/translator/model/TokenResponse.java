@@ -0,0 +1,51 @@
+package com.translator.model;
+
+public class TokenResponse {
+    private String accessToken;
+    private String tokenType;
+    private long expiresIn;
+    private long expiresAt;
+    
+    public TokenResponse() {
+    }
+    
+    public TokenResponse(String accessToken, long expiresIn, long expiresAt) {
+        this.accessToken = accessToken;
+        this.tokenType = "Bearer";
+        this.expiresIn = expiresIn;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public String getAccessToken() {
+        return accessToken;
+    }
+    
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+    
+    public String getTokenType() {
+        return tokenType;
+    }
+    
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+    
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+    
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
\ No newline at end of file
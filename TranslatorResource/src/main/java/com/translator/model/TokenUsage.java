@@ -0,0 +1,74 @@
+package com.translator.model;
+
+/**
+ * Tokens spent by one upstream call. The prompt size is estimated locally
+ * before the call; the counts are the ones the upstream reported in its
+ * response, or local estimates when it reported none. A result may carry
+ * the sum of several calls, e.g. a batch call whose answer could not be
+ * used and the call that replaced it.
+ */
+public final class TokenUsage {
+    
+    private final int estimatedPromptTokens;
+    private final int promptTokens;
+    private final int outputTokens;
+    private final int calls;
+    private final int reportedCalls;
+    
+    /**
+     * @param outputTokens answer tokens, including any the model spent thinking
+     * @param reported whether promptTokens and outputTokens come from the upstream
+     */
+    public TokenUsage(int estimatedPromptTokens, int promptTokens, int outputTokens, boolean reported) {
+        this(estimatedPromptTokens, promptTokens, outputTokens, 1, reported ? 1 : 0);
+    }
+    
+    private TokenUsage(int estimatedPromptTokens, int promptTokens, int outputTokens, int calls, int reportedCalls) {
+        this.estimatedPromptTokens = estimatedPromptTokens;
+        this.promptTokens = promptTokens;
+        this.outputTokens = outputTokens;
+        this.calls = calls;
+        this.reportedCalls = reportedCalls;
+    }
+    
+    /**
+     * The tokens of this call and the other one together
+     */
+    public TokenUsage plus(TokenUsage other) {
+        return new TokenUsage(estimatedPromptTokens + other.estimatedPromptTokens, promptTokens + other.promptTokens,
+                outputTokens + other.outputTokens, calls + other.calls, reportedCalls + other.reportedCalls);
+    }
+    
+    public int getEstimatedPromptTokens() {
+        return estimatedPromptTokens;
+    }
+    
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+    
+    public int getOutputTokens() {
+        return outputTokens;
+    }
+    
+    /**
+     * Whether every call counted here reported its tokens
+     */
+    public boolean isReported() {
+        return reportedCalls == calls;
+    }
+    
+    /**
+     * Upstream calls counted here, usually one
+     */
+    public int getCalls() {
+        return calls;
+    }
+    
+    /**
+     * Calls counted here whose tokens came from the upstream
+     */
+    public int getReportedCalls() {
+        return reportedCalls;
+    }
+}
\ No newline at end of file
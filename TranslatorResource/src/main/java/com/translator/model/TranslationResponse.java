@@ -1,11 +1,15 @@
 package com.translator.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class TranslationResponse {
     private String originalText;
     private String translatedText;
     private String sourceLanguage;
     private String targetLanguage;
     private long timestamp;
+    private boolean cached;
+    private String engine;
     
     public TranslationResponse() {
     }
@@ -18,7 +22,18 @@ public class TranslationResponse {
         this.timestamp = System.currentTimeMillis();
     }
     
+    /**
+     * Leave out the fields that only repeat the request or are always the
+     * same, for clients that asked for a minimal response
+     */
+    public void omitEcho() {
+        this.originalText = null;
+        this.sourceLanguage = null;
+        this.targetLanguage = null;
+    }
+    
     // Getters and Setters
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public String getOriginalText() {
         return originalText;
     }
@@ -35,6 +50,7 @@ public class TranslationResponse {
         this.translatedText = translatedText;
     }
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public String getSourceLanguage() {
         return sourceLanguage;
     }
@@ -43,6 +59,7 @@ public class TranslationResponse {
         this.sourceLanguage = sourceLanguage;
     }
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public String getTargetLanguage() {
         return targetLanguage;
     }
@@ -58,4 +75,20 @@ public class TranslationResponse {
     public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
+    
+    public boolean isCached() {
+        return cached;
+    }
+    
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+    
+    public String getEngine() {
+        return engine;
+    }
+    
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
 }
\ No newline at end of file
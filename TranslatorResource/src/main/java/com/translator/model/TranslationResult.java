@@ -0,0 +1,112 @@
+package com.translator.model;
+
+/**
+ * Outcome of a single translation inside the service layer
+ */
+public class TranslationResult {
+    
+    // Engines that answer without an LLM call; LLM answers carry the model name
+    public static final String ENGINE_PHRASE_TABLE = "phrase-table";
+    public static final String ENGINE_CACHE = "cache";
+    public static final String ENGINE_MEMORY = "memory";
+    public static final String ENGINE_NEAR_DUPLICATE = "near-duplicate";
+    public static final String ENGINE_LLM = "llm";
+    
+    private final String text;
+    private final boolean cached;
+    private final String engine;
+    private final String error;
+    private final TokenUsage usage;
+    private final Throwable failure;
+    
+    public TranslationResult(String text, boolean cached) {
+        this(text, cached, cached ? ENGINE_CACHE : ENGINE_LLM);
+    }
+    
+    /**
+     * @param engine what produced the translation, e.g. ENGINE_PHRASE_TABLE or a model name
+     */
+    public TranslationResult(String text, boolean cached, String engine) {
+        this(text, cached, engine, null, null, null);
+    }
+    
+    /**
+     * An answer from an upstream call that spent the given tokens
+     */
+    public TranslationResult(String text, String engine, TokenUsage usage) {
+        this(text, false, engine, null, usage, null);
+    }
+    
+    private TranslationResult(String text, boolean cached, String engine, String error, TokenUsage usage,
+                              Throwable failure) {
+        this.text = text;
+        this.cached = cached;
+        this.engine = engine;
+        this.error = error;
+        this.usage = usage;
+        this.failure = failure;
+    }
+    
+    /**
+     * Result of a batch segment that could not be translated
+     */
+    public static TranslationResult failed(String error) {
+        return new TranslationResult(null, false, null, error != null ? error : "Translation failed", null, null);
+    }
+    
+    /**
+     * Result of a batch segment whose translation threw; the exception tells
+     * an upstream failure from a refused input
+     */
+    public static TranslationResult failed(Throwable failure) {
+        String error = failure.getMessage() != null ? failure.getMessage() : "Translation failed";
+        return new TranslationResult(null, false, null, error, null, failure);
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    public boolean isCached() {
+        return cached;
+    }
+    
+    public String getEngine() {
+        return engine;
+    }
+    
+    public boolean isSuccess() {
+        return error == null;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    /**
+     * Tokens of the upstream call that produced this result; null when none
+     * was made for it (caches, phrase table, or another segment of the same
+     * batch call)
+     */
+    public TokenUsage getUsage() {
+        return usage;
+    }
+    
+    /**
+     * This result also carrying the tokens of another upstream call
+     */
+    public TranslationResult withAddedUsage(TokenUsage added) {
+        if (added == null) {
+            return this;
+        }
+        TokenUsage total = usage != null ? usage.plus(added) : added;
+        return new TranslationResult(text, cached, engine, error, total, failure);
+    }
+    
+    /**
+     * The exception behind a failed result, or null when there was none (invalid input, missing segment)
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+}
\ No newline at end of file
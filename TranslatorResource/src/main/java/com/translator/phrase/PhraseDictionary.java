@@ -0,0 +1,104 @@
+package com.translator.phrase;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The phrase table in use, loaded from phrases.file (or phrases.tsv on the
+ * classpath) and swapped atomically on reload; lookups never wait for it.
+ *
+ * File format: one "english TAB darija" pair per line; blank lines and
+ * lines starting with # are ignored.
+ */
+public class PhraseDictionary {
+    
+    private static final Logger LOG = Logger.get(PhraseDictionary.class);
+    
+    private static final String DEFAULT_RESOURCE = "phrases.tsv";
+    
+    private final String file;
+    private volatile PhraseTable table = PhraseTable.empty();
+    
+    /**
+     * @param file path of the phrase file, or null for phrases.tsv on the classpath
+     */
+    public PhraseDictionary(String file) {
+        this.file = file;
+    }
+    
+    /**
+     * Load phrases.file; a broken file is reported and leaves the table empty
+     */
+    public static PhraseDictionary create(TranslatorConfig config) {
+        PhraseDictionary dictionary = new PhraseDictionary(config.get("phrases.file"));
+        try {
+            dictionary.reload();
+        } catch (IOException e) {
+            LOG.warn("Phrase table not loaded", "reason", e.getMessage());
+        }
+        return dictionary;
+    }
+    
+    /**
+     * Read the file again and swap the new table in. On error the current table stays.
+     * @return number of phrases now loaded
+     */
+    public synchronized int reload() throws IOException {
+        PhraseTable loaded = PhraseTable.build(read());
+        table = loaded;
+        LOG.info("Phrase table loaded", "phrases", loaded.size(), "source", getSource());
+        return loaded.size();
+    }
+    
+    /**
+     * The Darija translation of text if it is a known phrase, else null
+     */
+    public String lookup(String text) {
+        return table.lookup(text);
+    }
+    
+    public int size() {
+        return table.size();
+    }
+    
+    public String getSource() {
+        return file != null ? file : "classpath:" + DEFAULT_RESOURCE;
+    }
+    
+    private Map<String, String> read() throws IOException {
+        InputStream input = file != null
+                ? Files.newInputStream(Paths.get(file))
+                : PhraseDictionary.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE);
+        if (input == null) {
+            throw new IOException(DEFAULT_RESOURCE + " not found on the classpath");
+        }
+        
+        Map<String, String> phrases = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t", 2);
+                if (columns.length < 2 || columns[0].trim().isEmpty() || columns[1].trim().isEmpty()) {
+                    throw new IOException(getSource() + " line " + lineNumber + ": expected english<TAB>darija");
+                }
+                phrases.put(columns[0].trim(), columns[1].trim());
+            }
+        }
+        return phrases;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.translator.phrase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable English to Darija phrase table: a trie over normalized tokens
+ * packed into flat arrays.
+ *
+ * Matching ignores case, punctuation and spacing ("Thank you!" matches
+ * "thank you"), but every token must match; no partial or fuzzy matches.
+ * Each token is interned to an int once, and each trie node's children are
+ * a sorted slice of childTokens searched by binary search, so a lookup is
+ * one hash probe and one small binary search per word.
+ */
+public final class PhraseTable {
+    
+    private static final PhraseTable EMPTY = build(Map.of());
+    
+    private final Map<String, Integer> tokenIds;
+    // Children of node n are childTokens/childNodes[childStart[n] .. childStart[n + 1])
+    private final int[] childStart;
+    private final int[] childTokens;
+    private final int[] childNodes;
+    // Index into values, or -1 when no phrase ends at the node
+    private final int[] nodeValues;
+    private final String[] values;
+    
+    private PhraseTable(Map<String, Integer> tokenIds, int[] childStart, int[] childTokens, int[] childNodes,
+                        int[] nodeValues, String[] values) {
+        this.tokenIds = tokenIds;
+        this.childStart = childStart;
+        this.childTokens = childTokens;
+        this.childNodes = childNodes;
+        this.nodeValues = nodeValues;
+        this.values = values;
+    }
+    
+    public static PhraseTable empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * Build from English phrases to their translations. Phrases that
+     * normalize to the same tokens keep the last translation given.
+     */
+    public static PhraseTable build(Map<String, String> phrases) {
+        Map<String, Integer> tokenIds = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        BuildNode root = new BuildNode();
+        int nodeCount = 1;
+        
+        for (Map.Entry<String, String> phrase : phrases.entrySet()) {
+            List<String> tokens = tokenize(phrase.getKey());
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            BuildNode node = root;
+            for (String token : tokens) {
+                Integer id = tokenIds.computeIfAbsent(token, t -> tokenIds.size());
+                BuildNode child = node.children.get(id);
+                if (child == null) {
+                    child = new BuildNode();
+                    node.children.put(id, child);
+                    nodeCount++;
+                }
+                node = child;
+            }
+            if (node.value < 0) {
+                node.value = values.size();
+                values.add(phrase.getValue());
+            } else {
+                values.set(node.value, phrase.getValue());
+            }
+        }
+        
+        // Breadth-first numbering keeps each node's children contiguous
+        int[] childStart = new int[nodeCount + 1];
+        int[] childTokens = new int[nodeCount - 1];
+        int[] childNodes = new int[nodeCount - 1];
+        int[] nodeValues = new int[nodeCount];
+        List<BuildNode> queue = new ArrayList<>(nodeCount);
+        queue.add(root);
+        int edge = 0;
+        for (int n = 0; n < queue.size(); n++) {
+            BuildNode node = queue.get(n);
+            nodeValues[n] = node.value;
+            childStart[n] = edge;
+            for (Map.Entry<Integer, BuildNode> child : node.children.entrySet()) {
+                childTokens[edge] = child.getKey();
+                childNodes[edge] = queue.size();
+                queue.add(child.getValue());
+                edge++;
+            }
+        }
+        childStart[nodeCount] = edge;
+        
+        return new PhraseTable(tokenIds, childStart, childTokens, childNodes, nodeValues,
+                values.toArray(new String[0]));
+    }
+    
+    /**
+     * The translation of the whole text, or null if it is not a known phrase
+     */
+    public String lookup(String text) {
+        int node = 0;
+        int length = text.length();
+        int i = 0;
+        StringBuilder token = new StringBuilder(16);
+        while (true) {
+            while (i < length && !isWordChar(text.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            token.setLength(0);
+            while (i < length && isWordChar(text.charAt(i))) {
+                token.append(normalizeChar(text.charAt(i++)));
+            }
+            
+            Integer id = tokenIds.get(token.toString());
+            if (id == null) {
+                return null;
+            }
+            node = child(node, id);
+            if (node < 0) {
+                return null;
+            }
+        }
+        int value = nodeValues[node];
+        return node > 0 && value >= 0 ? values[value] : null;
+    }
+    
+    private int child(int node, int token) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midToken = childTokens[mid];
+            if (midToken < token) {
+                low = mid + 1;
+            } else if (midToken > token) {
+                high = mid - 1;
+            } else {
+                return childNodes[mid];
+            }
+        }
+        return -1;
+    }
+    
+    public int size() {
+        return values.length;
+    }
+    
+    /**
+     * Lowercased words of letters, digits and apostrophes; everything else separates them
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && isWordChar(text.charAt(i))) {
+                token.append(normalizeChar(text.charAt(i)));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+    
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'' || c == '\u2019';
+    }
+    
+    private static char normalizeChar(char c) {
+        return c == '\u2019' ? '\'' : Character.toLowerCase(c);
+    }
+    
+    private static final class BuildNode {
+        // Sorted by token id, as the binary search needs
+        final TreeMap<Integer, BuildNode> children = new TreeMap<>();
+        int value = -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.translator.provider;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.service.GeminiAPIService;
+import com.translator.service.LLMService;
+import com.translator.service.TranslationExecutor;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+
+import java.util.List;
+
+/**
+ * Google Gemini. Endpoints default to gemini.model, gemini.api.key and gemini.baseUrl.
+ *
+ * All Gemini endpoints share one connection pool, so extra keys and models
+ * add no connections. Each endpoint gets its own dispatcher: the
+ * gemini.http.maxRequests limits apply per key, and a busy key does not
+ * queue the calls of the others.
+ */
+public class GeminiProvider implements LLMProvider {
+    
+    private OkHttpClient sharedClient;
+    
+    @Override
+    public String getName() {
+        return "gemini";
+    }
+    
+    @Override
+    public synchronized LLMService create(ProviderEndpoint endpoint, TranslatorConfig config,
+                                          TranslationExecutor executor, List<Interceptor> interceptors) {
+        String apiKey = endpoint.getApiKey() != null ? endpoint.getApiKey() : config.get("gemini.api.key");
+        if (apiKey == null) {
+            throw new IllegalStateException("GEMINI_API_KEY not found for endpoint " + endpoint.getName()
+                    + ". Please set it as environment variable or in config.properties");
+        }
+        
+        if (sharedClient == null) {
+            sharedClient = GeminiAPIService.buildClient(config, executor, List.of());
+        }
+        OkHttpClient.Builder builder = sharedClient.newBuilder()
+                .dispatcher(GeminiAPIService.newDispatcher(config, executor));
+        interceptors.forEach(builder::addInterceptor);
+        
+        return new GeminiAPIService(config, executor, builder.build(),
+                endpoint.getBaseUrl() != null ? endpoint.getBaseUrl()
+                        : config.get("gemini.baseUrl", GeminiAPIService.DEFAULT_BASE_URL),
+                endpoint.getModel() != null ? endpoint.getModel()
+                        : config.get("gemini.model", GeminiAPIService.DEFAULT_MODEL),
+                apiKey);
+    }
+}
\ No newline at end of file
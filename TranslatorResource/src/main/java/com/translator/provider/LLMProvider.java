@@ -0,0 +1,35 @@
+package com.translator.provider;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.service.LLMService;
+import com.translator.service.TranslationExecutor;
+import okhttp3.Interceptor;
+
+import java.util.List;
+
+/**
+ * A family of LLM backends that can serve translations.
+ *
+ * Implementations are discovered with ServiceLoader: list the class in
+ * META-INF/services/com.translator.provider.LLMProvider and reference it
+ * from configuration by its name (llm.endpoint.NAME.provider).
+ */
+public interface LLMProvider {
+    
+    /**
+     * Name used in configuration, e.g. "gemini"
+     */
+    String getName();
+    
+    /**
+     * Create the service for one endpoint (a model and credentials of this provider).
+     * Providers built on OkHttp should install the interceptors on the endpoint's
+     * client; they report quota answers to the rate limiter and the router.
+     * @param endpoint model, key and URL to use; null fields take the provider's defaults
+     * @param config application settings
+     * @param executor runs blocking upstream calls
+     * @param interceptors application interceptors for every call made by the service
+     */
+    LLMService create(ProviderEndpoint endpoint, TranslatorConfig config, TranslationExecutor executor,
+                      List<Interceptor> interceptors);
+}
\ No newline at end of file
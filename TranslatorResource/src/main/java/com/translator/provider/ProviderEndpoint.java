@@ -0,0 +1,99 @@
+package com.translator.provider;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.service.GeminiAPIService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One upstream the router can send translations to: a provider, a model and an API key.
+ *
+ * Endpoints are either listed explicitly (llm.endpoints=a,b with
+ * llm.endpoint.a.provider/model/apiKey/baseUrl) or, by default, derived
+ * from gemini.model and gemini.api.key, which may each hold a
+ * comma-separated list: every model is paired with every key.
+ */
+public class ProviderEndpoint {
+    
+    private final String name;
+    private final String provider;
+    private final String model;
+    private final String apiKey;
+    private final String baseUrl;
+    
+    public ProviderEndpoint(String name, String provider, String model, String apiKey, String baseUrl) {
+        this.name = name;
+        this.provider = provider;
+        this.model = model;
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+    }
+    
+    public static List<ProviderEndpoint> fromConfig(TranslatorConfig config) {
+        List<ProviderEndpoint> endpoints = new ArrayList<>();
+        String names = config.get("llm.endpoints");
+        if (names != null) {
+            for (String name : split(names)) {
+                String prefix = "llm.endpoint." + name + ".";
+                endpoints.add(new ProviderEndpoint(name,
+                        config.get(prefix + "provider", "gemini"),
+                        config.get(prefix + "model"),
+                        config.get(prefix + "apiKey"),
+                        config.get(prefix + "baseUrl")));
+            }
+            if (endpoints.isEmpty()) {
+                throw new IllegalStateException("llm.endpoints lists no endpoint");
+            }
+            return endpoints;
+        }
+        
+        // A missing key is reported by the provider, with its usual message
+        List<String> models = split(config.get("gemini.model", GeminiAPIService.DEFAULT_MODEL));
+        String keys = config.get("gemini.api.key");
+        List<String> apiKeys = keys != null ? split(keys) : new ArrayList<>();
+        if (apiKeys.isEmpty()) {
+            apiKeys.add(null);
+        }
+        for (String model : models) {
+            for (int i = 0; i < apiKeys.size(); i++) {
+                String name = apiKeys.size() > 1 ? model + "#" + (i + 1) : model;
+                endpoints.add(new ProviderEndpoint(name, "gemini", model, apiKeys.get(i), null));
+            }
+        }
+        return endpoints;
+    }
+    
+    private static List<String> split(String list) {
+        List<String> values = new ArrayList<>();
+        for (String value : list.split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getProvider() {
+        return provider;
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    /**
+     * Never logged; use getName() to identify the endpoint
+     */
+    public String getApiKey() {
+        return apiKey;
+    }
+    
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.translator.provider;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import com.translator.service.LLMService;
+import com.translator.service.TranslationExecutor;
+import okhttp3.Interceptor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * LLM providers available on the classpath, by name
+ */
+public class ProviderRegistry {
+    
+    private static final Logger LOG = Logger.get(ProviderRegistry.class);
+    
+    private final Map<String, LLMProvider> providers;
+    
+    public ProviderRegistry(Map<String, LLMProvider> providers) {
+        this.providers = providers;
+    }
+    
+    /**
+     * Discover providers with ServiceLoader from the application's class loader
+     */
+    public static ProviderRegistry load() {
+        Map<String, LLMProvider> providers = new LinkedHashMap<>();
+        for (LLMProvider provider : ServiceLoader.load(LLMProvider.class, LLMProvider.class.getClassLoader())) {
+            LLMProvider previous = providers.putIfAbsent(provider.getName(), provider);
+            if (previous != null) {
+                LOG.warn("Ignoring duplicate LLM provider", "provider", provider.getName(),
+                        "class", provider.getClass().getName());
+            }
+        }
+        return new ProviderRegistry(providers);
+    }
+    
+    public LLMProvider get(String name) {
+        LLMProvider provider = providers.get(name);
+        if (provider == null) {
+            throw new IllegalStateException("Unknown LLM provider '" + name + "', available: " + providers.keySet());
+        }
+        return provider;
+    }
+    
+    /**
+     * Create the service for an endpoint with the provider it names
+     */
+    public LLMService create(ProviderEndpoint endpoint, TranslatorConfig config, TranslationExecutor executor,
+                             List<Interceptor> interceptors) {
+        return get(endpoint.getProvider()).create(endpoint, config, executor, interceptors);
+    }
+}
\ No newline at end of file
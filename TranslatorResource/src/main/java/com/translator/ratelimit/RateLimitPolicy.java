@@ -0,0 +1,30 @@
+package com.translator.ratelimit;
+
+/**
+ * Requests per minute and burst size allowed for a role
+ */
+public class RateLimitPolicy {
+    
+    private final int perMinute;
+    private final int burst;
+    
+    public RateLimitPolicy(int perMinute, int burst) {
+        if (perMinute <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate limit and burst must be positive");
+        }
+        this.perMinute = perMinute;
+        this.burst = burst;
+    }
+    
+    public int getPerMinute() {
+        return perMinute;
+    }
+    
+    public int getBurst() {
+        return burst;
+    }
+    
+    public TokenBucket newBucket() {
+        return new TokenBucket(perMinute / 60.0, burst);
+    }
+}
\ No newline at end of file
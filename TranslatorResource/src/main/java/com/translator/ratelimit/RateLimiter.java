@@ -0,0 +1,212 @@
+package com.translator.ratelimit;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import jakarta.ws.rs.core.SecurityContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user and global request budgets.
+ *
+ * Each user gets a token bucket sized by the most generous limit among
+ * their roles. All users share a global bucket whose rate adapts to Gemini:
+ * an upstream 429 halves it and pauses it for the advertised delay, and
+ * every successful upstream call adds back 1% of the configured rate
+ * (AIMD), so we shed load ourselves instead of queueing calls Gemini
+ * would reject.
+ */
+public class RateLimiter implements UpstreamQuotaListener {
+    
+    private static final Logger LOG = Logger.get(RateLimiter.class);
+    
+    // Several 429s from one burst of requests count as a single congestion signal
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private static final TokenBucket NO_LIMIT = new TokenBucket(1, 1);
+    
+    private final boolean enabled;
+    private final Map<String, RateLimitPolicy> roleLimits;
+    private final ConcurrentHashMap<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket global;
+    private final double globalMaxRate;
+    private final double globalMinRate;
+    private final int backgroundReserve;
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime() - DECREASE_COOLDOWN_NANOS);
+    
+    private final LongAdder userRejections = new LongAdder();
+    private final LongAdder globalRejections = new LongAdder();
+    private final LongAdder upstreamThrottles = new LongAdder();
+    
+    /**
+     * @param roleLimits limits by role name; users with no limited role are not limited individually
+     * @param globalPerSecond global request rate, 0 for no global limit
+     */
+    public RateLimiter(boolean enabled, Map<String, RateLimitPolicy> roleLimits,
+                       double globalPerSecond, int globalBurst, double globalMinPerSecond) {
+        this(enabled, roleLimits, globalPerSecond, globalBurst, globalMinPerSecond, 0.5);
+    }
+    
+    /**
+     * @param backgroundReserveRatio share of the global burst that background work must leave free
+     */
+    public RateLimiter(boolean enabled, Map<String, RateLimitPolicy> roleLimits, double globalPerSecond,
+                       int globalBurst, double globalMinPerSecond, double backgroundReserveRatio) {
+        this.enabled = enabled;
+        this.roleLimits = roleLimits;
+        this.global = globalPerSecond > 0 ? new TokenBucket(globalPerSecond, globalBurst) : null;
+        this.globalMaxRate = globalPerSecond;
+        this.globalMinRate = Math.min(globalMinPerSecond, globalPerSecond);
+        this.backgroundReserve = (int) Math.ceil(globalBurst * Math.max(0, Math.min(1, backgroundReserveRatio)));
+    }
+    
+    public static RateLimiter create(TranslatorConfig config, Map<String, RateLimitPolicy> roleLimits) {
+        double globalPerSecond = config.getDouble("ratelimit.global.perSecond", 50);
+        return new RateLimiter(
+                config.getBoolean("ratelimit.enabled", true),
+                roleLimits,
+                globalPerSecond,
+                config.getInt("ratelimit.global.burst", (int) Math.max(1, globalPerSecond * 2)),
+                config.getDouble("ratelimit.global.minPerSecond", 1),
+                config.getDouble("ratelimit.background.reserveRatio", 0.5));
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Take a permit from the caller's bucket.
+     *
+     * @return 0 when granted, otherwise nanoseconds until the user may retry
+     */
+    public long tryAcquireUser(String username, SecurityContext securityContext, long now) {
+        TokenBucket bucket = userBuckets.get(username);
+        if (bucket == null) {
+            bucket = userBuckets.computeIfAbsent(username, name -> newUserBucket(securityContext));
+        }
+        if (bucket == NO_LIMIT) {
+            return 0;
+        }
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            userRejections.increment();
+        }
+        return wait;
+    }
+    
+    /**
+     * Give back the permit taken by tryAcquireUser when the request is refused afterwards
+     */
+    public void releaseUser(String username) {
+        TokenBucket bucket = userBuckets.get(username);
+        if (bucket != null && bucket != NO_LIMIT) {
+            bucket.release();
+        }
+    }
+    
+    /**
+     * Take a permit from the shared bucket.
+     *
+     * @return 0 when granted, otherwise nanoseconds until capacity frees up
+     */
+    public long tryAcquireGlobal(long now) {
+        if (global == null) {
+            return 0;
+        }
+        long wait = global.tryAcquire(now);
+        if (wait > 0) {
+            globalRejections.increment();
+        }
+        return wait;
+    }
+    
+    /**
+     * Take a permit from the shared bucket for background work (bulk jobs).
+     * It is granted only while interactive requests would still find part of
+     * the burst free, so background work runs on the capacity they leave idle.
+     *
+     * @return 0 when granted, otherwise nanoseconds until capacity frees up
+     */
+    public long tryAcquireBackground(long now) {
+        if (!enabled || global == null) {
+            return 0;
+        }
+        return global.tryAcquire(now, backgroundReserve);
+    }
+    
+    /**
+     * Gemini rejected a call for quota: halve the global rate and hold it for retryAfterSeconds
+     */
+    @Override
+    public void onUpstreamThrottled(long retryAfterSeconds) {
+        onUpstreamThrottled(retryAfterSeconds, System.nanoTime());
+    }
+    
+    void onUpstreamThrottled(long retryAfterSeconds, long now) {
+        upstreamThrottles.increment();
+        if (global == null) {
+            return;
+        }
+        
+        long last = lastDecrease.get();
+        if (now - last >= DECREASE_COOLDOWN_NANOS && lastDecrease.compareAndSet(last, now)) {
+            double rate = Math.max(globalMinRate, global.getRate() / 2);
+            global.setRate(rate);
+            LOG.warn("Gemini quota exceeded, global rate limit lowered", "ratePerSecond", Math.round(rate * 10) / 10.0);
+        }
+        
+        // After the rate change: the pause is measured in intervals of the new rate
+        if (retryAfterSeconds > 0) {
+            global.pause(now, TimeUnit.SECONDS.toNanos(retryAfterSeconds));
+        }
+    }
+    
+    /**
+     * Gemini accepted a call: recover the global rate additively
+     */
+    @Override
+    public void onUpstreamSuccess() {
+        if (global == null) {
+            return;
+        }
+        double rate = global.getRate();
+        if (rate < globalMaxRate) {
+            global.setRate(Math.min(globalMaxRate, rate + globalMaxRate / 100));
+        }
+    }
+    
+    public double getGlobalRate() {
+        return global != null ? global.getRate() : 0;
+    }
+    
+    public long getUserRejections() {
+        return userRejections.sum();
+    }
+    
+    public long getGlobalRejections() {
+        return globalRejections.sum();
+    }
+    
+    public long getUpstreamThrottles() {
+        return upstreamThrottles.sum();
+    }
+    
+    /**
+     * The most generous limit among the caller's roles; unlimited if none of them is limited
+     */
+    private TokenBucket newUserBucket(SecurityContext securityContext) {
+        RateLimitPolicy best = null;
+        for (Map.Entry<String, RateLimitPolicy> entry : roleLimits.entrySet()) {
+            if (securityContext.isUserInRole(entry.getKey())
+                    && (best == null || entry.getValue().getPerMinute() > best.getPerMinute())) {
+                best = entry.getValue();
+            }
+        }
+        return best != null ? best.newBucket() : NO_LIMIT;
+    }
+}
\ No newline at end of file
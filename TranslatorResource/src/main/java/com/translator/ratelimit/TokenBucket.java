@@ -0,0 +1,91 @@
+package com.translator.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as GCRA (generic cell rate algorithm).
+ *
+ * The whole state is one theoretical arrival time updated with CAS: each
+ * permit pushes it forward by one emission interval, and a request is
+ * refused when that would put it more than a burst ahead of now.
+ * Refused requests do not consume anything.
+ */
+public final class TokenBucket {
+    
+    private final AtomicLong theoreticalArrival;
+    private final int burst;
+    private volatile long intervalNanos;
+    
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.burst = burst;
+        this.intervalNanos = toInterval(permitsPerSecond);
+        // Start with a full bucket
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - intervalNanos * burst);
+    }
+    
+    /**
+     * Take one permit at time now (System.nanoTime()).
+     *
+     * @return 0 when the permit was granted, otherwise the nanoseconds until one will be
+     */
+    public long tryAcquire(long now) {
+        return tryAcquire(now, 0);
+    }
+    
+    /**
+     * Take one permit only if at least keepFree permits remain available afterwards,
+     * so low-priority callers cannot drain the bucket.
+     *
+     * @return 0 when the permit was granted, otherwise the nanoseconds until one will be
+     */
+    public long tryAcquire(long now, int keepFree) {
+        int usable = Math.max(1, burst - keepFree);
+        while (true) {
+            long interval = intervalNanos;
+            long tat = theoreticalArrival.get();
+            long next = (tat - now > 0 ? tat : now) + interval;
+            long wait = next - now - interval * usable;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Give back a permit taken by tryAcquire whose request was refused further on.
+     * Never fills the bucket beyond its burst: the next acquire starts from now at the earliest.
+     */
+    public void release() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+    
+    /**
+     * Refuse every request until now + pauseNanos
+     */
+    public void pause(long now, long pauseNanos) {
+        long target = now + pauseNanos + intervalNanos * (burst - 1);
+        theoreticalArrival.accumulateAndGet(target, (current, t) -> current - t < 0 ? t : current);
+    }
+    
+    public double getRate() {
+        return 1_000_000_000.0 / intervalNanos;
+    }
+    
+    public void setRate(double permitsPerSecond) {
+        this.intervalNanos = toInterval(permitsPerSecond);
+    }
+    
+    public int getBurst() {
+        return burst;
+    }
+    
+    private static long toInterval(double permitsPerSecond) {
+        return Math.max(1, (long) (1_000_000_000.0 / permitsPerSecond));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.translator.ratelimit;
+
+import com.translator.service.GeminiResponseParser;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Reports every Gemini response to a quota listener (the rate limiter, or
+ * the router for one endpoint), whichever code path (blocking, async,
+ * streaming or batch) made the call
+ */
+public class UpstreamQuotaInterceptor implements Interceptor {
+    
+    // Error bodies are small; the copy leaves the body readable for GeminiAPIService
+    private static final long MAX_PEEKED_BYTES = 16 * 1024;
+    
+    private final UpstreamQuotaListener listener;
+    
+    public UpstreamQuotaInterceptor(UpstreamQuotaListener listener) {
+        this.listener = listener;
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (response.code() == 429) {
+            listener.onUpstreamThrottled(GeminiResponseParser.readRetryAfterSeconds(
+                    response.header("Retry-After"), response.peekBody(MAX_PEEKED_BYTES).string()));
+        } else if (response.isSuccessful()) {
+            listener.onUpstreamSuccess();
+        }
+        return response;
+    }
+}
\ No newline at end of file
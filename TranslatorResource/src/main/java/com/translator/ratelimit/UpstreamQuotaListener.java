@@ -0,0 +1,18 @@
+package com.translator.ratelimit;
+
+/**
+ * Receives the quota signals UpstreamQuotaInterceptor reads from upstream responses
+ */
+public interface UpstreamQuotaListener {
+    
+    /**
+     * The upstream rejected a call for quota
+     * @param retryAfterSeconds delay the upstream asked for, or 0 when it did not say
+     */
+    void onUpstreamThrottled(long retryAfterSeconds);
+    
+    /**
+     * The upstream accepted a call
+     */
+    void onUpstreamSuccess();
+}
\ No newline at end of file
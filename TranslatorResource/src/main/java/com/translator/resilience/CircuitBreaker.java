@@ -0,0 +1,161 @@
+package com.translator.resilience;
+
+import com.translator.logging.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * Closed: the outcomes of the last windowSize calls are kept, and once at
+ * least minimumCalls are recorded a failure rate at or above the threshold
+ * opens the circuit. Open: calls are refused for openSeconds. Half-open:
+ * halfOpenCalls probes are let through; if all succeed the circuit closes,
+ * and any failure opens it again.
+ *
+ * State changes are rare and cheap next to an HTTP call, so each method
+ * simply synchronizes on the breaker.
+ */
+public class CircuitBreaker {
+    
+    private static final Logger LOG = Logger.get(CircuitBreaker.class);
+    
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    
+    private State state = State.CLOSED;
+    private int position;
+    private int recorded;
+    private int failureCount;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    
+    private final LongAdder opens = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openSeconds, int halfOpenCalls) {
+        this.failures = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+    
+    /**
+     * Ask to make a call; false means the circuit is open and the call must not be made
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                rejections.increment();
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenCalls) {
+                rejections.increment();
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+    
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenCalls) {
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        record(false);
+    }
+    
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && failureCount >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+    
+    /**
+     * The call ended without telling anything about Gemini's health (cancelled, bad input)
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+    
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+    
+    /**
+     * Whole seconds until an open circuit lets probes through, at least 1
+     */
+    public synchronized long getRetryAfterSeconds() {
+        long remaining = openNanos - (System.nanoTime() - openedAt);
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+    
+    public long getOpenCount() {
+        return opens.sum();
+    }
+    
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+    
+    private void record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[position]) {
+                failureCount--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[position] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        position = (position + 1) % failures.length;
+    }
+    
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        opens.increment();
+        resetWindow();
+        LOG.warn("Gemini circuit breaker opened", "seconds", TimeUnit.NANOSECONDS.toSeconds(openNanos));
+    }
+    
+    private void resetWindow() {
+        position = 0;
+        recorded = 0;
+        failureCount = 0;
+        Arrays.fill(failures, false);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.translator.resilience;
+
+/**
+ * The circuit breaker is open: the call was refused without contacting Gemini
+ */
+public class CircuitOpenException extends Exception {
+    
+    private final long retryAfterSeconds;
+    
+    public CircuitOpenException(long retryAfterSeconds) {
+        super("Gemini is failing, translation temporarily unavailable");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.translator.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies of the most recent calls in a fixed ring, for percentile estimates.
+ * The percentile is recomputed every refreshEvery samples, so reads are free.
+ */
+public class LatencyWindow {
+    
+    private final AtomicLongArray samples;
+    private final AtomicInteger next = new AtomicInteger();
+    private final double quantile;
+    private final int refreshEvery;
+    private volatile long cachedPercentile = -1;
+    
+    /**
+     * @param size number of samples kept, rounded up to a power of two
+     * @param quantile percentile tracked, e.g. 0.95
+     */
+    public LatencyWindow(int size, double quantile) {
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.samples = new AtomicLongArray(capacity);
+        this.quantile = quantile;
+        this.refreshEvery = Math.max(1, capacity / 16);
+    }
+    
+    public void record(long nanos) {
+        int index = next.getAndIncrement();
+        samples.set(index & (samples.length() - 1), nanos);
+        if ((index + 1) % refreshEvery == 0) {
+            cachedPercentile = compute();
+        }
+    }
+    
+    /**
+     * The tracked percentile in nanoseconds, or -1 until enough samples were recorded
+     */
+    public long getPercentile() {
+        return cachedPercentile;
+    }
+    
+    private long compute() {
+        // The counter wraps after 2^31 samples; by then the ring is long full
+        int recorded = next.get();
+        int count = recorded < 0 || recorded > samples.length() ? samples.length() : recorded;
+        long[] copy = new long[count];
+        for (int i = 0; i < count; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        return copy[Math.min(count - 1, (int) Math.ceil(quantile * count) - 1)];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.translator.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps extra upstream calls (retries or hedges) to a share of regular calls.
+ *
+ * Every call deposits ratio of a token; every extra call withdraws a whole
+ * one. When Gemini is down, retries therefore add at most ratio more load
+ * instead of multiplying it.
+ */
+public class RetryBudget {
+    
+    private static final long SCALE = 1000;
+    
+    private final AtomicLong balance;
+    private final long deposit;
+    private final long maxBalance;
+    
+    /**
+     * @param ratio extra calls allowed per regular call
+     * @param reserve extra calls available before any deposit, also the minimum cap
+     */
+    public RetryBudget(double ratio, int reserve) {
+        this.deposit = (long) (ratio * SCALE);
+        this.maxBalance = Math.max(reserve, 100) * SCALE;
+        this.balance = new AtomicLong(reserve * SCALE);
+    }
+    
+    public void deposit() {
+        if (balance.get() < maxBalance) {
+            balance.accumulateAndGet(deposit, (current, d) -> Math.min(maxBalance, current + d));
+        }
+    }
+    
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,579 @@
+package com.translator.resource;
+
+import com.translator.cache.NearDuplicateIndex;
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import com.translator.metrics.TokenUsageCounters;
+import com.translator.phrase.PhraseDictionary;
+import com.translator.scheduling.FairScheduler;
+import com.translator.scheduling.TrafficClass;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Path("/admin")
+@Produces(MediaType.APPLICATION_JSON)
+@RolesAllowed("ADMIN")
+public class AdminResource {
+    
+    private static final Logger LOG = Logger.get(AdminResource.class);
+    
+    private final PhraseDictionary phraseDictionary;
+    private final NearDuplicateIndex nearDuplicates;
+    private final boolean similarityEnabled;
+    private final FairScheduler scheduler;
+    private final boolean schedulerEnabled;
+    private final TokenUsageCounters tokenUsage;
+    
+    @Context
+    private SecurityContext securityContext;
+    
+    @Inject
+    public AdminResource(PhraseDictionary phraseDictionary, NearDuplicateIndex nearDuplicates,
+                         FairScheduler scheduler, TokenUsageCounters tokenUsage, TranslatorConfig config) {
+        this.phraseDictionary = phraseDictionary;
+        this.nearDuplicates = nearDuplicates;
+        this.similarityEnabled = config.getBoolean("similarity.enabled", true);
+        this.scheduler = scheduler;
+        this.schedulerEnabled = config.getBoolean("scheduler.enabled", true);
+        this.tokenUsage = tokenUsage;
+    }
+    
+    /**
+     * Re-reads the phrase table file and swaps it in without a restart
+     * POST /api/admin/phrases/reload
+     * Requires authentication (ADMIN role)
+     */
+    @POST
+    @Path("/phrases/reload")
+    public Response reloadPhrases() {
+        try {
+            int phrases = phraseDictionary.reload();
+            LOG.info("Phrase table reloaded", "user", securityContext.getUserPrincipal().getName(), "phrases", phrases);
+            return Response.ok()
+                .entity(new PhraseReloadResponse(phrases, phraseDictionary.getSource()))
+                .build();
+        } catch (IOException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new TranslatorResource.ErrorResponse("Phrase table not reloaded: " + e.getMessage()))
+                .build();
+        }
+    }
+    
+    /**
+     * Hit rate of the near-duplicate cache, to tune similarity.threshold
+     * GET /api/admin/similarity
+     * Requires authentication (ADMIN role)
+     */
+    @GET
+    @Path("/similarity")
+    public Response similarityStats() {
+        return Response.ok()
+            .entity(new SimilarityStatsResponse(similarityEnabled, nearDuplicates))
+            .build();
+    }
+    
+    /**
+     * Queue depth and wait times of the upstream scheduler, per traffic class
+     * GET /api/admin/scheduler
+     * Requires authentication (ADMIN role)
+     */
+    @GET
+    @Path("/scheduler")
+    public Response schedulerStats() {
+        return Response.ok()
+            .entity(new SchedulerStatsResponse(schedulerEnabled, scheduler))
+            .build();
+    }
+    
+    /**
+     * Upstream tokens spent per user since startup, and per translated character
+     * GET /api/admin/usage
+     * Requires authentication (ADMIN role)
+     */
+    @GET
+    @Path("/usage")
+    public Response tokenUsage() {
+        return Response.ok()
+            .entity(new TokenUsageResponse(tokenUsage))
+            .build();
+    }
+    
+    public static class PhraseReloadResponse {
+        private int phrases;
+        private String source;
+        private long timestamp;
+        
+        public PhraseReloadResponse() {
+        }
+        
+        public PhraseReloadResponse(int phrases, String source) {
+            this.phrases = phrases;
+            this.source = source;
+            this.timestamp = System.currentTimeMillis();
+        }
+        
+        public int getPhrases() {
+            return phrases;
+        }
+        
+        public void setPhrases(int phrases) {
+            this.phrases = phrases;
+        }
+        
+        public String getSource() {
+            return source;
+        }
+        
+        public void setSource(String source) {
+            this.source = source;
+        }
+        
+        public long getTimestamp() {
+            return timestamp;
+        }
+        
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+    
+    public static class SimilarityStatsResponse {
+        private boolean enabled;
+        private double threshold;
+        private int entries;
+        private int maxEntries;
+        private long lookups;
+        private long hits;
+        private double hitRate;
+        private long skipped;
+        private long evictions;
+        private Map<String, Long> similarityHistogram;
+        private long timestamp;
+        
+        public SimilarityStatsResponse() {
+        }
+        
+        public SimilarityStatsResponse(boolean enabled, NearDuplicateIndex index) {
+            this.enabled = enabled;
+            this.threshold = index.getThreshold();
+            this.entries = index.size();
+            this.maxEntries = index.getMaxEntries();
+            this.lookups = index.getLookups();
+            this.hits = index.getHits();
+            this.hitRate = lookups > 0 ? (double) hits / lookups : 0;
+            this.skipped = index.getSkipped();
+            this.evictions = index.getEvictions();
+            this.similarityHistogram = new LinkedHashMap<>();
+            long[] counts = index.getSimilarityHistogram();
+            for (int i = 0; i < counts.length; i++) {
+                similarityHistogram.put(String.format(Locale.ROOT, "%.2f", NearDuplicateIndex.getHistogramBucketStart(i)), counts[i]);
+            }
+            this.timestamp = System.currentTimeMillis();
+        }
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public double getThreshold() {
+            return threshold;
+        }
+        
+        public void setThreshold(double threshold) {
+            this.threshold = threshold;
+        }
+        
+        public int getEntries() {
+            return entries;
+        }
+        
+        public void setEntries(int entries) {
+            this.entries = entries;
+        }
+        
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+        
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+        
+        public long getLookups() {
+            return lookups;
+        }
+        
+        public void setLookups(long lookups) {
+            this.lookups = lookups;
+        }
+        
+        public long getHits() {
+            return hits;
+        }
+        
+        public void setHits(long hits) {
+            this.hits = hits;
+        }
+        
+        public double getHitRate() {
+            return hitRate;
+        }
+        
+        public void setHitRate(double hitRate) {
+            this.hitRate = hitRate;
+        }
+        
+        public long getSkipped() {
+            return skipped;
+        }
+        
+        public void setSkipped(long skipped) {
+            this.skipped = skipped;
+        }
+        
+        public long getEvictions() {
+            return evictions;
+        }
+        
+        public void setEvictions(long evictions) {
+            this.evictions = evictions;
+        }
+        
+        public Map<String, Long> getSimilarityHistogram() {
+            return similarityHistogram;
+        }
+        
+        public void setSimilarityHistogram(Map<String, Long> similarityHistogram) {
+            this.similarityHistogram = similarityHistogram;
+        }
+        
+        public long getTimestamp() {
+            return timestamp;
+        }
+        
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+    
+    public static class SchedulerStatsResponse {
+        private boolean enabled;
+        private int maxConcurrent;
+        private int inFlight;
+        private Map<String, TrafficClassStats> classes;
+        private long timestamp;
+        
+        public SchedulerStatsResponse() {
+        }
+        
+        public SchedulerStatsResponse(boolean enabled, FairScheduler scheduler) {
+            this.enabled = enabled;
+            this.maxConcurrent = scheduler.getMaxConcurrent();
+            this.inFlight = scheduler.getInFlight();
+            this.classes = new LinkedHashMap<>();
+            for (TrafficClass trafficClass : TrafficClass.values()) {
+                classes.put(trafficClass.name().toLowerCase(Locale.ROOT), new TrafficClassStats(scheduler.getStats(trafficClass)));
+            }
+            this.timestamp = System.currentTimeMillis();
+        }
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+        
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+        
+        public int getInFlight() {
+            return inFlight;
+        }
+        
+        public void setInFlight(int inFlight) {
+            this.inFlight = inFlight;
+        }
+        
+        public Map<String, TrafficClassStats> getClasses() {
+            return classes;
+        }
+        
+        public void setClasses(Map<String, TrafficClassStats> classes) {
+            this.classes = classes;
+        }
+        
+        public long getTimestamp() {
+            return timestamp;
+        }
+        
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+    
+    public static class TrafficClassStats {
+        private int weight;
+        private int queued;
+        private int waitingUsers;
+        private long started;
+        private long rejected;
+        private long expired;
+        private long meanWaitMillis;
+        private long p95WaitMillis;
+        private long maxWaitMillis;
+        private long callMillis;
+        
+        public TrafficClassStats() {
+        }
+        
+        public TrafficClassStats(FairScheduler.ClassStats stats) {
+            this.weight = stats.getWeight();
+            this.queued = stats.getQueued();
+            this.waitingUsers = stats.getWaitingUsers();
+            this.started = stats.getStarted();
+            this.rejected = stats.getRejected();
+            this.expired = stats.getExpired();
+            this.meanWaitMillis = stats.getStarted() > 0
+                ? TimeUnit.NANOSECONDS.toMillis(stats.getTotalWaitNanos() / stats.getStarted())
+                : 0;
+            this.p95WaitMillis = TimeUnit.NANOSECONDS.toMillis(stats.getP95WaitNanos());
+            this.maxWaitMillis = TimeUnit.NANOSECONDS.toMillis(stats.getMaxWaitNanos());
+            this.callMillis = TimeUnit.NANOSECONDS.toMillis(stats.getServiceNanos());
+        }
+        
+        public int getWeight() {
+            return weight;
+        }
+        
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+        
+        public int getQueued() {
+            return queued;
+        }
+        
+        public void setQueued(int queued) {
+            this.queued = queued;
+        }
+        
+        public int getWaitingUsers() {
+            return waitingUsers;
+        }
+        
+        public void setWaitingUsers(int waitingUsers) {
+            this.waitingUsers = waitingUsers;
+        }
+        
+        public long getStarted() {
+            return started;
+        }
+        
+        public void setStarted(long started) {
+            this.started = started;
+        }
+        
+        public long getRejected() {
+            return rejected;
+        }
+        
+        public void setRejected(long rejected) {
+            this.rejected = rejected;
+        }
+        
+        public long getExpired() {
+            return expired;
+        }
+        
+        public void setExpired(long expired) {
+            this.expired = expired;
+        }
+        
+        public long getMeanWaitMillis() {
+            return meanWaitMillis;
+        }
+        
+        public void setMeanWaitMillis(long meanWaitMillis) {
+            this.meanWaitMillis = meanWaitMillis;
+        }
+        
+        public long getP95WaitMillis() {
+            return p95WaitMillis;
+        }
+        
+        public void setP95WaitMillis(long p95WaitMillis) {
+            this.p95WaitMillis = p95WaitMillis;
+        }
+        
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+        
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+        
+        public long getCallMillis() {
+            return callMillis;
+        }
+        
+        public void setCallMillis(long callMillis) {
+            this.callMillis = callMillis;
+        }
+    }
+    
+    public static class TokenUsageResponse {
+        private TokenStats total;
+        private Map<String, TokenStats> users;
+        private long timestamp;
+        
+        public TokenUsageResponse() {
+        }
+        
+        public TokenUsageResponse(TokenUsageCounters counters) {
+            this.total = new TokenStats(counters.getTotal());
+            this.users = new LinkedHashMap<>();
+            counters.getUsers().forEach((user, tokens) -> users.put(user, new TokenStats(tokens)));
+            this.timestamp = System.currentTimeMillis();
+        }
+        
+        public TokenStats getTotal() {
+            return total;
+        }
+        
+        public void setTotal(TokenStats total) {
+            this.total = total;
+        }
+        
+        public Map<String, TokenStats> getUsers() {
+            return users;
+        }
+        
+        public void setUsers(Map<String, TokenStats> users) {
+            this.users = users;
+        }
+        
+        public long getTimestamp() {
+            return timestamp;
+        }
+        
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+    
+    public static class TokenStats {
+        private long calls;
+        private long reportedCalls;
+        private long promptTokens;
+        private long estimatedPromptTokens;
+        private long outputTokens;
+        private long inputChars;
+        private long outputChars;
+        private double tokensPerInputChar;
+        
+        public TokenStats() {
+        }
+        
+        public TokenStats(TokenUsageCounters.Tokens tokens) {
+            this.calls = tokens.getCalls();
+            this.reportedCalls = tokens.getReportedCalls();
+            this.promptTokens = tokens.getPromptTokens();
+            this.estimatedPromptTokens = tokens.getEstimatedPromptTokens();
+            this.outputTokens = tokens.getOutputTokens();
+            this.inputChars = tokens.getInputChars();
+            this.outputChars = tokens.getOutputChars();
+            this.tokensPerInputChar = inputChars > 0 ? (double) (promptTokens + outputTokens) / inputChars : 0;
+        }
+        
+        public long getCalls() {
+            return calls;
+        }
+        
+        public void setCalls(long calls) {
+            this.calls = calls;
+        }
+        
+        public long getReportedCalls() {
+            return reportedCalls;
+        }
+        
+        public void setReportedCalls(long reportedCalls) {
+            this.reportedCalls = reportedCalls;
+        }
+        
+        public long getPromptTokens() {
+            return promptTokens;
+        }
+        
+        public void setPromptTokens(long promptTokens) {
+            this.promptTokens = promptTokens;
+        }
+        
+        public long getEstimatedPromptTokens() {
+            return estimatedPromptTokens;
+        }
+        
+        public void setEstimatedPromptTokens(long estimatedPromptTokens) {
+            this.estimatedPromptTokens = estimatedPromptTokens;
+        }
+        
+        public long getOutputTokens() {
+            return outputTokens;
+        }
+        
+        public void setOutputTokens(long outputTokens) {
+            this.outputTokens = outputTokens;
+        }
+        
+        public long getInputChars() {
+            return inputChars;
+        }
+        
+        public void setInputChars(long inputChars) {
+            this.inputChars = inputChars;
+        }
+        
+        public long getOutputChars() {
+            return outputChars;
+        }
+        
+        public void setOutputChars(long outputChars) {
+            this.outputChars = outputChars;
+        }
+        
+        public double getTokensPerInputChar() {
+            return tokensPerInputChar;
+        }
+        
+        public void setTokensPerInputChar(double tokensPerInputChar) {
+            this.tokensPerInputChar = tokensPerInputChar;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.translator.resource;
+
+import com.translator.logging.Logger;
+import com.translator.model.TokenResponse;
+import com.translator.model.User;
+import com.translator.security.TokenService;
+import com.translator.security.UserRepository;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+
+@Path("/auth")
+@Produces(MediaType.APPLICATION_JSON)
+public class AuthResource {
+    
+    private static final Logger LOG = Logger.get(AuthResource.class);
+    
+    private final TokenService tokenService;
+    
+    @Context
+    private SecurityContext securityContext;
+    
+    @Inject
+    public AuthResource(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+    
+    /**
+     * Exchanges Basic credentials for a short-lived bearer token
+     * POST /api/auth/token
+     * Requires Basic authentication; a bearer token cannot be used to extend itself
+     */
+    @POST
+    @Path("/token")
+    @RolesAllowed({"USER", "ADMIN"})
+    public Response token() {
+        if (!SecurityContext.BASIC_AUTH.equalsIgnoreCase(securityContext.getAuthenticationScheme())) {
+            return Response.status(Response.Status.FORBIDDEN)
+                .entity(new TranslatorResource.ErrorResponse("Tokens can only be requested with Basic credentials"))
+                .build();
+        }
+        
+        String username = securityContext.getUserPrincipal().getName();
+        User user = UserRepository.getInstance().findByUsername(username);
+        
+        long expiresIn = tokenService.getTtlSeconds();
+        long expiresAt = System.currentTimeMillis() / 1000 + expiresIn;
+        String token = tokenService.issue(user, expiresAt);
+        
+        LOG.info("Token issued", "user", username);
+        
+        return Response.ok()
+            .entity(new TokenResponse(token, expiresIn, expiresAt))
+            .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.translator.resource;
+
+import com.translator.filter.RateLimited;
+import com.translator.job.Job;
+import com.translator.job.JobManager;
+import com.translator.logging.Logger;
+import com.translator.model.JobResponse;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Path("/translator/jobs")
+@Produces(MediaType.APPLICATION_JSON)
+@RolesAllowed({"USER", "ADMIN"})
+public class JobResource {
+    
+    private static final Logger LOG = Logger.get(JobResource.class);
+    
+    private static final String NDJSON = "application/x-ndjson";
+    
+    private final JobManager jobManager;
+    
+    @Context
+    private SecurityContext securityContext;
+    
+    @Context
+    private UriInfo uriInfo;
+    
+    @Inject
+    public JobResource(JobManager jobManager) {
+        this.jobManager = jobManager;
+    }
+    
+    /**
+     * Queues a bulk translation job
+     * POST /api/translator/jobs
+     * Requires authentication (USER role)
+     *
+     * The body is JSON lines: each line a string, or an object with a
+     * "text" string and an optional "id" that is copied to its result.
+     * Answers 202 right away; the job runs in the background whenever
+     * interactive traffic leaves room under the rate limit.
+     */
+    @POST
+    @RateLimited
+    @Consumes({NDJSON, "application/jsonl", MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM})
+    public Response submit(InputStream body) {
+        if (!jobManager.isAvailable()) {
+            return unavailable();
+        }
+        
+        String username = securityContext.getUserPrincipal().getName();
+        try {
+            Job job = jobManager.submit(username, body);
+            LOG.info("Translation job queued", "job", job.getId(), "user", username, "lines", job.getTotal());
+            return Response.accepted(new JobResponse(job))
+                .location(uriInfo.getAbsolutePathBuilder().path(job.getId()).build())
+                .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new TranslatorResource.ErrorResponse(e.getMessage()))
+                .build();
+        } catch (IOException e) {
+            LOG.error("Could not store translation job", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity(new TranslatorResource.ErrorResponse("Could not store the job"))
+                .build();
+        }
+    }
+    
+    /**
+     * Progress of a job
+     * GET /api/translator/jobs/{id}
+     * Requires authentication (USER role, owner of the job or ADMIN)
+     */
+    @GET
+    @Path("/{id}")
+    public Response status(@PathParam("id") String id) {
+        Job job = visibleJob(id);
+        if (job == null) {
+            return notFound();
+        }
+        return Response.ok().entity(new JobResponse(job)).build();
+    }
+    
+    /**
+     * Results translated so far, one JSON line per input line in input order
+     * GET /api/translator/jobs/{id}/results
+     * Requires authentication (USER role, owner of the job or ADMIN)
+     *
+     * Can be fetched while the job is running; compare the number of
+     * lines with "processed" from the status to see how far it got.
+     */
+    @GET
+    @Path("/{id}/results")
+    @Produces(NDJSON)
+    public Response results(@PathParam("id") String id) {
+        Job job = visibleJob(id);
+        if (job == null) {
+            return notFound();
+        }
+        
+        StreamingOutput output = out -> {
+            try (InputStream results = jobManager.openResults(job)) {
+                results.transferTo(out);
+            }
+        };
+        return Response.ok(output, NDJSON).build();
+    }
+    
+    /**
+     * The job if the caller may see it; other users' jobs look like missing ones
+     */
+    private Job visibleJob(String id) {
+        Job job = jobManager.get(id);
+        if (job == null) {
+            return null;
+        }
+        if (!job.getOwner().equals(securityContext.getUserPrincipal().getName())
+                && !securityContext.isUserInRole("ADMIN")) {
+            return null;
+        }
+        return job;
+    }
+    
+    private Response notFound() {
+        if (!jobManager.isAvailable()) {
+            return unavailable();
+        }
+        return Response.status(Response.Status.NOT_FOUND)
+            .type(MediaType.APPLICATION_JSON)
+            .entity(new TranslatorResource.ErrorResponse("Job not found"))
+            .build();
+    }
+    
+    private static Response unavailable() {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+            .type(MediaType.APPLICATION_JSON)
+            .entity(new TranslatorResource.ErrorResponse("Bulk translation jobs are not available"))
+            .build();
+    }
+}
\ No newline at end of file
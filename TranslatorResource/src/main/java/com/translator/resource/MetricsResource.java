@@ -0,0 +1,43 @@
+package com.translator.resource;
+
+import com.translator.metrics.MetricsRegistry;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@Path("/metrics")
+@RolesAllowed("ADMIN")
+public class MetricsResource {
+    
+    private final MetricsRegistry metrics;
+    
+    @Inject
+    public MetricsResource(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Counters, gauges and latency histograms in the Prometheus text format
+     * GET /api/metrics
+     * Requires authentication (ADMIN role)
+     */
+    @GET
+    @Produces(MetricsRegistry.CONTENT_TYPE)
+    public Response metrics() {
+        StreamingOutput body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            metrics.writeTo(writer);
+        };
+        return Response.ok(body).build();
+    }
+}
\ No newline at end of file
@@ -1,75 +1,382 @@
 package com.translator.resource;
 
+import com.translator.config.BinaryJsonProvider;
+import com.translator.config.TranslatorConfig;
+import com.translator.document.DocumentTranslator;
+import com.translator.filter.RateLimited;
+import com.translator.logging.LogContext;
+import com.translator.logging.Logger;
+import com.translator.metrics.Histogram;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.resilience.CircuitOpenException;
+import com.translator.model.BatchTranslationRequest;
+import com.translator.model.BatchTranslationResponse;
+import com.translator.model.SegmentTranslation;
 import com.translator.model.TranslationRequest;
 import com.translator.model.TranslationResponse;
-import com.translator.service.GeminiAPIService;
+import com.translator.model.TranslationResult;
+import com.translator.scheduling.AdmissionRejectedException;
+import com.translator.scheduling.CallContext;
+import com.translator.scheduling.TrafficPolicy;
+import com.translator.security.UserRepository;
+import com.translator.service.ExecutionMode;
 import com.translator.service.LLMService;
+import com.translator.service.TranslationExecutor;
+import com.translator.service.UpstreamException;
+import com.translator.util.Futures;
 
 import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ConnectionCallback;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Path("/translator")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BinaryJsonProvider.SMILE_ON_REQUEST, BinaryJsonProvider.CBOR_ON_REQUEST})
+@Consumes({MediaType.APPLICATION_JSON, BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR})
 public class TranslatorResource {
     
+    private static final Logger LOG = Logger.get(TranslatorResource.class);
+    // One line per request; kept 1 in log.sample.requests
+    private static final Logger REQUEST_LOG = LOG.sampled("requests", 100);
+    
+    // RFC 7240 preference for a response without the echoed request fields
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    private static final String RETURN_MINIMAL = "return=minimal";
+    
     private final LLMService llmService;
+    private final TranslationExecutor executor;
+    private final DocumentTranslator documentTranslator;
+    private final TrafficPolicy trafficPolicy;
+    private final int batchMaxSegments;
+    private final int maxChars;
+    private final long translateTimeoutSeconds;
+    private final Histogram inputChars;
+    private final Histogram outputChars;
+    private final Histogram firstChunk;
     
     @Context
     private SecurityContext securityContext;
     
-    public TranslatorResource() {
-        this.llmService = new GeminiAPIService();
+    @Context
+    private HttpHeaders httpHeaders;
+    
+    @Inject
+    public TranslatorResource(LLMService llmService, TranslationExecutor executor,
+                              DocumentTranslator documentTranslator, TrafficPolicy trafficPolicy,
+                              TranslatorConfig config, MetricsRegistry metrics) {
+        this.llmService = llmService;
+        this.executor = executor;
+        this.documentTranslator = documentTranslator;
+        this.trafficPolicy = trafficPolicy;
+        this.batchMaxSegments = config.getInt("batch.maxSegments", 500);
+        this.maxChars = config.getInt("translate.maxChars", 100000);
+        this.translateTimeoutSeconds = config.getLong("translate.timeoutSeconds", 90);
+        this.inputChars = metrics.histogram("translator_input_chars",
+            "Length of the texts accepted for translation, segment by segment for batches",
+            MetricsRegistry.SIZE_BUCKETS);
+        this.outputChars = metrics.histogram("translator_output_chars",
+            "Length of the translations returned", MetricsRegistry.SIZE_BUCKETS);
+        this.firstChunk = metrics.histogram("translator_stream_first_chunk_seconds",
+            "Time from a streaming request to its first chunk of translation",
+            MetricsRegistry.LATENCY_BUCKETS);
     }
     
     /**
      * Translates English text to Moroccan Darija
      * POST /api/translator/translate
      * Requires authentication (USER role)
+     *
+     * The request thread is released while Gemini answers; the response
+     * is resumed from the upstream callback, from a worker thread in
+     * platform/virtual mode, or by the timeout handler.
+     *
+     * Texts over document.passageTokens are split into passages that are
+     * translated in parallel and joined back in order. A timeout, or a
+     * client disconnect where the container reports one, cancels the
+     * passages not yet translated.
+     *
+     * Upstream calls are scheduled by the caller's traffic class; a
+     * translation that cannot start before the timeout is refused with 503.
+     *
+     * With "Prefer: return=minimal" the response leaves out the original
+     * text and the language names.
      */
     @POST
     @Path("/translate")
+    @RateLimited
     @RolesAllowed({"USER", "ADMIN"})
-    public Response translate(TranslationRequest request) {
+    public void translate(TranslationRequest request, @Suspended AsyncResponse asyncResponse) {
+        REQUEST_LOG.info("Translation request", "user", securityContext.getUserPrincipal().getName());
+        
+        // Validate request
+        if (request == null || request.getText() == null || request.getText().trim().isEmpty()) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse("Text to translate is required"))
+                .build());
+            return;
+        }
+        if (request.getText().length() > maxChars) {
+            asyncResponse.resume(textTooLong());
+            return;
+        }
+        CallContext callContext;
         try {
-            // Log authenticated user
-            String username = securityContext.getUserPrincipal().getName();
-            System.out.println("Translation request from user: " + username);
-            
-            // Validate request
-            if (request == null || request.getText() == null || request.getText().trim().isEmpty()) {
-                return Response.status(Response.Status.BAD_REQUEST)
-                    .entity(new ErrorResponse("Text to translate is required"))
-                    .build();
+            callContext = callContext(translateTimeoutSeconds);
+        } catch (IllegalArgumentException e) {
+            asyncResponse.resume(errorResponse(e));
+            return;
+        }
+        boolean minimal = prefersMinimal();
+        
+        AtomicReference<CompletableFuture<TranslationResult>> pending = new AtomicReference<>();
+        asyncResponse.setTimeout(translateTimeoutSeconds, TimeUnit.SECONDS);
+        asyncResponse.setTimeoutHandler(timedOut -> {
+            timedOut.resume(Response.status(Response.Status.GATEWAY_TIMEOUT)
+                .entity(new ErrorResponse("Translation timed out"))
+                .build());
+            cancel(pending.get());
+        });
+        asyncResponse.register((ConnectionCallback) disconnected -> cancel(pending.get()));
+        
+        // Perform translation
+        String text = request.getText();
+        inputChars.observe(text.length());
+        CompletableFuture<TranslationResult> translation;
+        try (CallContext.Scope ignored = callContext.open()) {
+            if (documentTranslator.isLong(text)) {
+                translation = documentTranslator.translate(text, null);
+            } else if (executor.getMode() == ExecutionMode.ASYNC) {
+                translation = llmService.translateDetailedAsync(text);
+            } else {
+                translation = executor.submit(() -> llmService.translateDetailed(text));
+            }
+        }
+        pending.set(translation);
+        
+        String requestId = LogContext.requestId();
+        translation.whenComplete((result, error) -> {
+            // Cancelled by the timeout handler or a disconnect; nobody is waiting for an answer
+            if (translation.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                try (LogContext.Scope ignored = LogContext.open(requestId)) {
+                    asyncResponse.resume(errorResponse(Futures.unwrap(error)));
+                }
+                return;
             }
-            
-            // Perform translation
-            String translatedText = llmService.translate(request.getText());
             
             // Build response
+            outputChars.observe(result.getText().length());
             TranslationResponse response = new TranslationResponse(
                 request.getText(),
-                translatedText
+                result.getText()
             );
+            response.setCached(result.isCached());
+            response.setEngine(result.getEngine());
+            if (minimal) {
+                response.omitEcho();
+                asyncResponse.resume(Response.ok(response).header(PREFERENCE_APPLIED_HEADER, RETURN_MINIMAL).build());
+                return;
+            }
             
-            return Response.ok(response).build();
-            
+            asyncResponse.resume(Response.ok(response).build());
+        });
+    }
+    
+    /**
+     * Streams the translation as Server-Sent Events while Gemini generates it
+     * POST /api/translator/translate/stream
+     * Requires authentication (USER role)
+     *
+     * Events: "chunk" (partial Darija text), then "done" (TranslationResponse JSON)
+     * or "error" (ErrorResponse JSON).
+     */
+    @POST
+    @Path("/translate/stream")
+    @RateLimited
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RolesAllowed({"USER", "ADMIN"})
+    public void translateStream(TranslationRequest request, @Context SseEventSink sink, @Context Sse sse) {
+        streamTranslation(request != null ? request.getText() : null, sink, sse);
+    }
+    
+    /**
+     * GET /api/translator/translate/stream?text=...
+     * Same as the POST variant, for EventSource-style clients
+     */
+    @GET
+    @Path("/translate/stream")
+    @RateLimited
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RolesAllowed({"USER", "ADMIN"})
+    public void translateStreamGet(@QueryParam("text") String text, @Context SseEventSink sink, @Context Sse sse) {
+        streamTranslation(text, sink, sse);
+    }
+    
+    private void streamTranslation(String text, SseEventSink sink, Sse sse) {
+        if (text == null || text.trim().isEmpty()) {
+            sendAndClose(sink, jsonEvent(sse, "error", new ErrorResponse("Text to translate is required")));
+            return;
+        }
+        if (text.length() > maxChars) {
+            sendAndClose(sink, jsonEvent(sse, "error", new ErrorResponse(textTooLongMessage())));
+            return;
+        }
+        CallContext callContext;
+        try {
+            callContext = callContext(0);
         } catch (IllegalArgumentException e) {
+            sendAndClose(sink, jsonEvent(sse, "error", new ErrorResponse(e.getMessage())));
+            return;
+        }
+        
+        inputChars.observe(text.length());
+        long start = System.nanoTime();
+        AtomicBoolean started = new AtomicBoolean();
+        Consumer<String> onChunk = chunk -> {
+            // Stop reading from Gemini once the client has gone away
+            if (sink.isClosed()) {
+                throw new CancellationException("Client disconnected");
+            }
+            if (!started.get() && started.compareAndSet(false, true)) {
+                firstChunk.observeSince(start);
+            }
+            sink.send(sse.newEventBuilder().name("chunk").data(chunk).build());
+        };
+        
+        // A long text streams passage by passage, in order, as the parallel translations finish
+        CompletableFuture<TranslationResult> translation;
+        try (CallContext.Scope ignored = callContext.open()) {
+            translation = documentTranslator.isLong(text)
+                ? documentTranslator.translate(text, onChunk)
+                : executor.submit(() -> llmService.translateStream(text, onChunk));
+        }
+        
+        String requestId = LogContext.requestId();
+        translation.whenComplete((result, error) -> {
+            if (sink.isClosed()) {
+                return;
+            }
+            if (error != null) {
+                Throwable cause = Futures.unwrap(error);
+                if (!(cause instanceof IllegalArgumentException || cause instanceof AdmissionRejectedException)) {
+                    try (LogContext.Scope ignored = LogContext.open(requestId)) {
+                        LOG.error("Streaming translation failed", cause);
+                    }
+                }
+                sendAndClose(sink, jsonEvent(sse, "error", new ErrorResponse("Translation service error: " + cause.getMessage())));
+                return;
+            }
+            
+            outputChars.observe(result.getText().length());
+            TranslationResponse response = new TranslationResponse(text, result.getText());
+            response.setCached(result.isCached());
+            response.setEngine(result.getEngine());
+            sendAndClose(sink, jsonEvent(sse, "done", response));
+        });
+    }
+    
+    private static OutboundSseEvent jsonEvent(Sse sse, String name, Object data) {
+        return sse.newEventBuilder()
+            .name(name)
+            .mediaType(MediaType.APPLICATION_JSON_TYPE)
+            .data(data)
+            .build();
+    }
+    
+    private static void sendAndClose(SseEventSink sink, OutboundSseEvent event) {
+        sink.send(event).whenComplete((ignored, error) -> sink.close());
+    }
+    
+    /**
+     * Translates many English segments in as few upstream calls as possible
+     * POST /api/translator/translate/batch
+     * Requires authentication (USER role)
+     *
+     * With "Prefer: return=minimal" the results leave out the original texts.
+     */
+    @POST
+    @Path("/translate/batch")
+    @RateLimited
+    @RolesAllowed({"USER", "ADMIN"})
+    public Response translateBatch(BatchTranslationRequest request) {
+        if (request == null || request.getSegments() == null || request.getSegments().isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse("At least one segment is required"))
+                .build();
+        }
+        
+        List<String> segments = request.getSegments();
+        if (segments.size() > batchMaxSegments) {
             return Response.status(Response.Status.BAD_REQUEST)
-                .entity(new ErrorResponse(e.getMessage()))
+                .entity(new ErrorResponse("Too many segments (maximum " + batchMaxSegments + ")"))
                 .build();
-                
-        } catch (Exception e) {
-            e.printStackTrace();
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                .entity(new ErrorResponse("Translation service error: " + e.getMessage()))
+        }
+        CallContext callContext;
+        try {
+            callContext = callContext(0);
+        } catch (IllegalArgumentException e) {
+            return errorResponse(e);
+        }
+        
+        // Blank segments are rejected individually and never sent upstream
+        List<Integer> positions = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            String text = segments.get(i);
+            if (text != null && !text.trim().isEmpty()) {
+                positions.add(i);
+                texts.add(text);
+                inputChars.observe(text.length());
+            }
+        }
+        
+        List<TranslationResult> translated;
+        try (CallContext.Scope ignored = callContext.open()) {
+            translated = texts.isEmpty() ? List.of() : llmService.translateBatch(texts);
+        }
+        
+        List<SegmentTranslation> results = new ArrayList<>(segments.size());
+        int next = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            TranslationResult result = next < positions.size() && positions.get(next) == i
+                ? translated.get(next++)
+                : TranslationResult.failed("Text to translate is required");
+            if (result.isSuccess()) {
+                outputChars.observe(result.getText().length());
+            }
+            results.add(new SegmentTranslation(i, segments.get(i), result));
+        }
+        
+        if (prefersMinimal()) {
+            results.forEach(SegmentTranslation::omitEcho);
+            return Response.ok(new BatchTranslationResponse(results))
+                .header(PREFERENCE_APPLIED_HEADER, RETURN_MINIMAL)
                 .build();
         }
+        return Response.ok(new BatchTranslationResponse(results)).build();
     }
     
     /**
@@ -103,6 +410,94 @@ public class TranslatorResource {
             .build();
     }
     
+    private Response textTooLong() {
+        return Response.status(Response.Status.BAD_REQUEST)
+            .entity(new ErrorResponse(textTooLongMessage()))
+            .build();
+    }
+    
+    private String textTooLongMessage() {
+        return "Text too long (maximum " + maxChars + " characters)";
+    }
+    
+    /**
+     * Traffic class and deadline of this request for the upstream scheduler
+     *
+     * @param timeoutSeconds how long the server waits for the answer, 0 for no deadline
+     * @throws IllegalArgumentException if the priority or timeout header is malformed
+     */
+    private CallContext callContext(long timeoutSeconds) {
+        String username = securityContext.getUserPrincipal().getName();
+        return trafficPolicy.resolve(
+            UserRepository.getInstance().findByUsername(username),
+            username,
+            httpHeaders.getHeaderString(TrafficPolicy.PRIORITY_HEADER),
+            httpHeaders.getHeaderString(TrafficPolicy.TIMEOUT_HEADER),
+            TimeUnit.SECONDS.toNanos(timeoutSeconds));
+    }
+    
+    /**
+     * Whether the client sent "Prefer: return=minimal"
+     */
+    private boolean prefersMinimal() {
+        List<String> preferences = httpHeaders.getRequestHeader(PREFER_HEADER);
+        if (preferences == null) {
+            return false;
+        }
+        for (String header : preferences) {
+            for (String preference : header.split(",")) {
+                if (preference.split(";")[0].trim().equalsIgnoreCase(RETURN_MINIMAL)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static void cancel(CompletableFuture<?> translation) {
+        if (translation != null) {
+            translation.cancel(true);
+        }
+    }
+    
+    private Response errorResponse(Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(error.getMessage()))
+                .build();
+        }
+        
+        // Gemini quota exhausted: pass the 429 and its back-off on to the client
+        if (error instanceof UpstreamException && ((UpstreamException) error).isRateLimited()) {
+            long retryAfter = Math.max(1, ((UpstreamException) error).getRetryAfterSeconds());
+            return Response.status(429)
+                .header(HttpHeaders.RETRY_AFTER, retryAfter)
+                .entity(new ErrorResponse("Translation quota exceeded, please retry later"))
+                .build();
+        }
+        
+        // Too much traffic of this class queued to finish in time
+        if (error instanceof AdmissionRejectedException) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, ((AdmissionRejectedException) error).getRetryAfterSeconds())
+                .entity(new ErrorResponse(error.getMessage()))
+                .build();
+        }
+        
+        // Gemini keeps failing and nothing stale was cached: fail fast
+        if (error instanceof CircuitOpenException) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, ((CircuitOpenException) error).getRetryAfterSeconds())
+                .entity(new ErrorResponse(error.getMessage()))
+                .build();
+        }
+        
+        LOG.error("Translation failed", error);
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+            .entity(new ErrorResponse("Translation service error: " + error.getMessage()))
+            .build();
+    }
+    
     // Helper classes
     public static class ErrorResponse {
         private String error;
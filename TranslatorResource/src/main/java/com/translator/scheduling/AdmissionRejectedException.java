@@ -0,0 +1,19 @@
+package com.translator.scheduling;
+
+/**
+ * The scheduler refused a call: its queue is full, or the call could not
+ * finish before its deadline. Nothing was sent upstream.
+ */
+public class AdmissionRejectedException extends Exception {
+    
+    private final long retryAfterSeconds;
+    
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
\ No newline at end of file
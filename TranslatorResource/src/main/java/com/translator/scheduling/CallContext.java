@@ -0,0 +1,91 @@
+package com.translator.scheduling;
+
+/**
+ * Who a translation is for and how long they will wait, as seen by the scheduler.
+ *
+ * The resource opens a context on the request thread before calling the
+ * LLM service; the decorators are called on that same thread, so the
+ * scheduler finds it with current(). Work handed to other threads
+ * (executor tasks, document passages) carries the context over explicitly.
+ */
+public final class CallContext {
+    
+    private static final ThreadLocal<CallContext> CURRENT = new ThreadLocal<>();
+    
+    // Calls made outside any request, e.g. warm-up
+    private static final CallContext DEFAULT = new CallContext(TrafficClass.INTERACTIVE, "", 0, false);
+    
+    private final TrafficClass trafficClass;
+    private final String user;
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+    
+    public CallContext(TrafficClass trafficClass, String user) {
+        this(trafficClass, user, 0, false);
+    }
+    
+    private CallContext(TrafficClass trafficClass, String user, long deadlineNanos, boolean hasDeadline) {
+        this.trafficClass = trafficClass;
+        this.user = user;
+        this.deadlineNanos = deadlineNanos;
+        this.hasDeadline = hasDeadline;
+    }
+    
+    /**
+     * The context of the calling thread, or an interactive one without deadline
+     */
+    public static CallContext current() {
+        CallContext context = CURRENT.get();
+        return context != null ? context : DEFAULT;
+    }
+    
+    /**
+     * This context with a deadline timeoutNanos from now, unless it already has an earlier one
+     */
+    public CallContext withTimeout(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        if (hasDeadline && deadlineNanos - deadline <= 0) {
+            return this;
+        }
+        return new CallContext(trafficClass, user, deadline, true);
+    }
+    
+    /**
+     * Make this the current context until the scope is closed
+     */
+    public Scope open() {
+        CallContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+    
+    public TrafficClass getTrafficClass() {
+        return trafficClass;
+    }
+    
+    public String getUser() {
+        return user;
+    }
+    
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+    
+    /**
+     * System.nanoTime() by which the caller needs the answer; only meaningful if hasDeadline()
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+    
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
\ No newline at end of file
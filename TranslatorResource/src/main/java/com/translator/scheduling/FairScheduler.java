@@ -0,0 +1,408 @@
+package com.translator.scheduling;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.resilience.LatencyWindow;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits upstream LLM calls in weighted-fair order.
+ *
+ * At most scheduler.maxConcurrent calls run at once. Beyond that, calls
+ * wait in one queue per traffic class and are started by start-time fair
+ * queueing: each class advances a virtual clock by cost / weight per call
+ * (cost being the estimated tokens), and the class whose next call starts
+ * earliest on that clock goes first. Backlogged classes thus share the
+ * slots in proportion to their weights, and an idle class never banks
+ * credit. Within a class, users take turns one call at a time, so one
+ * client's burst queues behind itself rather than in front of everyone.
+ *
+ * A call with a deadline is rejected up front when the estimated wait plus
+ * the class's recent call duration would overrun it, and dropped if its
+ * deadline passes while queued, so no upstream call is spent on an answer
+ * nobody will read.
+ */
+public class FairScheduler {
+    
+    // Weight of the latest call duration in the per-class average
+    private static final double SERVICE_EWMA_ALPHA = 0.2;
+    
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final ClassQueue[] queues;
+    private final Object lock = new Object();
+    // Serializes dispatch() without recursion when granted calls complete synchronously
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+    
+    private int inFlight;
+    private int queued;
+    private double virtualTime;
+    
+    /**
+     * @param maxConcurrent upstream calls allowed at once
+     * @param maxQueued calls allowed to wait per traffic class
+     * @param weights share of each class when several are waiting
+     * @param initialServiceNanos assumed call duration until calls have been measured
+     */
+    public FairScheduler(int maxConcurrent, int maxQueued, Map<TrafficClass, Integer> weights,
+                         long initialServiceNanos) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Scheduler concurrency must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = Math.max(0, maxQueued);
+        this.queues = new ClassQueue[TrafficClass.values().length];
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            int weight = Math.max(1, weights.getOrDefault(trafficClass, 1));
+            queues[trafficClass.ordinal()] = new ClassQueue(trafficClass, weight, initialServiceNanos);
+        }
+    }
+    
+    public static FairScheduler create(TranslatorConfig config) {
+        Map<TrafficClass, Integer> weights = new HashMap<>();
+        weights.put(TrafficClass.ADMIN, config.getInt("scheduler.weight.admin", 16));
+        weights.put(TrafficClass.INTERACTIVE, config.getInt("scheduler.weight.interactive", 8));
+        weights.put(TrafficClass.BATCH, config.getInt("scheduler.weight.batch", 1));
+        return new FairScheduler(
+                config.getInt("scheduler.maxConcurrent", 32),
+                config.getInt("scheduler.maxQueued", 1000),
+                weights,
+                TimeUnit.MILLISECONDS.toNanos(config.getLong("scheduler.initialServiceMillis", 1500)));
+    }
+    
+    /**
+     * Ask for an upstream slot. The future completes with a permit, to be
+     * released when the call is over, or fails with AdmissionRejectedException.
+     * Cancelling the future gives up the place in the queue.
+     *
+     * @param cost estimated tokens of the call, used for fairness between classes
+     */
+    public CompletableFuture<Permit> acquire(CallContext context, int cost) {
+        long now = System.nanoTime();
+        ClassQueue queue = queues[context.getTrafficClass().ordinal()];
+        Ticket ticket = new Ticket(context, Math.max(1, cost), now);
+        
+        synchronized (lock) {
+            if (queued == 0 && inFlight < maxConcurrent) {
+                inFlight++;
+                queue.started(0);
+                return CompletableFuture.completedFuture(new Permit(queue, now));
+            }
+            
+            long waitNanos = estimateWaitNanos(queue);
+            if (queue.size >= maxQueued) {
+                queue.rejected++;
+                return CompletableFuture.failedFuture(new AdmissionRejectedException(
+                    "Too many " + queue.trafficClass.name().toLowerCase(Locale.ROOT) + " translations waiting, please retry later",
+                    retryAfterSeconds(waitNanos)));
+            }
+            if (context.hasDeadline() && now + waitNanos + queue.serviceNanos - context.getDeadlineNanos() > 0) {
+                queue.rejected++;
+                return CompletableFuture.failedFuture(new AdmissionRejectedException(
+                    "Translation service is busy, the translation would not finish in time",
+                    retryAfterSeconds(waitNanos)));
+            }
+            
+            if (queue.size == 0) {
+                queue.startTag = Math.max(virtualTime, queue.finishTag);
+            }
+            queue.add(ticket);
+            queued++;
+        }
+        
+        // A slot may have been released between the check above and the enqueue
+        dispatch();
+        return ticket.future;
+    }
+    
+    /**
+     * Rough time until a new call of this class would start: its place in the
+     * class queue, served at the class's share of the slots. Caller holds the lock.
+     */
+    private long estimateWaitNanos(ClassQueue queue) {
+        double weights = queue.weight;
+        for (ClassQueue other : queues) {
+            if (other != queue && other.size > 0) {
+                weights += other.weight;
+            }
+        }
+        double slots = maxConcurrent * (queue.weight / weights);
+        return (long) ((queue.size + 1) * queue.serviceNanos / slots);
+    }
+    
+    private void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (true) {
+                Ticket ticket;
+                ClassQueue queue;
+                synchronized (lock) {
+                    if (inFlight >= maxConcurrent || queued == 0) {
+                        break;
+                    }
+                    queue = next();
+                    ticket = queue.poll();
+                    queued--;
+                    virtualTime = queue.startTag;
+                    queue.finishTag = queue.startTag + (double) ticket.cost / queue.weight;
+                    queue.startTag = queue.finishTag;
+                    inFlight++;
+                }
+                grant(queue, ticket);
+            }
+            missed = dispatchRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+    
+    /**
+     * The backlogged class whose next call has the earliest virtual start. Caller holds the lock.
+     */
+    private ClassQueue next() {
+        ClassQueue best = null;
+        for (ClassQueue queue : queues) {
+            if (queue.size > 0 && (best == null || queue.startTag < best.startTag)) {
+                best = queue;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Hand a slot to a dequeued call; a call that expired or was cancelled gives it straight back
+     */
+    private void grant(ClassQueue queue, Ticket ticket) {
+        long now = System.nanoTime();
+        CallContext context = ticket.context;
+        if (context.hasDeadline() && now - context.getDeadlineNanos() >= 0) {
+            synchronized (lock) {
+                inFlight--;
+                queue.expired++;
+            }
+            ticket.future.completeExceptionally(new AdmissionRejectedException(
+                "Translation service is busy, the translation could not start in time", 1));
+            return;
+        }
+        
+        if (ticket.future.complete(new Permit(queue, now))) {
+            synchronized (lock) {
+                queue.started(now - ticket.enqueuedAt);
+            }
+        } else {
+            synchronized (lock) {
+                inFlight--;
+            }
+        }
+    }
+    
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+    
+    public ClassStats getStats(TrafficClass trafficClass) {
+        ClassQueue queue = queues[trafficClass.ordinal()];
+        synchronized (lock) {
+            return new ClassStats(queue);
+        }
+    }
+    
+    /**
+     * An upstream slot; release it exactly once when the call is over
+     */
+    public final class Permit {
+        private final ClassQueue queue;
+        private final long startedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private Permit(ClassQueue queue, long startedAt) {
+            this.queue = queue;
+            this.startedAt = startedAt;
+        }
+        
+        public void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            long duration = System.nanoTime() - startedAt;
+            synchronized (lock) {
+                inFlight--;
+                queue.serviceNanos += SERVICE_EWMA_ALPHA * (duration - queue.serviceNanos);
+            }
+            dispatch();
+        }
+    }
+    
+    private static final class Ticket {
+        final CallContext context;
+        final int cost;
+        final long enqueuedAt;
+        final CompletableFuture<Permit> future = new CompletableFuture<>();
+        
+        Ticket(CallContext context, int cost, long enqueuedAt) {
+            this.context = context;
+            this.cost = cost;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+    
+    /**
+     * Waiting calls of one traffic class, one FIFO per user served round-robin.
+     * Guarded by the scheduler lock, except the wait-time window.
+     */
+    private static final class ClassQueue {
+        final TrafficClass trafficClass;
+        final int weight;
+        final Map<String, ArrayDeque<Ticket>> byUser = new HashMap<>();
+        final ArrayDeque<String> turns = new ArrayDeque<>();
+        final LatencyWindow waits = new LatencyWindow(1024, 0.95);
+        int size;
+        double startTag;
+        double finishTag;
+        double serviceNanos;
+        long started;
+        long rejected;
+        long expired;
+        long totalWaitNanos;
+        long maxWaitNanos;
+        
+        ClassQueue(TrafficClass trafficClass, int weight, long initialServiceNanos) {
+            this.trafficClass = trafficClass;
+            this.weight = weight;
+            this.serviceNanos = initialServiceNanos;
+        }
+        
+        void add(Ticket ticket) {
+            ArrayDeque<Ticket> tickets = byUser.get(ticket.context.getUser());
+            if (tickets == null) {
+                tickets = new ArrayDeque<>();
+                byUser.put(ticket.context.getUser(), tickets);
+                turns.addLast(ticket.context.getUser());
+            }
+            tickets.addLast(ticket);
+            size++;
+        }
+        
+        Ticket poll() {
+            String user = turns.pollFirst();
+            ArrayDeque<Ticket> tickets = byUser.get(user);
+            Ticket ticket = tickets.pollFirst();
+            if (tickets.isEmpty()) {
+                byUser.remove(user);
+            } else {
+                turns.addLast(user);
+            }
+            size--;
+            return ticket;
+        }
+        
+        void started(long waitNanos) {
+            started++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            waits.record(waitNanos);
+        }
+    }
+    
+    /**
+     * Snapshot of one traffic class
+     */
+    public static final class ClassStats {
+        private final int weight;
+        private final int queued;
+        private final int waitingUsers;
+        private final long started;
+        private final long rejected;
+        private final long expired;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long p95WaitNanos;
+        private final long serviceNanos;
+        
+        private ClassStats(ClassQueue queue) {
+            this.weight = queue.weight;
+            this.queued = queue.size;
+            this.waitingUsers = queue.byUser.size();
+            this.started = queue.started;
+            this.rejected = queue.rejected;
+            this.expired = queue.expired;
+            this.totalWaitNanos = queue.totalWaitNanos;
+            this.maxWaitNanos = queue.maxWaitNanos;
+            this.p95WaitNanos = Math.max(0, queue.waits.getPercentile());
+            this.serviceNanos = (long) queue.serviceNanos;
+        }
+        
+        public int getWeight() {
+            return weight;
+        }
+        
+        /**
+         * Calls waiting for a slot right now
+         */
+        public int getQueued() {
+            return queued;
+        }
+        
+        public int getWaitingUsers() {
+            return waitingUsers;
+        }
+        
+        public long getStarted() {
+            return started;
+        }
+        
+        /**
+         * Calls refused at admission: queue full or deadline out of reach
+         */
+        public long getRejected() {
+            return rejected;
+        }
+        
+        /**
+         * Calls whose deadline passed while they were queued
+         */
+        public long getExpired() {
+            return expired;
+        }
+        
+        public long getTotalWaitNanos() {
+            return totalWaitNanos;
+        }
+        
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+        
+        /**
+         * 95th percentile of the recent queue waits, 0 until enough calls were queued
+         */
+        public long getP95WaitNanos() {
+            return p95WaitNanos;
+        }
+        
+        /**
+         * Recent average duration of an upstream call of this class
+         */
+        public long getServiceNanos() {
+            return serviceNanos;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.translator.scheduling;
+
+import java.util.Locale;
+
+/**
+ * Classes of translation traffic competing for upstream calls, lowest priority first
+ */
+public enum TrafficClass {
+    /** Bulk work nobody is waiting on interactively: jobs, batch clients */
+    BATCH,
+    /** Requests from people waiting on the answer (extension, web client) */
+    INTERACTIVE,
+    /** Operators */
+    ADMIN;
+    
+    public static TrafficClass fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown traffic class: " + value);
+        }
+    }
+    
+    /**
+     * Whether this class ranks above the other one
+     */
+    public boolean isAbove(TrafficClass other) {
+        return ordinal() > other.ordinal();
+    }
+}
\ No newline at end of file
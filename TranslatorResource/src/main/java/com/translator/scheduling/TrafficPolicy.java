@@ -0,0 +1,80 @@
+package com.translator.scheduling;
+
+import com.translator.model.User;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Works out the traffic class and deadline of a request.
+ *
+ * The class comes from the user's roles (priority.ROLE in users.properties,
+ * the highest one among the roles that have one; INTERACTIVE if none do).
+ * A client may ask for a lower class with the X-Priority header, never a
+ * higher one, and for a shorter deadline with X-Request-Timeout-Millis.
+ */
+public class TrafficPolicy {
+    
+    public static final String PRIORITY_HEADER = "X-Priority";
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Millis";
+    
+    private final Map<String, TrafficClass> rolePriorities;
+    
+    public TrafficPolicy(Map<String, TrafficClass> rolePriorities) {
+        this.rolePriorities = rolePriorities;
+    }
+    
+    /**
+     * @param user the authenticated user, or null if unknown
+     * @param priorityHeader value of X-Priority, or null
+     * @param timeoutHeader value of X-Request-Timeout-Millis, or null
+     * @param timeoutNanos how long the server waits for this request, 0 for no deadline
+     * @throws IllegalArgumentException if a header is malformed
+     */
+    public CallContext resolve(User user, String username, String priorityHeader, String timeoutHeader,
+                               long timeoutNanos) {
+        TrafficClass trafficClass = classOf(user);
+        if (priorityHeader != null && !priorityHeader.isBlank()) {
+            TrafficClass requested;
+            try {
+                requested = TrafficClass.fromString(priorityHeader);
+            } catch (IllegalStateException e) {
+                throw new IllegalArgumentException("Unknown " + PRIORITY_HEADER + ": " + priorityHeader);
+            }
+            if (trafficClass.isAbove(requested)) {
+                trafficClass = requested;
+            }
+        }
+        
+        CallContext context = new CallContext(trafficClass, username);
+        if (timeoutNanos > 0) {
+            context = context.withTimeout(timeoutNanos);
+        }
+        if (timeoutHeader != null && !timeoutHeader.isBlank()) {
+            long millis;
+            try {
+                millis = Long.parseLong(timeoutHeader.trim());
+            } catch (NumberFormatException e) {
+                millis = -1;
+            }
+            if (millis <= 0) {
+                throw new IllegalArgumentException(TIMEOUT_HEADER + " must be a positive number of milliseconds");
+            }
+            context = context.withTimeout(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        return context;
+    }
+    
+    private TrafficClass classOf(User user) {
+        TrafficClass best = null;
+        if (user != null) {
+            for (String role : user.getRoles()) {
+                TrafficClass priority = rolePriorities.get(role);
+                if (priority != null && (best == null || priority.isAbove(best))) {
+                    best = priority;
+                }
+            }
+        }
+        return best != null ? best : TrafficClass.INTERACTIVE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.translator.security;
+
+import com.translator.cache.SegmentedLruCache;
+import com.translator.model.User;
+import com.translator.util.SipHash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+/**
+ * Remembers Authorization headers that were recently verified, so repeat
+ * requests from the same client skip the password hash.
+ *
+ * Entries are keyed by a 128-bit SipHash of the header under a random
+ * per-process key; the credentials themselves are never stored. SipHash is
+ * used rather than an HMAC because a lookup has to cost less than the
+ * salted SHA-256 check it replaces.
+ *
+ * A hit is only honoured while the user still exists, is enabled and has
+ * the same password hash it had when the header was verified.
+ */
+public class CredentialCache {
+    
+    private final UserRepository userRepository;
+    private final SegmentedLruCache<CredentialKey, VerifiedCredential> cache;
+    private final long k0;
+    private final long k1;
+    
+    public CredentialCache(UserRepository userRepository, int maxEntries, long ttlMillis) {
+        this.userRepository = userRepository;
+        this.cache = new SegmentedLruCache<>(maxEntries, ttlMillis, 0.8,
+                Math.min(16, Math.max(1, maxEntries)), (key, value) -> 1);
+        
+        SecureRandom random = new SecureRandom();
+        this.k0 = random.nextLong();
+        this.k1 = random.nextLong();
+    }
+    
+    /**
+     * Returns the user previously verified with this header, or null
+     */
+    public User lookup(String authorizationHeader) {
+        CredentialKey key = keyFor(authorizationHeader);
+        VerifiedCredential entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        
+        User user = userRepository.findByUsername(entry.username);
+        if (user == null || !user.isEnabled() || !entry.passwordHash.equals(user.getPassword())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return user;
+    }
+    
+    /**
+     * Record a header that has just been verified for the given user
+     */
+    public void store(String authorizationHeader, User user) {
+        cache.put(keyFor(authorizationHeader), new VerifiedCredential(user.getUsername(), user.getPassword()));
+    }
+    
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+    
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+    
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+    
+    public long size() {
+        return cache.size();
+    }
+    
+    private CredentialKey keyFor(String authorizationHeader) {
+        long[] hash = new long[2];
+        SipHash.hash128(k0, k1, authorizationHeader.getBytes(StandardCharsets.UTF_8), hash);
+        return new CredentialKey(hash[0], hash[1]);
+    }
+    
+    private static final class CredentialKey {
+        final long high;
+        final long low;
+        
+        CredentialKey(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CredentialKey)) {
+                return false;
+            }
+            CredentialKey other = (CredentialKey) o;
+            return high == other.high && low == other.low;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Long.hashCode(low);
+        }
+    }
+    
+    private static final class VerifiedCredential {
+        final String username;
+        final String passwordHash;
+        
+        VerifiedCredential(String username, String passwordHash) {
+            this.username = username;
+            this.passwordHash = passwordHash;
+        }
+    }
+}
\ No newline at end of file
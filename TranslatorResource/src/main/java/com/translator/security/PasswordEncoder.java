@@ -11,6 +11,15 @@ public class PasswordEncoder {
     private static final String ALGORITHM = "SHA-256";
     private static final int SALT_LENGTH = 16;
     
+    // MessageDigest is not thread-safe; one instance per thread avoids a provider lookup per call
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    });
+    
     /**
      * Encode password with salt
      */
@@ -42,18 +51,25 @@ public class PasswordEncoder {
         try {
             // Decode from Base64
             byte[] combined = Base64.getDecoder().decode(encodedPassword);
+            if (combined.length <= SALT_LENGTH) {
+                return false;
+            }
             
-            // Extract salt and hash
-            byte[] salt = new byte[SALT_LENGTH];
-            byte[] storedHash = new byte[combined.length - SALT_LENGTH];
-            System.arraycopy(combined, 0, salt, 0, SALT_LENGTH);
-            System.arraycopy(combined, SALT_LENGTH, storedHash, 0, storedHash.length);
-            
-            // Hash the raw password with extracted salt
-            byte[] computedHash = hash(rawPassword, salt);
+            // Hash the raw password with the salt prefix, reading it in place
+            MessageDigest md = DIGEST.get();
+            md.reset();
+            md.update(combined, 0, SALT_LENGTH);
+            byte[] computedHash = md.digest(rawPassword.getBytes(StandardCharsets.UTF_8));
             
-            // Compare hashes
-            return MessageDigest.isEqual(storedHash, computedHash);
+            // Compare hashes in constant time
+            if (computedHash.length != combined.length - SALT_LENGTH) {
+                return false;
+            }
+            int diff = 0;
+            for (int i = 0; i < computedHash.length; i++) {
+                diff |= computedHash[i] ^ combined[SALT_LENGTH + i];
+            }
+            return diff == 0;
             
         } catch (Exception e) {
             return false;
@@ -68,7 +84,8 @@ public class PasswordEncoder {
     }
     
     private static byte[] hash(String password, byte[] salt) throws NoSuchAlgorithmException {
-        MessageDigest md = MessageDigest.getInstance(ALGORITHM);
+        MessageDigest md = DIGEST.get();
+        md.reset();
         md.update(salt);
         return md.digest(password.getBytes(StandardCharsets.UTF_8));
     }
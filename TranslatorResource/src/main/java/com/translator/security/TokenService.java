@@ -0,0 +1,132 @@
+package com.translator.security;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Issues and checks stateless bearer tokens.
+ *
+ * A token is base64url(username:ROLE1,ROLE2:expiry) "." base64url(HMAC-SHA256),
+ * so verifying one costs a single HMAC and needs no repository lookup.
+ * Tokens cannot be revoked before they expire; keep the TTL short.
+ */
+public class TokenService {
+    
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    
+    private final ThreadLocal<Mac> mac;
+    private final long ttlSeconds;
+    
+    public TokenService(byte[] secret, long ttlSeconds) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("Token secret must be at least 32 bytes");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret, MAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance(MAC_ALGORITHM);
+                m.init(key);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(MAC_ALGORITHM + " not available", e);
+            }
+        });
+        this.ttlSeconds = ttlSeconds;
+    }
+    
+    /**
+     * Build from auth.token.secret (Base64, at least 32 bytes) and auth.token.ttlSeconds.
+     * Without a configured secret a random one is used, so tokens do not survive a restart.
+     */
+    public static TokenService create(TranslatorConfig config) {
+        String configured = config.get("auth.token.secret");
+        byte[] secret;
+        if (configured != null) {
+            secret = Base64.getDecoder().decode(configured);
+        } else {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        }
+        return new TokenService(secret, config.getLong("auth.token.ttlSeconds", 900));
+    }
+    
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+    
+    /**
+     * Issue a token for the user that expires at the given epoch second
+     */
+    public String issue(User user, long expiresAt) {
+        String payload = user.getUsername() + ":" + String.join(",", user.getRoles()) + ":" + expiresAt;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+    
+    /**
+     * Returns the user described by a valid, unexpired token, or null.
+     * The returned user carries no password and is not looked up in the repository.
+     */
+    public User verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            return null;
+        }
+        
+        // username:roles:expiry; usernames never contain ':' (Basic auth splits on it)
+        String payload = new String(payloadBytes, StandardCharsets.UTF_8);
+        int first = payload.indexOf(':');
+        int last = payload.lastIndexOf(':');
+        if (first < 0 || last <= first) {
+            return null;
+        }
+        
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(payload.substring(last + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (System.currentTimeMillis() / 1000 >= expiresAt) {
+            return null;
+        }
+        
+        Set<String> roles = new HashSet<>();
+        String rolesStr = payload.substring(first + 1, last);
+        if (!rolesStr.isEmpty()) {
+            for (String role : rolesStr.split(",")) {
+                roles.add(role);
+            }
+        }
+        return new User(payload.substring(0, first), null, roles);
+    }
+    
+    private byte[] sign(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+}
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.translator.security;
 
+import com.translator.logging.Logger;
 import com.translator.model.User;
+import com.translator.ratelimit.RateLimitPolicy;
+import com.translator.scheduling.TrafficClass;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -9,8 +12,12 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class UserRepository {
     
+    private static final Logger LOG = Logger.get(UserRepository.class);
+    
     private static final UserRepository INSTANCE = new UserRepository();
     private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Map<String, RateLimitPolicy> roleRateLimits = new HashMap<>();
+    private final Map<String, TrafficClass> rolePriorities = new HashMap<>(Map.of("ADMIN", TrafficClass.ADMIN));
     
     private UserRepository() {
         loadUsers();
@@ -28,7 +35,7 @@ public class UserRepository {
                 .getResourceAsStream("users.properties")) {
             
             if (input == null) {
-                System.err.println("users.properties not found, creating default users");
+                LOG.warn("users.properties not found, creating default users");
                 createDefaultUsers();
                 return;
             }
@@ -62,14 +69,43 @@ public class UserRepository {
                 users.put(username, user);
             }
             
-            System.out.println("Loaded " + users.size() + " users");
+            loadRateLimits(prop);
+            loadPriorities(prop);
+            
+            LOG.info("Users loaded", "users", users.size());
             
         } catch (IOException e) {
-            System.err.println("Error loading users: " + e.getMessage());
+            LOG.error("Users not loaded", e);
             createDefaultUsers();
         }
     }
     
+    /**
+     * Parse per-role limits: ratelimit.ROLE.perMinute and optional ratelimit.ROLE.burst
+     */
+    private void loadRateLimits(Properties prop) {
+        for (String key : prop.stringPropertyNames()) {
+            if (key.startsWith("ratelimit.") && key.endsWith(".perMinute")) {
+                String role = key.substring("ratelimit.".length(), key.length() - ".perMinute".length());
+                int perMinute = Integer.parseInt(prop.getProperty(key).trim());
+                String burstStr = prop.getProperty("ratelimit." + role + ".burst");
+                int burst = burstStr != null ? Integer.parseInt(burstStr.trim()) : Math.max(1, perMinute / 6);
+                roleRateLimits.put(role, new RateLimitPolicy(perMinute, burst));
+            }
+        }
+    }
+    
+    /**
+     * Parse scheduling classes per role: priority.ROLE=batch|interactive|admin
+     */
+    private void loadPriorities(Properties prop) {
+        for (String key : prop.stringPropertyNames()) {
+            if (key.startsWith("priority.")) {
+                rolePriorities.put(key.substring("priority.".length()), TrafficClass.fromString(prop.getProperty(key)));
+            }
+        }
+    }
+    
     /**
      * Create default users for testing
      */
@@ -89,7 +125,7 @@ public class UserRepository {
         user.addRole("USER");
         users.put("user", user);
         
-        System.out.println("Created default users: admin/admin123, user/user123");
+        LOG.info("Created default users: admin/admin123, user/user123");
     }
     
     /**
@@ -123,6 +159,20 @@ public class UserRepository {
         users.put(user.getUsername(), user);
     }
     
+    /**
+     * Rate limits by role, as configured in users.properties
+     */
+    public Map<String, RateLimitPolicy> getRoleRateLimits() {
+        return Collections.unmodifiableMap(roleRateLimits);
+    }
+    
+    /**
+     * Traffic class by role, as configured in users.properties (ADMIN is admin unless overridden)
+     */
+    public Map<String, TrafficClass> getRolePriorities() {
+        return Collections.unmodifiableMap(rolePriorities);
+    }
+    
     /**
      * Get all users
      */
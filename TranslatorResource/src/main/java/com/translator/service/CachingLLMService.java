@@ -0,0 +1,219 @@
+package com.translator.service;
+
+import com.translator.cache.SegmentedLruCache;
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import com.translator.model.TranslationResult;
+import com.translator.util.Futures;
+import com.translator.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Serves repeated texts from memory instead of calling the LLM again.
+ * Keys are the normalized English text; size is bounded in bytes.
+ *
+ * Expired entries are kept for cache.staleSeconds more and served when
+ * the LLM call fails (e.g. the circuit breaker is open), since a slightly
+ * old translation is better than an error.
+ */
+public class CachingLLMService extends ForwardingLLMService {
+    
+    private static final Logger LOG = Logger.get(CachingLLMService.class);
+    
+    // Rough per-entry overhead of the map node, strings and timestamps
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+    
+    private final SegmentedLruCache<String, String> cache;
+    private final LongAdder staleFallbacks = new LongAdder();
+    
+    public CachingLLMService(LLMService delegate, TranslatorConfig config) {
+        super(delegate);
+        this.cache = new SegmentedLruCache<>(
+                config.getLong("cache.maxBytes", 64L * 1024 * 1024),
+                config.getLong("cache.ttlSeconds", 24 * 60 * 60) * 1000,
+                config.getLong("cache.staleSeconds", 24 * 60 * 60) * 1000,
+                config.getDouble("cache.protectedRatio", 0.8),
+                config.getInt("cache.shards", 16),
+                (key, value) -> ENTRY_OVERHEAD_BYTES + 2L * (key.length() + value.length()));
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        String key = TextNormalizer.normalize(englishText);
+        if (key.isEmpty()) {
+            return delegate.translateDetailed(englishText);
+        }
+        
+        String cached = cache.get(key);
+        if (cached != null) {
+            return new TranslationResult(cached, true);
+        }
+        
+        TranslationResult result;
+        try {
+            result = delegate.translateDetailed(englishText);
+        } catch (Exception e) {
+            TranslationResult stale = staleFallback(key, e);
+            if (stale == null) {
+                throw e;
+            }
+            return stale;
+        }
+        cache.put(key, result.getText());
+        return result;
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    /**
+     * A passage is cached under its own text; the context only shapes a fresh translation
+     */
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        String key = TextNormalizer.normalize(englishText);
+        if (key.isEmpty()) {
+            return delegate.translateDetailedAsync(englishText, context);
+        }
+        
+        String cached = cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(new TranslationResult(cached, true));
+        }
+        
+        CompletableFuture<TranslationResult> call = delegate.translateDetailedAsync(englishText, context);
+        return Futures.propagateCancel(call.handle((result, error) -> {
+            if (error == null) {
+                cache.put(key, result.getText());
+                return result;
+            }
+            TranslationResult stale = staleFallback(key, error);
+            if (stale == null) {
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            }
+            return stale;
+        }), call);
+    }
+    
+    /**
+     * A cached translation is streamed as one chunk; a streamed miss is cached once complete
+     */
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        String key = TextNormalizer.normalize(englishText);
+        String cached = key.isEmpty() ? null : cache.get(key);
+        if (cached != null) {
+            onChunk.accept(cached);
+            return new TranslationResult(cached, true);
+        }
+        
+        AtomicBoolean streamed = new AtomicBoolean();
+        TranslationResult result;
+        try {
+            result = delegate.translateStream(englishText, chunk -> {
+                streamed.set(true);
+                onChunk.accept(chunk);
+            });
+        } catch (Exception e) {
+            // Once part of a fresh translation went out, a stale one cannot be appended
+            TranslationResult stale = streamed.get() ? null : staleFallback(key, e);
+            if (stale == null) {
+                throw e;
+            }
+            onChunk.accept(stale.getText());
+            return stale;
+        }
+        if (!key.isEmpty()) {
+            cache.put(key, result.getText());
+        }
+        return result;
+    }
+    
+    /**
+     * Answers cached segments directly and sends only the distinct misses upstream
+     */
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        TranslationResult[] results = new TranslationResult[segments.size()];
+        Map<String, List<Integer>> misses = new LinkedHashMap<>();
+        List<String> missTexts = new ArrayList<>();
+        
+        for (int i = 0; i < segments.size(); i++) {
+            String key = TextNormalizer.normalize(segments.get(i));
+            String cached = key.isEmpty() ? null : cache.get(key);
+            if (cached != null) {
+                results[i] = new TranslationResult(cached, true);
+                continue;
+            }
+            
+            List<Integer> positions = misses.get(key);
+            if (positions == null) {
+                positions = new ArrayList<>();
+                misses.put(key, positions);
+                missTexts.add(segments.get(i));
+            }
+            positions.add(i);
+        }
+        
+        if (!missTexts.isEmpty()) {
+            List<TranslationResult> translated = delegate.translateBatch(missTexts);
+            int n = 0;
+            for (Map.Entry<String, List<Integer>> miss : misses.entrySet()) {
+                TranslationResult result = translated.get(n++);
+                if (result.isSuccess() && !miss.getKey().isEmpty()) {
+                    cache.put(miss.getKey(), result.getText());
+                } else if (!result.isSuccess()) {
+                    String stale = miss.getKey().isEmpty() ? null : cache.getStale(miss.getKey());
+                    if (stale != null) {
+                        staleFallbacks.increment();
+                        result = new TranslationResult(stale, true);
+                    }
+                }
+                for (int position : miss.getValue()) {
+                    results[position] = result;
+                }
+            }
+        }
+        
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * An expired translation to answer with instead of the failure, or null.
+     * Invalid input is never masked.
+     */
+    private TranslationResult staleFallback(String key, Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        if (key.isEmpty() || cause instanceof IllegalArgumentException || cause instanceof CancellationException) {
+            return null;
+        }
+        String stale = cache.getStale(key);
+        if (stale == null) {
+            return null;
+        }
+        staleFallbacks.increment();
+        LOG.warn("Serving stale translation after upstream failure", "reason", cause.getMessage());
+        return new TranslationResult(stale, true);
+    }
+    
+    public SegmentedLruCache<String, String> getCache() {
+        return cache;
+    }
+    
+    public long getStaleFallbackCount() {
+        return staleFallbacks.sum();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package com.translator.service;
+
+import com.translator.model.TranslationResult;
+import com.translator.util.Futures;
+import com.translator.util.TextNormalizer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight layer: concurrent requests for the same normalized text
+ * share one upstream call. The first caller performs the call, the others
+ * wait for its outcome, success or failure. The entry is dropped as soon
+ * as the call completes, so nothing is retained.
+ *
+ * Each asynchronous caller gets its own future. Cancelling it only
+ * withdraws that caller; the upstream call is cancelled once every caller
+ * waiting for it has withdrawn.
+ */
+public class CoalescingLLMService extends ForwardingLLMService {
+    
+    private final ConcurrentHashMap<String, Call> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    
+    public CoalescingLLMService(LLMService delegate) {
+        super(delegate);
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        String key = TextNormalizer.normalize(englishText);
+        
+        Call call = new Call();
+        Call existing = join(key, call);
+        if (existing != null) {
+            followers.increment();
+            return await(existing.result);
+        }
+        
+        leaders.increment();
+        try {
+            TranslationResult result = delegate.translateDetailed(englishText);
+            call.result.complete(result);
+            return result;
+        } catch (Throwable t) {
+            call.result.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    /**
+     * Passages are coalesced on their text alone; any caller's context is good enough for all
+     */
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        String key = TextNormalizer.normalize(englishText);
+        
+        Call call = new Call();
+        Call existing = join(key, call);
+        if (existing != null) {
+            followers.increment();
+            return waiter(key, existing);
+        }
+        
+        leaders.increment();
+        CompletableFuture<TranslationResult> upstream;
+        try {
+            upstream = delegate.translateDetailedAsync(englishText, context);
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        call.upstream = upstream;
+        upstream.whenComplete((result, error) -> {
+            inFlight.remove(key, call);
+            if (error != null) {
+                call.result.completeExceptionally(Futures.unwrap(error));
+            } else {
+                call.result.complete(result);
+            }
+        });
+        return waiter(key, call);
+    }
+    
+    /**
+     * Register call as the one in flight for key and return null, or join
+     * the call already in flight and return it
+     */
+    private Call join(String key, Call call) {
+        while (true) {
+            Call existing = inFlight.putIfAbsent(key, call);
+            if (existing == null || existing.addWaiter()) {
+                return existing;
+            }
+            // Every waiter withdrew and its upstream call is being cancelled; start afresh
+            inFlight.remove(key, existing);
+        }
+    }
+    
+    /**
+     * A caller's own view of the shared call. Callers get a copy so one
+     * caller cancelling cannot fail the others; the last one cancelling
+     * cancels the upstream call.
+     */
+    private CompletableFuture<TranslationResult> waiter(String key, Call call) {
+        CompletableFuture<TranslationResult> waiter = call.result.copy();
+        waiter.whenComplete((result, error) -> {
+            if (waiter.isCancelled() && call.waiters.decrementAndGet() == 0) {
+                inFlight.remove(key, call);
+                CompletableFuture<TranslationResult> upstream = call.upstream;
+                if (upstream != null) {
+                    upstream.cancel(true);
+                }
+            }
+        });
+        return waiter;
+    }
+    
+    private TranslationResult await(CompletableFuture<TranslationResult> call) throws Exception {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Number of upstream calls actually made
+     */
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+    
+    /**
+     * Number of requests that shared another caller's upstream call
+     */
+    public long getCoalescedCount() {
+        return followers.sum();
+    }
+    
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+    
+    /**
+     * One upstream call and the number of callers still waiting for it
+     */
+    private static final class Call {
+        
+        final CompletableFuture<TranslationResult> result = new CompletableFuture<>();
+        final AtomicInteger waiters = new AtomicInteger(1);
+        volatile CompletableFuture<TranslationResult> upstream;
+        
+        /**
+         * Count one more caller, unless every caller already withdrew
+         */
+        boolean addWaiter() {
+            return waiters.getAndUpdate(count -> count > 0 ? count + 1 : count) > 0;
+        }
+    }
+}
\ No newline at end of file
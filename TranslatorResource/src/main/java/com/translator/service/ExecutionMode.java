@@ -0,0 +1,23 @@
+package com.translator.service;
+
+import java.util.Locale;
+
+/**
+ * How blocking translation work is scheduled
+ */
+public enum ExecutionMode {
+    /** Non-blocking OkHttp callbacks, no thread waits for Gemini */
+    ASYNC,
+    /** Blocking calls on a bounded pool of platform threads */
+    PLATFORM,
+    /** Blocking calls on one virtual thread per task (Java 21+) */
+    VIRTUAL;
+    
+    public static ExecutionMode fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown execution mode: " + value);
+        }
+    }
+}
\ No newline at end of file
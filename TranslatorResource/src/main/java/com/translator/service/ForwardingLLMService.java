@@ -0,0 +1,60 @@
+package com.translator.service;
+
+import com.translator.model.TranslationResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Base class for decorators around another LLMService.
+ * Subclasses override the calls they handle and forward the rest.
+ */
+public abstract class ForwardingLLMService implements LLMService {
+    
+    protected final LLMService delegate;
+    
+    protected ForwardingLLMService(LLMService delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public String translate(String englishText) throws Exception {
+        return translateDetailed(englishText).getText();
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        return delegate.translateDetailed(englishText);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return delegate.translateDetailedAsync(englishText);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        return delegate.translateDetailedAsync(englishText, context);
+    }
+    
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        return delegate.translateStream(englishText, onChunk);
+    }
+    
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        return delegate.translateBatch(segments);
+    }
+    
+    @Override
+    public void warmUp() {
+        delegate.warmUp();
+    }
+    
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
\ No newline at end of file
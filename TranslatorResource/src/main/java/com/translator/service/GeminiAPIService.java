@@ -1,132 +1,530 @@
 package com.translator.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import com.translator.model.TokenUsage;
+import com.translator.model.TranslationResult;
+import com.translator.util.TextNormalizer;
+import com.translator.util.TokenEstimator;
 import okhttp3.*;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class GeminiAPIService implements LLMService {
     
-    private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent";
-    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final Logger LOG = Logger.get(GeminiAPIService.class);
+    
+    public static final String DEFAULT_BASE_URL = "https://generativelanguage.googleapis.com/";
+    public static final String DEFAULT_MODEL = "gemini-2.5-flash";
+    // Quotes, comma and array framing around each segment in a batch prompt
+    private static final int SEGMENT_OVERHEAD_TOKENS = 3;
+    
+    // systemInstruction forms of the prompts: the same on every call and
+    // about half the length of the inline preambles
+    private static final String TRANSLATION_INSTRUCTION =
+        "Translate the user's English text to Moroccan Darija in Arabic script, in a natural colloquial tone. " +
+        "Reply with the translation only.";
+    private static final String PASSAGE_INSTRUCTION =
+        "Translate the English text after \"Text:\" to Moroccan Darija in Arabic script, in a natural colloquial tone. " +
+        "The passage after \"Context:\" precedes it in the same document; do not translate it. " +
+        "Reply with the translation only.";
+    private static final String BATCH_INSTRUCTION =
+        "Translate each English string in the user's JSON array to Moroccan Darija in Arabic script, " +
+        "in a natural colloquial tone. Reply with a JSON array of the translations in the same order.";
     
     private final OkHttpClient client;
+    private final TranslationExecutor executor;
     private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String model;
+    private final String apiUrl;
+    private final String streamUrl;
     private final String apiKey;
+    private final int warmUpConnections;
+    private final int batchMaxInputTokens;
+    private final int batchMaxSegments;
+    private final boolean systemInstruction;
     
     public GeminiAPIService() {
-        this.client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS)
-                .build();
+        this(TranslatorConfig.load());
+    }
+    
+    public GeminiAPIService(TranslatorConfig config) {
+        this(config, TranslationExecutor.create(config));
+    }
+    
+    public GeminiAPIService(TranslatorConfig config, TranslationExecutor executor) {
+        this(config, executor, List.of());
+    }
+    
+    /**
+     * @param interceptors application interceptors that observe every Gemini call
+     */
+    public GeminiAPIService(TranslatorConfig config, TranslationExecutor executor, List<Interceptor> interceptors) {
+        this(config, executor, buildClient(config, executor, interceptors),
+                config.get("gemini.baseUrl", DEFAULT_BASE_URL), config.get("gemini.model", DEFAULT_MODEL),
+                loadApiKey(config));
+    }
+    
+    /**
+     * One model and API key on a client that may be shared with other instances
+     * @param baseUrl API root, e.g. https://generativelanguage.googleapis.com/
+     */
+    public GeminiAPIService(TranslatorConfig config, TranslationExecutor executor, OkHttpClient client,
+                            String baseUrl, String model, String apiKey) {
+        this.executor = executor;
+        this.client = client;
         this.objectMapper = new ObjectMapper();
-        this.apiKey = loadApiKey();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.model = model;
+        String modelUrl = this.baseUrl + "v1beta/models/" + model;
+        this.apiUrl = modelUrl + ":generateContent";
+        this.streamUrl = modelUrl + ":streamGenerateContent";
+        this.apiKey = apiKey;
+        this.warmUpConnections = config.getBoolean("gemini.warmup.enabled", true)
+                ? config.getInt("gemini.warmup.connections", 1) : 0;
+        this.batchMaxInputTokens = config.getInt("gemini.batch.maxInputTokens", 4000);
+        this.batchMaxSegments = config.getInt("gemini.batch.maxSegments", 100);
+        this.systemInstruction = config.getBoolean("gemini.prompt.systemInstruction", true);
+    }
+    
+    /**
+     * Build the single HTTP client shared by every translation.
+     * One pool and one dispatcher keep TLS sessions alive between requests.
+     * In virtual-thread mode the dispatcher runs its calls on virtual threads too.
+     */
+    public static OkHttpClient buildClient(TranslatorConfig config, TranslationExecutor executor,
+                                           List<Interceptor> interceptors) {
+        ConnectionPool pool = new ConnectionPool(
+                config.getInt("gemini.http.maxIdleConnections", 16),
+                config.getLong("gemini.http.keepAliveSeconds", 300),
+                TimeUnit.SECONDS);
+        
+        List<Protocol> protocols = config.getBoolean("gemini.http.http2", true)
+                ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_1_1);
+        
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        interceptors.forEach(builder::addInterceptor);
+        return builder
+                .dispatcher(newDispatcher(config, executor))
+                .connectionPool(pool)
+                .protocols(protocols)
+                .connectTimeout(config.getLong("gemini.http.connectTimeoutSeconds", 30), TimeUnit.SECONDS)
+                .writeTimeout(config.getLong("gemini.http.writeTimeoutSeconds", 30), TimeUnit.SECONDS)
+                .readTimeout(config.getLong("gemini.http.readTimeoutSeconds", 60), TimeUnit.SECONDS)
+                .callTimeout(config.getLong("gemini.http.callTimeoutSeconds", 0), TimeUnit.SECONDS)
+                .build();
     }
     
-    private String loadApiKey() {
-        // First try to load from environment variable
-        String key = System.getenv("GEMINI_API_KEY");
-        if (key != null && !key.isEmpty()) {
+    /**
+     * A dispatcher limited by gemini.http.maxRequests and maxRequestsPerHost.
+     * In virtual-thread mode it runs its calls on virtual threads.
+     */
+    public static Dispatcher newDispatcher(TranslatorConfig config, TranslationExecutor executor) {
+        Dispatcher dispatcher = executor.getMode() == ExecutionMode.VIRTUAL
+                ? new Dispatcher(executor.getExecutorService())
+                : new Dispatcher();
+        dispatcher.setMaxRequests(config.getInt("gemini.http.maxRequests", 256));
+        dispatcher.setMaxRequestsPerHost(config.getInt("gemini.http.maxRequestsPerHost", 64));
+        return dispatcher;
+    }
+    
+    private static String loadApiKey(TranslatorConfig config) {
+        // Environment variable GEMINI_API_KEY takes precedence over config.properties
+        String key = config.get("gemini.api.key");
+        if (key != null) {
             return key;
         }
         
-        // Then try to load from config.properties
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream("config.properties")) {
-            if (input != null) {
-                Properties prop = new Properties();
-                prop.load(input);
-                key = prop.getProperty("gemini.api.key");
-                if (key != null && !key.isEmpty()) {
-                    return key;
+        throw new IllegalStateException("GEMINI_API_KEY not found. Please set it as environment variable or in config.properties");
+    }
+    
+    /**
+     * Open connections to the Gemini host so the first translation
+     * does not pay for DNS, TCP and TLS setup
+     */
+    @Override
+    public void warmUp() {
+        for (int i = 0; i < warmUpConnections; i++) {
+            Request request = new Request.Builder()
+                    .url(baseUrl)
+                    .head()
+                    .build();
+            
+            client.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                    LOG.info("Gemini connection warmed up", "protocol", response.protocol().toString());
                 }
-            }
-        } catch (IOException ex) {
-            System.err.println("Error loading config.properties: " + ex.getMessage());
+                
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    LOG.warn("Gemini warm-up failed", "reason", e.getMessage());
+                }
+            });
         }
-        
-        throw new IllegalStateException("GEMINI_API_KEY not found. Please set it as environment variable or in config.properties");
+    }
+    
+    @Override
+    public void close() {
+        if (executor.getMode() != ExecutionMode.VIRTUAL) {
+            client.dispatcher().executorService().shutdown();
+        }
+        client.connectionPool().evictAll();
     }
     
     @Override
     public String translate(String englishText) throws Exception {
+        return translateDetailed(englishText).getText();
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
         if (englishText == null || englishText.trim().isEmpty()) {
             throw new IllegalArgumentException("Text to translate cannot be empty");
         }
         
-        String prompt = buildTranslationPrompt(englishText);
-        String requestBody = buildRequestBody(prompt);
+        return generate(buildTranslationRequestBody(englishText));
+    }
+    
+    /**
+     * Non-blocking translation: the call is queued on the OkHttp dispatcher
+     * and no caller thread waits for Gemini
+     */
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        if (englishText == null || englishText.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Text to translate cannot be empty"));
+        }
+        
+        GeminiRequestBody requestBody;
+        try {
+            requestBody = context == null || context.isBlank()
+                ? buildTranslationRequestBody(englishText)
+                : buildPassageRequestBody(englishText, context);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
         
+        return generateAsync(requestBody);
+    }
+    
+    /**
+     * Calls streamGenerateContent and relays each candidate text chunk as soon
+     * as its array element has been parsed from the response stream
+     */
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        if (englishText == null || englishText.trim().isEmpty()) {
+            throw new IllegalArgumentException("Text to translate cannot be empty");
+        }
+        
+        GeminiRequestBody requestBody = buildTranslationRequestBody(englishText);
         Request request = new Request.Builder()
-                .url(GEMINI_API_URL + "?key=" + apiKey)
-                .post(RequestBody.create(requestBody, JSON))
+                .url(streamUrl + "?key=" + apiKey)
+                .post(requestBody)
                 .build();
         
-        try (Response response = client.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                String errorBody = response.body() != null ? response.body().string() : "Unknown error";
-                throw new IOException("Gemini API request failed: " + response.code() + " - " + errorBody);
+        return executor.callUpstream(() -> {
+            try (Response response = client.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw upstreamError(response);
+                }
+                
+                StringBuilder translation = new StringBuilder();
+                GeminiResponseParser.Usage usage = new GeminiResponseParser.Usage();
+                try (JsonParser parser = objectMapper.getFactory().createParser(response.body().byteStream())) {
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        throw new IOException("Unexpected Gemini stream format");
+                    }
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        String chunk = GeminiResponseParser.readCandidateText(parser, usage);
+                        if (translation.length() == 0 && chunk != null) {
+                            chunk = chunk.stripLeading();
+                        }
+                        if (chunk != null && !chunk.isEmpty()) {
+                            translation.append(chunk);
+                            onChunk.accept(chunk);
+                        }
+                    }
+                }
+                
+                if (translation.length() == 0) {
+                    throw new Exception("No translation found in Gemini API response");
+                }
+                return answer(translation.toString().trim(), requestBody, usage);
+                
+            } catch (IOException e) {
+                throw new Exception("Failed to communicate with Gemini API: " + e.getMessage(), e);
             }
-            
-            String responseBody = response.body().string();
-            return extractTranslation(responseBody);
-            
+        });
+    }
+    
+    /**
+     * Packs as many segments as the token budget allows into each
+     * generateContent call and splits the JSON array answer back per segment
+     */
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        List<TranslationResult> results = new ArrayList<>(segments.size());
+        int start = 0;
+        while (start < segments.size()) {
+            int end = start;
+            int tokens = 0;
+            while (end < segments.size() && end - start < batchMaxSegments) {
+                int segmentTokens = TokenEstimator.estimate(segments.get(end)) + SEGMENT_OVERHEAD_TOKENS;
+                if (end > start && tokens + segmentTokens > batchMaxInputTokens) {
+                    break;
+                }
+                tokens += segmentTokens;
+                end++;
+            }
+            results.addAll(translatePack(segments.subList(start, end)));
+            start = end;
+        }
+        return results;
+    }
+    
+    private List<TranslationResult> translatePack(List<String> pack) {
+        if (pack.size() == 1) {
+            return LLMService.super.translateBatch(pack);
+        }
+        
+        TranslationResult answer;
+        try {
+            answer = generate(buildBatchRequestBody(pack));
+        } catch (Exception e) {
+            List<TranslationResult> failed = new ArrayList<>(pack.size());
+            for (int i = 0; i < pack.size(); i++) {
+                failed.add(TranslationResult.failed(e));
+            }
+            return failed;
+        }
+        
+        String[] translations;
+        try {
+            translations = objectMapper.readValue(answer.getText(), String[].class);
         } catch (IOException e) {
-            throw new Exception("Failed to communicate with Gemini API: " + e.getMessage(), e);
+            translations = null;
+        }
+        
+        // A malformed or misaligned answer cannot be split safely; translate one by one
+        if (translations == null || translations.length != pack.size()) {
+            LOG.warn("Gemini batch answer did not match its segments, retrying individually", "segments", pack.size());
+            return withPackUsage(LLMService.super.translateBatch(pack), answer.getUsage());
+        }
+        
+        List<TranslationResult> results = new ArrayList<>(pack.size());
+        for (String translation : translations) {
+            if (translation == null || translation.trim().isEmpty()) {
+                results.add(TranslationResult.failed("No translation returned for segment"));
+            } else {
+                results.add(new TranslationResult(translation.trim(), false, model));
+            }
         }
+        return withPackUsage(results, answer.getUsage());
     }
     
-    private String buildTranslationPrompt(String englishText) {
-        return String.format(
-            "Translate the following English text to Moroccan Arabic Darija (Moroccan dialect). " +
-            "Use Arabic script and maintain the natural, colloquial tone of Darija. " +
-            "Only return the translation, nothing else.\n\n" +
-            "English text: \"%s\"\n\n" +
-            "Darija translation:",
-            englishText
-        );
+    /**
+     * The tokens of the pack's call go with its first translated segment, or
+     * its first segment when none was, so they are counted exactly once
+     */
+    private static List<TranslationResult> withPackUsage(List<TranslationResult> results, TokenUsage usage) {
+        if (usage == null || results.isEmpty()) {
+            return results;
+        }
+        int carrier = 0;
+        while (carrier < results.size() && !results.get(carrier).isSuccess()) {
+            carrier++;
+        }
+        if (carrier == results.size()) {
+            carrier = 0;
+        }
+        results.set(carrier, results.get(carrier).withAddedUsage(usage));
+        return results;
     }
     
-    private String buildRequestBody(String prompt) throws Exception {
-        String json = String.format(
-            "{\"contents\":[{\"parts\":[{\"text\":\"%s\"}]}]}", 
-            escapeJson(prompt)
-        );
-        return json;
+    /**
+     * Send a generateContent request and return the text of the first candidate
+     */
+    private TranslationResult generate(GeminiRequestBody requestBody) throws Exception {
+        return executor.callUpstream(() -> {
+            try (Response response = client.newCall(buildRequest(requestBody)).execute()) {
+                return readResponse(response, requestBody);
+            } catch (IOException e) {
+                throw new Exception("Failed to communicate with Gemini API: " + e.getMessage(), e);
+            }
+        });
     }
     
-    private String extractTranslation(String responseBody) throws Exception {
-        try {
-            JsonNode root = objectMapper.readTree(responseBody);
-            JsonNode candidates = root.path("candidates");
-            
-            if (candidates.isArray() && candidates.size() > 0) {
-                JsonNode firstCandidate = candidates.get(0);
-                JsonNode content = firstCandidate.path("content");
-                JsonNode parts = content.path("parts");
-                
-                if (parts.isArray() && parts.size() > 0) {
-                    String text = parts.get(0).path("text").asText();
-                    return text.trim();
+    private CompletableFuture<TranslationResult> generateAsync(GeminiRequestBody requestBody) {
+        CompletableFuture<TranslationResult> future = new CompletableFuture<>();
+        executor.acquireUpstream().whenComplete((held, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+                return;
+            }
+            // The permit goes back however the future ends: answer, failure or cancellation
+            future.whenComplete((result, failure) -> executor.releaseUpstream());
+            if (!future.isDone()) {
+                enqueue(requestBody, future);
+            }
+        });
+        return future;
+    }
+    
+    private void enqueue(GeminiRequestBody requestBody, CompletableFuture<TranslationResult> future) {
+        Call call = client.newCall(buildRequest(requestBody));
+        
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    future.complete(readResponse(response, requestBody));
+                } catch (IOException e) {
+                    future.completeExceptionally(
+                        new Exception("Failed to communicate with Gemini API: " + e.getMessage(), e));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
                 }
             }
             
-            throw new Exception("No translation found in Gemini API response");
-            
-        } catch (Exception e) {
-            throw new Exception("Failed to parse Gemini API response: " + e.getMessage(), e);
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(
+                    new Exception("Failed to communicate with Gemini API: " + e.getMessage(), e));
+            }
+        });
+        
+        // Abandoning the future frees the connection instead of reading an unwanted answer
+        future.whenComplete((text, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+    }
+    
+    private Request buildRequest(RequestBody requestBody) {
+        return new Request.Builder()
+                .url(apiUrl + "?key=" + apiKey)
+                .post(requestBody)
+                .build();
+    }
+    
+    private TranslationResult readResponse(Response response, GeminiRequestBody requestBody) throws Exception {
+        if (!response.isSuccessful()) {
+            throw upstreamError(response);
         }
+        
+        // Parsed straight off the socket; past the first part's text only the usageMetadata is read
+        String text;
+        GeminiResponseParser.Usage usage = new GeminiResponseParser.Usage();
+        try (JsonParser parser = objectMapper.getFactory().createParser(response.body().byteStream())) {
+            text = parser.nextToken() == JsonToken.START_OBJECT
+                ? GeminiResponseParser.readFirstPartText(parser, usage)
+                : null;
+        } catch (JsonProcessingException e) {
+            throw new Exception("Failed to parse Gemini API response: " + e.getOriginalMessage(), e);
+        }
+        
+        if (text == null) {
+            throw new Exception("Failed to parse Gemini API response: No translation found in Gemini API response");
+        }
+        return answer(text.trim(), requestBody, usage);
+    }
+    
+    /**
+     * The answer with the tokens its call spent, as Gemini reported them
+     * or, failing that, as estimated here
+     */
+    private TranslationResult answer(String text, GeminiRequestBody requestBody, GeminiResponseParser.Usage usage) {
+        int estimatedPromptTokens = requestBody.getEstimatedPromptTokens();
+        TokenUsage tokens = usage.isPresent()
+            ? new TokenUsage(estimatedPromptTokens, usage.getPromptTokenCount(),
+                usage.getCandidatesTokenCount() + usage.getThoughtsTokenCount(), true)
+            : new TokenUsage(estimatedPromptTokens, estimatedPromptTokens, TokenEstimator.estimate(text), false);
+        return new TranslationResult(text, model, tokens);
+    }
+    
+    private static UpstreamException upstreamError(Response response) throws IOException {
+        String errorBody = response.body() != null ? response.body().string() : "Unknown error";
+        return new UpstreamException("Gemini API request failed: " + response.code() + " - " + errorBody,
+                response.code(), GeminiResponseParser.readRetryAfterSeconds(response.header("Retry-After"), errorBody));
     }
     
-    private String escapeJson(String text) {
-        return text.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
+    /**
+     * The text with its whitespace compacted, under the translation
+     * instruction (or, with gemini.prompt.systemInstruction=false, the
+     * inline preamble)
+     */
+    private GeminiRequestBody buildTranslationRequestBody(String englishText) throws IOException {
+        String text = TextNormalizer.compactWhitespace(englishText);
+        return systemInstruction
+            ? GeminiRequestBody.forInstruction(TRANSLATION_INSTRUCTION, text)
+            : GeminiRequestBody.forPrompt(buildTranslationPrompt(text));
+    }
+    
+    private GeminiRequestBody buildPassageRequestBody(String englishText, String context) throws IOException {
+        String text = TextNormalizer.compactWhitespace(englishText);
+        String compactContext = TextNormalizer.compactWhitespace(context);
+        return systemInstruction
+            ? GeminiRequestBody.forInstruction(PASSAGE_INSTRUCTION, "Context: " + compactContext + "\n\nText: " + text)
+            : GeminiRequestBody.forPrompt(buildPassagePrompt(text, compactContext));
+    }
+    
+    private String buildTranslationPrompt(String englishText) {
+        return "Translate the following English text to Moroccan Arabic Darija (Moroccan dialect). " +
+            "Use Arabic script and maintain the natural, colloquial tone of Darija. " +
+            "Only return the translation, nothing else.\n\n" +
+            "English text: \"" + englishText + "\"\n\n" +
+            "Darija translation:";
+    }
+    
+    /**
+     * Prompt for one passage of a longer document, with the text before it as context
+     */
+    private String buildPassagePrompt(String englishText, String context) {
+        return "Translate the following English text to Moroccan Arabic Darija (Moroccan dialect). " +
+            "Use Arabic script and maintain the natural, colloquial tone of Darija. " +
+            "It continues a longer document; the preceding passage is given for context only " +
+            "and must not be translated. Only return the translation, nothing else.\n\n" +
+            "Preceding passage: \"" + context + "\"\n\n" +
+            "English text: \"" + englishText + "\"\n\n" +
+            "Darija translation:";
+    }
+    
+    private GeminiRequestBody buildBatchRequestBody(List<String> segments) throws Exception {
+        List<String> texts = new ArrayList<>(segments.size());
+        for (String segment : segments) {
+            texts.add(TextNormalizer.compactWhitespace(segment));
+        }
+        String array = objectMapper.writeValueAsString(texts);
+        if (systemInstruction) {
+            return GeminiRequestBody.forStringArray(BATCH_INSTRUCTION, array);
+        }
+        
+        String prompt = "Translate each English string in the following JSON array to Moroccan Arabic Darija " +
+            "(Moroccan dialect). Use Arabic script and maintain the natural, colloquial tone of Darija. " +
+            "Return a JSON array of exactly " + segments.size() + " strings containing the translations " +
+            "in the same order, nothing else.\n\n" +
+            array;
+        
+        return GeminiRequestBody.forStringArray(prompt);
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.translator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.translator.util.TokenEstimator;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * A generateContent request body written by Jackson's generator straight
+ * from the prompt into pooled okio segments, without building the JSON as
+ * a String first. The generator escapes every control character, the
+ * length is known up front so HTTP/1.1 uploads are not chunked, and
+ * writeTo hands the segments to OkHttp's sink without copying their
+ * bytes, however often the call is retried.
+ *
+ * Instructions can go in systemInstruction, apart from the text to
+ * translate, instead of being prefixed to it in the prompt.
+ */
+public final class GeminiRequestBody extends RequestBody {
+    
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    
+    // Thread-safe; the generators it creates recycle their buffers between requests
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    private final Buffer content = new Buffer();
+    private final int estimatedPromptTokens;
+    
+    private GeminiRequestBody(int estimatedPromptTokens) {
+        this.estimatedPromptTokens = estimatedPromptTokens;
+    }
+    
+    /**
+     * {"contents":[{"parts":[{"text":prompt}]}]}
+     */
+    public static GeminiRequestBody forPrompt(String prompt) throws IOException {
+        return write(null, prompt, false);
+    }
+    
+    /**
+     * The prompt with a response schema that makes Gemini answer with a
+     * JSON array of strings
+     */
+    public static GeminiRequestBody forStringArray(String prompt) throws IOException {
+        return write(null, prompt, true);
+    }
+    
+    /**
+     * {"systemInstruction":{"parts":[{"text":instruction}]},"contents":[{"role":"user","parts":[{"text":text}]}]}
+     */
+    public static GeminiRequestBody forInstruction(String instruction, String text) throws IOException {
+        return write(instruction, text, false);
+    }
+    
+    /**
+     * forInstruction with the response schema of forStringArray
+     */
+    public static GeminiRequestBody forStringArray(String instruction, String text) throws IOException {
+        return write(instruction, text, true);
+    }
+    
+    private static GeminiRequestBody write(String instruction, String text, boolean stringArray) throws IOException {
+        GeminiRequestBody body = new GeminiRequestBody(TokenEstimator.estimate(instruction) + TokenEstimator.estimate(text));
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(body.content.outputStream())) {
+            generator.writeStartObject();
+            if (instruction != null) {
+                generator.writeObjectFieldStart("systemInstruction");
+                generator.writeArrayFieldStart("parts");
+                generator.writeStartObject();
+                generator.writeStringField("text", instruction);
+                generator.writeEndObject();
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeArrayFieldStart("contents");
+            generator.writeStartObject();
+            if (instruction != null) {
+                generator.writeStringField("role", "user");
+            }
+            generator.writeArrayFieldStart("parts");
+            generator.writeStartObject();
+            generator.writeStringField("text", text);
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            
+            if (stringArray) {
+                generator.writeObjectFieldStart("generationConfig");
+                generator.writeStringField("responseMimeType", "application/json");
+                generator.writeObjectFieldStart("responseSchema");
+                generator.writeStringField("type", "ARRAY");
+                generator.writeObjectFieldStart("items");
+                generator.writeStringField("type", "STRING");
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        return body;
+    }
+    
+    /**
+     * Local estimate of the prompt tokens, made before the call
+     */
+    public int getEstimatedPromptTokens() {
+        return estimatedPromptTokens;
+    }
+    
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+    
+    @Override
+    public long contentLength() {
+        return content.size();
+    }
+    
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // Shares the segments with the sink's buffer instead of copying them
+        content.copyTo(sink.getBuffer(), 0, content.size());
+        sink.emitCompleteSegments();
+    }
+}
\ No newline at end of file
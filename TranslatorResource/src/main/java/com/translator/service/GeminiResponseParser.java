@@ -0,0 +1,245 @@
+package com.translator.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls the generated text out of Gemini responses with Jackson's
+ * streaming parser, without building a JsonNode tree
+ */
+public final class GeminiResponseParser {
+    
+    // google.rpc.RetryInfo in an error body, e.g. "retryDelay": "27s" or "1.5s"
+    private static final Pattern RETRY_DELAY = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+)(?:\\.\\d+)?s\"");
+    
+    private GeminiResponseParser() {
+    }
+    
+    /**
+     * Read one GenerateContentResponse object and return the concatenated
+     * text of candidates[0].content.parts, or null if it carries no text.
+     * The parser must be positioned on the object's START_OBJECT and is
+     * left on its END_OBJECT.
+     */
+    public static String readCandidateText(JsonParser parser) throws IOException {
+        return readCandidateText(parser, null);
+    }
+    
+    /**
+     * As readCandidateText(parser), also reading the object's usageMetadata
+     * into usage when it has one. Streamed chunks each carry the running
+     * totals, so reading every chunk into the same Usage leaves the final ones.
+     */
+    public static String readCandidateText(JsonParser parser, Usage usage) throws IOException {
+        StringBuilder text = null;
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            
+            if ("candidates".equals(field) && value == JsonToken.START_ARRAY) {
+                boolean first = true;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    if (first) {
+                        text = readCandidate(parser);
+                        first = false;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (usage != null && "usageMetadata".equals(field) && value == JsonToken.START_OBJECT) {
+                usage.read(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        
+        return text != null ? text.toString() : null;
+    }
+    
+    /**
+     * Read candidates[0].content.parts[0].text of a GenerateContentResponse
+     * and stop there, leaving the rest of the response unread; null if the
+     * response carries no such text. The parser must be positioned on the
+     * response's START_OBJECT.
+     */
+    public static String readFirstPartText(JsonParser parser) throws IOException {
+        if (!moveToField(parser, "candidates", JsonToken.START_ARRAY)) {
+            return null;
+        }
+        return readFirstCandidatePartText(parser);
+    }
+    
+    /**
+     * As readFirstPartText(parser), then on through the rest of the response
+     * for its usageMetadata, which Gemini writes after the candidates. The
+     * parser is left on the response's END_OBJECT.
+     */
+    public static String readFirstPartText(JsonParser parser, Usage usage) throws IOException {
+        JsonStreamContext response = parser.getParsingContext();
+        String text = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("candidates".equals(field) && value == JsonToken.START_ARRAY && text == null) {
+                text = readFirstCandidatePartText(parser);
+                // Out of whatever the first candidate still holds, back to the response's fields
+                while (parser.getParsingContext() != response) {
+                    if (parser.nextToken() == null) {
+                        return text;
+                    }
+                }
+            } else if ("usageMetadata".equals(field) && value == JsonToken.START_OBJECT) {
+                usage.read(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return text;
+    }
+    
+    private static String readFirstCandidatePartText(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT
+                || !moveToField(parser, "content", JsonToken.START_OBJECT)
+                || !moveToField(parser, "parts", JsonToken.START_ARRAY)
+                || parser.nextToken() != JsonToken.START_OBJECT
+                || !moveToField(parser, "text", JsonToken.VALUE_STRING)) {
+            return null;
+        }
+        return parser.getText();
+    }
+    
+    /**
+     * Skip the fields of the current object up to the named one and move onto its value
+     * @return false if the object ends first or the value is not of the expected kind
+     */
+    private static boolean moveToField(JsonParser parser, String name, JsonToken expected) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals(field)) {
+                return value == expected;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+    
+    private static StringBuilder readCandidate(JsonParser parser) throws IOException {
+        StringBuilder text = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("content".equals(field) && value == JsonToken.START_OBJECT) {
+                text = readContent(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return text;
+    }
+    
+    private static StringBuilder readContent(JsonParser parser) throws IOException {
+        StringBuilder text = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("parts".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String partField = parser.getCurrentName();
+                        JsonToken partValue = parser.nextToken();
+                        if ("text".equals(partField) && partValue == JsonToken.VALUE_STRING) {
+                            if (text == null) {
+                                text = new StringBuilder();
+                            }
+                            text.append(parser.getText());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return text;
+    }
+    
+    /**
+     * Seconds Gemini asked us to wait, from a Retry-After header or the
+     * RetryInfo detail of an error body; 0 when neither says
+     */
+    public static long readRetryAfterSeconds(String retryAfterHeader, String errorBody) {
+        if (retryAfterHeader != null) {
+            try {
+                return Math.max(0, Long.parseLong(retryAfterHeader.trim()));
+            } catch (NumberFormatException e) {
+                // HTTP-date form; fall through to the body
+            }
+        }
+        if (errorBody != null) {
+            Matcher matcher = RETRY_DELAY.matcher(errorBody);
+            if (matcher.find()) {
+                // Round fractional delays up
+                return Long.parseLong(matcher.group(1)) + (matcher.group(0).contains(".") ? 1 : 0);
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * The usageMetadata of a response
+     */
+    public static final class Usage {
+        
+        private int promptTokenCount;
+        private int candidatesTokenCount;
+        private int thoughtsTokenCount;
+        private boolean present;
+        
+        void read(JsonParser parser) throws IOException {
+            present = true;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value != JsonToken.VALUE_NUMBER_INT) {
+                    parser.skipChildren();
+                } else if ("promptTokenCount".equals(field)) {
+                    promptTokenCount = parser.getIntValue();
+                } else if ("candidatesTokenCount".equals(field)) {
+                    candidatesTokenCount = parser.getIntValue();
+                } else if ("thoughtsTokenCount".equals(field)) {
+                    thoughtsTokenCount = parser.getIntValue();
+                }
+            }
+        }
+        
+        /**
+         * Whether the response had a usageMetadata object
+         */
+        public boolean isPresent() {
+            return present;
+        }
+        
+        public int getPromptTokenCount() {
+            return promptTokenCount;
+        }
+        
+        public int getCandidatesTokenCount() {
+            return candidatesTokenCount;
+        }
+        
+        /**
+         * Tokens a thinking model spent before answering; billed as output
+         */
+        public int getThoughtsTokenCount() {
+            return thoughtsTokenCount;
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,13 @@
 package com.translator.service;
 
-public interface LLMService {
+import com.translator.model.TranslationResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public interface LLMService extends AutoCloseable {
     /**
      * Translates English text to Moroccan Arabic Darija
      * @param englishText The text to translate
@@ -8,4 +15,95 @@ public interface LLMService {
      * @throws Exception if translation fails
      */
     String translate(String englishText) throws Exception;
+    
+    /**
+     * Translates and reports how the translation was obtained
+     * @param englishText The text to translate
+     * @return Translated text with its origin
+     * @throws Exception if translation fails
+     */
+    default TranslationResult translateDetailed(String englishText) throws Exception {
+        return new TranslationResult(translate(englishText), false);
+    }
+    
+    /**
+     * Translates without blocking the calling thread
+     * @param englishText The text to translate
+     * @return Future completed with the Darija text, or exceptionally if translation fails
+     */
+    default CompletableFuture<String> translateAsync(String englishText) {
+        return translateDetailedAsync(englishText).thenApply(TranslationResult::getText);
+    }
+    
+    /**
+     * Asynchronous form of translateDetailed.
+     * The default runs the blocking call on the caller's thread; implementations
+     * with a non-blocking client override it.
+     */
+    default CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        CompletableFuture<TranslationResult> future = new CompletableFuture<>();
+        try {
+            future.complete(translateDetailed(englishText));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    /**
+     * Translates a passage of a longer document. The context is the source
+     * text just before the passage, shown to the model for coherence but not
+     * translated. The default ignores the context.
+     * @param englishText The passage to translate
+     * @param context Preceding English text, or null
+     * @return Future completed with the Darija text of the passage only
+     */
+    default CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        return translateDetailedAsync(englishText);
+    }
+    
+    /**
+     * Translates while handing partial Darija text to the listener as it is generated.
+     * The default emits the whole translation as a single chunk.
+     * @param englishText The text to translate
+     * @param onChunk Receives each new piece of the translation, in order
+     * @return The complete translation
+     * @throws Exception if translation fails
+     */
+    default TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        TranslationResult result = translateDetailed(englishText);
+        onChunk.accept(result.getText());
+        return result;
+    }
+    
+    /**
+     * Translates independent segments, returning one result per segment in order.
+     * A segment that fails is reported in its own result instead of failing the batch.
+     * @param segments The texts to translate
+     * @return Results in the same order as the segments
+     */
+    default List<TranslationResult> translateBatch(List<String> segments) {
+        List<TranslationResult> results = new ArrayList<>(segments.size());
+        for (String segment : segments) {
+            try {
+                results.add(translateDetailed(segment));
+            } catch (Exception e) {
+                results.add(TranslationResult.failed(e));
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Opens upstream connections ahead of the first request
+     */
+    default void warmUp() {
+    }
+    
+    /**
+     * Releases connections and threads held by the service
+     */
+    @Override
+    default void close() {
+    }
 }
\ No newline at end of file
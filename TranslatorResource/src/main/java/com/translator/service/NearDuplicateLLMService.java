@@ -0,0 +1,113 @@
+package com.translator.service;
+
+import com.translator.cache.NearDuplicateIndex;
+import com.translator.model.TranslationResult;
+import com.translator.util.Futures;
+import com.translator.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Reuses the translation of a nearly identical earlier text (differing in
+ * punctuation, casing, spacing or a small edit) instead of calling the LLM.
+ * Sits below the exact cache and the translation memory, so an exact match
+ * always wins, and only indexes translations that came from the LLM.
+ */
+public class NearDuplicateLLMService extends ForwardingLLMService {
+    
+    private final NearDuplicateIndex index;
+    
+    public NearDuplicateLLMService(LLMService delegate, NearDuplicateIndex index) {
+        super(delegate);
+        this.index = index;
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        String key = TextNormalizer.normalize(englishText);
+        String similar = index.lookup(key);
+        if (similar != null) {
+            return new TranslationResult(similar, true, TranslationResult.ENGINE_NEAR_DUPLICATE);
+        }
+        
+        TranslationResult result = delegate.translateDetailed(englishText);
+        remember(key, result);
+        return result;
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        String key = TextNormalizer.normalize(englishText);
+        String similar = index.lookup(key);
+        if (similar != null) {
+            return CompletableFuture.completedFuture(
+                    new TranslationResult(similar, true, TranslationResult.ENGINE_NEAR_DUPLICATE));
+        }
+        
+        CompletableFuture<TranslationResult> call = delegate.translateDetailedAsync(englishText, context);
+        return Futures.propagateCancel(call.thenApply(result -> {
+            remember(key, result);
+            return result;
+        }), call);
+    }
+    
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        String key = TextNormalizer.normalize(englishText);
+        String similar = index.lookup(key);
+        if (similar != null) {
+            onChunk.accept(similar);
+            return new TranslationResult(similar, true, TranslationResult.ENGINE_NEAR_DUPLICATE);
+        }
+        
+        TranslationResult result = delegate.translateStream(englishText, onChunk);
+        remember(key, result);
+        return result;
+    }
+    
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        TranslationResult[] results = new TranslationResult[segments.size()];
+        List<Integer> missPositions = new ArrayList<>();
+        List<String> missTexts = new ArrayList<>();
+        
+        for (int i = 0; i < segments.size(); i++) {
+            String similar = index.lookup(TextNormalizer.normalize(segments.get(i)));
+            if (similar != null) {
+                results[i] = new TranslationResult(similar, true, TranslationResult.ENGINE_NEAR_DUPLICATE);
+            } else {
+                missPositions.add(i);
+                missTexts.add(segments.get(i));
+            }
+        }
+        
+        if (!missTexts.isEmpty()) {
+            List<TranslationResult> translated = delegate.translateBatch(missTexts);
+            for (int n = 0; n < translated.size(); n++) {
+                results[missPositions.get(n)] = translated.get(n);
+                remember(TextNormalizer.normalize(missTexts.get(n)), translated.get(n));
+            }
+        }
+        
+        return Arrays.asList(results);
+    }
+    
+    private void remember(String key, TranslationResult result) {
+        if (result.isSuccess() && !result.isCached()) {
+            index.put(key, result.getText());
+        }
+    }
+    
+    public NearDuplicateIndex getIndex() {
+        return index;
+    }
+}
\ No newline at end of file
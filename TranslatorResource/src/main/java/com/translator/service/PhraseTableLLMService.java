@@ -0,0 +1,89 @@
+package com.translator.service;
+
+import com.translator.model.TranslationResult;
+import com.translator.phrase.PhraseDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Answers known words and fixed phrases ("thank you", menu labels) from
+ * the local phrase table, with no cache lookup and no network call.
+ * Everything else goes down the chain unchanged.
+ */
+public class PhraseTableLLMService extends ForwardingLLMService {
+    
+    private final PhraseDictionary dictionary;
+    private final LongAdder hits = new LongAdder();
+    
+    public PhraseTableLLMService(LLMService delegate, PhraseDictionary dictionary) {
+        super(delegate);
+        this.dictionary = dictionary;
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        TranslationResult phrase = lookup(englishText);
+        return phrase != null ? phrase : delegate.translateDetailed(englishText);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        TranslationResult phrase = lookup(englishText);
+        return phrase != null ? CompletableFuture.completedFuture(phrase) : delegate.translateDetailedAsync(englishText, context);
+    }
+    
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        TranslationResult phrase = lookup(englishText);
+        if (phrase == null) {
+            return delegate.translateStream(englishText, onChunk);
+        }
+        onChunk.accept(phrase.getText());
+        return phrase;
+    }
+    
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        TranslationResult[] results = new TranslationResult[segments.size()];
+        List<Integer> missPositions = new ArrayList<>();
+        List<String> missTexts = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            results[i] = lookup(segments.get(i));
+            if (results[i] == null) {
+                missPositions.add(i);
+                missTexts.add(segments.get(i));
+            }
+        }
+        
+        if (!missTexts.isEmpty()) {
+            List<TranslationResult> translated = delegate.translateBatch(missTexts);
+            for (int n = 0; n < translated.size(); n++) {
+                results[missPositions.get(n)] = translated.get(n);
+            }
+        }
+        return Arrays.asList(results);
+    }
+    
+    private TranslationResult lookup(String englishText) {
+        String translation = englishText != null ? dictionary.lookup(englishText) : null;
+        if (translation == null) {
+            return null;
+        }
+        hits.increment();
+        return new TranslationResult(translation, false, TranslationResult.ENGINE_PHRASE_TABLE);
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+}
\ No newline at end of file
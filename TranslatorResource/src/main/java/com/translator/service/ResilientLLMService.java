@@ -0,0 +1,477 @@
+package com.translator.service;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.model.TranslationResult;
+import com.translator.resilience.CircuitBreaker;
+import com.translator.resilience.CircuitOpenException;
+import com.translator.resilience.LatencyWindow;
+import com.translator.resilience.RetryBudget;
+import com.translator.scheduling.CallContext;
+import com.translator.util.Futures;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Retries, hedging and a circuit breaker around the Gemini client.
+ *
+ * Retries: transient failures (5xx, timeouts, connection errors) are
+ * retried with full-jitter exponential backoff, within a per-request
+ * deadline and a global retry budget. 4xx answers, 429 included, are
+ * never retried. A translation is a pure function of its input, so
+ * repeating it is safe.
+ *
+ * Hedging (optional): if an async call has not answered after the p95
+ * latency of recent calls, a second identical call is sent and the first
+ * answer wins. Hedges draw on their own budget. When hedging is on,
+ * blocking calls go through the async path as well.
+ *
+ * Circuit breaker: once the recent failure rate crosses the threshold,
+ * calls fail fast with CircuitOpenException instead of waiting on a
+ * degraded Gemini. The cache in front can then answer with stale entries.
+ */
+public class ResilientLLMService extends ForwardingLLMService {
+    
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long maxElapsedNanos;
+    private final RetryBudget retryBudget;
+    
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayNanos;
+    private final RetryBudget hedgeBudget;
+    private final LatencyWindow latencies;
+    
+    private final CircuitBreaker circuitBreaker;
+    
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesDenied = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    
+    public ResilientLLMService(LLMService delegate, TranslatorConfig config) {
+        super(delegate);
+        this.maxAttempts = Math.max(1, config.getInt("retry.maxAttempts", 3));
+        this.initialBackoffMillis = config.getLong("retry.initialBackoffMillis", 200);
+        this.maxBackoffMillis = config.getLong("retry.maxBackoffMillis", 2000);
+        this.maxElapsedNanos = TimeUnit.MILLISECONDS.toNanos(config.getLong("retry.maxElapsedMillis", 20_000));
+        this.retryBudget = new RetryBudget(config.getDouble("retry.budgetRatio", 0.2), config.getInt("retry.minBudget", 10));
+        
+        this.hedgeEnabled = config.getBoolean("hedge.enabled", false);
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.getLong("hedge.minDelayMillis", 50));
+        this.hedgeBudget = new RetryBudget(config.getDouble("hedge.budgetRatio", 0.05), config.getInt("hedge.minBudget", 5));
+        this.latencies = new LatencyWindow(config.getInt("hedge.window", 1024), config.getDouble("hedge.percentile", 0.95));
+        
+        this.circuitBreaker = new CircuitBreaker(
+                config.getInt("circuit.windowSize", 50),
+                config.getInt("circuit.minimumCalls", 20),
+                config.getDouble("circuit.failureRateThreshold", 0.5),
+                config.getLong("circuit.openSeconds", 30),
+                config.getInt("circuit.halfOpenCalls", 3));
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        if (hedgeEnabled) {
+            return await(translateDetailedAsync(englishText));
+        }
+        
+        calls.increment();
+        retryBudget.deposit();
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            acquirePermission();
+            long attemptStart = System.nanoTime();
+            try {
+                TranslationResult result = delegate.translateDetailed(englishText);
+                recordOutcome(attemptStart, null);
+                return result;
+            } catch (Exception e) {
+                recordOutcome(attemptStart, e);
+                long delay = retryDelayMillis(e, attempt, start);
+                if (delay < 0) {
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+        }
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        calls.increment();
+        retryBudget.deposit();
+        if (hedgeEnabled) {
+            hedgeBudget.deposit();
+        }
+        CompletableFuture<TranslationResult> result = new CompletableFuture<>();
+        attemptAsync(englishText, context, 1, System.nanoTime(), result);
+        return result;
+    }
+    
+    /**
+     * Retried only while nothing has been streamed yet; after the first chunk the caller owns the partial output
+     */
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        calls.increment();
+        retryBudget.deposit();
+        AtomicBoolean streamed = new AtomicBoolean();
+        Consumer<String> tracking = chunk -> {
+            streamed.set(true);
+            onChunk.accept(chunk);
+        };
+        
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            acquirePermission();
+            long attemptStart = System.nanoTime();
+            try {
+                TranslationResult result = delegate.translateStream(englishText, tracking);
+                recordOutcome(attemptStart, null);
+                return result;
+            } catch (Exception e) {
+                recordOutcome(attemptStart, e);
+                long delay = streamed.get() ? -1 : retryDelayMillis(e, attempt, start);
+                if (delay < 0) {
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+        }
+    }
+    
+    /**
+     * Segments that failed on a transient upstream error are sent again as a
+     * smaller batch, with the same backoff, deadline and retry budget as a
+     * single call. Each attempt holds a breaker permit for the whole call: an
+     * open circuit fails it without calling Gemini, a half-open one counts it
+     * among its probes, and its outcome feeds the failure rate.
+     */
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        calls.increment();
+        retryBudget.deposit();
+        List<TranslationResult> results = new ArrayList<>(Collections.<TranslationResult>nCopies(segments.size(), null));
+        List<Integer> pending = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            pending.add(i);
+        }
+        
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            List<String> batch = new ArrayList<>(pending.size());
+            for (int index : pending) {
+                batch.add(segments.get(index));
+            }
+            List<TranslationResult> answered = attemptBatch(batch);
+            
+            List<Integer> retry = new ArrayList<>();
+            Throwable retryCause = null;
+            for (int i = 0; i < pending.size(); i++) {
+                int index = pending.get(i);
+                TranslationResult result = answered.get(i);
+                // Tokens spent on an earlier attempt stay on the segment's result
+                TranslationResult previous = results.get(index);
+                if (previous != null && previous.getUsage() != null) {
+                    result = result.withAddedUsage(previous.getUsage());
+                }
+                results.set(index, result);
+                if (!result.isSuccess() && result.getFailure() != null && isRetryable(result.getFailure())) {
+                    retry.add(index);
+                    if (retryCause == null || retryAfterSeconds(result.getFailure()) > retryAfterSeconds(retryCause)) {
+                        retryCause = result.getFailure();
+                    }
+                }
+            }
+            if (retry.isEmpty()) {
+                return results;
+            }
+            
+            long delay = retryDelayMillis(retryCause, attempt, start);
+            if (delay < 0) {
+                return results;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                // The failed segments stay failed; the caller sees the flag
+                Thread.currentThread().interrupt();
+                return results;
+            }
+            pending = retry;
+        }
+    }
+    
+    /**
+     * One batch call under one breaker permit; an open circuit fails every segment
+     */
+    private List<TranslationResult> attemptBatch(List<String> segments) {
+        if (!circuitBreaker.tryAcquire()) {
+            List<TranslationResult> failed = new ArrayList<>(segments.size());
+            CircuitOpenException open = new CircuitOpenException(circuitBreaker.getRetryAfterSeconds());
+            for (int i = 0; i < segments.size(); i++) {
+                failed.add(TranslationResult.failed(open));
+            }
+            return failed;
+        }
+        List<TranslationResult> results;
+        try {
+            results = delegate.translateBatch(segments);
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+        recordBatchOutcome(results);
+        return results;
+    }
+    
+    /**
+     * A batch with any translated segment is a success; one whose segments
+     * all failed on upstream errors is a failure; anything else (invalid
+     * segments, 4xx answers) says nothing about Gemini's health
+     */
+    private void recordBatchOutcome(List<TranslationResult> results) {
+        boolean upstreamFailure = !results.isEmpty();
+        for (TranslationResult result : results) {
+            if (result.isSuccess()) {
+                circuitBreaker.onSuccess();
+                return;
+            }
+            if (result.getFailure() == null || !isRetryable(result.getFailure())) {
+                upstreamFailure = false;
+            }
+        }
+        if (upstreamFailure) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onIgnored();
+        }
+    }
+    
+    private void attemptAsync(String englishText, String context, int attempt, long start,
+                              CompletableFuture<TranslationResult> result) {
+        if (result.isDone()) {
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            result.completeExceptionally(new CircuitOpenException(circuitBreaker.getRetryAfterSeconds()));
+            return;
+        }
+        
+        // Retries start on a timer thread; they run in the context of the first attempt
+        CallContext callContext = CallContext.current();
+        CompletableFuture<TranslationResult> call = hedgeEnabled ? hedgedCall(englishText, context) : timedCall(englishText, context);
+        
+        // The caller giving up abandons the attempt in flight
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        
+        call.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = Futures.unwrap(error);
+            long delay = retryDelayMillis(cause, attempt, start);
+            if (delay < 0) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+                try (CallContext.Scope ignored = callContext.open()) {
+                    attemptAsync(englishText, context, attempt + 1, start, result);
+                }
+            });
+        });
+    }
+    
+    /**
+     * One upstream call whose latency and outcome feed the hedge delay and the breaker
+     */
+    private CompletableFuture<TranslationResult> timedCall(String englishText, String context) {
+        long attemptStart = System.nanoTime();
+        CompletableFuture<TranslationResult> call = delegate.translateDetailedAsync(englishText, context);
+        call.whenComplete((value, error) -> recordOutcome(attemptStart, error != null ? Futures.unwrap(error) : null));
+        return call;
+    }
+    
+    /**
+     * Primary call plus, after the hedge delay, a second one; first success wins and the other is cancelled.
+     * Fails only once every call that was started has failed.
+     */
+    private CompletableFuture<TranslationResult> hedgedCall(String englishText, String context) {
+        CompletableFuture<TranslationResult> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        
+        CompletableFuture<TranslationResult> primary = timedCall(englishText, context);
+        primary.whenComplete((value, error) -> completeLeg(result, outstanding, value, error, false));
+        
+        long p95 = latencies.getPercentile();
+        if (p95 >= 0) {
+            CallContext callContext = CallContext.current();
+            CompletableFuture.delayedExecutor(Math.max(p95, hedgeMinDelayNanos), TimeUnit.NANOSECONDS).execute(() -> {
+                if (result.isDone() || !hedgeBudget.tryWithdraw()) {
+                    return;
+                }
+                hedges.increment();
+                outstanding.incrementAndGet();
+                CompletableFuture<TranslationResult> hedge;
+                try (CallContext.Scope ignored = callContext.open()) {
+                    hedge = timedCall(englishText, context);
+                }
+                hedge.whenComplete((value, error) -> completeLeg(result, outstanding, value, error, true));
+                result.whenComplete((value, error) -> hedge.cancel(true));
+            });
+        }
+        
+        result.whenComplete((value, error) -> primary.cancel(true));
+        return result;
+    }
+    
+    private void completeLeg(CompletableFuture<TranslationResult> result, AtomicInteger outstanding,
+                             TranslationResult value, Throwable error, boolean hedge) {
+        if (error == null) {
+            if (result.complete(value) && hedge) {
+                hedgeWins.increment();
+            }
+        } else if (outstanding.decrementAndGet() == 0) {
+            result.completeExceptionally(Futures.unwrap(error));
+        }
+    }
+    
+    private void acquirePermission() throws CircuitOpenException {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CircuitOpenException(circuitBreaker.getRetryAfterSeconds());
+        }
+    }
+    
+    private void recordOutcome(long attemptStart, Throwable error) {
+        if (error == null) {
+            latencies.record(System.nanoTime() - attemptStart);
+            circuitBreaker.onSuccess();
+        } else if (isRetryable(error)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onIgnored();
+        }
+    }
+    
+    /**
+     * Milliseconds to wait before the next attempt, or -1 when the failure must be returned
+     */
+    private long retryDelayMillis(Throwable error, int attempt, long start) {
+        if (!isRetryable(error) || attempt >= maxAttempts) {
+            return -1;
+        }
+        
+        // Full jitter: uniform in [0, min(max, initial * 2^(attempt-1))]
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (error instanceof UpstreamException && ((UpstreamException) error).getRetryAfterSeconds() > 0) {
+            delay = Math.max(delay, TimeUnit.SECONDS.toMillis(((UpstreamException) error).getRetryAfterSeconds()));
+        }
+        
+        if (System.nanoTime() - start + TimeUnit.MILLISECONDS.toNanos(delay) > maxElapsedNanos) {
+            return -1;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            retriesDenied.increment();
+            return -1;
+        }
+        retries.increment();
+        return delay;
+    }
+    
+    private static long retryAfterSeconds(Throwable error) {
+        return error instanceof UpstreamException ? ((UpstreamException) error).getRetryAfterSeconds() : 0;
+    }
+    
+    /**
+     * Transient upstream failures: 5xx answers, timeouts and I/O errors
+     */
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof UpstreamException) {
+            return ((UpstreamException) error).getStatusCode() >= 500;
+        }
+        if (error instanceof CancellationException || error instanceof CircuitOpenException
+                || error instanceof IllegalArgumentException) {
+            return false;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static TranslationResult await(CompletableFuture<TranslationResult> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+    
+    public long getCallCount() {
+        return calls.sum();
+    }
+    
+    public long getRetryCount() {
+        return retries.sum();
+    }
+    
+    public long getRetriesDeniedCount() {
+        return retriesDenied.sum();
+    }
+    
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+    
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+    
+    /**
+     * Recent upstream latency at the hedge percentile, in milliseconds, or -1 before enough calls
+     */
+    public long getLatencyPercentileMillis() {
+        long nanos = latencies.getPercentile();
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+    
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
\ No newline at end of file
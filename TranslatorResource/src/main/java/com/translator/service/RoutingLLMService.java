@@ -0,0 +1,403 @@
+package com.translator.service;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.metrics.UpstreamMetricsInterceptor;
+import com.translator.model.TranslationResult;
+import com.translator.provider.ProviderEndpoint;
+import com.translator.provider.ProviderRegistry;
+import com.translator.ratelimit.UpstreamQuotaInterceptor;
+import com.translator.ratelimit.UpstreamQuotaListener;
+import com.translator.util.Futures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Spreads translations over several endpoints (providers, models and API
+ * keys) to get past the throughput cap of a single key.
+ *
+ * Each call picks the cheaper of two random endpoints, where cost is the
+ * EWMA latency times the calls in flight, divided by the EWMA success
+ * rate. An endpoint answering 429 sits out for its Retry-After (or
+ * routing.cooldownSeconds); only when every endpoint is throttled does the
+ * global rate limiter hear about it. Timeouts, I/O errors, 5xx and 429
+ * answers fail over at once to another endpoint. An endpoint that has not
+ * been picked for routing.probeIntervalMillis gets the next call, so its
+ * stale statistics are refreshed.
+ */
+public class RoutingLLMService implements LLMService {
+    
+    private static final Logger LOG = Logger.get(RoutingLLMService.class);
+    
+    private final List<Endpoint> endpoints;
+    private final UpstreamQuotaListener poolListener;
+    private final int maxAttempts;
+    private final long cooldownNanos;
+    private final long probeIntervalNanos;
+    private final double alpha;
+    
+    private final LongAdder failovers = new LongAdder();
+    
+    /**
+     * @param poolListener told about throttling only once every endpoint is throttled
+     */
+    public RoutingLLMService(List<ProviderEndpoint> endpoints, ProviderRegistry providers, TranslatorConfig config,
+                             TranslationExecutor executor, UpstreamQuotaListener poolListener, MetricsRegistry metrics) {
+        this.poolListener = poolListener;
+        this.maxAttempts = Math.max(1, Math.min(endpoints.size(), config.getInt("routing.maxAttempts", 3)));
+        this.cooldownNanos = TimeUnit.SECONDS.toNanos(config.getLong("routing.cooldownSeconds", 10));
+        this.probeIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getLong("routing.probeIntervalMillis", 5000));
+        this.alpha = config.getDouble("routing.ewmaAlpha", 0.2);
+        
+        List<Endpoint> created = new ArrayList<>(endpoints.size());
+        for (ProviderEndpoint spec : endpoints) {
+            Endpoint endpoint = new Endpoint(spec.getName());
+            endpoint.service = providers.create(spec, config, executor,
+                    List.of(new UpstreamQuotaInterceptor(endpoint), new UpstreamMetricsInterceptor(metrics, spec.getName())));
+            created.add(endpoint);
+        }
+        this.endpoints = Collections.unmodifiableList(created);
+        LOG.info("Routing translations over several endpoints", "endpoints",
+                created.stream().map(Endpoint::getName).toList());
+    }
+    
+    @Override
+    public String translate(String englishText) throws Exception {
+        return translateDetailed(englishText).getText();
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        List<Endpoint> tried = new ArrayList<>(maxAttempts);
+        while (true) {
+            Endpoint endpoint = select(tried);
+            long start = endpoint.begin();
+            try {
+                TranslationResult result = endpoint.service.translateDetailed(englishText);
+                endpoint.end(start, null, true);
+                return result;
+            } catch (Exception e) {
+                endpoint.end(start, e, true);
+                if (!shouldFailOver(e, tried)) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        CompletableFuture<TranslationResult> result = new CompletableFuture<>();
+        attemptAsync(englishText, context, new ArrayList<>(maxAttempts), result);
+        return result;
+    }
+    
+    private void attemptAsync(String englishText, String context, List<Endpoint> tried,
+                              CompletableFuture<TranslationResult> result) {
+        Endpoint endpoint = select(tried);
+        long start = endpoint.begin();
+        CompletableFuture<TranslationResult> call = endpoint.service.translateDetailedAsync(englishText, context);
+        
+        // A hedge or timeout above us gave up: free the upstream call too
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        
+        call.whenComplete((value, error) -> {
+            Throwable cause = error != null ? Futures.unwrap(error) : null;
+            endpoint.end(start, cause, true);
+            if (cause == null) {
+                result.complete(value);
+            } else if (!result.isDone() && shouldFailOver(cause, tried)) {
+                attemptAsync(englishText, context, tried, result);
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+    
+    /**
+     * Fails over only while nothing has been streamed yet
+     */
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        AtomicBoolean streamed = new AtomicBoolean();
+        Consumer<String> tracking = chunk -> {
+            streamed.set(true);
+            onChunk.accept(chunk);
+        };
+        
+        List<Endpoint> tried = new ArrayList<>(maxAttempts);
+        while (true) {
+            Endpoint endpoint = select(tried);
+            long start = endpoint.begin();
+            try {
+                TranslationResult result = endpoint.service.translateStream(englishText, tracking);
+                endpoint.end(start, null, false);
+                return result;
+            } catch (Exception e) {
+                endpoint.end(start, e, false);
+                if (streamed.get() || !shouldFailOver(e, tried)) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * The whole batch goes to one endpoint; segments it failed are tried once more on another
+     */
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        List<Endpoint> tried = new ArrayList<>(2);
+        Endpoint endpoint = select(tried);
+        List<TranslationResult> results = runBatch(endpoint, segments);
+        
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (!results.get(i).isSuccess()) {
+                failed.add(i);
+            }
+        }
+        if (failed.isEmpty() || tried.size() >= endpoints.size()) {
+            return results;
+        }
+        
+        failovers.increment();
+        List<String> retry = new ArrayList<>(failed.size());
+        for (int index : failed) {
+            retry.add(segments.get(index));
+        }
+        List<TranslationResult> retried = runBatch(select(tried), retry);
+        
+        // Whichever result is kept also carries the tokens of the one dropped
+        List<TranslationResult> merged = new ArrayList<>(results);
+        for (int i = 0; i < failed.size(); i++) {
+            TranslationResult first = results.get(failed.get(i));
+            TranslationResult second = retried.get(i);
+            merged.set(failed.get(i), second.isSuccess()
+                    ? second.withAddedUsage(first.getUsage())
+                    : first.withAddedUsage(second.getUsage()));
+        }
+        return merged;
+    }
+    
+    private List<TranslationResult> runBatch(Endpoint endpoint, List<String> segments) {
+        long start = endpoint.begin();
+        List<TranslationResult> results = endpoint.service.translateBatch(segments);
+        boolean anySuccess = results.stream().anyMatch(TranslationResult::isSuccess);
+        endpoint.end(start, anySuccess ? null : new UpstreamException("Batch failed", 500, 0), false);
+        return results;
+    }
+    
+    /**
+     * Power of two choices among endpoints not tried yet and not cooling down;
+     * if all of them are cooling down, the one that recovers first
+     */
+    private Endpoint select(List<Endpoint> tried) {
+        long now = System.nanoTime();
+        List<Endpoint> available = new ArrayList<>(endpoints.size());
+        Endpoint soonest = null;
+        for (Endpoint endpoint : endpoints) {
+            if (tried.contains(endpoint)) {
+                continue;
+            }
+            if (endpoint.cooldownUntil - now <= 0) {
+                available.add(endpoint);
+            } else if (soonest == null || endpoint.cooldownUntil - soonest.cooldownUntil < 0) {
+                soonest = endpoint;
+            }
+        }
+        
+        Endpoint chosen;
+        if (available.isEmpty()) {
+            chosen = soonest;
+        } else if (available.size() == 1) {
+            chosen = available.get(0);
+        } else {
+            chosen = null;
+            for (Endpoint endpoint : available) {
+                if (now - endpoint.lastSelected > probeIntervalNanos) {
+                    chosen = endpoint;
+                    break;
+                }
+            }
+            if (chosen == null) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int first = random.nextInt(available.size());
+                int second = random.nextInt(available.size() - 1);
+                if (second >= first) {
+                    second++;
+                }
+                Endpoint a = available.get(first);
+                Endpoint b = available.get(second);
+                chosen = a.cost() <= b.cost() ? a : b;
+            }
+        }
+        
+        tried.add(chosen);
+        return chosen;
+    }
+    
+    private boolean shouldFailOver(Throwable error, List<Endpoint> tried) {
+        boolean transientFailure = error instanceof UpstreamException && ((UpstreamException) error).isRateLimited()
+                || ResilientLLMService.isRetryable(error);
+        if (!transientFailure || tried.size() >= maxAttempts) {
+            return false;
+        }
+        failovers.increment();
+        return true;
+    }
+    
+    private boolean allCoolingDown(long now) {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.cooldownUntil - now <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void warmUp() {
+        endpoints.forEach(endpoint -> endpoint.service.warmUp());
+    }
+    
+    @Override
+    public void close() {
+        endpoints.forEach(endpoint -> endpoint.service.close());
+    }
+    
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+    
+    public long getFailoverCount() {
+        return failovers.sum();
+    }
+    
+    /**
+     * One upstream endpoint and its routing statistics
+     */
+    public final class Endpoint implements UpstreamQuotaListener {
+        
+        private final String name;
+        private LLMService service;
+        
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double latencyNanos;
+        private volatile double errorRate;
+        private volatile long cooldownUntil = System.nanoTime();
+        private volatile long lastSelected = System.nanoTime();
+        
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder throttles = new LongAdder();
+        
+        private Endpoint(String name) {
+            this.name = name;
+        }
+        
+        long begin() {
+            long now = System.nanoTime();
+            lastSelected = now;
+            inFlight.incrementAndGet();
+            calls.increment();
+            return now;
+        }
+        
+        /**
+         * @param timed whether the call's duration is comparable across endpoints (not streams or batches)
+         */
+        synchronized void end(long start, Throwable error, boolean timed) {
+            inFlight.decrementAndGet();
+            if (error == null) {
+                if (timed) {
+                    long elapsed = System.nanoTime() - start;
+                    latencyNanos = latencyNanos == 0 ? elapsed : latencyNanos + alpha * (elapsed - latencyNanos);
+                }
+                errorRate -= alpha * errorRate;
+            } else if (error instanceof UpstreamException && ((UpstreamException) error).isRateLimited()
+                    || ResilientLLMService.isRetryable(error)) {
+                failures.increment();
+                errorRate += alpha * (1 - errorRate);
+            }
+        }
+        
+        /**
+         * Expected time to a successful answer if this endpoint takes the next call.
+         * Unmeasured endpoints look cheap so they get measured.
+         */
+        double cost() {
+            double latency = latencyNanos + TimeUnit.MILLISECONDS.toNanos(1);
+            return latency * (inFlight.get() + 1) / Math.max(0.01, 1 - errorRate);
+        }
+        
+        @Override
+        public void onUpstreamThrottled(long retryAfterSeconds) {
+            throttles.increment();
+            long now = System.nanoTime();
+            long pause = retryAfterSeconds > 0 ? TimeUnit.SECONDS.toNanos(retryAfterSeconds) : cooldownNanos;
+            if (now + pause - cooldownUntil > 0) {
+                cooldownUntil = now + pause;
+            }
+            if (allCoolingDown(now)) {
+                poolListener.onUpstreamThrottled(retryAfterSeconds);
+            }
+        }
+        
+        @Override
+        public void onUpstreamSuccess() {
+            poolListener.onUpstreamSuccess();
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getInFlight() {
+            return inFlight.get();
+        }
+        
+        public double getLatencyMillis() {
+            return latencyNanos / 1_000_000;
+        }
+        
+        public double getErrorRate() {
+            return errorRate;
+        }
+        
+        public boolean isCoolingDown() {
+            return cooldownUntil - System.nanoTime() > 0;
+        }
+        
+        public long getCallCount() {
+            return calls.sum();
+        }
+        
+        public long getFailureCount() {
+            return failures.sum();
+        }
+        
+        public long getThrottleCount() {
+            return throttles.sum();
+        }
+    }
+}
\ No newline at end of file
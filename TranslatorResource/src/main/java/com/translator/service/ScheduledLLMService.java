@@ -0,0 +1,187 @@
+package com.translator.service;
+
+import com.translator.metrics.Histogram;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.model.TranslationResult;
+import com.translator.scheduling.AdmissionRejectedException;
+import com.translator.scheduling.CallContext;
+import com.translator.scheduling.FairScheduler;
+import com.translator.scheduling.TrafficClass;
+import com.translator.util.Futures;
+import com.translator.util.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Makes every call that reaches it wait for a slot from the FairScheduler,
+ * in the traffic class of the calling thread's CallContext. It sits below
+ * the caches and coalescing, so only calls that will actually go upstream
+ * are queued, and above retries, which reuse the slot of their call.
+ */
+public class ScheduledLLMService extends ForwardingLLMService {
+    
+    private final FairScheduler scheduler;
+    private final Histogram queueStage;
+    private final Map<TrafficClass, Histogram> waits = new EnumMap<>(TrafficClass.class);
+    
+    public ScheduledLLMService(LLMService delegate, FairScheduler scheduler, MetricsRegistry metrics) {
+        super(delegate);
+        this.scheduler = scheduler;
+        this.queueStage = metrics.stage("queue");
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            waits.put(trafficClass, metrics.histogram("translator_scheduler_wait_seconds",
+                "Time upstream calls waited for a slot, granted or not, per traffic class",
+                MetricsRegistry.LATENCY_BUCKETS, "class", trafficClass.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        FairScheduler.Permit permit = acquire(TokenEstimator.estimate(englishText));
+        try {
+            return delegate.translateDetailed(englishText);
+        } finally {
+            permit.release();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        CompletableFuture<TranslationResult> result = new CompletableFuture<>();
+        CallContext callContext = CallContext.current();
+        CompletableFuture<FairScheduler.Permit> admission = admit(TokenEstimator.estimate(englishText));
+        // Giving up while queued frees the place in the queue
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                admission.cancel(true);
+            }
+        });
+        
+        admission.whenComplete((permit, error) -> {
+            if (error != null) {
+                result.completeExceptionally(Futures.unwrap(error));
+                return;
+            }
+            if (result.isDone()) {
+                permit.release();
+                return;
+            }
+            
+            // Granted on whichever thread freed the slot
+            CompletableFuture<TranslationResult> call;
+            try (CallContext.Scope ignored = callContext.open()) {
+                call = delegate.translateDetailedAsync(englishText, context);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<TranslationResult> upstream = call;
+            result.whenComplete((value, failure) -> {
+                if (result.isCancelled()) {
+                    upstream.cancel(true);
+                }
+            });
+            upstream.whenComplete((value, failure) -> {
+                permit.release();
+                if (failure != null) {
+                    result.completeExceptionally(Futures.unwrap(failure));
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        return result;
+    }
+    
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        FairScheduler.Permit permit = acquire(TokenEstimator.estimate(englishText));
+        try {
+            return delegate.translateStream(englishText, onChunk);
+        } finally {
+            permit.release();
+        }
+    }
+    
+    /**
+     * One slot for the whole batch, weighted by its total size; a refused
+     * batch fails segment by segment like any other batch failure
+     */
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        int cost = 0;
+        for (String segment : segments) {
+            cost += TokenEstimator.estimate(segment);
+        }
+        
+        FairScheduler.Permit permit;
+        try {
+            permit = acquire(cost);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            List<TranslationResult> failed = new ArrayList<>(segments.size());
+            for (int i = 0; i < segments.size(); i++) {
+                failed.add(TranslationResult.failed(e));
+            }
+            return failed;
+        }
+        try {
+            return delegate.translateBatch(segments);
+        } finally {
+            permit.release();
+        }
+    }
+    
+    /**
+     * Block until the scheduler grants a slot
+     *
+     * @throws AdmissionRejectedException if the call was refused or expired in the queue
+     */
+    private FairScheduler.Permit acquire(int cost) throws AdmissionRejectedException, InterruptedException {
+        CompletableFuture<FairScheduler.Permit> admission = admit(cost);
+        try {
+            return admission.get();
+        } catch (InterruptedException e) {
+            // Granted in the meantime: hand the slot back
+            if (!admission.cancel(true)) {
+                admission.thenAccept(FairScheduler.Permit::release);
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof AdmissionRejectedException) {
+                throw (AdmissionRejectedException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+    
+    /**
+     * Ask the scheduler for a slot, timing the wait in the queue
+     */
+    private CompletableFuture<FairScheduler.Permit> admit(int cost) {
+        CallContext context = CallContext.current();
+        long start = System.nanoTime();
+        CompletableFuture<FairScheduler.Permit> admission = scheduler.acquire(context, cost);
+        Histogram wait = waits.get(context.getTrafficClass());
+        admission.whenComplete((permit, error) -> {
+            long elapsed = System.nanoTime() - start;
+            wait.observeNanos(elapsed);
+            queueStage.observeNanos(elapsed);
+        });
+        return admission;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.translator.service;
+
+import com.translator.logging.LogContext;
+import com.translator.logging.Logger;
+import com.translator.metrics.TokenUsageCounters;
+import com.translator.model.TokenUsage;
+import com.translator.model.TranslationResult;
+import com.translator.scheduling.CallContext;
+import com.translator.util.TokenEstimator;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Charges the tokens of every upstream call to the user of the calling
+ * thread's CallContext. It wraps the provider clients directly, so each
+ * attempt, retry or hedge that gets an answer is counted once and nothing
+ * answered by a cache is. Providers that do not report usage are charged
+ * the local estimate.
+ */
+public class TokenAccountingLLMService extends ForwardingLLMService {
+    
+    private static final Logger LOG = Logger.get(TokenAccountingLLMService.class);
+    
+    private final TokenUsageCounters counters;
+    
+    public TokenAccountingLLMService(LLMService delegate, TokenUsageCounters counters) {
+        super(delegate);
+        this.counters = counters;
+    }
+    
+    @Override
+    public String translate(String englishText) throws Exception {
+        return translateDetailed(englishText).getText();
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        String user = CallContext.current().getUser();
+        TranslationResult result = delegate.translateDetailed(englishText);
+        record(user, englishText, result, true);
+        return result;
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        String user = CallContext.current().getUser();
+        String requestId = LogContext.requestId();
+        CompletableFuture<TranslationResult> call = delegate.translateDetailedAsync(englishText, context);
+        call.thenAccept(result -> {
+            try (LogContext.Scope ignored = LogContext.open(requestId)) {
+                record(user, englishText, result, true);
+            }
+        });
+        return call;
+    }
+    
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        String user = CallContext.current().getUser();
+        TranslationResult result = delegate.translateStream(englishText, onChunk);
+        record(user, englishText, result, true);
+        return result;
+    }
+    
+    /**
+     * Segments answered by one call share its usage, carried by one of them
+     * (GeminiAPIService puts it on the first translated segment of each
+     * pack). A batch that carries no usage at all is charged one estimate.
+     */
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        String user = CallContext.current().getUser();
+        List<TranslationResult> results = delegate.translateBatch(segments);
+        int count = Math.min(results.size(), segments.size());
+        boolean carriesUsage = false;
+        for (int i = 0; i < count; i++) {
+            carriesUsage |= results.get(i).getUsage() != null;
+        }
+        if (!carriesUsage) {
+            recordEstimate(user, segments.subList(0, count), results.subList(0, count));
+            return results;
+        }
+        for (int i = 0; i < count; i++) {
+            record(user, segments.get(i), results.get(i), false);
+        }
+        return results;
+    }
+    
+    private void record(String user, String englishText, TranslationResult result, boolean estimateMissing) {
+        if (result == null) {
+            return;
+        }
+        TokenUsage usage = result.getUsage();
+        if (!result.isSuccess()) {
+            // A batch answer that could not be used still cost its tokens
+            if (usage != null) {
+                charge(user, usage, 0, 0);
+            }
+            return;
+        }
+        if (usage == null && estimateMissing) {
+            int prompt = TokenEstimator.estimate(englishText);
+            usage = new TokenUsage(prompt, prompt, TokenEstimator.estimate(result.getText()), false);
+        }
+        charge(user, usage, englishText.length(), result.getText().length());
+    }
+    
+    /**
+     * One estimated call for the translated segments of a batch that reported nothing
+     */
+    private void recordEstimate(String user, List<String> segments, List<TranslationResult> results) {
+        int prompt = 0;
+        int output = 0;
+        int inputChars = 0;
+        int outputChars = 0;
+        for (int i = 0; i < results.size(); i++) {
+            TranslationResult result = results.get(i);
+            if (result != null && result.isSuccess()) {
+                prompt += TokenEstimator.estimate(segments.get(i));
+                output += TokenEstimator.estimate(result.getText());
+                inputChars += segments.get(i).length();
+                outputChars += result.getText().length();
+            }
+        }
+        if (inputChars > 0) {
+            charge(user, new TokenUsage(prompt, prompt, output, false), inputChars, outputChars);
+        }
+    }
+    
+    private void charge(String user, TokenUsage usage, int inputChars, int outputChars) {
+        counters.record(user, usage, inputChars, outputChars);
+        if (usage != null) {
+            LOG.debug("Upstream tokens", "user", user, "promptTokens", usage.getPromptTokens(),
+                    "outputTokens", usage.getOutputTokens(), "estimatedPromptTokens", usage.getEstimatedPromptTokens(),
+                    "reported", usage.isReported(), "chars", inputChars);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.translator.service;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.LogContext;
+import com.translator.logging.Logger;
+import com.translator.scheduling.CallContext;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads used to run translations, shared by the resource and the LLM client.
+ *
+ * In VIRTUAL mode every task gets its own virtual thread, so a blocking
+ * Gemini call parks cheaply instead of holding a platform thread. The
+ * upstream semaphore caps concurrent Gemini calls in every mode.
+ */
+public class TranslationExecutor implements AutoCloseable {
+    
+    private static final Logger LOG = Logger.get(TranslationExecutor.class);
+    
+    private final ExecutionMode mode;
+    private final ExecutorService executorService;
+    private final Semaphore upstreamPermits;
+    private final int maxUpstreamCalls;
+    
+    public TranslationExecutor(ExecutionMode mode, int platformThreads, int maxUpstreamCalls) {
+        ExecutorService virtual = mode == ExecutionMode.VIRTUAL ? newVirtualThreadExecutor() : null;
+        if (mode == ExecutionMode.VIRTUAL && virtual == null) {
+            LOG.warn("Virtual threads require Java 21, falling back to platform threads");
+            mode = ExecutionMode.PLATFORM;
+        }
+        
+        this.mode = mode;
+        this.executorService = virtual != null
+                ? virtual
+                : Executors.newFixedThreadPool(platformThreads, new NamedThreadFactory("translator-worker-"));
+        this.maxUpstreamCalls = maxUpstreamCalls;
+        this.upstreamPermits = new Semaphore(maxUpstreamCalls, true);
+    }
+    
+    public static TranslationExecutor create(TranslatorConfig config) {
+        return new TranslationExecutor(
+                ExecutionMode.fromString(config.get("execution.mode", "async")),
+                config.getInt("execution.platformThreads", 200),
+                config.getInt("execution.maxUpstreamCalls", 256));
+    }
+    
+    public ExecutionMode getMode() {
+        return mode;
+    }
+    
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+    
+    /**
+     * Run a blocking task on this executor, in the caller's CallContext and log request id
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CallContext context = CallContext.current();
+        String requestId = LogContext.requestId();
+        try {
+            executorService.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try (CallContext.Scope ignored = context.open();
+                     LogContext.Scope logged = LogContext.open(requestId)) {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    /**
+     * Run a blocking upstream call while holding one of the upstream permits
+     */
+    public <T> T callUpstream(Callable<T> call) throws Exception {
+        upstreamPermits.acquire();
+        try {
+            return call.call();
+        } finally {
+            upstreamPermits.release();
+        }
+    }
+    
+    /**
+     * Take an upstream permit without blocking the caller; once the returned
+     * future completes the permit is held until releaseUpstream()
+     */
+    public CompletableFuture<Void> acquireUpstream() {
+        if (upstreamPermits.tryAcquire()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(() -> {
+            upstreamPermits.acquire();
+            return null;
+        });
+    }
+    
+    public void releaseUpstream() {
+        upstreamPermits.release();
+    }
+    
+    public int getUpstreamInFlight() {
+        return maxUpstreamCalls - upstreamPermits.availablePermits();
+    }
+    
+    public int getUpstreamWaiting() {
+        return upstreamPermits.getQueueLength();
+    }
+    
+    @Override
+    public void close() {
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() looked up at runtime so the
+     * project still compiles with --release 17
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
\ No newline at end of file
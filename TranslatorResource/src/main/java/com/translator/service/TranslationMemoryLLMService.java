@@ -0,0 +1,132 @@
+package com.translator.service;
+
+import com.translator.memory.TranslationMemory;
+import com.translator.model.TranslationResult;
+import com.translator.util.Futures;
+import com.translator.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Answers from the on-disk translation memory before calling the LLM, and
+ * records every new translation there, so they survive redeploys and are
+ * shared with the other webapps on the host. Sits below the in-memory cache.
+ */
+public class TranslationMemoryLLMService extends ForwardingLLMService {
+    
+    private final TranslationMemory memory;
+    
+    public TranslationMemoryLLMService(LLMService delegate, TranslationMemory memory) {
+        super(delegate);
+        this.memory = memory;
+    }
+    
+    @Override
+    public TranslationResult translateDetailed(String englishText) throws Exception {
+        String key = TextNormalizer.normalize(englishText);
+        String stored = key.isEmpty() ? null : memory.get(key);
+        if (stored != null) {
+            return new TranslationResult(stored, true, TranslationResult.ENGINE_MEMORY);
+        }
+        
+        TranslationResult result = delegate.translateDetailed(englishText);
+        remember(key, result);
+        return result;
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText) {
+        return translateDetailedAsync(englishText, null);
+    }
+    
+    @Override
+    public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+        String key = TextNormalizer.normalize(englishText);
+        String stored = key.isEmpty() ? null : memory.get(key);
+        if (stored != null) {
+            return CompletableFuture.completedFuture(new TranslationResult(stored, true, TranslationResult.ENGINE_MEMORY));
+        }
+        
+        CompletableFuture<TranslationResult> call = delegate.translateDetailedAsync(englishText, context);
+        return Futures.propagateCancel(call.thenApply(result -> {
+            remember(key, result);
+            return result;
+        }), call);
+    }
+    
+    @Override
+    public TranslationResult translateStream(String englishText, Consumer<String> onChunk) throws Exception {
+        String key = TextNormalizer.normalize(englishText);
+        String stored = key.isEmpty() ? null : memory.get(key);
+        if (stored != null) {
+            onChunk.accept(stored);
+            return new TranslationResult(stored, true, TranslationResult.ENGINE_MEMORY);
+        }
+        
+        TranslationResult result = delegate.translateStream(englishText, onChunk);
+        remember(key, result);
+        return result;
+    }
+    
+    /**
+     * Sends only the segments not in memory upstream and stores their translations in one write
+     */
+    @Override
+    public List<TranslationResult> translateBatch(List<String> segments) {
+        TranslationResult[] results = new TranslationResult[segments.size()];
+        List<Integer> missPositions = new ArrayList<>();
+        List<String> missTexts = new ArrayList<>();
+        
+        for (int i = 0; i < segments.size(); i++) {
+            String key = TextNormalizer.normalize(segments.get(i));
+            String stored = key.isEmpty() ? null : memory.get(key);
+            if (stored != null) {
+                results[i] = new TranslationResult(stored, true, TranslationResult.ENGINE_MEMORY);
+            } else {
+                missPositions.add(i);
+                missTexts.add(segments.get(i));
+            }
+        }
+        
+        if (!missTexts.isEmpty()) {
+            List<TranslationResult> translated = delegate.translateBatch(missTexts);
+            Map<String, String> fresh = new LinkedHashMap<>();
+            for (int n = 0; n < translated.size(); n++) {
+                TranslationResult result = translated.get(n);
+                results[missPositions.get(n)] = result;
+                String key = TextNormalizer.normalize(missTexts.get(n));
+                if (result.isSuccess() && !result.isCached() && !key.isEmpty()) {
+                    fresh.put(key, result.getText());
+                }
+            }
+            memory.putAll(fresh);
+        }
+        
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Store a translation that came from the LLM; cached answers from further down are already stored
+     */
+    private void remember(String key, TranslationResult result) {
+        if (!key.isEmpty() && result.isSuccess() && !result.isCached()) {
+            memory.put(key, result.getText());
+        }
+    }
+    
+    public TranslationMemory getMemory() {
+        return memory;
+    }
+    
+    @Override
+    public void close() {
+        memory.close();
+        delegate.close();
+    }
+}
\ No newline at end of file
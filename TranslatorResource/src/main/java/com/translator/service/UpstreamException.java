@@ -0,0 +1,32 @@
+package com.translator.service;
+
+/**
+ * Gemini answered with an HTTP error status.
+ * Carries the status and, for 429/503, how long Gemini asked us to back off.
+ */
+public class UpstreamException extends Exception {
+    
+    private final int statusCode;
+    private final long retryAfterSeconds;
+    
+    public UpstreamException(String message, int statusCode, long retryAfterSeconds) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public int getStatusCode() {
+        return statusCode;
+    }
+    
+    /**
+     * Seconds to wait before retrying, or 0 when Gemini did not say
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+    
+    public boolean isRateLimited() {
+        return statusCode == 429;
+    }
+}
\ No newline at end of file
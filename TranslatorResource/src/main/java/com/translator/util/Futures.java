@@ -0,0 +1,40 @@
+package com.translator.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+public final class Futures {
+    
+    private Futures() {
+    }
+    
+    /**
+     * Strip the CompletionException / ExecutionException wrappers added by
+     * CompletableFuture so callers see the original failure
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+    
+    /**
+     * Cancel source when the stage derived from it is cancelled. A thenApply
+     * or handle stage completes on its own when cancelled and leaves the
+     * stage it depends on running.
+     * @return dependent, for chaining
+     */
+    public static <T> CompletableFuture<T> propagateCancel(CompletableFuture<T> dependent, Future<?> source) {
+        dependent.whenComplete((value, error) -> {
+            if (dependent.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return dependent;
+    }
+}
\ No newline at end of file
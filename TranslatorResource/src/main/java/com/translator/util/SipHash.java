@@ -0,0 +1,70 @@
+package com.translator.util;
+
+/**
+ * SipHash-2-4 with a 128-bit output: a fast keyed pseudo-random function
+ * for short inputs. Without the key, outputs cannot be predicted or made to
+ * collide, which makes it suitable for keying lookups on secret material.
+ */
+public final class SipHash {
+    
+    private SipHash() {
+    }
+    
+    /**
+     * Hash data under the 128-bit key (k0, k1) and write the two output words to out
+     */
+    public static void hash128(long k0, long k1, byte[] data, long[] out) {
+        long[] v = {
+            k0 ^ 0x736f6d6570736575L,
+            k1 ^ 0x646f72616e646f6dL ^ 0xeeL,
+            k0 ^ 0x6c7967656e657261L,
+            k1 ^ 0x7465646279746573L
+        };
+        
+        int length = data.length;
+        int end = length - (length & 7);
+        for (int i = 0; i < end; i += 8) {
+            compress(v, readLong(data, i, 8));
+        }
+        
+        // Last block: remaining bytes plus the message length in the top byte
+        compress(v, ((long) length << 56) | readLong(data, end, length - end));
+        
+        // Finalization, once per output word
+        v[2] ^= 0xeeL;
+        rounds(v, 4);
+        out[0] = v[0] ^ v[1] ^ v[2] ^ v[3];
+        
+        v[1] ^= 0xddL;
+        rounds(v, 4);
+        out[1] = v[0] ^ v[1] ^ v[2] ^ v[3];
+    }
+    
+    private static void compress(long[] v, long m) {
+        v[3] ^= m;
+        rounds(v, 2);
+        v[0] ^= m;
+    }
+    
+    private static void rounds(long[] v, int count) {
+        long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3];
+        for (int r = 0; r < count; r++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+    }
+    
+    /**
+     * Little-endian read of count (0..8) bytes
+     */
+    private static long readLong(byte[] data, int offset, int count) {
+        long value = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xffL);
+        }
+        return value;
+    }
+}
\ No newline at end of file
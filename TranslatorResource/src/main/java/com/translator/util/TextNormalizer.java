@@ -0,0 +1,77 @@
+package com.translator.util;
+
+import java.text.Normalizer;
+
+public final class TextNormalizer {
+    
+    private TextNormalizer() {
+    }
+    
+    /**
+     * Normalize text for use as a lookup key:
+     * Unicode NFC, trimmed, runs of whitespace collapsed to one space
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        
+        String nfc = Normalizer.isNormalized(text, Normalizer.Form.NFC)
+                ? text : Normalizer.normalize(text, Normalizer.Form.NFC);
+        
+        StringBuilder sb = new StringBuilder(nfc.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < nfc.length(); i++) {
+            char c = nfc.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Drop the whitespace that costs upstream tokens without changing what
+     * a text says: Unicode NFC, trimmed, runs of spaces and tabs collapsed
+     * to one space, no spaces around line breaks and at most one blank line
+     * between paragraphs. Unlike normalize, line breaks are kept.
+     */
+    public static String compactWhitespace(String text) {
+        if (text == null) {
+            return "";
+        }
+        
+        String nfc = Normalizer.isNormalized(text, Normalizer.Form.NFC)
+                ? text : Normalizer.normalize(text, Normalizer.Form.NFC);
+        
+        StringBuilder sb = new StringBuilder(nfc.length());
+        boolean pendingSpace = false;
+        int pendingLineBreaks = 0;
+        for (int i = 0; i < nfc.length(); i++) {
+            char c = nfc.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == nfc.length() || nfc.charAt(i + 1) != '\n'))) {
+                pendingLineBreaks++;
+            } else if (c == '\r' || Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = true;
+            } else {
+                if (sb.length() > 0) {
+                    if (pendingLineBreaks > 0) {
+                        sb.append(pendingLineBreaks > 1 ? "\n\n" : "\n");
+                    } else if (pendingSpace) {
+                        sb.append(' ');
+                    }
+                }
+                pendingSpace = false;
+                pendingLineBreaks = 0;
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.translator.util;
+
+public final class TokenEstimator {
+    
+    // Gemini tokenizers average roughly four characters per token for English
+    public static final int CHARS_PER_TOKEN = 4;
+    
+    private TokenEstimator() {
+    }
+    
+    /**
+     * Rough token count of a text, without calling the upstream tokenizer
+     */
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.translator.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearDuplicateIndexTest {
+    
+    private static final String[] WORDS = {
+            "the", "market", "opens", "early", "every", "morning", "near", "old", "city", "gate",
+            "bread", "tea", "mint", "sugar", "friend", "house", "street", "door", "window", "garden",
+            "bring", "small", "large", "blue", "green", "today", "tomorrow", "please", "quickly", "slowly"
+    };
+    
+    @Test
+    void bandLayoutMakesPairsAtTheThresholdCandidates() {
+        for (double threshold : new double[] {0.7, 0.8, 0.9, 0.95}) {
+            NearDuplicateIndex index = new NearDuplicateIndex(16, threshold, 20);
+            int bands = index.getBands();
+            int rows = index.getRows();
+            assertEquals(64, bands * rows);
+            
+            // Chance that a pair at exactly the threshold shares at least one band
+            double candidate = 1 - Math.pow(1 - Math.pow(threshold, rows), bands);
+            assertTrue(candidate >= 0.98, "threshold " + threshold + ": " + bands + "x" + rows);
+        }
+    }
+    
+    @Test
+    void findsPairsAtTheThreshold() {
+        for (double threshold : new double[] {0.8, 0.9}) {
+            Random random = new Random(42);
+            int pairs = 0;
+            int candidates = 0;
+            while (pairs < 200) {
+                String text = sentence(random, 40);
+                String variant = edit(random, text);
+                double jaccard = jaccard(text, variant);
+                if (jaccard < threshold || jaccard > threshold + 0.03) {
+                    continue;
+                }
+                pairs++;
+                
+                // The best candidate's similarity is recorded whenever the bands found one
+                NearDuplicateIndex index = new NearDuplicateIndex(16, threshold, 20);
+                index.put(text, "translation");
+                index.lookup(variant);
+                if (sum(index.getSimilarityHistogram()) > 0) {
+                    candidates++;
+                }
+            }
+            assertTrue(candidates >= 190, "threshold " + threshold + ": " + candidates + " of " + pairs);
+        }
+    }
+    
+    @Test
+    void textsDifferingOnlyInNumbersNeverMatch() {
+        NearDuplicateIndex index = new NearDuplicateIndex(16, 0.5, 20);
+        index.put("Please deliver 10 boxes of mint tea to the shop before Friday", "a");
+        index.put("The meeting is at 10 and 20 past in the main hall today", "b");
+        
+        assertEquals("a", index.lookup("Please deliver 10 boxes of mint tea to the shop before Friday!"));
+        assertNull(index.lookup("Please deliver 100 boxes of mint tea to the shop before Friday"));
+        assertNull(index.lookup("Please deliver 1 boxes of mint tea to the shop before Friday"));
+        assertNull(index.lookup("Please deliver ten boxes of mint tea to the shop before Friday"));
+        // The same digits grouped differently are different numbers
+        assertNull(index.lookup("The meeting is at 1020 past in the main hall today"));
+    }
+    
+    @Test
+    void clockEvictsEntriesNotMatchedSinceTheHandPassed() {
+        NearDuplicateIndex index = new NearDuplicateIndex(3, 0.9, 20);
+        String a = "The market opens early every morning";
+        String b = "Bring the green window to the garden";
+        String c = "My friend drinks mint tea with sugar";
+        String d = "The old city gate is near the street";
+        String e = "Close the blue door slowly tomorrow";
+        index.put(a, "a");
+        index.put(b, "b");
+        index.put(c, "c");
+        assertEquals("a", index.lookup(a));
+        
+        // The hand gives a a second chance and takes b
+        index.put(d, "d");
+        assertEquals(3, index.size());
+        assertEquals(1, index.getEvictions());
+        assertNull(index.lookup(b));
+        
+        // Then c, never matched; a survives again though its chance was used up
+        index.put(e, "e");
+        assertNull(index.lookup(c));
+        assertEquals("a", index.lookup(a));
+        assertEquals("d", index.lookup(d));
+        assertEquals("e", index.lookup(e));
+        assertEquals(2, index.getEvictions());
+    }
+    
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Replaces one to four words
+     */
+    private static String edit(Random random, String text) {
+        String[] words = text.split(" ");
+        int edits = 1 + random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            words[random.nextInt(words.length)] = WORDS[random.nextInt(WORDS.length)];
+        }
+        return String.join(" ", words);
+    }
+    
+    /**
+     * Exact Jaccard similarity of the 5-character shingles of the canonical texts
+     */
+    private static double jaccard(String a, String b) {
+        Set<String> first = shingles(a);
+        Set<String> second = shingles(b);
+        Set<String> union = new HashSet<>(first);
+        union.addAll(second);
+        first.retainAll(second);
+        return (double) first.size() / union.size();
+    }
+    
+    private static Set<String> shingles(String text) {
+        String canonical = NearDuplicateIndex.canonicalize(text);
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + 5 <= canonical.length(); i++) {
+            shingles.add(canonical.substring(i, i + 5));
+        }
+        return shingles;
+    }
+    
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.translator.document;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.model.TranslationResult;
+import com.translator.service.CachingLLMService;
+import com.translator.service.CoalescingLLMService;
+import com.translator.service.LLMService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentTranslatorTest {
+    
+    @Test
+    void cancellingTheDocumentCancelsUpstreamCalls() {
+        List<CompletableFuture<TranslationResult>> upstream = new CopyOnWriteArrayList<>();
+        LLMService gemini = new LLMService() {
+            @Override
+            public String translate(String englishText) {
+                throw new UnsupportedOperationException();
+            }
+            
+            @Override
+            public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+                CompletableFuture<TranslationResult> call = new CompletableFuture<>();
+                upstream.add(call);
+                return call;
+            }
+        };
+        Properties properties = new Properties();
+        properties.setProperty("document.passageTokens", "20");
+        properties.setProperty("document.contextTokens", "5");
+        properties.setProperty("document.parallelism", "2");
+        TranslatorConfig config = new TranslatorConfig(properties);
+        LLMService service = new CachingLLMService(new CoalescingLLMService(gemini), config);
+        DocumentTranslator translator = new DocumentTranslator(service, config);
+        
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= 10; i++) {
+            text.append("Stall ").append(i).append(" at the market opens early every morning near the old city gate. ");
+        }
+        CompletableFuture<TranslationResult> document = translator.translate(text.toString(), null);
+        assertEquals(2, upstream.size());
+        
+        document.cancel(true);
+        for (CompletableFuture<TranslationResult> call : upstream) {
+            assertTrue(call.isCancelled());
+        }
+        // Nothing more is sent once the document is cancelled
+        assertEquals(2, upstream.size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.translator.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.translator.config.TranslatorConfig;
+import com.translator.model.TranslationResult;
+import com.translator.ratelimit.RateLimiter;
+import com.translator.service.LLMService;
+import com.translator.service.UpstreamException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobManagerTest {
+    
+    private static final String UPLOAD = "\"one\"\n\"two\"\n\"three\"\n\"four\"\n";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void shutdownMidPackResumesFromTheCheckpoint() throws Exception {
+        CountDownLatch secondPack = new CountDownLatch(1);
+        AtomicInteger packs = new AtomicInteger();
+        JobManager first = manager(segments -> {
+            if (packs.incrementAndGet() == 1) {
+                return translated(segments);
+            }
+            secondPack.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                // Like the scheduler: the waiting segment fails, another one already went through
+                Thread.currentThread().interrupt();
+                return List.of(new TranslationResult("darija:" + segments.get(0), false),
+                        TranslationResult.failed(e));
+            }
+            throw new AssertionError();
+        });
+        Job job = first.submit("alice", stream(UPLOAD));
+        assertTrue(secondPack.await(5, TimeUnit.SECONDS));
+        first.close();
+        
+        Job stopped = first.get(job.getId());
+        assertEquals(Job.Status.RUNNING, stopped.getStatus());
+        assertEquals(2, stopped.getProcessed());
+        assertEquals(0, stopped.getFailed());
+        
+        JobManager second = manager(JobManagerTest::translated);
+        try {
+            Job resumed = awaitFinished(second, job.getId());
+            assertEquals(Job.Status.COMPLETED, resumed.getStatus());
+            assertEquals(4, resumed.getProcessed());
+            assertEquals(0, resumed.getFailed());
+            
+            List<JsonNode> lines = results(second, resumed);
+            assertEquals(4, lines.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, lines.get(i).path("index").asInt());
+                assertEquals("OK", lines.get(i).path("status").asText());
+            }
+        } finally {
+            second.close();
+        }
+    }
+    
+    @Test
+    void upstreamFailuresAreRetriedAndRefusedLinesWritten() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        JobManager manager = manager(segments -> {
+            List<TranslationResult> results = new ArrayList<>();
+            for (String segment : segments) {
+                if (segment.equals("two") && calls.incrementAndGet() == 1) {
+                    results.add(TranslationResult.failed(new UpstreamException("Gemini unavailable", 503, 0)));
+                } else if (segment.equals("four")) {
+                    results.add(TranslationResult.failed(new UpstreamException("Request rejected", 400, 0)));
+                } else {
+                    results.add(new TranslationResult("darija:" + segment, false));
+                }
+            }
+            return results;
+        });
+        try {
+            Job job = awaitFinished(manager, manager.submit("alice", stream(UPLOAD)).getId());
+            assertEquals(Job.Status.COMPLETED, job.getStatus());
+            assertEquals(1, job.getFailed());
+            assertEquals(2, calls.get());
+            
+            List<JsonNode> lines = results(manager, job);
+            assertEquals("darija:two", lines.get(1).path("translatedText").asText());
+            assertEquals("Request rejected", lines.get(3).path("error").asText());
+        } finally {
+            manager.close();
+        }
+    }
+    
+    private JobManager manager(Function<List<String>, List<TranslationResult>> batch) {
+        Properties properties = new Properties();
+        properties.setProperty("jobs.dir", directory.toString());
+        properties.setProperty("jobs.workers", "1");
+        properties.setProperty("jobs.packSize", "2");
+        LLMService service = new LLMService() {
+            @Override
+            public String translate(String englishText) {
+                throw new UnsupportedOperationException();
+            }
+            
+            @Override
+            public List<TranslationResult> translateBatch(List<String> segments) {
+                return batch.apply(segments);
+            }
+        };
+        JobManager manager = new JobManager(new TranslatorConfig(properties), service,
+                new RateLimiter(false, Map.of(), 0, 0, 0));
+        manager.start();
+        return manager;
+    }
+    
+    private static List<TranslationResult> translated(List<String> segments) {
+        List<TranslationResult> results = new ArrayList<>();
+        for (String segment : segments) {
+            results.add(new TranslationResult("darija:" + segment, false));
+        }
+        return results;
+    }
+    
+    private static Job awaitFinished(JobManager manager, String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!manager.get(id).isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return manager.get(id);
+    }
+    
+    private List<JsonNode> results(JobManager manager, Job job) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        try (InputStream in = manager.openResults(job)) {
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+    
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.translator.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslationMemoryTest {
+    
+    // Log header, then the first record: length, key length, value length, key, value, CRC32
+    private static final int FIRST_RECORD = 16;
+    private static final int RECORD_HEADER_SIZE = 12;
+    
+    // Keys of 5 bytes with this value make records of exactly 100 bytes
+    private static final String VALUE = "a".repeat(79);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void keepsEntriesAcrossReopen() throws IOException {
+        try (TranslationMemory memory = new TranslationMemory(directory, 1 << 20, 64)) {
+            memory.put("hello", "salam");
+            memory.put("thank you", "shukran");
+            assertEquals("salam", memory.get("hello"));
+        }
+        
+        try (TranslationMemory memory = new TranslationMemory(directory, 1 << 20, 64)) {
+            assertEquals("salam", memory.get("hello"));
+            assertEquals("shukran", memory.get("thank you"));
+            assertNull(memory.get("goodbye"));
+            assertEquals(2, memory.getEntryCount());
+        }
+    }
+    
+    @Test
+    void corruptRecordReadsAsMiss() throws IOException {
+        try (TranslationMemory memory = new TranslationMemory(directory, 1 << 20, 64)) {
+            memory.put("hello", "salam");
+        }
+        try (FileChannel log = FileChannel.open(directory.resolve("translations-1.log"), StandardOpenOption.WRITE)) {
+            // One byte of the value changed: the CRC no longer matches
+            log.write(ByteBuffer.wrap(new byte[] {'X'}), FIRST_RECORD + RECORD_HEADER_SIZE + "hello".length());
+        }
+        
+        try (TranslationMemory memory = new TranslationMemory(directory, 1 << 20, 64)) {
+            assertNull(memory.get("hello"));
+        }
+    }
+    
+    @Test
+    void truncatedRecordReadsAsMiss() throws IOException {
+        try (TranslationMemory memory = new TranslationMemory(directory, 1 << 20, 64)) {
+            memory.put("hello", "salam");
+        }
+        try (FileChannel log = FileChannel.open(directory.resolve("translations-1.log"), StandardOpenOption.WRITE)) {
+            log.truncate(FIRST_RECORD + RECORD_HEADER_SIZE + 2);
+        }
+        
+        try (TranslationMemory memory = new TranslationMemory(directory, 1 << 20, 64)) {
+            assertNull(memory.get("hello"));
+        }
+    }
+    
+    @Test
+    void compactionKeepsMostRecentlyUsedEntries() throws Exception {
+        AtomicLong clock = new AtomicLong(1_000);
+        // 17 records fit under 90% of 2000 bytes, the 18th starts a compaction down to 1400 bytes
+        try (TranslationMemory memory = new TranslationMemory(directory, 2_000, 1024, clock::get)) {
+            for (int i = 0; i < 10; i++) {
+                memory.put("old-" + i, VALUE);
+            }
+            clock.set(2_000);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(VALUE, memory.get("old-" + i));
+            }
+            for (int i = 0; i < 8; i++) {
+                memory.put("new-" + i, VALUE);
+            }
+            awaitCompaction(memory);
+            
+            // 13 records fit: the 8 new ones and the 5 read again
+            assertEquals(13, memory.getEntryCount());
+            for (int i = 0; i < 5; i++) {
+                assertEquals(VALUE, memory.get("old-" + i));
+            }
+            for (int i = 5; i < 10; i++) {
+                assertNull(memory.get("old-" + i));
+            }
+            for (int i = 0; i < 8; i++) {
+                assertEquals(VALUE, memory.get("new-" + i));
+            }
+        }
+    }
+    
+    @Test
+    void instancesOnOneDirectorySeeEachOthersWrites() throws Exception {
+        try (TranslationMemory first = new TranslationMemory(directory, 2_000, 1024);
+             TranslationMemory second = new TranslationMemory(directory, 2_000, 1024)) {
+            first.put("hello", "salam");
+            assertEquals("salam", second.get("hello"));
+            
+            // Filling the log through the first instance compacts it into a new generation
+            for (int i = 0; i < 18; i++) {
+                first.put("key-" + (char) ('a' + i), VALUE);
+            }
+            awaitCompaction(first);
+            
+            // The second instance moves to the new generation on its next call
+            assertEquals("salam", second.get("hello"));
+            second.put("thank you", "shukran");
+            assertEquals("shukran", first.get("thank you"));
+            assertEquals(first.getEntryCount(), second.getEntryCount());
+        }
+    }
+    
+    private static void awaitCompaction(TranslationMemory memory) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (memory.getCompactionCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(memory.getCompactionCount() > 0, "no compaction");
+    }
+}
\ No newline at end of file
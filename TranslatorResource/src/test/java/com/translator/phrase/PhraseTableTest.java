@@ -0,0 +1,77 @@
+package com.translator.phrase;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PhraseTableTest {
+    
+    private final PhraseTable table = PhraseTable.build(Map.of(
+            "thank you", "shukran",
+            "thank you very much", "shukran bzzaf",
+            "good morning", "sbah lkhir",
+            "don't worry", "ma tkhafsh"));
+    
+    @Test
+    void matchesWholePhrases() {
+        assertEquals("shukran", table.lookup("thank you"));
+        assertEquals("shukran bzzaf", table.lookup("thank you very much"));
+        assertEquals("sbah lkhir", table.lookup("good morning"));
+        assertEquals(4, table.size());
+    }
+    
+    @Test
+    void ignoresCasePunctuationAndSpacing() {
+        assertEquals("shukran", table.lookup("Thank you!"));
+        assertEquals("shukran", table.lookup("  THANK,   you. "));
+        assertEquals("sbah lkhir", table.lookup("Good morning :)"));
+        // Typographic apostrophes count as plain ones
+        assertEquals("ma tkhafsh", table.lookup("Don’t worry"));
+    }
+    
+    @Test
+    void prefixesAndLongerTextsDoNotMatch() {
+        assertNull(table.lookup("thank"));
+        assertNull(table.lookup("thank you very"));
+        assertNull(table.lookup("good"));
+        assertNull(table.lookup("thank you so much"));
+        assertNull(table.lookup("good morning everyone"));
+        assertNull(table.lookup("dont worry"));
+    }
+    
+    @Test
+    void blankTextDoesNotMatch() {
+        assertNull(table.lookup(""));
+        assertNull(table.lookup("  ?! "));
+    }
+    
+    @Test
+    void emptyTableMatchesNothing() {
+        assertEquals(0, PhraseTable.empty().size());
+        assertNull(PhraseTable.empty().lookup("thank you"));
+        assertNull(PhraseTable.empty().lookup(""));
+        assertNull(PhraseTable.build(Map.of("?!", "ignored")).lookup("?!"));
+    }
+    
+    @Test
+    void lastTranslationWinsForPhrasesThatNormalizeAlike() {
+        Map<String, String> phrases = new LinkedHashMap<>();
+        phrases.put("Hello", "salam");
+        phrases.put("hello!", "ahlan");
+        PhraseTable table = PhraseTable.build(phrases);
+        
+        assertEquals(1, table.size());
+        assertEquals("ahlan", table.lookup("HELLO"));
+    }
+    
+    @Test
+    void tokenizeLowercasesAndSplitsOnPunctuation() {
+        assertEquals(List.of("it's", "3", "o'clock"), PhraseTable.tokenize("It’s 3 O'Clock!"));
+        assertEquals(List.of(), PhraseTable.tokenize(" ... "));
+    }
+}
\ No newline at end of file
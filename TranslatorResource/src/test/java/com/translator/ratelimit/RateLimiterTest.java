@@ -0,0 +1,125 @@
+package com.translator.ratelimit;
+
+import jakarta.ws.rs.core.SecurityContext;
+import org.junit.jupiter.api.Test;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimiterTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    void throttleHalvesGlobalRateOncePerCooldown() {
+        RateLimiter limiter = new RateLimiter(true, Map.of(), 50, 100, 1);
+        long now = System.nanoTime();
+        
+        limiter.onUpstreamThrottled(0, now);
+        assertEquals(25, limiter.getGlobalRate(), 0.01);
+        
+        // A burst of 429s for the same overload counts once
+        limiter.onUpstreamThrottled(0, now + SECOND / 10);
+        limiter.onUpstreamThrottled(0, now + SECOND / 2);
+        assertEquals(25, limiter.getGlobalRate(), 0.01);
+        assertEquals(3, limiter.getUpstreamThrottles());
+        
+        limiter.onUpstreamThrottled(0, now + SECOND);
+        assertEquals(12.5, limiter.getGlobalRate(), 0.01);
+    }
+    
+    @Test
+    void throttleNeverGoesBelowMinimumRate() {
+        RateLimiter limiter = new RateLimiter(true, Map.of(), 8, 16, 3);
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.onUpstreamThrottled(0, now + i * SECOND);
+        }
+        assertEquals(3, limiter.getGlobalRate(), 0.01);
+    }
+    
+    @Test
+    void successRecoversAdditively() {
+        RateLimiter limiter = new RateLimiter(true, Map.of(), 50, 100, 1);
+        limiter.onUpstreamThrottled(0, System.nanoTime());
+        
+        limiter.onUpstreamSuccess();
+        assertEquals(25.5, limiter.getGlobalRate(), 0.01);
+        for (int i = 0; i < 100; i++) {
+            limiter.onUpstreamSuccess();
+        }
+        assertEquals(50, limiter.getGlobalRate(), 0.01);
+    }
+    
+    @Test
+    void throttleWithRetryAfterPausesGlobalBucket() {
+        RateLimiter limiter = new RateLimiter(true, Map.of(), 50, 100, 1);
+        long now = System.nanoTime();
+        limiter.onUpstreamThrottled(2, now);
+        
+        // Held for the whole delay, even though the rate was halved at the same time
+        assertEquals(2 * SECOND, limiter.tryAcquireGlobal(now));
+        assertEquals(0, limiter.tryAcquireGlobal(now + 2 * SECOND));
+    }
+    
+    @Test
+    void releasedUserPermitCanBeTakenAgain() {
+        RateLimiter limiter = new RateLimiter(true, Map.of("USER", new RateLimitPolicy(60, 1)), 10, 10, 1);
+        SecurityContext user = userInRole("USER");
+        long now = System.nanoTime();
+        
+        assertEquals(0, limiter.tryAcquireUser("alice", user, now));
+        assertEquals(SECOND, limiter.tryAcquireUser("alice", user, now));
+        
+        limiter.releaseUser("alice");
+        assertEquals(0, limiter.tryAcquireUser("alice", user, now));
+        // Unknown and unlimited users have nothing to give back
+        limiter.releaseUser("bob");
+    }
+    
+    @Test
+    void backgroundLeavesReserveOfGlobalBurst() {
+        // Burst 10, half of it reserved for interactive requests
+        RateLimiter limiter = new RateLimiter(true, Map.of(), 10, 10, 1, 0.5);
+        long now = System.nanoTime();
+        
+        int background = 0;
+        while (limiter.tryAcquireBackground(now) == 0) {
+            background++;
+        }
+        assertEquals(5, background);
+        
+        int interactive = 0;
+        while (limiter.tryAcquireGlobal(now) == 0) {
+            interactive++;
+        }
+        assertEquals(5, interactive);
+    }
+    
+    private static SecurityContext userInRole(String role) {
+        return new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return null;
+            }
+            
+            @Override
+            public boolean isUserInRole(String name) {
+                return role.equals(name);
+            }
+            
+            @Override
+            public boolean isSecure() {
+                return false;
+            }
+            
+            @Override
+            public String getAuthenticationScheme() {
+                return null;
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.translator.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times are given explicitly, from a base taken after construction, when
+ * the bucket is already full
+ */
+class TokenBucketTest {
+    
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    @Test
+    void grantsBurstThenRefusesWithWaitForNextPermit() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+        
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(INTERVAL, bucket.tryAcquire(now));
+        // A refusal consumes nothing
+        assertEquals(INTERVAL, bucket.tryAcquire(now));
+        assertEquals(INTERVAL / 2, bucket.tryAcquire(now + INTERVAL / 2));
+    }
+    
+    @Test
+    void releaseGivesBackOnePermitButNeverBeyondTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = System.nanoTime();
+        bucket.tryAcquire(now);
+        bucket.tryAcquire(now);
+        
+        bucket.release();
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(INTERVAL, bucket.tryAcquire(now));
+        
+        // Released into a full bucket: still only the burst is available
+        long later = now + 10 * INTERVAL;
+        bucket.release();
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(INTERVAL, bucket.tryAcquire(later));
+    }
+    
+    @Test
+    void refillsOnePermitPerInterval() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(now);
+        }
+        
+        assertEquals(0, bucket.tryAcquire(now + INTERVAL));
+        assertEquals(INTERVAL, bucket.tryAcquire(now + INTERVAL));
+        
+        // Idle time refills up to the burst, never beyond
+        long later = now + 10 * INTERVAL;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(later));
+    }
+    
+    @Test
+    void pauseRefusesUntilDeadline() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+        long pause = TimeUnit.MILLISECONDS.toNanos(500);
+        bucket.pause(now, pause);
+        
+        assertEquals(pause, bucket.tryAcquire(now));
+        assertEquals(1, bucket.tryAcquire(now + pause - 1));
+        assertEquals(0, bucket.tryAcquire(now + pause));
+        // One permit right after the pause, then the normal rate
+        assertEquals(INTERVAL, bucket.tryAcquire(now + pause));
+    }
+    
+    @Test
+    void pauseNeverShortensAnEarlierOne() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+        long pause = TimeUnit.MILLISECONDS.toNanos(500);
+        bucket.pause(now, pause);
+        bucket.pause(now, pause / 5);
+        
+        assertEquals(pause, bucket.tryAcquire(now));
+    }
+    
+    @Test
+    void keepFreeLeavesReserveForOtherCallers() {
+        TokenBucket bucket = new TokenBucket(10, 4);
+        long now = System.nanoTime();
+        
+        assertEquals(0, bucket.tryAcquire(now, 2));
+        assertEquals(0, bucket.tryAcquire(now, 2));
+        assertEquals(INTERVAL, bucket.tryAcquire(now, 2));
+        
+        // The reserve is still there for callers without one
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(INTERVAL, bucket.tryAcquire(now));
+    }
+    
+    @Test
+    void keepFreeStillAllowsOnePermitWhenReserveCoversTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = System.nanoTime();
+        
+        assertEquals(0, bucket.tryAcquire(now, 5));
+        assertEquals(INTERVAL, bucket.tryAcquire(now, 5));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.translator.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * One slot, held by a first call while the others queue; releasing a
+ * permit grants the next one on the same thread, so the order is exact
+ */
+class FairSchedulerTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    private final List<String> order = new ArrayList<>();
+    private final ArrayDeque<FairScheduler.Permit> granted = new ArrayDeque<>();
+    
+    @Test
+    void backloggedClassesShareSlotsByWeight() {
+        FairScheduler scheduler = new FairScheduler(1, 100,
+                Map.of(TrafficClass.INTERACTIVE, 3, TrafficClass.BATCH, 1), SECOND);
+        FairScheduler.Permit first = scheduler.acquire(new CallContext(TrafficClass.BATCH, "x"), 100).join();
+        
+        for (int i = 0; i < 40; i++) {
+            track(scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "i" + i), 100), "interactive");
+            track(scheduler.acquire(new CallContext(TrafficClass.BATCH, "b" + i), 100), "batch");
+        }
+        first.release();
+        for (int i = 0; i < 39; i++) {
+            granted.poll().release();
+        }
+        
+        long interactive = order.subList(0, 40).stream().filter("interactive"::equals).count();
+        assertTrue(interactive >= 29 && interactive <= 31, interactive + " of 40");
+    }
+    
+    @Test
+    void usersOfOneClassTakeTurns() {
+        FairScheduler scheduler = new FairScheduler(1, 100, Map.of(), SECOND);
+        FairScheduler.Permit first = scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "x"), 1).join();
+        
+        // One user's burst queues before the other's first call
+        for (int i = 0; i < 3; i++) {
+            track(scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "alice"), 1), "alice");
+        }
+        for (int i = 0; i < 3; i++) {
+            track(scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "bob"), 1), "bob");
+        }
+        first.release();
+        while (!granted.isEmpty()) {
+            granted.poll().release();
+        }
+        
+        assertEquals(List.of("alice", "bob", "alice", "bob", "alice", "bob"), order);
+    }
+    
+    @Test
+    void rejectsCallThatCannotFinishBeforeItsDeadline() {
+        FairScheduler scheduler = new FairScheduler(1, 100, Map.of(), SECOND);
+        scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "x"), 1).join();
+        CallContext context = new CallContext(TrafficClass.INTERACTIVE, "alice");
+        
+        // One call ahead of nobody: 1 s of waiting plus 1 s of service
+        assertRejected(scheduler.acquire(context.withTimeout(SECOND / 2), 1), 1);
+        CompletableFuture<FairScheduler.Permit> admitted = scheduler.acquire(context.withTimeout(10 * SECOND), 1);
+        assertFalse(admitted.isDone());
+        // Behind the admitted one: 2 s of waiting plus 1 s of service
+        assertRejected(scheduler.acquire(context.withTimeout(5 * SECOND / 2), 1), 2);
+        
+        FairScheduler.ClassStats stats = scheduler.getStats(TrafficClass.INTERACTIVE);
+        assertEquals(2, stats.getRejected());
+        assertEquals(1, stats.getQueued());
+    }
+    
+    @Test
+    void cancelledTicketHandsItsSlotToTheNext() {
+        FairScheduler scheduler = new FairScheduler(1, 100, Map.of(), SECOND);
+        FairScheduler.Permit first = scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "x"), 1).join();
+        CompletableFuture<FairScheduler.Permit> cancelled = scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "alice"), 1);
+        CompletableFuture<FairScheduler.Permit> next = scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "bob"), 1);
+        
+        cancelled.cancel(true);
+        first.release();
+        assertTrue(next.isDone() && !next.isCompletedExceptionally());
+        assertEquals(1, scheduler.getInFlight());
+        
+        next.join().release();
+        assertEquals(0, scheduler.getInFlight());
+    }
+    
+    @Test
+    void expiredTicketHandsItsSlotToTheNext() throws Exception {
+        FairScheduler scheduler = new FairScheduler(1, 100, Map.of(), 1);
+        FairScheduler.Permit first = scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "x"), 1).join();
+        CompletableFuture<FairScheduler.Permit> expired = scheduler.acquire(
+                new CallContext(TrafficClass.INTERACTIVE, "alice").withTimeout(TimeUnit.MILLISECONDS.toNanos(20)), 1);
+        CompletableFuture<FairScheduler.Permit> next = scheduler.acquire(new CallContext(TrafficClass.INTERACTIVE, "bob"), 1);
+        assertFalse(expired.isDone());
+        
+        Thread.sleep(50);
+        first.release();
+        assertRejected(expired, 1);
+        assertTrue(next.isDone() && !next.isCompletedExceptionally());
+        assertEquals(1, scheduler.getInFlight());
+        assertEquals(1, scheduler.getStats(TrafficClass.INTERACTIVE).getExpired());
+    }
+    
+    private void track(CompletableFuture<FairScheduler.Permit> ticket, String name) {
+        ticket.thenAccept(permit -> {
+            order.add(name);
+            granted.add(permit);
+        });
+    }
+    
+    private static void assertRejected(CompletableFuture<FairScheduler.Permit> ticket, long retryAfterSeconds) {
+        ExecutionException e = assertThrows(ExecutionException.class, ticket::get);
+        AdmissionRejectedException rejected = assertInstanceOf(AdmissionRejectedException.class, e.getCause());
+        assertEquals(retryAfterSeconds, rejected.getRetryAfterSeconds());
+    }
+}
\ No newline at end of file
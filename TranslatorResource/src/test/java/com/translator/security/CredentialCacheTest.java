@@ -0,0 +1,77 @@
+package com.translator.security;
+
+import com.translator.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CredentialCacheTest {
+    
+    private final UserRepository users = UserRepository.getInstance();
+    private User user;
+    private String header;
+    private CredentialCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        // A user of its own per test, so changes to it do not leak into other tests
+        String username = "cache-test-" + System.nanoTime();
+        user = new User(username, PasswordEncoder.encode("secret"), Set.of("USER"));
+        users.addUser(user);
+        header = basic(username, "secret");
+        cache = new CredentialCache(users, 100, 60_000);
+    }
+    
+    @Test
+    void returnsStoredUser() {
+        assertNull(cache.lookup(header));
+        cache.store(header, user);
+        assertSame(user, cache.lookup(header));
+        assertEquals(1, cache.getHitCount());
+    }
+    
+    @Test
+    void otherHeaderMisses() {
+        cache.store(header, user);
+        assertNull(cache.lookup(basic(user.getUsername(), "wrong")));
+    }
+    
+    @Test
+    void rejectsHeaderAfterPasswordChange() {
+        cache.store(header, user);
+        user.setPassword(PasswordEncoder.encode("changed"));
+        assertNull(cache.lookup(header));
+        // The stale entry is dropped, not just skipped
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void rejectsHeaderOfDisabledUser() {
+        cache.store(header, user);
+        user.setEnabled(false);
+        assertNull(cache.lookup(header));
+        
+        // Enabling the user again does not revive the dropped entry
+        user.setEnabled(true);
+        assertNull(cache.lookup(header));
+    }
+    
+    @Test
+    void rejectsHeaderOfRemovedUser() {
+        User ghost = new User("cache-test-ghost-" + System.nanoTime(), PasswordEncoder.encode("secret"), Set.of("USER"));
+        String ghostHeader = basic(ghost.getUsername(), "secret");
+        cache.store(ghostHeader, ghost);
+        // Never added to the repository
+        assertNull(cache.lookup(ghostHeader));
+    }
+    
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.translator.security;
+
+import com.translator.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTest {
+    
+    private final TokenService tokens = new TokenService(secret((byte) 1), 900);
+    private final User user = new User("alice", "hash", Set.of("USER", "ADMIN"));
+    
+    @Test
+    void roundTripsUsernameAndRoles() {
+        User verified = tokens.verify(tokens.issue(user, inAMinute()));
+        
+        assertNotNull(verified);
+        assertEquals("alice", verified.getUsername());
+        assertEquals(Set.of("USER", "ADMIN"), verified.getRoles());
+        assertNull(verified.getPassword());
+    }
+    
+    @Test
+    void userWithoutRolesRoundTrips() {
+        User verified = tokens.verify(tokens.issue(new User("bob", "hash", Set.of()), inAMinute()));
+        
+        assertEquals("bob", verified.getUsername());
+        assertTrue(verified.getRoles().isEmpty());
+    }
+    
+    @Test
+    void expiredTokenIsRejected() {
+        long now = System.currentTimeMillis() / 1000;
+        assertNull(tokens.verify(tokens.issue(user, now)));
+        assertNull(tokens.verify(tokens.issue(user, now - 60)));
+    }
+    
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        TokenService other = new TokenService(secret((byte) 2), 900);
+        assertNull(tokens.verify(other.issue(user, inAMinute())));
+    }
+    
+    @Test
+    void tamperedPayloadIsRejected() {
+        String token = tokens.issue(user, inAMinute());
+        String signature = token.substring(token.indexOf('.') + 1);
+        // Same signature on a payload granting an extra role
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("alice:USER,ADMIN,OWNER:" + inAMinute()).getBytes(StandardCharsets.UTF_8));
+        
+        assertNull(tokens.verify(forged + "." + signature));
+    }
+    
+    @Test
+    void tamperedSignatureIsRejected() {
+        String token = tokens.issue(user, inAMinute());
+        // A character in the middle of the signature, whose bits all count
+        int at = token.indexOf('.') + 10;
+        String flipped = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+        
+        assertNull(tokens.verify(flipped));
+    }
+    
+    @Test
+    void truncatedOrMalformedTokensAreRejected() {
+        String token = tokens.issue(user, inAMinute());
+        
+        assertNull(tokens.verify(token.substring(0, token.length() - 4)));
+        assertNull(tokens.verify(token.substring(0, token.indexOf('.'))));
+        assertNull(tokens.verify(token.substring(0, token.indexOf('.') + 1)));
+        assertNull(tokens.verify(token.substring(token.indexOf('.'))));
+        assertNull(tokens.verify(""));
+        assertNull(tokens.verify("not a token"));
+        assertNull(tokens.verify("!!!.???"));
+    }
+    
+    @Test
+    void shortSecretIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenService(new byte[16], 900));
+    }
+    
+    private static long inAMinute() {
+        return System.currentTimeMillis() / 1000 + 60;
+    }
+    
+    private static byte[] secret(byte fill) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, fill);
+        return secret;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.translator.service;
+
+import com.translator.model.TranslationResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalescingLLMServiceTest {
+    
+    private final List<CompletableFuture<TranslationResult>> upstream = new CopyOnWriteArrayList<>();
+    private final CoalescingLLMService service = new CoalescingLLMService(new LLMService() {
+        @Override
+        public String translate(String englishText) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public CompletableFuture<TranslationResult> translateDetailedAsync(String englishText, String context) {
+            CompletableFuture<TranslationResult> call = new CompletableFuture<>();
+            upstream.add(call);
+            return call;
+        }
+    });
+    
+    @Test
+    void concurrentCallersShareOneUpstreamCall() {
+        CompletableFuture<TranslationResult> first = service.translateDetailedAsync("Hello");
+        CompletableFuture<TranslationResult> second = service.translateDetailedAsync("Hello");
+        assertEquals(1, upstream.size());
+        
+        upstream.get(0).complete(new TranslationResult("salam", false));
+        assertEquals("salam", first.join().getText());
+        assertEquals("salam", second.join().getText());
+        assertEquals(0, service.getInFlightCount());
+    }
+    
+    @Test
+    void oneCallerCancellingLeavesTheCallToTheOthers() {
+        CompletableFuture<TranslationResult> first = service.translateDetailedAsync("Hello");
+        CompletableFuture<TranslationResult> second = service.translateDetailedAsync("Hello");
+        
+        first.cancel(true);
+        assertFalse(upstream.get(0).isCancelled());
+        upstream.get(0).complete(new TranslationResult("salam", false));
+        assertEquals("salam", second.join().getText());
+    }
+    
+    @Test
+    void lastCallerCancellingCancelsTheUpstreamCall() {
+        CompletableFuture<TranslationResult> first = service.translateDetailedAsync("Hello");
+        CompletableFuture<TranslationResult> second = service.translateDetailedAsync("Hello");
+        
+        second.cancel(true);
+        first.cancel(true);
+        assertTrue(upstream.get(0).isCancelled());
+        assertEquals(0, service.getInFlightCount());
+        
+        // A later caller does not join the abandoned call
+        CompletableFuture<TranslationResult> third = service.translateDetailedAsync("Hello");
+        assertEquals(2, upstream.size());
+        upstream.get(1).complete(new TranslationResult("salam", false));
+        assertEquals("salam", third.join().getText());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.translator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.translator.config.TranslatorConfig;
+import com.translator.model.TokenUsage;
+import com.translator.model.TranslationResult;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Gemini answered by an interceptor: a batch call gets batchAnswer and
+ * spends 50 prompt / 5 output tokens, a single call gets "salam" and
+ * spends 10 / 2
+ */
+class GeminiAPIServiceTest {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private String batchAnswer;
+    private CountDownLatch held = new CountDownLatch(0);
+    private GeminiAPIService service;
+    
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+    
+    @Test
+    void packUsageGoesWithItsFirstSegment() {
+        service = service("[\"wakha\", \"shukran\"]");
+        List<TranslationResult> results = service.translateBatch(List.of("okay", "thank you"));
+        
+        assertEquals(1, batchCalls.get());
+        assertUsage(results.get(0).getUsage(), 1, 50, 5);
+        assertNull(results.get(1).getUsage());
+    }
+    
+    @Test
+    void packUsageSkipsSegmentsWithoutTranslation() {
+        service = service("[\"\", \"shukran\"]");
+        List<TranslationResult> results = service.translateBatch(List.of("okay", "thank you"));
+        
+        assertFalse(results.get(0).isSuccess());
+        assertNull(results.get(0).getUsage());
+        assertUsage(results.get(1).getUsage(), 1, 50, 5);
+    }
+    
+    @Test
+    void misalignedAnswerKeepsItsUsageThroughTheFallback() {
+        service = service("[\"wakha\"]");
+        List<TranslationResult> results = service.translateBatch(List.of("okay", "thank you"));
+        
+        assertEquals(1, batchCalls.get());
+        assertEquals(2, singleCalls.get());
+        assertTrue(results.get(0).isSuccess() && results.get(1).isSuccess());
+        // The wasted batch call plus the first segment's own call
+        assertUsage(results.get(0).getUsage(), 2, 60, 7);
+        assertUsage(results.get(1).getUsage(), 1, 10, 2);
+    }
+    
+    @Test
+    void asyncCallsWaitForAnUpstreamPermit() throws Exception {
+        held = new CountDownLatch(1);
+        TranslationExecutor executor = new TranslationExecutor(ExecutionMode.ASYNC, 4, 1);
+        service = service("[]", executor);
+        
+        CompletableFuture<TranslationResult> first = service.translateDetailedAsync("hello");
+        CompletableFuture<TranslationResult> second = service.translateDetailedAsync("hi");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleCalls.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        assertEquals(1, singleCalls.get());
+        assertEquals(1, executor.getUpstreamInFlight());
+        
+        held.countDown();
+        assertEquals("salam", first.get(5, TimeUnit.SECONDS).getText());
+        assertEquals("salam", second.get(5, TimeUnit.SECONDS).getText());
+        assertEquals(2, singleCalls.get());
+        assertEquals(0, executor.getUpstreamInFlight());
+    }
+    
+    private GeminiAPIService service(String batchAnswer) {
+        return service(batchAnswer, TranslationExecutor.create(new TranslatorConfig(new Properties())));
+    }
+    
+    private GeminiAPIService service(String batchAnswer, TranslationExecutor executor) {
+        this.batchAnswer = batchAnswer;
+        Properties properties = new Properties();
+        properties.setProperty("gemini.api.key", "test-key");
+        properties.setProperty("gemini.baseUrl", "http://gemini.test/");
+        properties.setProperty("gemini.warmup.enabled", "false");
+        TranslatorConfig config = new TranslatorConfig(properties);
+        return new GeminiAPIService(config, executor, List.of(this::answer));
+    }
+    
+    private Response answer(Interceptor.Chain chain) throws IOException {
+        Buffer request = new Buffer();
+        chain.request().body().writeTo(request);
+        boolean batch = request.readUtf8().contains("responseSchema");
+        (batch ? batchCalls : singleCalls).incrementAndGet();
+        try {
+            held.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        
+        ObjectNode body = MAPPER.createObjectNode();
+        body.putArray("candidates").addObject().putObject("content").putArray("parts").addObject()
+                .put("text", batch ? batchAnswer : "salam");
+        body.putObject("usageMetadata")
+                .put("promptTokenCount", batch ? 50 : 10)
+                .put("candidatesTokenCount", batch ? 5 : 2);
+        return new Response.Builder()
+                .request(chain.request())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(MAPPER.writeValueAsString(body), MediaType.get("application/json")))
+                .build();
+    }
+    
+    private static void assertUsage(TokenUsage usage, int calls, int promptTokens, int outputTokens) {
+        assertEquals(calls, usage.getCalls());
+        assertEquals(promptTokens, usage.getPromptTokens());
+        assertEquals(outputTokens, usage.getOutputTokens());
+        assertTrue(usage.isReported());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.translator.service;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.model.TranslationResult;
+import com.translator.resilience.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientLLMServiceTest {
+    
+    @Test
+    void batchesFailingUpstreamOpenTheCircuit() {
+        AtomicInteger calls = new AtomicInteger();
+        ResilientLLMService service = new ResilientLLMService(text -> {
+            calls.incrementAndGet();
+            throw new IOException("connection reset");
+        }, config(30));
+        
+        service.translateBatch(List.of("a", "b"));
+        service.translateBatch(List.of("c", "d"));
+        assertEquals(CircuitBreaker.State.OPEN, service.getCircuitBreaker().getState());
+        
+        // Refused without reaching the delegate
+        List<TranslationResult> refused = service.translateBatch(List.of("e"));
+        assertFalse(refused.get(0).isSuccess());
+        assertEquals(4, calls.get());
+    }
+    
+    @Test
+    void badInputDoesNotCountAgainstTheCircuit() {
+        ResilientLLMService service = new ResilientLLMService(text -> {
+            throw new IllegalArgumentException("Text to translate is required");
+        }, config(30));
+        
+        for (int i = 0; i < 5; i++) {
+            service.translateBatch(List.of("", ""));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, service.getCircuitBreaker().getState());
+    }
+    
+    @Test
+    void oneTranslatedSegmentMakesTheBatchASuccess() {
+        ResilientLLMService service = new ResilientLLMService(text -> {
+            if (text.equals("ok")) {
+                return "wakha";
+            }
+            throw new UpstreamException("Gemini unavailable", 503, 0);
+        }, config(30));
+        
+        for (int i = 0; i < 5; i++) {
+            service.translateBatch(List.of("ok", "down"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, service.getCircuitBreaker().getState());
+    }
+    
+    @Test
+    void halfOpenBatchHoldsItsProbeUntilItEnds() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ResilientLLMService service = new ResilientLLMService(text -> {
+            if (calls.incrementAndGet() <= 2) {
+                throw new IOException("connection reset");
+            }
+            entered.countDown();
+            release.await();
+            return "wakha";
+        }, config(0));
+        service.translateBatch(List.of("a"));
+        service.translateBatch(List.of("b"));
+        
+        // Open for 0 s: the next batch is the single half-open probe
+        CompletableFuture<List<TranslationResult>> probe = CompletableFuture.supplyAsync(
+                () -> service.translateBatch(List.of("c")));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertFalse(service.translateBatch(List.of("d")).get(0).isSuccess());
+        assertEquals(3, calls.get());
+        
+        release.countDown();
+        assertTrue(probe.get(5, TimeUnit.SECONDS).get(0).isSuccess());
+        assertEquals(CircuitBreaker.State.CLOSED, service.getCircuitBreaker().getState());
+    }
+    
+    @Test
+    void retriesOnlySegmentsThatFailedTransiently() {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        ResilientLLMService service = new ResilientLLMService(text -> {
+            int call = calls.computeIfAbsent(text, key -> new AtomicInteger()).incrementAndGet();
+            if (text.equals("bad")) {
+                throw new IllegalArgumentException("Text to translate is required");
+            }
+            if (text.equals("down") && call == 1) {
+                throw new UpstreamException("Gemini unavailable", 503, 0);
+            }
+            return "wakha";
+        }, retryConfig(3));
+        
+        List<TranslationResult> results = service.translateBatch(List.of("ok", "down", "bad"));
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertEquals(1, calls.get("ok").get());
+        assertEquals(2, calls.get("down").get());
+        assertEquals(1, calls.get("bad").get());
+        assertEquals(1, service.getRetryCount());
+    }
+    
+    @Test
+    void batchRetriesStopAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+        ResilientLLMService service = new ResilientLLMService(text -> {
+            calls.incrementAndGet();
+            throw new IOException("connection reset");
+        }, retryConfig(3));
+        
+        List<TranslationResult> results = service.translateBatch(List.of("a"));
+        assertFalse(results.get(0).isSuccess());
+        assertEquals(3, calls.get());
+    }
+    
+    /**
+     * No retries, and a breaker that opens after two failures of four
+     */
+    private static TranslatorConfig config(long openSeconds) {
+        Properties properties = new Properties();
+        properties.setProperty("retry.maxAttempts", "1");
+        properties.setProperty("circuit.windowSize", "4");
+        properties.setProperty("circuit.minimumCalls", "2");
+        properties.setProperty("circuit.failureRateThreshold", "0.5");
+        properties.setProperty("circuit.openSeconds", String.valueOf(openSeconds));
+        properties.setProperty("circuit.halfOpenCalls", "1");
+        return new TranslatorConfig(properties);
+    }
+    
+    /**
+     * Quick retries, and a breaker that stays closed
+     */
+    private static TranslatorConfig retryConfig(int maxAttempts) {
+        Properties properties = new Properties();
+        properties.setProperty("retry.maxAttempts", String.valueOf(maxAttempts));
+        properties.setProperty("retry.initialBackoffMillis", "1");
+        properties.setProperty("retry.maxBackoffMillis", "5");
+        return new TranslatorConfig(properties);
+    }
+}
\ No newline at end of file
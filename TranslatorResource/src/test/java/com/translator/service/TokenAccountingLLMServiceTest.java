@@ -0,0 +1,152 @@
+package com.translator.service;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.metrics.TokenUsageCounters;
+import com.translator.model.TokenUsage;
+import com.translator.model.TranslationResult;
+import com.translator.provider.LLMProvider;
+import com.translator.provider.ProviderEndpoint;
+import com.translator.provider.ProviderRegistry;
+import com.translator.ratelimit.UpstreamQuotaListener;
+import com.translator.util.TokenEstimator;
+import okhttp3.Interceptor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenAccountingLLMServiceTest {
+    
+    private final TokenUsageCounters counters = new TokenUsageCounters();
+    
+    @Test
+    void batchWithoutUsageIsChargedOneEstimate() {
+        TokenAccountingLLMService service = new TokenAccountingLLMService(batch(
+                new TranslationResult("wakha", false),
+                TranslationResult.failed("No translation returned for segment"),
+                new TranslationResult("shukran", false)), counters);
+        service.translateBatch(List.of("okay", "hello", "thank you"));
+        
+        TokenUsageCounters.Tokens total = counters.getTotal();
+        assertEquals(1, total.getCalls());
+        assertEquals(0, total.getReportedCalls());
+        assertEquals(TokenEstimator.estimate("okay") + TokenEstimator.estimate("thank you"), total.getPromptTokens());
+        assertEquals("okay".length() + "thank you".length(), total.getInputChars());
+    }
+    
+    @Test
+    void usageCarriedByAFailedSegmentIsCharged() {
+        TokenUsage usage = new TokenUsage(40, 50, 5, true);
+        TokenAccountingLLMService service = new TokenAccountingLLMService(batch(
+                TranslationResult.failed("No translation returned for segment").withAddedUsage(usage),
+                TranslationResult.failed("No translation returned for segment")), counters);
+        service.translateBatch(List.of("okay", "thank you"));
+        
+        TokenUsageCounters.Tokens total = counters.getTotal();
+        assertEquals(1, total.getCalls());
+        assertEquals(1, total.getReportedCalls());
+        assertEquals(50, total.getPromptTokens());
+        assertEquals(0, total.getInputChars());
+    }
+    
+    @Test
+    void combinedUsageCountsEachCall() {
+        TokenUsage usage = new TokenUsage(40, 50, 5, true).plus(new TokenUsage(8, 8, 2, false));
+        TokenAccountingLLMService service = new TokenAccountingLLMService(batch(
+                new TranslationResult("wakha", false).withAddedUsage(usage),
+                new TranslationResult("shukran", false)), counters);
+        service.translateBatch(List.of("okay", "thank you"));
+        
+        TokenUsageCounters.Tokens total = counters.getTotal();
+        assertEquals(2, total.getCalls());
+        assertEquals(1, total.getReportedCalls());
+        assertEquals(58, total.getPromptTokens());
+        assertEquals(7, total.getOutputTokens());
+    }
+    
+    @Test
+    void failoverKeepsTheUsageOfDroppedResults() {
+        // The first endpoint charges its call to a segment it failed, the second to one it failed again
+        AtomicInteger calls = new AtomicInteger();
+        LLMService upstream = new LLMService() {
+            @Override
+            public String translate(String englishText) {
+                throw new UnsupportedOperationException();
+            }
+            
+            @Override
+            public List<TranslationResult> translateBatch(List<String> segments) {
+                if (calls.incrementAndGet() == 1) {
+                    return List.of(
+                            TranslationResult.failed("No translation returned for segment")
+                                    .withAddedUsage(new TokenUsage(40, 50, 5, true)),
+                            new TranslationResult("salam", false),
+                            TranslationResult.failed("No translation returned for segment"));
+                }
+                return List.of(
+                        new TranslationResult("wakha", false),
+                        TranslationResult.failed("No translation returned for segment")
+                                .withAddedUsage(new TokenUsage(20, 20, 3, true)));
+            }
+        };
+        TokenAccountingLLMService service = new TokenAccountingLLMService(routing(upstream), counters);
+        List<TranslationResult> results = service.translateBatch(List.of("okay", "hello", "thank you"));
+        
+        assertEquals(2, calls.get());
+        assertTrue(results.get(0).isSuccess() && results.get(1).isSuccess());
+        TokenUsageCounters.Tokens total = counters.getTotal();
+        assertEquals(2, total.getCalls());
+        assertEquals(2, total.getReportedCalls());
+        assertEquals(70, total.getPromptTokens());
+        assertEquals(8, total.getOutputTokens());
+    }
+    
+    private static RoutingLLMService routing(LLMService upstream) {
+        LLMProvider provider = new LLMProvider() {
+            @Override
+            public String getName() {
+                return "fake";
+            }
+            
+            @Override
+            public LLMService create(ProviderEndpoint endpoint, TranslatorConfig config, TranslationExecutor executor,
+                                     List<Interceptor> interceptors) {
+                return upstream;
+            }
+        };
+        UpstreamQuotaListener listener = new UpstreamQuotaListener() {
+            @Override
+            public void onUpstreamThrottled(long retryAfterSeconds) {
+            }
+            
+            @Override
+            public void onUpstreamSuccess() {
+            }
+        };
+        return new RoutingLLMService(
+                List.of(new ProviderEndpoint("a", "fake", null, "key", null),
+                        new ProviderEndpoint("b", "fake", null, "key", null)),
+                new ProviderRegistry(Map.of("fake", provider)), new TranslatorConfig(new Properties()),
+                null, listener, new MetricsRegistry());
+    }
+    
+    private static LLMService batch(TranslationResult... results) {
+        return new LLMService() {
+            @Override
+            public String translate(String englishText) {
+                throw new UnsupportedOperationException();
+            }
+            
+            @Override
+            public List<TranslationResult> translateBatch(List<String> segments) {
+                return List.of(results);
+            }
+        };
+    }
+}
\ No newline at end of file
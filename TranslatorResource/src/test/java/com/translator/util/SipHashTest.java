@@ -0,0 +1,61 @@
+package com.translator.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Reference vectors of SipHash-2-4 with 128-bit output (vectors_sip128 of
+ * the reference implementation): key 00..0f, message 00..len-1
+ */
+class SipHashTest {
+    
+    private static final long K0 = 0x0706050403020100L;
+    private static final long K1 = 0x0f0e0d0c0b0a0908L;
+    
+    @Test
+    void matchesReferenceVectors() {
+        assertVector(0, "a3817f04ba25a8e66df67214c7550293");
+        assertVector(1, "da87c1d86b99af44347659119b22fc45");
+        assertVector(7, "a1f1ebbed8dbc153c0b84aa61ff08239");
+        assertVector(8, "3b62a9ba6258f5610f83e264f31497b4");
+        assertVector(15, "5493e99933b0a8117e08ec0f97cfc3d9");
+        assertVector(16, "6ee2a4ca67b054bbfd3315bf85230577");
+        assertVector(63, "5150d1772f50834a503e069a973fbd7c");
+    }
+    
+    @Test
+    void dependsOnTheKey() {
+        byte[] data = message(16);
+        long[] a = new long[2];
+        long[] b = new long[2];
+        SipHash.hash128(K0, K1, data, a);
+        SipHash.hash128(K0 ^ 1, K1, data, b);
+        assertFalse(a[0] == b[0] && a[1] == b[1]);
+    }
+    
+    private static void assertVector(int length, String expectedHex) {
+        long[] out = new long[2];
+        SipHash.hash128(K0, K1, message(length), out);
+        // The reference writes each output word little-endian
+        assertEquals(littleEndian(expectedHex.substring(0, 16)), out[0], "length " + length + ", first word");
+        assertEquals(littleEndian(expectedHex.substring(16)), out[1], "length " + length + ", second word");
+    }
+    
+    private static byte[] message(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+    
+    private static long littleEndian(String hex) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | Long.parseLong(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.translator.benchmarks;
+
+import com.translator.config.TranslatorConfig;
+import com.translator.filter.AuthenticationFilter;
+import com.translator.metrics.MetricsRegistry;
+import com.translator.model.User;
+import com.translator.security.PasswordEncoder;
+import com.translator.security.TokenService;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.Principal;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of AuthenticationFilter.filter for a repeat client: Basic
+ * credentials with the verified-credential cache on and off, and a bearer
+ * token. Also the password check alone in its previous form (new
+ * MessageDigest and array copies per call) and its current form.
+ *
+ *   java -jar target/benchmarks.jar AuthenticationFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+    
+    private static final String PASSWORD = "user123";
+    
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+    
+    private AuthenticationFilter filter;
+    private ContainerRequestContext request;
+    private ContainerRequestContext bearerRequest;
+    private String encodedPassword;
+    
+    @Setup
+    public void setUp() {
+        // The log writer thread prints a sample of the authenticated requests; keep the console quiet
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        
+        Properties properties = new Properties();
+        properties.setProperty("auth.cache.enabled", String.valueOf(cacheEnabled));
+        TokenService tokenService = new TokenService(new byte[32], 900);
+        filter = new AuthenticationFilter(new TranslatorConfig(properties), tokenService, new MetricsRegistry());
+        
+        String header = "Basic " + Base64.getEncoder()
+                .encodeToString(("user:" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+        request = requestContext("translator/translate", header);
+        
+        Set<String> roles = new HashSet<>();
+        roles.add("USER");
+        String token = tokenService.issue(new User("user", null, roles), System.currentTimeMillis() / 1000 + 3600);
+        bearerRequest = requestContext("translator/translate", "Bearer " + token);
+        encodedPassword = PasswordEncoder.encode(PASSWORD);
+    }
+    
+    @Benchmark
+    public SecurityContext filter() throws Exception {
+        filter.filter(request);
+        return request.getSecurityContext();
+    }
+    
+    @Benchmark
+    public SecurityContext filterBearer() throws Exception {
+        filter.filter(bearerRequest);
+        return bearerRequest.getSecurityContext();
+    }
+    
+    @Benchmark
+    public boolean passwordMatches() {
+        return PasswordEncoder.matches(PASSWORD, encodedPassword);
+    }
+    
+    @Benchmark
+    public boolean passwordMatchesPrevious() throws Exception {
+        return previousMatches(PASSWORD, encodedPassword);
+    }
+    
+    /**
+     * PasswordEncoder.matches as it was before digests were reused per thread
+     */
+    private static boolean previousMatches(String rawPassword, String encodedPassword) throws Exception {
+        byte[] combined = Base64.getDecoder().decode(encodedPassword);
+        byte[] salt = new byte[16];
+        byte[] storedHash = new byte[combined.length - 16];
+        System.arraycopy(combined, 0, salt, 0, 16);
+        System.arraycopy(combined, 16, storedHash, 0, storedHash.length);
+        
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update(salt);
+        byte[] computedHash = md.digest(rawPassword.getBytes(StandardCharsets.UTF_8));
+        return MessageDigest.isEqual(storedHash, computedHash);
+    }
+    
+    /**
+     * Minimal request context: a path, an Authorization header and a settable security context
+     */
+    private static ContainerRequestContext requestContext(String path, String authorization) {
+        UriInfo uriInfo = (UriInfo) Proxy.newProxyInstance(UriInfo.class.getClassLoader(),
+                new Class<?>[] {UriInfo.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getPath")) {
+                        return path;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        
+        SecurityContext[] securityContext = {new AnonymousSecurityContext()};
+        return (ContainerRequestContext) Proxy.newProxyInstance(ContainerRequestContext.class.getClassLoader(),
+                new Class<?>[] {ContainerRequestContext.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUriInfo":
+                            return uriInfo;
+                        case "getHeaderString":
+                            return HttpHeaders.AUTHORIZATION.equalsIgnoreCase((String) args[0]) ? authorization : null;
+                        case "getSecurityContext":
+                            return securityContext[0];
+                        case "setSecurityContext":
+                            securityContext[0] = (SecurityContext) args[0];
+                            return null;
+                        case "abortWith":
+                            throw new IllegalStateException("Request was rejected");
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+    
+    private static final class AnonymousSecurityContext implements SecurityContext {
+        @Override
+        public Principal getUserPrincipal() {
+            return null;
+        }
+        
+        @Override
+        public boolean isUserInRole(String role) {
+            return false;
+        }
+        
+        @Override
+        public boolean isSecure() {
+            return false;
+        }
+        
+        @Override
+        public String getAuthenticationScheme() {
+            return null;
+        }
+    }
+}
\ No newline at end of file
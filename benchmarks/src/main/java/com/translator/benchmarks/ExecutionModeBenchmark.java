@@ -0,0 +1,76 @@
+package com.translator.benchmarks;
+
+import com.translator.service.ExecutionMode;
+import com.translator.service.TranslationExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares platform-thread and virtual-thread execution of blocking
+ * translations at 1k and 10k concurrent requests.
+ *
+ * Each request runs on the shared TranslationExecutor and holds an upstream
+ * permit while it blocks, exactly like GeminiAPIService does around its
+ * OkHttp call; Gemini latency is simulated with a sleep.
+ *
+ * Run on Java 21 so the virtual mode is available:
+ *   java -cp target/benchmarks.jar com.translator.benchmarks.ExecutionModeBenchmark [latencyMs] [platformThreads]
+ */
+public class ExecutionModeBenchmark {
+    
+    private static final int[] CONCURRENCY = {1_000, 10_000};
+    
+    public static void main(String[] args) throws Exception {
+        long latencyMs = args.length > 0 ? Long.parseLong(args[0]) : 200;
+        int platformThreads = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        
+        System.out.printf("Simulated upstream latency %d ms, platform pool %d threads%n%n", latencyMs, platformThreads);
+        System.out.printf("%-9s %9s %10s %12s %9s %9s %12s%n",
+                "mode", "requests", "wall ms", "req/s", "p50 ms", "p99 ms", "peak threads");
+        
+        for (int concurrency : CONCURRENCY) {
+            for (ExecutionMode mode : new ExecutionMode[] {ExecutionMode.PLATFORM, ExecutionMode.VIRTUAL}) {
+                run(mode, concurrency, latencyMs, platformThreads);
+            }
+        }
+    }
+    
+    private static void run(ExecutionMode mode, int requests, long latencyMs, int platformThreads) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        
+        // Upstream permits are not the bottleneck here; the executor is what is compared
+        try (TranslationExecutor executor = new TranslationExecutor(mode, platformThreads, requests)) {
+            long[] latencies = new long[requests];
+            CountDownLatch done = new CountDownLatch(requests);
+            
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                final int request = i;
+                final long submitted = System.nanoTime();
+                executor.submit(() -> executor.callUpstream(() -> {
+                    Thread.sleep(latencyMs);
+                    return null;
+                })).whenComplete((result, error) -> {
+                    latencies[request] = System.nanoTime() - submitted;
+                    done.countDown();
+                });
+            }
+            done.await();
+            long wallNanos = System.nanoTime() - start;
+            
+            Arrays.sort(latencies);
+            System.out.printf("%-9s %9d %10d %12.0f %9d %9d %12d%n",
+                    executor.getMode(),
+                    requests,
+                    wallNanos / 1_000_000,
+                    requests / (wallNanos / 1e9),
+                    latencies[(int) (requests * 0.50)] / 1_000_000,
+                    latencies[(int) (requests * 0.99)] / 1_000_000,
+                    threads.getPeakThreadCount());
+        }
+    }
+}
\ No newline at end of file
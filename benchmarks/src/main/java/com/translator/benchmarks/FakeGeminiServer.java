@@ -0,0 +1,274 @@
+package com.translator.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for the Gemini API on OkHttp's MockWebServer, so load
+ * tests measure the service rather than Google's latency and quota.
+ *
+ * It answers generateContent with a translation of the prompt's English
+ * text (a JSON array of them for batch prompts) and streamGenerateContent
+ * with the same text split over several array elements, sent as separate
+ * chunks. Prompts are understood with or without systemInstruction, and
+ * usageMetadata counts a token per four characters of the request. Every answer waits for a latency drawn from the configured
+ * distribution, and a share of calls fails with 500 or 429 instead.
+ *
+ * Standalone, for pointing a deployed service at it with gemini.baseUrl:
+ *   java -cp target/benchmarks.jar com.translator.benchmarks.FakeGeminiServer --port=18090 --latency=lognormal:300,0.5
+ */
+public class FakeGeminiServer implements AutoCloseable {
+    
+    private static final String ENGLISH_TEXT = "English text: \"";
+    private static final String PASSAGE_TEXT = "\n\nText: ";
+    private static final String TRANSLATION_SUFFIX = "\"\n\nDarija translation:";
+    private static final String DARIJA_PREFIX = "ترجمة: ";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockWebServer server = new MockWebServer();
+    private final Latency latency;
+    private final double errorRate;
+    private final double throttleRate;
+    private final int streamChunks;
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    
+    /**
+     * @param latency time before the first byte of each answer
+     * @param errorRate share of calls answered with 500
+     * @param throttleRate share of calls answered with 429 and Retry-After: 1
+     * @param streamChunks array elements in a streamed answer, spread over one extra latency
+     */
+    public FakeGeminiServer(Latency latency, double errorRate, double throttleRate, int streamChunks) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.streamChunks = Math.max(1, streamChunks);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return answer(request);
+            }
+        });
+    }
+    
+    /**
+     * Options as given on the command line: --latency, --error-rate,
+     * --throttle-rate and --stream-chunks
+     */
+    public static FakeGeminiServer fromOptions(Map<String, String> options) {
+        return new FakeGeminiServer(
+                Latency.parse(options.getOrDefault("latency", "lognormal:300,0.5")),
+                Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                Double.parseDouble(options.getOrDefault("throttle-rate", "0")),
+                Integer.parseInt(options.getOrDefault("stream-chunks", "8")));
+    }
+    
+    public void start(int port) throws IOException {
+        server.start(port);
+    }
+    
+    /**
+     * The value for gemini.baseUrl
+     */
+    public String getBaseUrl() {
+        return server.url("/").toString();
+    }
+    
+    public int getRequestCount() {
+        return server.getRequestCount();
+    }
+    
+    public long getErrorCount() {
+        return errors.get();
+    }
+    
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+    
+    private MockResponse answer(RecordedRequest request) {
+        long delayMillis = latency.sampleMillis();
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < errorRate) {
+            errors.incrementAndGet();
+            return error(500, "INTERNAL", "Internal error encountered.")
+                    .setHeadersDelay(delayMillis, TimeUnit.MILLISECONDS);
+        }
+        if (roll < errorRate + throttleRate) {
+            throttled.incrementAndGet();
+            return error(429, "RESOURCE_EXHAUSTED", "Resource has been exhausted (e.g. check quota).")
+                    .setHeader("Retry-After", "1");
+        }
+        
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(request.getBody().inputStream());
+        } catch (IOException e) {
+            return error(400, "INVALID_ARGUMENT", "Invalid JSON payload received.");
+        }
+        String prompt = body.path("contents").path(0).path("parts").path(0).path("text").asText();
+        String instruction = body.path("systemInstruction").path("parts").path(0).path("text").asText(null);
+        boolean stringArray = body.path("generationConfig").has("responseSchema");
+        int promptChars = prompt.length() + (instruction != null ? instruction.length() : 0);
+        String path = request.getPath();
+        try {
+            if (path != null && path.contains(":streamGenerateContent")) {
+                return stream(translate(prompt, instruction != null), promptChars, delayMillis);
+            }
+            String answer = stringArray ? translateArray(prompt, instruction != null) : translate(prompt, instruction != null);
+            return new MockResponse()
+                    .setHeader("Content-Type", "application/json; charset=UTF-8")
+                    .setBody(objectMapper.writeValueAsString(candidate(answer, promptChars)))
+                    .setHeadersDelay(delayMillis, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            return error(500, "INTERNAL", e.getMessage());
+        }
+    }
+    
+    /**
+     * A JSON array with one translation per segment of a batch prompt: the
+     * whole user text under a systemInstruction, else the array ending the prompt
+     */
+    private String translateArray(String prompt, boolean instructed) throws IOException {
+        String array = instructed ? prompt : prompt.substring(prompt.lastIndexOf("\n\n[") + 2);
+        List<String> segments = objectMapper.readValue(array, new TypeReference<List<String>>() { });
+        ArrayNode translations = objectMapper.createArrayNode();
+        for (String segment : segments) {
+            translations.add(DARIJA_PREFIX + segment);
+        }
+        return objectMapper.writeValueAsString(translations);
+    }
+    
+    private static String translate(String prompt, boolean instructed) {
+        if (instructed) {
+            // A passage comes after its context
+            int passage = prompt.startsWith("Context: ") ? prompt.lastIndexOf(PASSAGE_TEXT) : -1;
+            return DARIJA_PREFIX + (passage >= 0 ? prompt.substring(passage + PASSAGE_TEXT.length()) : prompt);
+        }
+        int start = prompt.lastIndexOf(ENGLISH_TEXT);
+        int end = prompt.lastIndexOf(TRANSLATION_SUFFIX);
+        if (start < 0 || end < start) {
+            return DARIJA_PREFIX + prompt;
+        }
+        return DARIJA_PREFIX + prompt.substring(start + ENGLISH_TEXT.length(), end);
+    }
+    
+    /**
+     * The text over streamChunks array elements, written as chunks evenly
+     * spaced across one more sampled latency
+     */
+    private MockResponse stream(String text, int promptChars, long delayMillis) throws IOException {
+        int chunks = Math.min(streamChunks, Math.max(1, text.length()));
+        StringBuilder body = new StringBuilder("[");
+        int step = (text.length() + chunks - 1) / chunks;
+        for (int start = 0; start < text.length(); start += step) {
+            if (start > 0) {
+                body.append(",\r\n");
+            }
+            body.append(objectMapper.writeValueAsString(
+                    candidate(text.substring(start, Math.min(text.length(), start + step)), promptChars)));
+        }
+        body.append("]");
+        
+        String json = body.toString();
+        int bytesPerChunk = Math.max(1, json.getBytes(StandardCharsets.UTF_8).length / chunks);
+        long chunkDelay = Math.max(1, latency.sampleMillis() / chunks);
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json; charset=UTF-8")
+                .setChunkedBody(json, bytesPerChunk)
+                .throttleBody(bytesPerChunk, chunkDelay, TimeUnit.MILLISECONDS)
+                .setHeadersDelay(delayMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    private ObjectNode candidate(String text, int promptChars) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ObjectNode content = response.putArray("candidates").addObject()
+                .put("finishReason", "STOP")
+                .putObject("content");
+        content.putArray("parts").addObject().put("text", text);
+        content.put("role", "model");
+        response.putObject("usageMetadata")
+                .put("promptTokenCount", promptChars / 4)
+                .put("candidatesTokenCount", text.length() / 3)
+                .put("totalTokenCount", promptChars / 4 + text.length() / 3);
+        response.put("modelVersion", "fake-gemini");
+        return response;
+    }
+    
+    private MockResponse error(int code, String status, String message) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putObject("error").put("code", code).put("message", message).put("status", status);
+        return new MockResponse()
+                .setResponseCode(code)
+                .setHeader("Content-Type", "application/json; charset=UTF-8")
+                .setBody(body.toString());
+    }
+    
+    /**
+     * Upstream latency model:
+     *   none
+     *   fixed:MS
+     *   uniform:MIN-MAX
+     *   lognormal:MEDIAN,SIGMA   (median in ms; sigma 0.5 puts p99 near 3.2x the median)
+     */
+    public interface Latency {
+        
+        long sampleMillis();
+        
+        static Latency parse(String spec) {
+            String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":", 2);
+            switch (parts[0]) {
+                case "none":
+                    return () -> 0;
+                case "fixed": {
+                    long millis = Long.parseLong(parts[1]);
+                    return () -> millis;
+                }
+                case "uniform": {
+                    String[] range = parts[1].split("-");
+                    long min = Long.parseLong(range[0]);
+                    long max = Long.parseLong(range[1]);
+                    return () -> ThreadLocalRandom.current().nextLong(min, max + 1);
+                }
+                case "lognormal": {
+                    String[] shape = parts[1].split(",");
+                    double median = Double.parseDouble(shape[0]);
+                    double sigma = Double.parseDouble(shape[1]);
+                    return () -> Math.round(median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            }
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadGenerator.parseOptions(args);
+        FakeGeminiServer server = fromOptions(options);
+        server.start(Integer.parseInt(options.getOrDefault("port", "18090")));
+        System.out.println("Fake Gemini listening on " + server.getBaseUrl());
+        Thread.currentThread().join();
+    }
+}
\ No newline at end of file
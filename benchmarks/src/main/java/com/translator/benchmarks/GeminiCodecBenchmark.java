@@ -0,0 +1,141 @@
+package com.translator.benchmarks;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.translator.service.GeminiRequestBody;
+import com.translator.service.GeminiResponseParser;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a prompt into the bytes of a generateContent request and
+ * of pulling the translation out of a response, in their previous form
+ * (String.format and chained replace calls, then the whole body read into
+ * a String and a JsonNode tree) and their current form (GeminiRequestBody
+ * and GeminiResponseParser.readFirstPartText). Sampled, so the output has
+ * percentiles; the gc profiler adds the bytes allocated per call
+ * (gc.alloc.rate.norm).
+ *
+ *   java -jar target/benchmarks.jar GeminiCodecBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeminiCodecBenchmark {
+    
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    
+    // Characters of English text to translate
+    @Param({"80", "2000"})
+    public int textLength;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Buffer sink = new Buffer();
+    private String englishText;
+    private byte[] response;
+    
+    @Setup
+    public void setUp() throws Exception {
+        String sentence = "The \"quick\" brown fox\tjumps over the lazy dog.\n";
+        StringBuilder text = new StringBuilder(textLength);
+        while (text.length() < textLength) {
+            text.append(sentence);
+        }
+        englishText = text.substring(0, textLength);
+        
+        String darija = "الثعلب البني السريع كينقز على الكلب الكسول. ";
+        StringBuilder translation = new StringBuilder();
+        while (translation.length() < textLength) {
+            translation.append(darija);
+        }
+        // Shaped like a real answer: the text first, then metadata nobody reads
+        response = ("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":"
+                + objectMapper.writeValueAsString(translation.toString())
+                + "}],\"role\":\"model\"},\"finishReason\":\"STOP\",\"index\":0}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":" + textLength / 4 + ",\"candidatesTokenCount\":"
+                + textLength / 3 + ",\"totalTokenCount\":" + (textLength / 4 + textLength / 3)
+                + ",\"promptTokensDetails\":[{\"modality\":\"TEXT\",\"tokenCount\":" + textLength / 4 + "}],"
+                + "\"thoughtsTokenCount\":0},\"modelVersion\":\"gemini-2.5-flash\","
+                + "\"responseId\":\"bW9ja3Jlc3BvbnNlaWQ\"}").getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Benchmark
+    public long writeRequest() throws Exception {
+        String prompt = "Translate the following English text to Moroccan Arabic Darija (Moroccan dialect). " +
+            "Use Arabic script and maintain the natural, colloquial tone of Darija. " +
+            "Only return the translation, nothing else.\n\n" +
+            "English text: \"" + englishText + "\"\n\n" +
+            "Darija translation:";
+        return send(GeminiRequestBody.forPrompt(prompt));
+    }
+    
+    @Benchmark
+    public long writeRequestPrevious() throws Exception {
+        String prompt = String.format(
+            "Translate the following English text to Moroccan Arabic Darija (Moroccan dialect). " +
+            "Use Arabic script and maintain the natural, colloquial tone of Darija. " +
+            "Only return the translation, nothing else.\n\n" +
+            "English text: \"%s\"\n\n" +
+            "Darija translation:",
+            englishText
+        );
+        String json = String.format(
+            "{\"contents\":[{\"parts\":[{\"text\":\"%s\"}]}]}",
+            prompt.replace("\\", "\\\\")
+                  .replace("\"", "\\\"")
+                  .replace("\n", "\\n")
+                  .replace("\r", "\\r")
+                  .replace("\t", "\\t")
+        );
+        return send(RequestBody.create(json, JSON));
+    }
+    
+    @Benchmark
+    public String readResponse() throws Exception {
+        try (JsonParser parser = objectMapper.getFactory().createParser(new ByteArrayInputStream(response))) {
+            String text = parser.nextToken() == JsonToken.START_OBJECT
+                ? GeminiResponseParser.readFirstPartText(parser)
+                : null;
+            return text.trim();
+        }
+    }
+    
+    @Benchmark
+    public String readResponsePrevious() throws Exception {
+        // ResponseBody.string() decoded the whole body before parsing
+        String body = new String(response, StandardCharsets.UTF_8);
+        JsonNode root = objectMapper.readTree(body);
+        return root.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText().trim();
+    }
+    
+    /**
+     * Write the body the way OkHttp does, into a sink whose segments go back to the pool
+     */
+    private long send(RequestBody body) throws Exception {
+        body.writeTo(sink);
+        long size = sink.size();
+        sink.clear();
+        return size;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,452 @@
+package com.translator.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.ConnectionPool;
+import okhttp3.Credentials;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Closed-loop load test of the WAR in an embedded Tomcat, with Gemini
+ * replaced by FakeGeminiServer.
+ *
+ * Each of --users threads sends a request, waits for the whole response and
+ * sends the next one, for --warmup and then --duration seconds; only the
+ * second phase is recorded. A closed loop measures latency at a fixed
+ * concurrency, so a slower service also means fewer requests: compare
+ * throughput and percentiles between runs of the same options.
+ *
+ *   java -cp target/benchmarks.jar com.translator.benchmarks.LoadGenerator \
+ *       --scenario=translate --users=64 --duration=30 --latency=lognormal:300,0.5 --out=run.json
+ *
+ * Options (--name=value):
+ *   war            the WAR to deploy (../TranslatorResource/target/translator.war)
+ *   scenario       translate, stream or batch (translate)
+ *   users          concurrent clients (32)
+ *   warmup         seconds before recording (10)
+ *   duration       recorded seconds (30)
+ *   text-length    characters per text (120)
+ *   segments       texts per batch request (20)
+ *   hot-ratio      share of texts drawn from a set of 32 repeated ones, served from cache (0)
+ *   latency, error-rate, throttle-rate, stream-chunks   see FakeGeminiServer
+ *   out            write the summary as JSON to this file
+ *   baseline       compare with a previous --out file and exit with 2 on a regression
+ *   tolerance      allowed change against the baseline (0.10)
+ *
+ * Service settings are system properties: -Dratelimit.enabled=true and so
+ * on. The load generator itself turns off rate limiting, the warm-up calls
+ * and file logging unless they are set.
+ */
+public class LoadGenerator {
+    
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final String CONTEXT_PATH = "/translator";
+    private static final int HOT_TEXTS = 32;
+    private static final String[] WORDS = (
+            "the market opens early on saturday and bread is still warm my brother works near "
+            + "station where trains leave for city every hour we should visit grandmother before "
+            + "summer because she cooks couscous friday afternoon weather was cold yesterday but "
+            + "today sun shines over old medina children play football in narrow streets while "
+            + "shopkeepers sell spices carpets lamps tea glasses teacher asked students write letter "
+            + "about their favourite holiday doctor said rest drink water take medicine twice daily")
+            .split(" ");
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Held so the level set on it is not lost to garbage collection
+    private static final java.util.logging.Logger TOMCAT_LOG = java.util.logging.Logger.getLogger("org.apache");
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String scenario = options.getOrDefault("scenario", "translate");
+        int users = Integer.parseInt(options.getOrDefault("users", "32"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        File war = new File(options.getOrDefault("war", "../TranslatorResource/target/translator.war"));
+        if (!war.isFile()) {
+            throw new IllegalArgumentException("WAR not found: " + war.getAbsolutePath()
+                    + " (build it with: cd TranslatorResource && mvn package)");
+        }
+        
+        try (FakeGeminiServer gemini = FakeGeminiServer.fromOptions(options)) {
+            gemini.start(0);
+            setIfAbsent("gemini.baseUrl", gemini.getBaseUrl());
+            setIfAbsent("gemini.api.key", "load-test");
+            setIfAbsent("gemini.warmup.enabled", "false");
+            setIfAbsent("ratelimit.enabled", "false");
+            setIfAbsent("log.file.enabled", "false");
+            setIfAbsent("log.console", "false");
+            
+            Tomcat tomcat = startTomcat(war);
+            try {
+                String baseUrl = "http://127.0.0.1:" + tomcat.getConnector().getLocalPort() + CONTEXT_PATH + "/api/translator";
+                Workload workload = new Workload(scenario, baseUrl, options);
+                
+                System.out.printf("Scenario %s, %d users, fake Gemini latency %s, error rate %s, throttle rate %s%n",
+                        scenario, users, options.getOrDefault("latency", "lognormal:300,0.5"),
+                        options.getOrDefault("error-rate", "0"), options.getOrDefault("throttle-rate", "0"));
+                System.out.printf("Warming up for %d s...%n", warmupSeconds);
+                run(workload, users, warmupSeconds);
+                int upstreamBefore = gemini.getRequestCount();
+                
+                System.out.printf("Measuring for %d s...%n%n", durationSeconds);
+                Summary summary = run(workload, users, durationSeconds);
+                summary.upstreamCalls = gemini.getRequestCount() - upstreamBefore;
+                summary.print();
+                
+                if (options.containsKey("out")) {
+                    Files.writeString(Path.of(options.get("out")), MAPPER.writerWithDefaultPrettyPrinter()
+                            .writeValueAsString(summary.toJson(scenario, users)));
+                }
+                if (options.containsKey("baseline")) {
+                    double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.10"));
+                    JsonNode baseline = MAPPER.readTree(new File(options.get("baseline")));
+                    if (!summary.compare(baseline, tolerance)) {
+                        System.exit(2);
+                    }
+                }
+            } finally {
+                // The service's OkHttp threads outlive the context; no need for Tomcat to warn about them
+                TOMCAT_LOG.setLevel(Level.SEVERE);
+                tomcat.stop();
+                tomcat.destroy();
+            }
+        }
+    }
+    
+    /**
+     * --name=value arguments, with a bare --flag meaning true
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+    
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+    
+    private static Tomcat startTomcat(File war) throws Exception {
+        TOMCAT_LOG.setLevel(Level.WARNING);
+        
+        Path baseDir = Files.createTempDirectory("translator-tomcat");
+        // Where the WAR is expanded
+        Files.createDirectories(baseDir.resolve("webapps"));
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(0);
+        // No JSP engine here; index.jsp is not part of the API under test
+        tomcat.setAddDefaultWebXmlToWebapp(false);
+        tomcat.getConnector().setProperty("maxThreads", "400");
+        
+        Context context = tomcat.addWebapp(CONTEXT_PATH, war.getAbsolutePath());
+        // Jersey is also on this classpath; only the WAR's own copy may initialise the application
+        context.setContainerSciFilter("org\\.glassfish\\..*");
+        ((StandardJarScanner) context.getJarScanner()).setScanClassPath(false);
+        
+        tomcat.start();
+        return tomcat;
+    }
+    
+    private static Summary run(Workload workload, int users, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Recorder[] recorders = new Recorder[users];
+        CountDownLatch done = new CountDownLatch(users);
+        long start = System.nanoTime();
+        for (int i = 0; i < users; i++) {
+            Recorder recorder = new Recorder();
+            recorders[i] = recorder;
+            int user = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    long sequence = 0;
+                    while (System.nanoTime() < deadline) {
+                        workload.execute(user, sequence++, recorder);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-user-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        return new Summary(recorders, System.nanoTime() - start);
+    }
+    
+    /**
+     * One request of the chosen scenario per call, timed into the user's recorder
+     */
+    private static final class Workload {
+        
+        private final String scenario;
+        private final OkHttpClient client;
+        private final String url;
+        private final String credentials = Credentials.basic("user", "user123");
+        private final int textLength;
+        private final int segments;
+        private final double hotRatio;
+        
+        Workload(String scenario, String baseUrl, Map<String, String> options) {
+            this.scenario = scenario;
+            this.textLength = Integer.parseInt(options.getOrDefault("text-length", "120"));
+            this.segments = Integer.parseInt(options.getOrDefault("segments", "20"));
+            this.hotRatio = Double.parseDouble(options.getOrDefault("hot-ratio", "0"));
+            switch (scenario) {
+                case "translate":
+                    url = baseUrl + "/translate";
+                    break;
+                case "stream":
+                    url = baseUrl + "/translate/stream";
+                    break;
+                case "batch":
+                    url = baseUrl + "/translate/batch";
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown scenario: " + scenario);
+            }
+            
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(Integer.MAX_VALUE);
+            dispatcher.setMaxRequestsPerHost(Integer.MAX_VALUE);
+            this.client = new OkHttpClient.Builder()
+                    .dispatcher(dispatcher)
+                    .connectionPool(new ConnectionPool(1024, 5, TimeUnit.MINUTES))
+                    .readTimeout(2, TimeUnit.MINUTES)
+                    .build();
+        }
+        
+        void execute(int user, long sequence, Recorder recorder) {
+            Request request;
+            try {
+                request = new Request.Builder()
+                        .url(url)
+                        .header("Authorization", credentials)
+                        .header("Accept", scenario.equals("stream") ? "text/event-stream" : "application/json")
+                        .post(RequestBody.create(body(user, sequence), JSON))
+                        .build();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            
+            long start = System.nanoTime();
+            long firstByte = 0;
+            int status;
+            try (Response response = client.newCall(request).execute()) {
+                status = response.code();
+                BufferedSource source = response.body().source();
+                if (!source.exhausted()) {
+                    firstByte = System.nanoTime() - start;
+                }
+                // Drain the whole body; a streamed answer ends when the service closes it
+                Buffer sink = new Buffer();
+                while (source.read(sink, 8192) != -1) {
+                    sink.clear();
+                }
+            } catch (IOException e) {
+                status = 0;
+            }
+            recorder.record(System.nanoTime() - start, firstByte, status);
+        }
+        
+        private byte[] body(int user, long sequence) throws IOException {
+            ObjectNode body = MAPPER.createObjectNode();
+            if (scenario.equals("batch")) {
+                ArrayNode array = body.putArray("segments");
+                for (int i = 0; i < segments; i++) {
+                    array.add(text(user, sequence * segments + i));
+                }
+            } else {
+                body.put("text", text(user, sequence));
+            }
+            return MAPPER.writeValueAsBytes(body);
+        }
+        
+        /**
+         * A text no other request has sent, unless it is drawn from the hot
+         * set. The leading numbers keep the near-duplicate index from
+         * matching it to an earlier one.
+         */
+        private String text(int user, long sequence) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            StringBuilder text = new StringBuilder(textLength + 16);
+            Random words;
+            if (hotRatio > 0 && random.nextDouble() < hotRatio) {
+                int hot = random.nextInt(HOT_TEXTS);
+                text.append("Note ").append(hot).append(':');
+                words = new Random(hot);
+            } else {
+                text.append("Note ").append(user).append('.').append(sequence).append(':');
+                words = new Random(random.nextLong());
+            }
+            while (text.length() < textLength) {
+                text.append(' ').append(WORDS[words.nextInt(WORDS.length)]);
+            }
+            return text.append('.').toString();
+        }
+    }
+    
+    /**
+     * Latencies of one user thread, kept whole so percentiles are exact
+     */
+    private static final class Recorder {
+        
+        private long[] latencies = new long[1024];
+        private long[] firstBytes = new long[1024];
+        private int count;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        
+        void record(long latency, long firstByte, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+                firstBytes = Arrays.copyOf(firstBytes, count * 2);
+            }
+            latencies[count] = latency;
+            firstBytes[count] = firstByte;
+            count++;
+            statuses.merge(status, 1, Integer::sum);
+        }
+    }
+    
+    private static final class Summary {
+        
+        private final long requests;
+        private final long failed;
+        private final double seconds;
+        private final long[] latencies;
+        private final long[] firstBytes;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        private int upstreamCalls;
+        
+        Summary(Recorder[] recorders, long elapsedNanos) {
+            int total = 0;
+            for (Recorder recorder : recorders) {
+                total += recorder.count;
+            }
+            latencies = new long[total];
+            firstBytes = new long[total];
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                System.arraycopy(recorder.latencies, 0, latencies, offset, recorder.count);
+                System.arraycopy(recorder.firstBytes, 0, firstBytes, offset, recorder.count);
+                offset += recorder.count;
+                recorder.statuses.forEach((status, count) -> statuses.merge(status, count, Integer::sum));
+            }
+            Arrays.sort(latencies);
+            Arrays.sort(firstBytes);
+            requests = total;
+            failed = statuses.entrySet().stream()
+                    .filter(entry -> entry.getKey() < 200 || entry.getKey() >= 300)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            seconds = elapsedNanos / 1e9;
+        }
+        
+        double throughput() {
+            return requests / seconds;
+        }
+        
+        static double percentileMillis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+        }
+        
+        void print() {
+            System.out.printf("%10s %10s %10s %10s %10s %10s %10s%n",
+                    "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "upstream");
+            System.out.printf("%10d %10.1f %10.1f %10.1f %10.1f %10.1f %10d%n",
+                    requests, throughput(),
+                    percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                    percentileMillis(latencies, 0.999), percentileMillis(latencies, 1.0),
+                    upstreamCalls);
+            System.out.printf("first byte %21.1f %10.1f %10.1f%n",
+                    percentileMillis(firstBytes, 0.50), percentileMillis(firstBytes, 0.99),
+                    percentileMillis(firstBytes, 0.999));
+            System.out.println("statuses " + statuses + (failed > 0 ? " (" + failed + " failed, 0 = I/O error)" : ""));
+        }
+        
+        ObjectNode toJson(String scenario, int users) {
+            ObjectNode json = MAPPER.createObjectNode()
+                    .put("scenario", scenario)
+                    .put("users", users)
+                    .put("requests", requests)
+                    .put("failed", failed)
+                    .put("seconds", seconds)
+                    .put("throughput", throughput())
+                    .put("p50Ms", percentileMillis(latencies, 0.50))
+                    .put("p99Ms", percentileMillis(latencies, 0.99))
+                    .put("p999Ms", percentileMillis(latencies, 0.999))
+                    .put("maxMs", percentileMillis(latencies, 1.0))
+                    .put("firstByteP50Ms", percentileMillis(firstBytes, 0.50))
+                    .put("firstByteP99Ms", percentileMillis(firstBytes, 0.99))
+                    .put("upstreamCalls", upstreamCalls);
+            ObjectNode statusJson = json.putObject("statuses");
+            statuses.forEach((status, count) -> statusJson.put(String.valueOf(status), count));
+            return json;
+        }
+        
+        /**
+         * False when throughput fell or p50/p99 latency rose by more than the
+         * tolerance; p999 and max are printed but too noisy to gate on
+         */
+        boolean compare(JsonNode baseline, double tolerance) {
+            boolean ok = true;
+            System.out.printf("%nAgainst the baseline (tolerance %.0f%%):%n", tolerance * 100);
+            ok &= check("req/s", throughput(), baseline.path("throughput").asDouble(), tolerance, true);
+            ok &= check("p50 ms", percentileMillis(latencies, 0.50), baseline.path("p50Ms").asDouble(), tolerance, false);
+            ok &= check("p99 ms", percentileMillis(latencies, 0.99), baseline.path("p99Ms").asDouble(), tolerance, false);
+            System.out.printf("  %-8s %10.1f -> %10.1f%n", "p999 ms",
+                    baseline.path("p999Ms").asDouble(), percentileMillis(latencies, 0.999));
+            System.out.println(ok ? "No regression" : "REGRESSION");
+            return ok;
+        }
+        
+        private static boolean check(String name, double current, double previous, double tolerance, boolean higherIsBetter) {
+            double change = previous == 0 ? 0 : (current - previous) / previous;
+            boolean ok = higherIsBetter ? change >= -tolerance : change <= tolerance;
+            System.out.printf("  %-8s %10.1f -> %10.1f  %+6.1f%%%s%n", name, previous, current, change * 100, ok ? "" : "  <--");
+            return ok;
+        }
+    }
+}
\ No newline at end of file
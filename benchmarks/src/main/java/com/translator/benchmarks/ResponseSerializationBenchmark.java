@@ -0,0 +1,88 @@
+package com.translator.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.translator.model.TranslationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing a TranslationResponse body the way the entity providers
+ * do: JSON, Smile or CBOR, with every field or with the echoed request
+ * fields left out (Prefer: return=minimal).
+ *
+ *   java -jar target/benchmarks.jar ResponseSerializationBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+    
+    @Param({"json", "smile", "cbor"})
+    public String format;
+    
+    @Param({"false", "true"})
+    public boolean minimal;
+    
+    // Characters of English text translated
+    @Param({"80", "2000"})
+    public int textLength;
+    
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+    private ObjectWriter writer;
+    private TranslationResponse response;
+    
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper;
+        switch (format) {
+            case "smile":
+                mapper = new ObjectMapper(new SmileFactory());
+                break;
+            case "cbor":
+                mapper = new ObjectMapper(new CBORFactory());
+                break;
+            default:
+                mapper = new ObjectMapper();
+        }
+        writer = mapper.writerFor(TranslationResponse.class);
+        
+        StringBuilder english = new StringBuilder(textLength);
+        while (english.length() < textLength) {
+            english.append("The market opens early on Saturday and the bread is still warm. ");
+        }
+        StringBuilder darija = new StringBuilder(textLength);
+        while (darija.length() < textLength) {
+            darija.append("السوق كيتحل بكري نهار السبت والخبز باقي سخون. ");
+        }
+        response = new TranslationResponse(english.substring(0, textLength), darija.substring(0, textLength));
+        response.setEngine("gemini-2.5-flash");
+        if (minimal) {
+            response.omitEcho();
+        }
+    }
+    
+    @Benchmark
+    public int write() throws Exception {
+        out.reset();
+        writer.writeValue(out, response);
+        return out.size();
+    }
+}
\ No newline at end of file
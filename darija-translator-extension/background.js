@@ -1,14 +1,50 @@
 // Configuration
 const API_BASE_URL = 'http://localhost:8080/translator/api';
 const API_TRANSLATE_ENDPOINT = `${API_BASE_URL}/translator/translate`;
+const API_TOKEN_ENDPOINT = `${API_BASE_URL}/auth/token`;
 const API_USERNAME = 'user';
 const API_PASSWORD = 'user123';
 
+// Bearer token reused across requests until shortly before it expires
+let accessToken = null;
+let accessTokenExpiresAt = 0;
+
 // Create Basic Auth header
-function getAuthHeader() {
+function getBasicAuthHeader() {
   const credentials = btoa(`${API_USERNAME}:${API_PASSWORD}`);
   return `Basic ${credentials}`;
 }
+
+// Create Authorization header, exchanging Basic credentials for a token when needed
+async function getAuthHeader(forceRefresh = false) {
+  const now = Math.floor(Date.now() / 1000);
+  if (!forceRefresh && accessToken && accessTokenExpiresAt - 30 > now) {
+    return `Bearer ${accessToken}`;
+  }
+  
+  try {
+    const response = await fetch(API_TOKEN_ENDPOINT, {
+      method: 'POST',
+      headers: {
+        'Accept': 'application/json',
+        'Authorization': getBasicAuthHeader()
+      }
+    });
+    
+    if (response.ok) {
+      const token = await response.json();
+      accessToken = token.accessToken;
+      accessTokenExpiresAt = token.expiresAt;
+      return `Bearer ${accessToken}`;
+    }
+  } catch (error) {
+    console.error('Token request failed:', error);
+  }
+  
+  // Fall back to Basic Auth if no token could be obtained
+  accessToken = null;
+  return getBasicAuthHeader();
+}
 // Install event
 chrome.runtime.onInstalled.addListener(() => {
   console.log('Darija Translator extension installed');
@@ -81,16 +117,25 @@ async function handleTranslation(text) {
     
     const startTime = Date.now();
     
-    const response = await fetch(API_TRANSLATE_ENDPOINT, {
+    const sendRequest = async (authorization) => fetch(API_TRANSLATE_ENDPOINT, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
         'Accept': 'application/json',
-        'Authorization': getAuthHeader()
+        'Authorization': authorization
       },
       body: JSON.stringify({ text: text.trim() })
     });
     
+    let authorization = await getAuthHeader();
+    let response = await sendRequest(authorization);
+    
+    // The token expired or the service restarted: get a new one and retry once
+    if (response.status === 401 && authorization.startsWith('Bearer ')) {
+      authorization = await getAuthHeader(true);
+      response = await sendRequest(authorization);
+    }
+    
     const endTime = Date.now();
     const duration = endTime - startTime;
     
@@ -7,6 +7,12 @@
 define('API_BASE_URL', 'http://localhost:8080/translator/api');
 define('API_TRANSLATE_ENDPOINT', API_BASE_URL . '/translator/translate');
 define('API_HEALTH_ENDPOINT', API_BASE_URL . '/translator/health');
+define('API_TOKEN_ENDPOINT', API_BASE_URL . '/auth/token');
+
+// Bearer token cache shared by PHP requests, in a directory only this user can enter
+define('TOKEN_CACHE_DIR', sys_get_temp_dir() . '/darija-translator-'
+    . (function_exists('posix_geteuid') ? posix_geteuid() : getmyuid()));
+define('TOKEN_CACHE_FILE', TOKEN_CACHE_DIR . '/token.json');
 
 // Request timeout in seconds
 define('API_TIMEOUT', 60);
@@ -6,14 +6,80 @@ define('API_PASSWORD', 'user123');
 
 header('Content-Type: application/json');
 
+/**
+ * Create the token cache directory if needed; false when it exists but
+ * is not a private directory of ours (another user may have planted it)
+ */
+function tokenCacheDirIsPrivate() {
+    $previous = umask(0077);
+    if (!is_dir(TOKEN_CACHE_DIR)) {
+        @mkdir(TOKEN_CACHE_DIR, 0700);
+    }
+    umask($previous);
+    clearstatcache();
+    
+    if (is_link(TOKEN_CACHE_DIR) || !is_dir(TOKEN_CACHE_DIR) || (fileperms(TOKEN_CACHE_DIR) & 0077) !== 0) {
+        return false;
+    }
+    return !function_exists('posix_geteuid') || fileowner(TOKEN_CACHE_DIR) === posix_geteuid();
+}
+
+/**
+ * Get a bearer token, reusing the cached one until shortly before it expires
+ */
+function getAccessToken($forceRefresh = false) {
+    $cacheable = tokenCacheDirIsPrivate();
+    if ($cacheable && !$forceRefresh && is_readable(TOKEN_CACHE_FILE)) {
+        $cached = json_decode(file_get_contents(TOKEN_CACHE_FILE), true);
+        if (isset($cached['accessToken'], $cached['expiresAt']) && $cached['expiresAt'] - 30 > time()) {
+            return $cached['accessToken'];
+        }
+    }
+    
+    // Exchange Basic credentials for a new token
+    $ch = curl_init();
+    curl_setopt($ch, CURLOPT_URL, API_TOKEN_ENDPOINT);
+    curl_setopt($ch, CURLOPT_RETURNTRANSFER, true);
+    curl_setopt($ch, CURLOPT_TIMEOUT, API_TIMEOUT);
+    curl_setopt($ch, CURLOPT_POST, true);
+    curl_setopt($ch, CURLOPT_HTTPHEADER, [
+        'Accept: application/json',
+        'Authorization: Basic ' . base64_encode(API_USERNAME . ':' . API_PASSWORD)
+    ]);
+    
+    $response = curl_exec($ch);
+    $httpCode = curl_getinfo($ch, CURLINFO_HTTP_CODE);
+    
+    $token = json_decode($response, true);
+    if ($httpCode !== 200 || !isset($token['accessToken'])) {
+        return null;
+    }
+    
+    // Written 0600 from the start, then swapped in whole so readers never see half a token
+    if ($cacheable) {
+        $previous = umask(0077);
+        $temp = tempnam(TOKEN_CACHE_DIR, 'token');
+        if ($temp !== false) {
+            if (file_put_contents($temp, $response) === false || !rename($temp, TOKEN_CACHE_FILE)) {
+                @unlink($temp);
+            }
+        }
+        umask($previous);
+    }
+    return $token['accessToken'];
+}
+
 /**
  * Make HTTP request to translation service
  */
-function makeRequest($url, $method = 'GET', $data = null) {
+function makeRequest($url, $method = 'GET', $data = null, $retryOnUnauthorized = true) {
     $ch = curl_init();
     
-    // Add Basic Authentication
-    $credentials = base64_encode(API_USERNAME . ':' . API_PASSWORD);
+    // Prefer a bearer token; fall back to Basic Authentication if none can be obtained
+    $token = getAccessToken();
+    $authorization = $token !== null
+        ? 'Bearer ' . $token
+        : 'Basic ' . base64_encode(API_USERNAME . ':' . API_PASSWORD);
 
     curl_setopt($ch, CURLOPT_URL, $url);
     curl_setopt($ch, CURLOPT_RETURNTRANSFER, true);
@@ -21,7 +87,7 @@ function makeRequest($url, $method = 'GET', $data = null) {
     curl_setopt($ch, CURLOPT_HTTPHEADER, [
         'Content-Type: application/json',
         'Accept: application/json',
-        'Authorization: Basic ' . $credentials
+        'Authorization: ' . $authorization
     ]);
     
     if ($method === 'POST' && $data !== null) {
@@ -42,6 +108,12 @@ function makeRequest($url, $method = 'GET', $data = null) {
         ];
     }
     
+    // The cached token expired or the service restarted: get a new one and retry once
+    if ($httpCode === 401 && $token !== null && $retryOnUnauthorized) {
+        getAccessToken(true);
+        return makeRequest($url, $method, $data, false);
+    }
+    
     $decodedResponse = json_decode($response, true);
     
     if ($httpCode >= 200 && $httpCode < 300) {
@@ -0,0 +1,144 @@
+package com.translator.server;
+
+import com.translator.config.ApplicationConfig;
+import com.translator.config.TranslatorConfig;
+import com.translator.logging.Logger;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.CommonProperties;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.media.sse.SseFeature;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The service on an embedded Grizzly server, for running it without a
+ * servlet container:
+ *
+ *   java -jar target/translator-server.jar
+ *
+ * ApplicationConfig is used as is, but nothing is discovered: no annotation
+ * scanning by a container, no Jersey feature auto-discovery or
+ * META-INF/services lookups and no WADL. Jackson and SSE, which would
+ * otherwise be auto-discovered, are registered here. URLs are the same as
+ * with translator.war deployed to Tomcat, e.g.
+ * http://localhost:8080/translator/api/translator/translate.
+ *
+ * Like every other setting, these come from config.properties, system
+ * properties or the environment (SERVER_PORT...):
+ *   server.host                  0.0.0.0
+ *   server.port                  8080
+ *   server.contextPath           /translator
+ *   server.shutdownGraceSeconds  10, for requests in flight on SIGTERM
+ *
+ * Startup is faster still with an AppCDS archive of the classes loaded up to
+ * the first answer. --train starts the server, sends it a few requests and
+ * exits, which is when the JVM writes the archive:
+ *
+ *   java -XX:ArchiveClassesAtExit=translator-server.jsa -jar translator-server.jar --train
+ *   java -XX:SharedArchiveFile=translator-server.jsa -jar translator-server.jar
+ *
+ * The archive only matches the JDK and jar it was created with; the JVM
+ * ignores a stale one and starts without it.
+ */
+public class StandaloneServer {
+    
+    private static final Logger LOG = Logger.get(StandaloneServer.class);
+    
+    public static void main(String[] args) throws Exception {
+        boolean train = Arrays.asList(args).contains("--train");
+        TranslatorConfig config = TranslatorConfig.load();
+        URI baseUri = baseUri(config);
+        
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(baseUri, resourceConfig(), false);
+        int graceSeconds = config.getInt("server.shutdownGraceSeconds", 10);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.shutdown(graceSeconds, TimeUnit.SECONDS).get();
+            } catch (Exception e) {
+                server.shutdownNow();
+            }
+        }, "server-shutdown"));
+        server.start();
+        
+        LOG.info("Server started", "url", baseUri.resolve("api/").toString(), "startupMillis", millisSinceJvmStart());
+        
+        if (train) {
+            train(baseUri);
+            System.exit(0);
+        }
+        Thread.currentThread().join();
+    }
+    
+    /**
+     * ApplicationConfig with every provider it relies on registered explicitly
+     */
+    public static ResourceConfig resourceConfig() {
+        return ResourceConfig.forApplication(new ApplicationConfig())
+                .register(JacksonFeature.class)
+                .register(SseFeature.class)
+                .property(CommonProperties.FEATURE_AUTO_DISCOVERY_DISABLE, true)
+                .property(CommonProperties.METAINF_SERVICES_LOOKUP_DISABLE, true)
+                .property(ServerProperties.WADL_FEATURE_DISABLE, true);
+    }
+    
+    /**
+     * http://host:port/contextPath/; Jersey adds the @ApplicationPath of
+     * ApplicationConfig, /api, under it
+     */
+    static URI baseUri(TranslatorConfig config) {
+        String contextPath = config.get("server.contextPath", "/translator");
+        if (!contextPath.isEmpty() && !contextPath.startsWith("/")) {
+            contextPath = "/" + contextPath;
+        }
+        if (contextPath.endsWith("/")) {
+            contextPath = contextPath.substring(0, contextPath.length() - 1);
+        }
+        return URI.create("http://" + config.get("server.host", "0.0.0.0") + ":"
+                + config.getInt("server.port", 8080) + contextPath + "/");
+    }
+    
+    /**
+     * Requests covering what a first real one goes through: routing, the
+     * filters, JSON both ways and an error response
+     */
+    private static void train(URI baseUri) throws IOException {
+        URI local = URI.create("http://127.0.0.1:" + baseUri.getPort() + baseUri.getPath());
+        send(local.resolve("api/translator/health"), "GET", null);
+        send(local.resolve("api/translator/translate"), "POST", "{\"text\":\"Good morning\"}");
+        send(local.resolve("api/translator/me"), "GET", null);
+    }
+    
+    private static void send(URI uri, String method, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setRequestMethod(method);
+        if (json != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.getOutputStream().write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (body != null) {
+                body.readAllBytes();
+            }
+        }
+        LOG.info("Training request", "method", method, "path", uri.getPath(), "status", status);
+    }
+    
+    private static long millisSinceJvmStart() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.translator.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching translator-server.jar to its first answer, run by
+ * `mvn verify` so every build reports it.
+ *
+ * Each launch is a new JVM on a free port, polled with GET
+ * /translator/api/translator/health until it answers 200; the time includes
+ * JVM boot, Jersey initialization and the first request. The jar is launched
+ * --runs times as is, then an AppCDS archive is created with --train and it
+ * is launched --runs times with the archive.
+ *
+ * Options (--name=value):
+ *   jar          the server jar (target/translator-server.jar)
+ *   runs         launches per variant (3)
+ *   max-millis   fail when the median without archive is slower; 0 for no limit (0)
+ *   out          write the results as JSON to this file
+ *   timeout      seconds to wait for one launch (60)
+ *
+ * Launches get -Dgemini.warmup.enabled=false so no call leaves the machine,
+ * and keep their memory, jobs and logs under target/startup-probe.
+ */
+public class StartupProbe {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String HEALTH_PATH = "/translator/api/translator/health";
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        File jar = new File(options.getOrDefault("jar", "target/translator-server.jar"));
+        if (!jar.isFile()) {
+            throw new IllegalArgumentException("Server jar not found: " + jar.getAbsolutePath());
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        long maxMillis = Long.parseLong(options.getOrDefault("max-millis", "0"));
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("timeout", "60")));
+        Path workDir = jar.getAbsoluteFile().toPath().resolveSibling("startup-probe");
+        Files.createDirectories(workDir);
+        StartupProbe probe = new StartupProbe(jar, workDir, timeoutMillis);
+        
+        Map<String, long[]> results = new LinkedHashMap<>();
+        results.put("default", probe.launches("default", runs, List.of()));
+        
+        Path archive = workDir.resolve("translator-server.jsa");
+        Files.deleteIfExists(archive);
+        probe.train(archive);
+        if (Files.isRegularFile(archive)) {
+            results.put("appcds", probe.launches("appcds", runs, List.of("-XX:SharedArchiveFile=" + archive)));
+        } else {
+            System.out.println("No AppCDS archive was written, see " + workDir.resolve("train.log"));
+        }
+        
+        System.out.println();
+        System.out.println("Startup to first request (ms)");
+        System.out.printf("%-10s %8s %8s %8s%n", "", "min", "median", "max");
+        for (Map.Entry<String, long[]> result : results.entrySet()) {
+            long[] millis = result.getValue();
+            System.out.printf("%-10s %8d %8d %8d%n", result.getKey(), millis[0], median(millis), millis[millis.length - 1]);
+        }
+        System.out.println();
+        
+        if (options.containsKey("out")) {
+            ObjectNode json = MAPPER.createObjectNode();
+            json.put("java", System.getProperty("java.version"));
+            json.put("processors", Runtime.getRuntime().availableProcessors());
+            for (Map.Entry<String, long[]> result : results.entrySet()) {
+                ObjectNode variant = json.putObject(result.getKey());
+                variant.put("medianMillis", median(result.getValue()));
+                ArrayNode millis = variant.putArray("runs");
+                Arrays.stream(result.getValue()).forEach(millis::add);
+            }
+            Files.writeString(Path.of(options.get("out")), MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(json));
+        }
+        
+        long defaultMedian = median(results.get("default"));
+        if (maxMillis > 0 && defaultMedian > maxMillis) {
+            throw new IllegalStateException("Startup took " + defaultMedian + " ms, over the limit of " + maxMillis + " ms");
+        }
+    }
+    
+    private final File jar;
+    private final Path workDir;
+    private final long timeoutMillis;
+    private final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    
+    private StartupProbe(File jar, Path workDir, long timeoutMillis) {
+        this.jar = jar;
+        this.workDir = workDir;
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    /**
+     * Milliseconds to the first answer of each launch, sorted
+     */
+    private long[] launches(String variant, int runs, List<String> jvmOptions) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = launch(jvmOptions, workDir.resolve(variant + "-" + i + ".log"));
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+    
+    private long launch(List<String> jvmOptions, Path log) throws Exception {
+        int port = freePort();
+        URL health = new URL("http://127.0.0.1:" + port + HEALTH_PATH);
+        long start = System.nanoTime();
+        Process server = start(port, jvmOptions, List.of(), log);
+        try {
+            while (true) {
+                if (answers(health)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                if (!server.isAlive()) {
+                    throw new IllegalStateException("Server exited with " + server.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+                    throw new IllegalStateException("Server did not answer within " + timeoutMillis + " ms, see " + log);
+                }
+                Thread.sleep(5);
+            }
+        } finally {
+            server.destroy();
+            if (!server.waitFor(30, TimeUnit.SECONDS)) {
+                server.destroyForcibly();
+            }
+        }
+    }
+    
+    /**
+     * Run the server with --train, the JVM writing the classes it loaded to archive at exit
+     */
+    private void train(Path archive) throws Exception {
+        Path log = workDir.resolve("train.log");
+        Process server = start(freePort(), List.of("-XX:ArchiveClassesAtExit=" + archive), List.of("--train"), log);
+        if (!server.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            server.destroyForcibly();
+            throw new IllegalStateException("Training run did not finish within " + timeoutMillis + " ms, see " + log);
+        }
+    }
+    
+    private Process start(int port, List<String> jvmOptions, List<String> arguments, Path log) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmOptions);
+        command.add("-Dserver.port=" + port);
+        command.add("-Dserver.host=127.0.0.1");
+        command.add("-Dgemini.warmup.enabled=false");
+        command.add("-Dmemory.dir=" + workDir.resolve("memory"));
+        command.add("-Djobs.dir=" + workDir.resolve("jobs"));
+        command.add("-Dlog.dir=" + workDir.resolve("logs"));
+        command.add("-jar");
+        command.add(jar.getAbsolutePath());
+        command.addAll(arguments);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+    
+    private static boolean answers(URL health) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) health.openConnection();
+            connection.setConnectTimeout(1000);
+            connection.setReadTimeout(5000);
+            try {
+                return connection.getResponseCode() == 200;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            // Not listening yet
+            return false;
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+    
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+}
\ No newline at end of file